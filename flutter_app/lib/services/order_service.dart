@@ -6,6 +6,39 @@ import 'api_service.dart';
 class OrderService {
   final ApiService _apiService = ApiService();
 
+  // As listagens são paginadas por cursor: {orders, size, hasMore, nextCursor}
+  static const int _pageSize = 100;
+  static const int _maxPages = 20;
+
+  // Buscar uma página de pedidos; passe o nextCursor da página anterior para continuar
+  Future<Map<String, dynamic>> getOrdersPage(String path, {int? cursor, int size = _pageSize}) async {
+    final response = await _apiService.dio.get(path, queryParameters: {
+      'size': size,
+      if (cursor != null) 'cursor': cursor,
+    });
+    final data = Map<String, dynamic>.from(response.data);
+    return {
+      'orders': List<Map<String, dynamic>>.from(data['orders'] ?? []),
+      'hasMore': data['hasMore'] == true,
+      'nextCursor': data['nextCursor'],
+    };
+  }
+
+  // Percorrer as páginas seguindo o nextCursor (limitado a _maxPages páginas)
+  Future<List<Map<String, dynamic>>> _getAllPages(String path) async {
+    final orders = <Map<String, dynamic>>[];
+    int? cursor;
+    for (var i = 0; i < _maxPages; i++) {
+      final page = await getOrdersPage(path, cursor: cursor);
+      orders.addAll(page['orders']);
+      if (page['hasMore'] != true || page['nextCursor'] == null) {
+        break;
+      }
+      cursor = (page['nextCursor'] as num).toInt();
+    }
+    return orders;
+  }
+
   // Criar novo pedido
   Future<Map<String, dynamic>> createOrder({
     required int clientId,
@@ -89,8 +122,7 @@ class OrderService {
         return _getSimulatedOrders(clientId);
       }
 
-      final response = await _apiService.dio.get('/api/orders/client/$clientId');
-      return List<Map<String, dynamic>>.from(response.data);
+      return await _getAllPages('/api/orders/client/$clientId');
     } on DioException catch (e) {
       print('Erro ao buscar pedidos do cliente: ${e.message}');
       print('Status: ${e.response?.statusCode}');
@@ -114,8 +146,7 @@ class OrderService {
   // Buscar todos os pedidos (admin)
   Future<List<Map<String, dynamic>>> getAllOrders() async {
     try {
-      final response = await _apiService.dio.get('/api/orders');
-      return List<Map<String, dynamic>>.from(response.data);
+      return await _getAllPages('/api/orders');
     } on DioException catch (e) {
       print('Erro ao buscar todos os pedidos: ${e.message}');
       return [];
@@ -125,8 +156,7 @@ class OrderService {
   // Buscar pedidos disponíveis (para entregadores)
   Future<List<Map<String, dynamic>>> getAvailableOrders() async {
     try {
-      final response = await _apiService.dio.get('/api/orders/available');
-      return List<Map<String, dynamic>>.from(response.data);
+      return await _getAllPages('/api/orders/available');
     } on DioException catch (e) {
       print('Erro ao buscar pedidos disponíveis: ${e.message}');
       return [];
@@ -136,8 +166,7 @@ class OrderService {
   // Buscar pedidos do entregador
   Future<List<Map<String, dynamic>>> getOrdersByDriver(int driverId) async {
     try {
-      final response = await _apiService.dio.get('/api/orders/driver/$driverId');
-      return List<Map<String, dynamic>>.from(response.data);
+      return await _getAllPages('/api/orders/driver/$driverId');
     } on DioException catch (e) {
       print('Erro ao buscar pedidos do entregador: ${e.message}');
       print('Status: ${e.response?.statusCode}');
@@ -1,3 +1,4 @@
+import 'dart:convert';
 import 'package:web_socket_channel/web_socket_channel.dart';
 import 'package:shared_preferences/shared_preferences.dart';
 import 'package:flutter_local_notifications/flutter_local_notifications.dart';
@@ -35,8 +36,8 @@ class WebSocketService {
     if (token == null) return;
     
     final url = userType == 'ENTREGADOR' 
-        ? '$baseUrl/ws/queue/driver/$userId'
-        : '$baseUrl/ws/queue/client/$userId';
+        ? '$baseUrl/ws/topic/driver/$userId'
+        : '$baseUrl/ws/topic/client/$userId';
     
     try {
       _channel = WebSocketChannel.connect(Uri.parse(url));
@@ -63,18 +64,45 @@ class WebSocketService {
   
   void _handleNotification(String message) {
     try {
-      // Parse JSON básico (em produção, use jsonDecode)
-      if (message.contains('NEW_ORDER')) {
-        _showNotification('Novo Pedido', 'Você recebeu um novo pedido!');
-      } else if (message.contains('ORDER_UPDATE')) {
-        _showNotification('Pedido Atualizado', 'Seu pedido foi atualizado');
-      } else if (message.contains('ROUTE_UPDATE')) {
-        _showNotification('Rota Atualizada', 'Sua rota foi atualizada');
+      final payload = jsonDecode(_frameBody(message));
+      if (payload is Map<String, dynamic>) {
+        _handlePayload(payload);
       }
     } catch (e) {
       print('Erro ao processar notificação: $e');
     }
   }
+
+  // Frame STOMP (MESSAGE + cabeçalhos + corpo terminado em \0) ou o JSON puro
+  String _frameBody(String message) {
+    final headerEnd = message.indexOf('\n\n');
+    final body = message.startsWith('MESSAGE') && headerEnd >= 0
+        ? message.substring(headerEnd + 2)
+        : message;
+    return body.replaceAll('\u0000', '').trim();
+  }
+
+  void _handlePayload(Map<String, dynamic> payload) {
+    switch (payload['type']) {
+      case 'BATCH':
+        // rajada agrupada pelo servidor: cada mensagem é tratada como se tivesse chegado sozinha
+        for (final message in (payload['messages'] as List? ?? [])) {
+          if (message is Map<String, dynamic>) {
+            _handlePayload(message);
+          }
+        }
+        break;
+      case 'NEW_ORDER':
+        _showNotification('Novo Pedido', 'Você recebeu um novo pedido!');
+        break;
+      case 'ORDER_UPDATE':
+        _showNotification('Pedido Atualizado', 'Seu pedido foi atualizado');
+        break;
+      case 'ROUTE_UPDATE':
+        _showNotification('Rota Atualizada', 'Sua rota foi atualizada');
+        break;
+    }
+  }
   
   Future<void> _showNotification(String title, String body) async {
     const androidDetails = AndroidNotificationDetails(
@@ -0,0 +1,171 @@
+package com.douradelivery.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache de dois níveis para um tipo de dado: L1 local e L2 remoto opcional (JSON).
+ *
+ * A leitura tenta L1, depois L2 (repovoando o L1) e por fim o loader; valores null
+ * não são guardados.
+ *
+ * Com L2, cada chave tem um carimbo no L2, trocado a cada evict. O get lê o carimbo
+ * antes de tudo; a entrada do L1 e o valor gravado no L2 levam o carimbo lido antes do
+ * loader e só valem enquanto ele for o atual. Um evict em qualquer instância invalida
+ * o L1 de todas, e um leitor que carregou o estado anterior ao commit e gravou depois
+ * do evict deixa só uma entrada já vencida. O custo é uma leitura no L2 por get.
+ *
+ * Regiões com shareValues = false não gravam valores no L2 (dados sensíveis), só o
+ * carimbo.
+ */
+public final class CacheRegion<V> {
+
+    private record Cached<V>(V value, String stamp) {
+    }
+
+    private final String name;
+    private final LocalCache<Cached<V>> local;
+    private final RemoteCache remote;
+    private final boolean shareValues;
+    private final long remoteTtlMillis;
+    private final long stampTtlMillis;
+    private final ObjectMapper objectMapper;
+    private final JavaType type;
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+
+    public CacheRegion(String name, int localMaxEntries, long localTtlMillis, RemoteCache remote, boolean shareValues,
+                       long remoteTtlMillis, ObjectMapper objectMapper, JavaType type, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = new LocalCache<>(localMaxEntries, localTtlMillis);
+        this.remote = remote;
+        this.shareValues = shareValues;
+        this.remoteTtlMillis = remoteTtlMillis;
+        // o carimbo precisa durar mais que qualquer entrada do L1 carregada antes da troca
+        this.stampTtlMillis = Math.max(remoteTtlMillis, localTtlMillis);
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.l1Hits = counter(meterRegistry, "hit", "l1");
+        this.l2Hits = counter(meterRegistry, "hit", "l2");
+        this.misses = counter(meterRegistry, "miss", "none");
+    }
+
+    public V get(Object key, Supplier<V> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * Como get(key, loader), mas só guarda o valor carregado se cacheable aceitar (ex.: respostas de erro)
+     */
+    public V get(Object key, Supplier<V> loader, Predicate<V> cacheable) {
+        String localKey = key.toString();
+        long now = System.currentTimeMillis();
+        // lido antes do loader: um evict durante a carga deixa esta entrada já vencida
+        String stamp = remote != null ? remote.get(stampKey(localKey)) : null;
+        Cached<V> cached = local.get(localKey, now);
+        if (cached != null && Objects.equals(cached.stamp(), stamp)) {
+            l1Hits.increment();
+            return cached.value();
+        }
+
+        V value;
+        if (remote != null && shareValues) {
+            value = decode(remote.get(remoteKey(localKey)), stamp);
+            if (value != null) {
+                l2Hits.increment();
+                local.put(localKey, new Cached<>(value, stamp), now);
+                return value;
+            }
+        }
+
+        misses.increment();
+        value = loader.get();
+        if (value != null && cacheable.test(value)) {
+            local.put(localKey, new Cached<>(value, stamp), now);
+            if (remote != null && shareValues) {
+                String encoded = encode(value, stamp);
+                if (encoded != null) {
+                    remote.put(remoteKey(localKey), encoded, remoteTtlMillis);
+                }
+            }
+        }
+        return value;
+    }
+
+    public void evict(Object key) {
+        String localKey = key.toString();
+        local.invalidate(localKey);
+        if (remote == null) {
+            return;
+        }
+        remote.put(stampKey(localKey), UUID.randomUUID().toString(), stampTtlMillis);
+        if (shareValues) {
+            remote.delete(remoteKey(localKey));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int localSize() {
+        return local.size();
+    }
+
+    private String remoteKey(String key) {
+        return "cache:" + name + ":" + key;
+    }
+
+    private String stampKey(String key) {
+        return "cache-stamp:" + name + ":" + key;
+    }
+
+    // valor no L2: {"stamp": carimbo lido antes do loader, "value": ...}
+    private V decode(String json, String stamp) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            if (!node.has("value") || !Objects.equals(node.path("stamp").textValue(), stamp)) {
+                // gravado antes do último evict
+                return null;
+            }
+            return objectMapper.treeToValue(node.get("value"), type);
+        } catch (JsonProcessingException e) {
+            // formato antigo ou corrompido: trata como miss e sobrescreve
+            return null;
+        }
+    }
+
+    private String encode(V value, String stamp) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("stamp", stamp);
+            node.set("value", objectMapper.valueToTree(value));
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Counter counter(MeterRegistry registry, String result, String level) {
+        return Counter.builder("cache.gets")
+            .tag("cache", name)
+            .tag("result", result)
+            .tag("level", level)
+            .register(registry);
+    }
+}
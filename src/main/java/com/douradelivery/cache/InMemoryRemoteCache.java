@@ -0,0 +1,42 @@
+package com.douradelivery.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Substituto do Redis dentro do processo, para desenvolvimento e testes
+ */
+public final class InMemoryRemoteCache implements RemoteCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(String value, long expiresAtMillis) {
+    }
+
+    @Override
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
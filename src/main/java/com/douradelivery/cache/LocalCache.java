@@ -0,0 +1,68 @@
+package com.douradelivery.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache em memória limitado, com expiração por entrada.
+ *
+ * Ao passar do limite remove primeiro os vencidos e depois entradas quaisquer até
+ * voltar a 90% da capacidade: mais barato que LRU exato e suficiente para leituras
+ * repetidas das mesmas chaves em janelas curtas.
+ */
+public final class LocalCache<V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    public LocalCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(String key, long nowMillis) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= nowMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public void put(String key, V value, long nowMillis) {
+        if (entries.size() >= maxEntries) {
+            evict(nowMillis);
+        }
+        entries.put(key, new Entry<>(value, nowMillis + ttlMillis));
+    }
+
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long nowMillis) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= nowMillis);
+        int target = maxEntries - maxEntries / 10 - 1;
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
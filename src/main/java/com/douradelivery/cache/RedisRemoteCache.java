@@ -0,0 +1,48 @@
+package com.douradelivery.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Segundo nível de cache no Redis; erros viram miss para não derrubar a leitura
+ */
+@Slf4j
+public final class RedisRemoteCache implements RemoteCache {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRemoteCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            log.debug("Redis indisponível na leitura de {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        try {
+            redisTemplate.opsForValue().set(key, value, Duration.ofMillis(ttlMillis));
+        } catch (RuntimeException e) {
+            log.debug("Redis indisponível na escrita de {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            // o valor antigo ainda expira pelo TTL do L2
+            log.warn("Falha ao remover {} do Redis: {}", key, e.getMessage());
+        }
+    }
+}
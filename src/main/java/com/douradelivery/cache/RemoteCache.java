@@ -0,0 +1,16 @@
+package com.douradelivery.cache;
+
+/**
+ * Segundo nível de cache, compartilhado entre instâncias (Redis em produção).
+ *
+ * Falhas do backend devem ser tratadas como miss pela implementação: o cache nunca
+ * pode derrubar a leitura que ele acelera.
+ */
+public interface RemoteCache {
+
+    String get(String key);
+
+    void put(String key, String value, long ttlMillis);
+
+    void delete(String key);
+}
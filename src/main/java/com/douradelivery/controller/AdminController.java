@@ -1,5 +1,8 @@
 package com.douradelivery.controller;
 
+import com.douradelivery.service.EtaService;
+import com.douradelivery.service.OrderStatsService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -8,8 +11,12 @@
 
 @RestController
 @RequestMapping("/api/admin")
+@RequiredArgsConstructor
 public class AdminController {
     
+    private final OrderStatsService orderStatsService;
+    private final EtaService etaService;
+    
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboard() {
         Map<String, Object> dashboard = new HashMap<>();
@@ -20,10 +27,19 @@ public ResponseEntity<Map<String, Object>> getDashboard() {
     
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalOrders", 0);
+        Map<String, Object> stats = new HashMap<>(orderStatsService.getStats());
         stats.put("totalDrivers", 0);
         stats.put("activeRoutes", 0);
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+    
+    // relatório offline: treina com parte das viagens do período e mede o erro nas demais
+    @GetMapping("/eta/accuracy")
+    public ResponseEntity<Map<String, Object>> getEtaAccuracy(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "20") int holdoutPercent,
+            @RequestParam(defaultValue = "200000") int maxPointsPerDriver) {
+        int percent = Math.max(1, Math.min(holdoutPercent, 99));
+        return ResponseEntity.ok(etaService.accuracyReport(Math.max(1, days), percent, maxPointsPerDriver));
+    }
+}
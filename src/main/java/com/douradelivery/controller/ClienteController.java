@@ -1,6 +1,12 @@
 package com.douradelivery.controller;
 
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.service.LiveLocationService;
+import com.douradelivery.websocket.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -8,8 +14,11 @@
 
 @RestController
 @RequestMapping("/api/cliente")
+@RequiredArgsConstructor
 public class ClienteController {
     
+    private final LiveLocationService liveLocationService;
+    
     @PostMapping("/orders")
     public ResponseEntity<Map<String, Object>> createOrder(@RequestBody Map<String, Object> orderData) {
         Map<String, Object> response = new HashMap<>();
@@ -26,4 +35,53 @@ public ResponseEntity<Map<String, Object>> getOrders() {
         response.put("total", 0);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Começa (ou renova) o acompanhamento ao vivo do entregador do pedido.
+     * Os frames LOC chegam em /topic/client/{clientId}; renovar antes de expiresInMs.
+     * O cliente é sempre o usuário do token.
+     */
+    @PostMapping("/orders/{orderId}/tracking")
+    public ResponseEntity<Map<String, Object>> trackOrder(@PathVariable Long orderId,
+                                                          @AuthenticationPrincipal JwtPrincipal principal) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", orderId);
+        Long clientId = principal.userId();
+        
+        switch (liveLocationService.subscribe(orderId, clientId)) {
+            case SUBSCRIBED -> {
+                response.put("message", "Acompanhamento iniciado!");
+                response.put("status", "TRACKING");
+                response.put("destination", NotificationService.clientDestination(clientId));
+                response.put("expiresInMs", liveLocationService.getSubscriptionTtlMs());
+                return ResponseEntity.ok(response);
+            }
+            case FORBIDDEN -> {
+                response.put("message", "Pedido não pertence ao cliente");
+                response.put("status", "FORBIDDEN");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+            }
+            case ORDER_CLOSED -> {
+                response.put("message", "Pedido já foi finalizado");
+                response.put("status", "CLOSED");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            default -> {
+                response.put("message", "Pedido não encontrado");
+                response.put("status", "NOT_FOUND");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+        }
+    }
+    
+    @DeleteMapping("/orders/{orderId}/tracking")
+    public ResponseEntity<Map<String, Object>> stopTracking(@PathVariable Long orderId,
+                                                            @AuthenticationPrincipal JwtPrincipal principal) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", orderId);
+        response.put("message", liveLocationService.unsubscribe(orderId, principal.userId())
+            ? "Acompanhamento encerrado" : "Nenhum acompanhamento ativo");
+        response.put("status", "OK");
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,15 +1,39 @@
 package com.douradelivery.controller;
 
+import com.douradelivery.dto.TelemetryRequest;
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.service.DriverIdentityService;
+import com.douradelivery.service.OrderClaimService;
+import com.douradelivery.service.TelemetryIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/entregador")
+@RequiredArgsConstructor
 public class EntregadorController {
     
+    private final TelemetryIngestionService telemetryIngestionService;
+    private final OrderClaimService orderClaimService;
+    private final DriverIdentityService driverIdentityService;
+    
+    // 1000 pontos com todos os campos cabem em ~61 KB
+    @Value("${tracking.telemetry.max-batch-bytes:65536}")
+    private int maxBatchBytes;
+    
     @GetMapping("/orders")
     public ResponseEntity<Map<String, Object>> getAvailableOrders() {
         Map<String, Object> response = new HashMap<>();
@@ -19,19 +43,116 @@ public ResponseEntity<Map<String, Object>> getAvailableOrders() {
     }
     
     @PostMapping("/orders/{orderId}/accept")
-    public ResponseEntity<Map<String, Object>> acceptOrder(@PathVariable Long orderId) {
+    public ResponseEntity<Map<String, Object>> acceptOrder(@PathVariable Long orderId,
+                                                           @AuthenticationPrincipal JwtPrincipal principal) {
         Map<String, Object> response = new HashMap<>();
-        response.put("message", "Pedido aceito!");
         response.put("orderId", orderId);
-        response.put("status", "ACCEPTED");
-        return ResponseEntity.ok(response);
+        
+        // o entregador é sempre o do token, nunca um id enviado pelo app
+        Optional<Long> driverId = driverIdentityService.driverIdOf(principal);
+        if (driverId.isEmpty()) {
+            return driverNotRegistered(response);
+        }
+        response.put("driverId", driverId.get());
+        
+        switch (orderClaimService.claim(orderId, driverId.get())) {
+            case CLAIMED -> {
+                response.put("message", "Pedido aceito!");
+                response.put("status", "ACCEPTED");
+                return ResponseEntity.ok(response);
+            }
+            case TAKEN -> {
+                response.put("message", "Pedido já foi aceito por outro entregador");
+                response.put("status", "TAKEN");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            case DRIVER_NOT_FOUND -> {
+                return driverNotRegistered(response);
+            }
+            default -> {
+                response.put("message", "Pedido não encontrado");
+                response.put("status", "NOT_FOUND");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+        }
     }
     
     @PostMapping("/telemetry")
-    public ResponseEntity<Map<String, Object>> sendTelemetry(@RequestBody Map<String, Object> telemetryData) {
+    public ResponseEntity<Map<String, Object>> sendTelemetry(@Valid @RequestBody TelemetryRequest request,
+                                                             @AuthenticationPrincipal JwtPrincipal principal) {
         Map<String, Object> response = new HashMap<>();
+        Optional<Long> driverId = driverIdentityService.driverIdOf(principal);
+        if (driverId.isEmpty()) {
+            return driverNotRegistered(response);
+        }
+        boolean accepted;
+        try {
+            accepted = telemetryIngestionService.ingest(driverId.get(), request);
+        } catch (IllegalArgumentException e) {
+            response.put("message", e.getMessage());
+            response.put("status", "INVALID");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (!accepted) {
+            // fila cheia: o app deve reenviar depois
+            response.put("message", "Servidor sobrecarregado, tente novamente");
+            response.put("status", "RETRY");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(response);
+        }
+        
         response.put("message", "Telemetria recebida!");
         response.put("status", "OK");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Lote binário de pontos do entregador autenticado (delta + varint, ver TelemetryBatchCodec);
+     * o driverId do lote precisa ser o do token. O corpo é lido com limite de tamanho:
+     * acima de tracking.telemetry.max-batch-bytes a resposta é 413.
+     */
+    @PostMapping(value = "/telemetry/batch", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, Object>> sendTelemetryBatch(HttpServletRequest request,
+                                                                  @AuthenticationPrincipal JwtPrincipal principal)
+            throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        Optional<Long> driverId = driverIdentityService.driverIdOf(principal);
+        if (driverId.isEmpty()) {
+            return driverNotRegistered(response);
+        }
+        // Content-Length recusa antes de ler; sem ele (chunked), a leitura para no limite
+        byte[] body = request.getContentLengthLong() > maxBatchBytes
+            ? null
+            : request.getInputStream().readNBytes(maxBatchBytes + 1);
+        if (body == null || body.length > maxBatchBytes) {
+            response.put("message", "Lote maior que " + maxBatchBytes + " bytes");
+            response.put("status", "TOO_LARGE");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+        }
+        int[] result;
+        try {
+            result = telemetryIngestionService.ingestBinary(driverId.get(), ByteBuffer.wrap(body));
+        } catch (IllegalArgumentException e) {
+            response.put("message", e.getMessage());
+            response.put("status", "INVALID");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        response.put("received", result[0]);
+        response.put("accepted", result[1]);
+        if (result[1] < result[0]) {
+            // o app reenvia a partir do primeiro ponto não aceito
+            response.put("message", "Servidor sobrecarregado, tente novamente");
+            response.put("status", "RETRY");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(response);
+        }
+        response.put("message", "Telemetria recebida!");
+        response.put("status", "OK");
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> driverNotRegistered(Map<String, Object> response) {
+        response.put("message", "Usuário não possui cadastro de entregador");
+        response.put("status", "FORBIDDEN");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+}
@@ -0,0 +1,148 @@
+package com.douradelivery.controller;
+
+import com.douradelivery.service.FileDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Download dos arquivos enviados, endereçados pelo SHA-256.
+ *
+ * O conteúdo de um hash nunca muda: o ETag é o próprio hash e o navegador pode guardar
+ * a resposta por um ano. Com o armazenamento local o Tomcat envia o arquivo por
+ * sendfile, sem passar pelo heap; sem sendfile, FileChannel.transferTo.
+ */
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class FileController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileDownloadService fileDownloadService;
+
+    @GetMapping("/download/{fileName:.+}")
+    public void download(@PathVariable String fileName,
+                         Authentication authentication,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        boolean admin = authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        FileDownloadService.DownloadableFile file = fileDownloadService.resolve(fileName, authentication.getName(), admin);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + file.hash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // documentos são pessoais: só o cache do navegador, nunca o de proxies
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // tipos fora da lista de exibíveis são baixados, nunca renderizados na origem da API
+        ContentDisposition disposition = (file.inline() ? ContentDisposition.inline() : ContentDisposition.attachment())
+            .filename(fileName)
+            .build();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = file.size();
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // Range malformado é ignorado: responde o arquivo inteiro
+                ranges = List.of();
+            }
+            // vários intervalos (multipart/byteranges) não compensam: segue com o arquivo inteiro
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.mediaType().toString());
+        response.setContentLengthLong(length);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        if (file.localPath() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // o Tomcat escreve o arquivo direto do page cache para o socket ao fim da requisição
+            request.setAttribute(SENDFILE_FILENAME, file.localPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else if (file.localPath() != null) {
+            try (FileChannel channel = FileChannel.open(file.localPath(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = length;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, out);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        } else {
+            try (InputStream in = fileDownloadService.open(file, start, length)) {
+                OutputStream out = response.getOutputStream();
+                StreamUtils.copyRange(in, out, 0, length - 1);
+            }
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,12 +1,20 @@
 package com.douradelivery.controller;
 
+import com.douradelivery.dto.OrderFilter;
+import com.douradelivery.dto.OrderSummary;
 import com.douradelivery.model.Order;
 import com.douradelivery.service.OrderService;
+import com.douradelivery.service.RoutingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,7 +24,12 @@
 @CrossOrigin(origins = "*")
 public class OrderController {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final OrderService orderService;
+    private final RoutingService routingService;
     
     @PostMapping
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
@@ -42,7 +55,7 @@ public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request) {
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Pedido criado com sucesso!",
-                "order", savedOrder
+                "order", OrderSummary.from(savedOrder)
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -54,36 +67,71 @@ public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request) {
     
     @GetMapping("/client/{clientId}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<List<Order>> getOrdersByClient(@PathVariable Long clientId) {
-        List<Order> orders = orderService.getOrdersByClient(clientId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Map<String, Object>> getOrdersByClient(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(page(new OrderFilter(status, clientId, null, null, null), cursor, size));
     }
     
+    /**
+     * Listagem paginada por chave: use nextCursor da resposta para buscar a página seguinte
+     */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Map<String, Object>> getAllOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(page(new OrderFilter(status, clientId, driverId, from, to), cursor, size));
+    }
+    
+    /**
+     * Exportação completa em NDJSON, escrita conforme as linhas chegam do banco
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderFilter filter = new OrderFilter(status, clientId, driverId, from, to);
+        StreamingResponseBody body = out -> orderService.exportOrders(filter, out);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .header("Content-Disposition", "attachment; filename=\"orders.ndjson\"")
+            .body(body);
     }
     
     @GetMapping("/available")
     @PreAuthorize("hasRole('DRIVER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Order>> getAvailableOrders() {
-        List<Order> orders = orderService.getAvailableOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Map<String, Object>> getAvailableOrders(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(page(new OrderFilter(Order.OrderStatus.NEW, null, null, null, null), cursor, size));
     }
     
     @GetMapping("/driver/{driverId}")
     @PreAuthorize("hasRole('DRIVER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Order>> getOrdersByDriver(@PathVariable Long driverId) {
-        List<Order> orders = orderService.getOrdersByDriver(driverId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Map<String, Object>> getOrdersByDriver(
+            @PathVariable Long driverId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(page(new OrderFilter(status, null, driverId, null, null), cursor, size));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
-        return orderService.getOrderById(id)
-            .map(order -> ResponseEntity.ok(order))
+        return orderService.getOrderSummary(id)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -99,7 +147,7 @@ public ResponseEntity<?> updateOrderStatus(
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Status do pedido atualizado com sucesso!",
-                "order", updatedOrder
+                "order", OrderSummary.from(updatedOrder)
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -120,7 +168,7 @@ public ResponseEntity<?> assignDriverToOrder(
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Entregador atribuído ao pedido com sucesso!",
-                "order", updatedOrder
+                "order", OrderSummary.from(updatedOrder)
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -161,6 +209,26 @@ public ResponseEntity<?> getOrderDistance(@PathVariable Long id) {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/eta")
+    public ResponseEntity<?> getOrderEta(@PathVariable Long id) {
+        return routingService.getOrderEta(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private Map<String, Object> page(OrderFilter filter, Long cursor, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<OrderSummary> orders = orderService.getOrderPage(filter, cursor, pageSize);
+        boolean hasMore = orders.size() == pageSize;
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", orders);
+        response.put("size", orders.size());
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? orders.get(orders.size() - 1).getId() : null);
+        return response;
+    }
+    
     // DTO para criação de pedidos
     public static class CreateOrderRequest {
         private Long clientId;
@@ -1,28 +1,57 @@
 package com.douradelivery.controller;
 
+import com.douradelivery.dto.RouteResponse;
+import com.douradelivery.model.Driver;
+import com.douradelivery.service.DriverLocationService;
+import com.douradelivery.service.RoutingService;
+import com.douradelivery.tracking.NearbyDriver;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/routing")
+@RequiredArgsConstructor
 public class RoutingController {
-    
+
+    private final RoutingService routingService;
+    private final DriverLocationService driverLocationService;
+
     @PostMapping("/compute")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> computeRoutes() {
+        return ResponseEntity.ok(routingService.computeRoutes());
+    }
+
+    @GetMapping("/routes")
+    public ResponseEntity<Map<String, Object>> getRoutes() {
+        List<RouteResponse> routes = routingService.getActiveRoutes();
         Map<String, Object> response = new HashMap<>();
-        response.put("message", "Rotas calculadas!");
-        response.put("routes", new Object[0]);
+        response.put("routes", routes);
+        response.put("total", routes.size());
         return ResponseEntity.ok(response);
     }
     
-    @GetMapping("/routes")
-    public ResponseEntity<Map<String, Object>> getRoutes() {
+    @GetMapping("/drivers/nearest")
+    public ResponseEntity<Map<String, Object>> getNearestDrivers(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Driver.VehicleType vehicleType,
+            @RequestParam(defaultValue = "0") double weight,
+            @RequestParam(defaultValue = "0") double volume,
+            @RequestParam(required = false) Double radiusKm) {
+        List<NearbyDriver> drivers = radiusKm != null
+            ? driverLocationService.findWithinRadius(lat, lon, radiusKm, vehicleType, weight, volume)
+            : driverLocationService.findNearest(lat, lon, k, vehicleType, weight, volume);
         Map<String, Object> response = new HashMap<>();
-        response.put("routes", new Object[0]);
-        response.put("total", 0);
+        response.put("drivers", drivers);
+        response.put("total", drivers.size());
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+}
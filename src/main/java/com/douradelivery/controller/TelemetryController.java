@@ -0,0 +1,116 @@
+package com.douradelivery.controller;
+
+import com.douradelivery.model.TelemetryRollup;
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.service.DriverIdentityService;
+import com.douradelivery.service.DriverPositionCache;
+import com.douradelivery.service.TelemetryHistoryService;
+import com.douradelivery.service.TelemetryRollupService;
+import com.douradelivery.tracking.LastKnownPosition;
+import com.douradelivery.tracking.TelemetryPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/telemetry")
+@RequiredArgsConstructor
+public class TelemetryController {
+
+    private static final int MAX_POINTS = 10000;
+    private static final Duration MAX_RAW_WINDOW = Duration.ofDays(1);
+
+    private final TelemetryHistoryService telemetryHistoryService;
+    private final DriverPositionCache driverPositionCache;
+    private final DriverIdentityService driverIdentityService;
+    
+    /**
+     * Última posição de todos os entregadores, num único snapshot
+     */
+    @GetMapping("/positions")
+    public ResponseEntity<Map<String, Object>> getPositions() {
+        DriverPositionCache.Snapshot snapshot = driverPositionCache.snapshot();
+        Map<String, Object> response = new HashMap<>();
+        response.put("generatedAt", snapshot.generatedAtMillis());
+        response.put("positions", snapshot.positions());
+        response.put("total", snapshot.positions().size());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/drivers/{driverId}/position")
+    public ResponseEntity<?> getPosition(@PathVariable Long driverId) {
+        LastKnownPosition position = driverPositionCache.get(driverId);
+        if (position == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(position);
+    }
+
+    /**
+     * Histórico do entregador na janela: resolution = raw, 1m ou 15m. Só o admin ou o
+     * próprio entregador
+     */
+    @GetMapping("/drivers/{driverId}/history")
+    public ResponseEntity<Map<String, Object>> getHistory(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long driverId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "raw") String resolution,
+            @RequestParam(defaultValue = "1000") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (!canReadHistory(principal, driverId)) {
+            response.put("message", "Histórico de outro entregador");
+            response.put("status", "FORBIDDEN");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        if (to.isBefore(from)) {
+            response.put("message", "Período inválido");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        response.put("driverId", driverId);
+        response.put("resolution", resolution);
+        switch (resolution) {
+            case "raw" -> {
+                if (Duration.between(from, to).compareTo(MAX_RAW_WINDOW) > 0) {
+                    response.put("message", "Use 1m ou 15m para períodos maiores que 1 dia");
+                    return ResponseEntity.badRequest().body(response);
+                }
+                List<TelemetryPoint> points = telemetryHistoryService.getRawPoints(
+                    driverId, from, to, Math.min(Math.max(limit, 1), MAX_POINTS));
+                response.put("points", points);
+                response.put("total", points.size());
+            }
+            case "1m", "15m" -> {
+                int seconds = "1m".equals(resolution)
+                    ? TelemetryRollupService.ONE_MINUTE : TelemetryRollupService.FIFTEEN_MINUTES;
+                List<TelemetryRollup> rollups = telemetryHistoryService.getRollups(driverId, seconds, from, to);
+                response.put("points", rollups);
+                response.put("total", rollups.size());
+            }
+            default -> {
+                response.put("message", "Resolução inválida: use raw, 1m ou 15m");
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private boolean canReadHistory(JwtPrincipal principal, Long driverId) {
+        if (principal == null) {
+            return false;
+        }
+        return "ADMIN".equals(principal.userType())
+            || driverIdentityService.driverIdOf(principal).map(driverId::equals).orElse(false);
+    }
+}
@@ -0,0 +1,78 @@
+package com.douradelivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Um micro-lote do despacho automático: pedidos, entregadores candidatos e a atribuição.
+ *
+ * O custo de uma célula é a distância do entregador até a coleta. Cada pedido tem ainda
+ * uma coluna própria de "fica sem entregador" com custo prioridade × penalidade: quando
+ * faltam entregadores, os pedidos de maior prioridade ficam com eles, e nenhum pedido
+ * aceita um entregador mais distante que a sua penalidade.
+ */
+public final class DispatchBatch {
+
+    public record Candidate(long driverId, double distanceKm) {
+    }
+
+    private final double unassignedPenaltyKm;
+    private final List<Long> orderIds = new ArrayList<>();
+    private final List<Double> priorityWeights = new ArrayList<>();
+    private final List<List<Candidate>> candidates = new ArrayList<>();
+
+    public DispatchBatch(double unassignedPenaltyKm) {
+        this.unassignedPenaltyKm = unassignedPenaltyKm;
+    }
+
+    public void addOrder(long orderId, double priorityWeight, List<Candidate> orderCandidates) {
+        orderIds.add(orderId);
+        priorityWeights.add(priorityWeight);
+        candidates.add(orderCandidates);
+    }
+
+    public int size() {
+        return orderIds.size();
+    }
+
+    /**
+     * Pedido -> entregador, um pedido por entregador no lote
+     */
+    public Map<Long, Long> solve() {
+        int n = orderIds.size();
+        Map<Long, Integer> columns = new HashMap<>();
+        List<Long> drivers = new ArrayList<>();
+        for (List<Candidate> orderCandidates : candidates) {
+            for (Candidate candidate : orderCandidates) {
+                if (columns.putIfAbsent(candidate.driverId(), drivers.size()) == null) {
+                    drivers.add(candidate.driverId());
+                }
+            }
+        }
+
+        int m = drivers.size();
+        double[][] cost = new double[n][m + n];
+        for (int i = 0; i < n; i++) {
+            double[] row = cost[i];
+            Arrays.fill(row, HungarianAssignment.FORBIDDEN);
+            for (Candidate candidate : candidates.get(i)) {
+                int column = columns.get(candidate.driverId());
+                row[column] = Math.min(row[column], candidate.distanceKm());
+            }
+            row[m + i] = priorityWeights.get(i) * unassignedPenaltyKm;
+        }
+
+        int[] assignment = HungarianAssignment.solve(cost);
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (assignment[i] >= 0 && assignment[i] < m) {
+                result.put(orderIds.get(i), drivers.get(assignment[i]));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.douradelivery.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (método húngaro com potenciais, O(n² · m)).
+ *
+ * Linhas são pedidos e colunas entregadores, com linhas <= colunas. Células com custo
+ * FORBIDDEN ou acima nunca entram no resultado; para que nenhuma linha seja forçada
+ * a uma célula proibida, o chamador inclui colunas de "não atribuir" (ver DispatchBatch).
+ */
+public final class HungarianAssignment {
+
+    public static final double FORBIDDEN = 1e9;
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Devolve, para cada linha, a coluna atribuída ou -1
+     */
+    public static int[] solve(double[][] cost) {
+        int n = cost.length;
+        int[] result = new int[n];
+        Arrays.fill(result, -1);
+        if (n == 0) {
+            return result;
+        }
+        int m = cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("Mais linhas (" + n + ") que colunas (" + m + ")");
+        }
+
+        // índices a partir de 1; a coluna 0 é a sentinela do caminho aumentante
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int row = rowOfColumn[column];
+                double[] costRow = cost[row - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int next = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double slack = costRow[j - 1] - u[row] - v[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        next = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = next;
+            } while (rowOfColumn[column] != 0);
+
+            do {
+                int previous = way[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        for (int j = 1; j <= m; j++) {
+            int row = rowOfColumn[j];
+            if (row != 0 && cost[row - 1][j - 1] < FORBIDDEN) {
+                result[row - 1] = j - 1;
+            }
+        }
+        return result;
+    }
+}
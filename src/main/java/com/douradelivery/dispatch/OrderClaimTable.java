@@ -0,0 +1,129 @@
+package com.douradelivery.dispatch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela em memória, particionada por pedido, que decide quem tenta aceitar um pedido.
+ *
+ * Só o primeiro entregador segue para o UPDATE condicional no banco; os demais são
+ * recusados sem tocar a linha. Reivindicações pendentes expiram para que uma falha
+ * não bloqueie o pedido, e as resolvidas ficam um tempo para recusar retardatários.
+ * O banco continua sendo a garantia final entre instâncias.
+ */
+public final class OrderClaimTable {
+
+    public static final long NO_WINNER = -1L;
+
+    private final Map<Long, Claim>[] shards;
+    private final int mask;
+    private final long pendingTtlMillis;
+    private final long resolvedTtlMillis;
+
+    /**
+     * Reivindicação de um pedido; comparada por identidade
+     */
+    public static final class Claim {
+        private final long driverId;
+        private final boolean resolved;
+        private final long expiresAtMillis;
+
+        private Claim(long driverId, boolean resolved, long expiresAtMillis) {
+            this.driverId = driverId;
+            this.resolved = resolved;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public long getDriverId() {
+            return driverId;
+        }
+
+        public boolean isResolved() {
+            return resolved;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public OrderClaimTable(int shardCount, long pendingTtlMillis, long resolvedTtlMillis) {
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Map[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = size - 1;
+        this.pendingTtlMillis = pendingTtlMillis;
+        this.resolvedTtlMillis = resolvedTtlMillis;
+    }
+
+    /**
+     * Tenta reservar o pedido; devolve a reivindicação do chamador ou null se outra estiver vigente
+     */
+    public Claim tryAcquire(long orderId, long driverId, long nowMillis) {
+        Claim mine = new Claim(driverId, false, nowMillis + pendingTtlMillis);
+        Map<Long, Claim> shard = shard(orderId);
+        Claim current = shard.putIfAbsent(orderId, mine);
+        if (current == null) {
+            return mine;
+        }
+        if (current.expiresAtMillis > nowMillis) {
+            return null;
+        }
+        Claim result = shard.compute(orderId, (id, existing) ->
+            existing != null && existing.expiresAtMillis > nowMillis ? existing : mine);
+        return result == mine ? result : null;
+    }
+
+    /**
+     * Reivindicação vigente do pedido, se houver
+     */
+    public Claim current(long orderId, long nowMillis) {
+        Claim claim = shard(orderId).get(orderId);
+        return claim != null && claim.expiresAtMillis > nowMillis ? claim : null;
+    }
+
+    /**
+     * Registra o resultado no banco; winnerDriverId = NO_WINNER se o pedido não estava mais disponível
+     */
+    public void resolve(long orderId, Claim claim, long winnerDriverId, long nowMillis) {
+        shard(orderId).replace(orderId, claim, new Claim(winnerDriverId, true, nowMillis + resolvedTtlMillis));
+    }
+
+    /**
+     * Libera uma reivindicação pendente (ex.: erro no banco) para que outro possa tentar
+     */
+    public void release(long orderId, Claim claim) {
+        shard(orderId).remove(orderId, claim);
+    }
+
+    /**
+     * Esquece o pedido (ex.: voltou a NEW depois de um cancelamento da atribuição)
+     */
+    public void forget(long orderId) {
+        shard(orderId).remove(orderId);
+    }
+
+    public int purgeExpired(long nowMillis) {
+        int removed = 0;
+        for (Map<Long, Claim> shard : shards) {
+            for (Map.Entry<Long, Claim> entry : shard.entrySet()) {
+                if (entry.getValue().expiresAtMillis <= nowMillis && shard.remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Long, Claim> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private Map<Long, Claim> shard(long orderId) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 32) & mask];
+    }
+}
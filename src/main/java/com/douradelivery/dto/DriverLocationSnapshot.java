@@ -0,0 +1,28 @@
+package com.douradelivery.dto;
+
+import com.douradelivery.model.Driver;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de um entregador lido pela ressincronização do índice espacial, sem carregar a entidade
+ */
+public record DriverLocationSnapshot(long id,
+                                     double currentLat,
+                                     double currentLon,
+                                     Driver.VehicleType vehicleType,
+                                     boolean available,
+                                     double capacityWeight,
+                                     double capacityVolume,
+                                     LocalDateTime lastSeenAt,
+                                     double usedWeight,
+                                     double usedVolume) {
+
+    public double remainingWeight() {
+        return Math.max(0, capacityWeight - usedWeight);
+    }
+
+    public double remainingVolume() {
+        return Math.max(0, capacityVolume - usedVolume);
+    }
+}
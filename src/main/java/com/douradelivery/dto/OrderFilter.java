@@ -0,0 +1,15 @@
+package com.douradelivery.dto;
+
+import com.douradelivery.model.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais das listagens de pedidos (null = sem filtro); período sobre createdAt, fim exclusivo
+ */
+public record OrderFilter(Order.OrderStatus status,
+                          Long clientId,
+                          Long driverId,
+                          LocalDateTime from,
+                          LocalDateTime to) {
+}
@@ -0,0 +1,54 @@
+package com.douradelivery.dto;
+
+import com.douradelivery.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Visão plana de um pedido para listagens e exportação (sem grafos de entidades)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private Long clientId;
+    private Order.OrderStatus status;
+    private Order.Priority priority;
+    private Double originLat;
+    private Double originLon;
+    private Double destinationLat;
+    private Double destinationLon;
+    private String originAddress;
+    private String destinationAddress;
+    private Double weight;
+    private Double volume;
+    private Long driverId;
+    private Long routeId;
+    private LocalDateTime timeWindowStart;
+    private LocalDateTime timeWindowEnd;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime deliveredAt;
+    
+    /**
+     * Converte uma entidade já carregada; usa só os ids das associações, sem inicializá-las
+     */
+    public static OrderSummary from(Order order) {
+        return new OrderSummary(order.getId(),
+            order.getClient() != null ? order.getClient().getId() : null,
+            order.getStatus(), order.getPriority(),
+            order.getOriginLat(), order.getOriginLon(), order.getDestinationLat(), order.getDestinationLon(),
+            order.getOriginAddress(), order.getDestinationAddress(),
+            order.getWeight(), order.getVolume(),
+            order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null,
+            order.getRoute() != null ? order.getRoute().getId() : null,
+            order.getTimeWindowStart(), order.getTimeWindowEnd(),
+            order.getCreatedAt(), order.getUpdatedAt(), order.getDeliveredAt());
+    }
+}
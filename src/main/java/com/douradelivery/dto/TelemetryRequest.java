@@ -1,19 +1,35 @@
 package com.douradelivery.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 
 @Data
 public class TelemetryRequest {
     
     @NotNull(message = "Latitude é obrigatória")
+    @DecimalMin(value = "-90.0", message = "Latitude inválida")
+    @DecimalMax(value = "90.0", message = "Latitude inválida")
     private Double lat;
     
     @NotNull(message = "Longitude é obrigatória")
+    @DecimalMin(value = "-180.0", message = "Longitude inválida")
+    @DecimalMax(value = "180.0", message = "Longitude inválida")
     private Double lon;
     
+    @PositiveOrZero(message = "Velocidade inválida")
     private Double speed;
+    
+    @DecimalMin(value = "0.0", message = "Direção inválida")
+    @DecimalMax(value = "360.0", message = "Direção inválida")
     private Double heading;
+    
+    @PositiveOrZero(message = "Precisão inválida")
     private Double accuracy;
+    
+    // epoch millis do dispositivo; se ausente usa o horário de recebimento.
+    // O entregador não vem no corpo: é sempre o do token
+    private Long timestamp;
 }
-
@@ -0,0 +1,19 @@
+package com.douradelivery.dto;
+
+import com.douradelivery.model.User;
+
+/**
+ * Dados de um usuário ativo necessários ao login, sem o grafo da entidade
+ */
+public record UserAccount(Long id,
+                          String name,
+                          String email,
+                          String passwordHash,
+                          User.UserType userType,
+                          User.VerificationStatus verificationStatus) {
+
+    public static UserAccount from(User user) {
+        return new UserAccount(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+                               user.getUserType(), user.getVerificationStatus());
+    }
+}
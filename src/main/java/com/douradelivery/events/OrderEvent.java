@@ -0,0 +1,59 @@
+package com.douradelivery.events;
+
+import com.douradelivery.model.Order;
+
+/**
+ * Evento do ciclo de vida de um pedido, autocontido para que os consumidores não
+ * precisem recarregar o pedido do banco.
+ *
+ * eventId é o id da linha no outbox (0 antes de ser gravado) e serve para
+ * descartar reentregas; a ordem só é garantida entre eventos do mesmo pedido.
+ */
+public record OrderEvent(long eventId,
+                         Type type,
+                         Long orderId,
+                         Long clientId,
+                         Order.OrderStatus status,
+                         Order.OrderStatus previousStatus,
+                         Long driverId,
+                         Long previousDriverId,
+                         Long routeId,
+                         Order.Priority priority,
+                         double originLat,
+                         double originLon,
+                         double destinationLat,
+                         double destinationLon,
+                         double weight,
+                         double volume,
+                         long occurredAtMillis) {
+
+    public enum Type {
+        CREATED, ASSIGNED, STATUS_CHANGED, DELETED
+    }
+
+    public static OrderEvent of(Type type, Order order, Order.OrderStatus previousStatus, Long previousDriverId) {
+        return new OrderEvent(0L, type, order.getId(),
+            order.getClient() != null ? order.getClient().getId() : null,
+            order.getStatus(), previousStatus,
+            order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null,
+            previousDriverId,
+            order.getRoute() != null ? order.getRoute().getId() : null,
+            order.getPriority(),
+            order.getOriginLat(), order.getOriginLon(), order.getDestinationLat(), order.getDestinationLon(),
+            order.getWeight(), order.getVolume(),
+            System.currentTimeMillis());
+    }
+
+    public OrderEvent withEventId(long id) {
+        return new OrderEvent(id, type, orderId, clientId, status, previousStatus, driverId, previousDriverId,
+            routeId, priority, originLat, originLon, destinationLat, destinationLon, weight, volume,
+            occurredAtMillis);
+    }
+
+    /**
+     * Entregador passou a ser outro (inclui primeira atribuição)
+     */
+    public boolean driverChanged() {
+        return driverId != null && !driverId.equals(previousDriverId);
+    }
+}
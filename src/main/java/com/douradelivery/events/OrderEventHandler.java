@@ -0,0 +1,21 @@
+package com.douradelivery.events;
+
+/**
+ * Consumidor dos eventos de pedido publicados pelo relay do outbox.
+ *
+ * A entrega é "pelo menos uma vez" e ordenada por pedido: implementações devem
+ * tolerar eventos repetidos (ver OrderEvent.eventId). Uma exceção faz o evento ser
+ * entregue de novo a este handler.
+ */
+public interface OrderEventHandler {
+
+    void onOrderEvent(OrderEvent event);
+
+    /**
+     * Handlers com estado em memória (cercas, assinaturas, contadores) precisam receber
+     * todos os eventos em todas as instâncias; os demais dividem os eventos entre elas.
+     */
+    default boolean perInstance() {
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.douradelivery.events;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Tópico dos eventos de pedido, criado na subida quando o transporte é Kafka.
+ *
+ * Evento que um handler não consegue processar é reentregue algumas vezes e, esgotadas
+ * as tentativas, vai para o tópico "<tópico>.DLT" (mesma partição) em vez de sumir.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.transport", havingValue = "kafka")
+public class OrderEventKafkaConfig {
+
+    @Bean
+    public NewTopic orderEventsTopic(@Value("${events.kafka.topic:order-events}") String topic,
+                                     @Value("${events.kafka.partitions:12}") int partitions,
+                                     @Value("${events.kafka.replicas:1}") int replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public NewTopic orderEventsDeadLetterTopic(@Value("${events.kafka.topic:order-events}") String topic,
+                                               @Value("${events.kafka.partitions:12}") int partitions,
+                                               @Value("${events.kafka.replicas:1}") int replicas) {
+        return TopicBuilder.name(topic + ".DLT").partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public CommonErrorHandler orderEventErrorHandler(KafkaTemplate<String, String> kafkaTemplate,
+                                                     @Value("${events.kafka.retry-backoff-ms:1000}") long backoffMs,
+                                                     @Value("${events.kafka.retry-attempts:5}") long attempts) {
+        return new DefaultErrorHandler(new DeadLetterPublishingRecoverer(kafkaTemplate),
+                                       new FixedBackOff(backoffMs, attempts));
+    }
+}
@@ -0,0 +1,14 @@
+package com.douradelivery.events;
+
+import java.util.List;
+
+/**
+ * Transporte usado pelo relay do outbox (Kafka ou barramento em memória).
+ *
+ * Deve retornar só depois que o lote foi aceito pelo transporte; uma exceção faz o
+ * relay tentar o mesmo lote de novo no próximo ciclo.
+ */
+public interface OrderEventPublisher {
+
+    void publish(List<OrderEvent> events);
+}
@@ -0,0 +1,35 @@
+package com.douradelivery.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Contagem de referências de um blob do armazenamento endereçado por conteúdo
+ */
+@Entity
+@Table(name = "blobs",
+       indexes = @Index(name = "idx_blobs_unreferenced", columnList = "ref_count, updated_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Blob {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // SHA-256 em hexadecimal
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt; // última mudança na contagem
+}
@@ -41,6 +41,22 @@ public class Document {
     @JoinColumn(name = "reviewed_by")
     private User reviewedBy;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 em hexadecimal
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "normalized_hash", length = 64)
+    private String normalizedHash; // blobs gerados pelo processamento
+
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", length = 16)
+    private ProcessingStatus processingStatus = ProcessingStatus.PENDING;
+
     // Constructors
     public Document() {
         this.submittedAt = LocalDateTime.now();
@@ -135,6 +151,46 @@ public void setReviewedBy(User reviewedBy) {
         this.reviewedBy = reviewedBy;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getNormalizedHash() {
+        return normalizedHash;
+    }
+
+    public void setNormalizedHash(String normalizedHash) {
+        this.normalizedHash = normalizedHash;
+    }
+
+    public String getThumbnailHash() {
+        return thumbnailHash;
+    }
+
+    public void setThumbnailHash(String thumbnailHash) {
+        this.thumbnailHash = thumbnailHash;
+    }
+
+    public ProcessingStatus getProcessingStatus() {
+        return processingStatus;
+    }
+
+    public void setProcessingStatus(ProcessingStatus processingStatus) {
+        this.processingStatus = processingStatus;
+    }
+
     // Enums
     public enum DocumentType {
         CPF("CPF/RG"),
@@ -168,4 +224,9 @@ public String getDisplayName() {
             return displayName;
         }
     }
+
+    // Processamento da imagem (miniatura e normalização) fora da requisição
+    public enum ProcessingStatus {
+        PENDING, DONE, SKIPPED, FAILED
+    }
 }
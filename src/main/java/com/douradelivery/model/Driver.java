@@ -19,7 +19,7 @@ public class Driver {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
     
@@ -49,6 +49,17 @@ public class Driver {
     
     private LocalDateTime lastSeenAt;
     
+    // Carga dos pedidos em aberto, mantida por DriverRepository.adjustLoad e pela reconciliação;
+    // nunca é gravada pelo save da entidade para não sobrescrever incrementos concorrentes
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "double default 0")
+    private double usedWeight;
+    
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "double default 0")
+    private double usedVolume;
+    
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "int default 0")
+    private int activeOrders;
+    
     @OneToMany(mappedBy = "assignedDriver", cascade = CascadeType.ALL)
     @Builder.Default
     private List<Order> assignedOrders = new ArrayList<>();
@@ -79,24 +90,16 @@ public enum VehicleType {
     }
     
     public double getCurrentUsedWeight() {
-        return assignedOrders.stream()
-                .filter(o -> o.getStatus() != Order.OrderStatus.DELIVERED 
-                          && o.getStatus() != Order.OrderStatus.CANCELED)
-                .mapToDouble(Order::getWeight)
-                .sum();
+        return usedWeight;
     }
     
     public double getCurrentUsedVolume() {
-        return assignedOrders.stream()
-                .filter(o -> o.getStatus() != Order.OrderStatus.DELIVERED 
-                          && o.getStatus() != Order.OrderStatus.CANCELED)
-                .mapToDouble(Order::getVolume)
-                .sum();
+        return usedVolume;
     }
     
     public boolean hasCapacity(double weight, double volume) {
-        return (getCurrentUsedWeight() + weight <= capacityWeight) &&
-               (getCurrentUsedVolume() + volume <= capacityVolume);
+        return (usedWeight + weight <= capacityWeight) &&
+               (usedVolume + volume <= capacityVolume);
     }
 }
 
@@ -17,7 +17,7 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private User client;
     
@@ -56,16 +56,21 @@ public class Order {
     @Builder.Default
     private OrderStatus status = OrderStatus.NEW;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id")
     private Driver assignedDriver;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "route_id")
     private Route route;
     
     private String description;
     
+    // bloqueio otimista: escritas concorrentes sobre o mesmo pedido falham em vez de se sobrescreverem
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -85,7 +90,17 @@ protected void onUpdate() {
     }
     
     public enum Priority {
-        LOW, NORMAL, HIGH, EXPRESS
+        LOW(1.0), NORMAL(2.0), HIGH(4.0), EXPRESS(8.0);
+        
+        private final double weight; // peso na otimização de rotas e no despacho automático
+        
+        Priority(double weight) {
+            this.weight = weight;
+        }
+        
+        public double getWeight() {
+            return weight;
+        }
     }
     
     public enum OrderStatus {
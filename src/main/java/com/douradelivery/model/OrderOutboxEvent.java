@@ -0,0 +1,41 @@
+package com.douradelivery.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de pedido gravado na mesma transação da alteração, aguardando o relay
+ */
+@Entity
+@Table(name = "order_outbox",
+       indexes = @Index(name = "idx_order_outbox_pending", columnList = "published_at, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // OrderEvent em JSON
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil; // reservado por um relay até este instante
+}
@@ -0,0 +1,42 @@
+package com.douradelivery.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Totais de velocidade observada numa célula da grade e hora da semana (perfis de ETA)
+ */
+@Entity
+@Table(name = "speed_profiles",
+       uniqueConstraints = @UniqueConstraint(name = "uk_speed_profile_cell_hour",
+                                             columnNames = {"cell_key", "hour_of_week"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpeedProfileCell {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "cell_key", nullable = false)
+    private long cellKey;
+    
+    @Column(name = "hour_of_week", nullable = false)
+    private int hourOfWeek; // 0 = segunda 00h
+    
+    @Column(nullable = false)
+    private double distanceKm;
+    
+    @Column(nullable = false)
+    private double durationSeconds;
+    
+    @Column(nullable = false)
+    private double samples; // decai junto com os totais
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
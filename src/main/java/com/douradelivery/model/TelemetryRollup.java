@@ -0,0 +1,57 @@
+package com.douradelivery.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Telemetria agregada por entregador em janelas de 1 e 15 minutos
+ */
+@Entity
+@Table(name = "telemetry_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_telemetry_rollup_bucket",
+                                             columnNames = {"driver_id", "resolution_seconds", "bucket_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TelemetryRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+    
+    @Column(name = "resolution_seconds", nullable = false)
+    private int resolutionSeconds;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private int pointCount;
+    
+    @Column(nullable = false)
+    private double speedSum; // soma das velocidades informadas, em km/h
+    
+    @Column(nullable = false)
+    private int speedCount;
+    
+    private Double maxSpeed; // em km/h
+    
+    @Column(nullable = false)
+    private double lastLat;
+    
+    @Column(nullable = false)
+    private double lastLon;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastTimestamp;
+    
+    public Double getAverageSpeed() {
+        return speedCount == 0 ? null : speedSum / speedCount;
+    }
+}
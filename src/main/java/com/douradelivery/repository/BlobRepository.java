@@ -0,0 +1,51 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.model.Blob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobRepository extends JpaRepository<Blob, String> {
+
+    // cria com uma referência ou soma mais uma; trava a linha até o fim da transação
+    @Modifying
+    @Query(value = "INSERT INTO blobs (hash, size, ref_count, created_at, updated_at) " +
+                   "VALUES (:hash, :size, 1, :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = :now",
+           nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    // upload do mesmo conteúdo: adia a remoção de um blob sem referências pela carência
+    @Modifying
+    @Query("UPDATE Blob b SET b.updatedAt = :now WHERE b.hash = :hash")
+    int touch(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Blob b SET b.refCount = b.refCount - 1, b.updatedAt = :now WHERE b.hash = :hash AND b.refCount > 0")
+    int release(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // blob encontrado no armazenamento sem linha no banco: entra com zero referências
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO blobs (hash, size, ref_count, created_at, updated_at) " +
+                   "VALUES (:hash, :size, 0, :now, :now)",
+           nativeQuery = true)
+    int registerOrphan(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.hash FROM Blob b WHERE b.refCount = 0 AND b.updatedAt < :cutoff ORDER BY b.updatedAt")
+    List<String> findUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // FOR UPDATE: um upload do mesmo conteúdo espera a remoção terminar e grava o blob de novo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Blob b WHERE b.hash = :hash AND b.refCount = 0 AND b.updatedAt < :cutoff")
+    Optional<Blob> lockUnreferenced(@Param("hash") String hash, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -4,10 +4,13 @@
 import com.douradelivery.model.Document.DocumentStatus;
 import com.douradelivery.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +39,23 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByUserIdOrderBySubmittedAtDesc(@Param("userId") Long userId);
     
     Optional<Document> findFirstByUserOrderBySubmittedAtDesc(User user);
+    
+    // documentos que ficaram sem processamento (fila cheia ou reinício da aplicação)
+    @Query("SELECT d.id FROM Document d WHERE d.processingStatus = 'PENDING' AND d.submittedAt < :before")
+    List<Long> findPendingProcessingIds(@Param("before") LocalDateTime before);
+    
+    // o arquivo (original, normalizado ou miniatura) pertence a algum documento do usuário
+    @Query("SELECT COUNT(d) > 0 FROM Document d WHERE d.user.email = :email AND " +
+           "(d.contentHash = :hash OR d.normalizedHash = :hash OR d.thumbnailHash = :hash)")
+    boolean existsByOwnerEmailAndHash(@Param("email") String email, @Param("hash") String hash);
+    
+    // só conclui se o documento ainda existe e não foi processado por outra execução
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.processingStatus = :status, d.normalizedHash = :normalizedHash, " +
+           "d.thumbnailHash = :thumbnailHash WHERE d.id = :id AND d.processingStatus = 'PENDING'")
+    int completeProcessing(@Param("id") Long id,
+                           @Param("status") Document.ProcessingStatus status,
+                           @Param("normalizedHash") String normalizedHash,
+                           @Param("thumbnailHash") String thumbnailHash);
 }
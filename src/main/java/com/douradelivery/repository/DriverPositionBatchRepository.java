@@ -0,0 +1,35 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.tracking.LastKnownPosition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+/**
+ * Atualização em lote de current_lat/current_lon/last_seen_at sem carregar as entidades Driver
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverPositionBatchRepository {
+
+    // não sobrescreve uma posição mais nova gravada por outra instância
+    private static final String UPDATE =
+        "UPDATE drivers SET current_lat = ?, current_lon = ?, last_seen_at = ? " +
+        "WHERE id = ? AND (last_seen_at IS NULL OR last_seen_at <= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updatePositions(Collection<LastKnownPosition> positions) {
+        jdbcTemplate.batchUpdate(UPDATE, positions, 500, (ps, position) -> {
+            Timestamp seenAt = new Timestamp(position.timestampMillis());
+            ps.setDouble(1, position.lat());
+            ps.setDouble(2, position.lon());
+            ps.setTimestamp(3, seenAt);
+            ps.setLong(4, position.driverId());
+            ps.setTimestamp(5, seenAt);
+        });
+    }
+}
@@ -1,7 +1,12 @@
 package com.douradelivery.repository;
 
+import com.douradelivery.dto.DriverLocationSnapshot;
 import com.douradelivery.model.Driver;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,8 +14,34 @@
 
 @Repository
 public interface DriverRepository extends JpaRepository<Driver, Long> {
+    @EntityGraph(attributePaths = "user")
     List<Driver> findByAvailableTrue();
     Optional<Driver> findByUserId(Long userId);
     List<Driver> findByVehicleType(Driver.VehicleType vehicleType);
+    
+    @Query("SELECT new com.douradelivery.dto.DriverLocationSnapshot(d.id, d.currentLat, d.currentLon, " +
+           "d.vehicleType, d.available, d.capacityWeight, d.capacityVolume, d.lastSeenAt, d.usedWeight, " +
+           "d.usedVolume) FROM Driver d")
+    List<DriverLocationSnapshot> findLocationSnapshots();
+    
+    // incremento relativo executado pelo banco: atômico mesmo com atribuições concorrentes
+    @Modifying
+    @Query("UPDATE Driver d SET d.usedWeight = d.usedWeight + :weight, d.usedVolume = d.usedVolume + :volume, " +
+           "d.activeOrders = d.activeOrders + :orders WHERE d.id = :driverId")
+    int adjustLoad(@Param("driverId") Long driverId, @Param("weight") double weight,
+                   @Param("volume") double volume, @Param("orders") int orders);
+    
+    // recalcula os contadores a partir dos pedidos em aberto; devolve quantos entregadores divergiam
+    @Modifying
+    @Query(value = "UPDATE drivers d LEFT JOIN (" +
+                   "SELECT driver_id, SUM(weight) AS w, SUM(volume) AS v, COUNT(*) AS c FROM orders " +
+                   "WHERE driver_id IS NOT NULL AND status NOT IN ('DELIVERED', 'CANCELED') GROUP BY driver_id" +
+                   ") l ON l.driver_id = d.id " +
+                   "SET d.used_weight = COALESCE(l.w, 0), d.used_volume = COALESCE(l.v, 0), " +
+                   "d.active_orders = COALESCE(l.c, 0) " +
+                   "WHERE ABS(d.used_weight - COALESCE(l.w, 0)) > 1e-6 OR ABS(d.used_volume - COALESCE(l.v, 0)) > 1e-6 " +
+                   "OR d.active_orders <> COALESCE(l.c, 0)",
+           nativeQuery = true)
+    int reconcileLoad();
 }
 
@@ -0,0 +1,45 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.model.OrderOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+    
+    // pendentes sem reserva válida, em ordem de id; pula os pedidos que ainda têm evento reservado
+    // por outro relay, para que os eventos de um pedido nunca sejam publicados fora de ordem.
+    // FOR UPDATE só dura a transação curta da reserva, não o envio ao transporte.
+    @Query(value = "SELECT * FROM order_outbox o WHERE o.published_at IS NULL " +
+                   "AND (o.claimed_until IS NULL OR o.claimed_until < :now) " +
+                   "AND o.order_id NOT IN (SELECT c.order_id FROM order_outbox c " +
+                   "WHERE c.published_at IS NULL AND c.claimed_until >= :now) " +
+                   "ORDER BY o.id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<OrderOutboxEvent> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.claimedUntil = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+    
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids AND e.publishedAt IS NULL")
+    int releaseClaims(@Param("ids") List<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.publishedAt = :now WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Query("SELECT COUNT(e) FROM OrderOutboxEvent e WHERE e.publishedAt IS NULL")
+    long countPending();
+}
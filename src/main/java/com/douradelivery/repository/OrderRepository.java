@@ -1,17 +1,86 @@
 package com.douradelivery.repository;
 
+import com.douradelivery.dto.OrderSummary;
 import com.douradelivery.model.Order;
 import com.douradelivery.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    
+    String SUMMARY_SELECT =
+        "SELECT new com.douradelivery.dto.OrderSummary(o.id, c.id, o.status, o.priority, " +
+        "o.originLat, o.originLon, o.destinationLat, o.destinationLon, o.originAddress, o.destinationAddress, " +
+        "o.weight, o.volume, d.id, r.id, o.timeWindowStart, o.timeWindowEnd, o.createdAt, o.updatedAt, o.deliveredAt) " +
+        "FROM Order o JOIN o.client c LEFT JOIN o.assignedDriver d LEFT JOIN o.route r ";
+    
+    String SUMMARY_FILTER =
+        "(:status IS NULL OR o.status = :status) " +
+        "AND (:clientId IS NULL OR c.id = :clientId) " +
+        "AND (:driverId IS NULL OR d.id = :driverId) " +
+        "AND (:from IS NULL OR o.createdAt >= :from) " +
+        "AND (:to IS NULL OR o.createdAt < :to) ";
+    
     List<Order> findByClient(User client);
     List<Order> findByStatus(Order.OrderStatus status);
+    
+    // pedidos NEW sem entregador, mais antigos primeiro (varredura do despacho automático)
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'NEW' AND o.assignedDriver IS NULL AND o.createdAt < :before ORDER BY o.id")
+    List<Long> findUnassignedIds(@Param("before") LocalDateTime before, Pageable pageable);
     List<Order> findByAssignedDriverId(Long driverId);
+    
+    // pedidos ASSIGNED do entregador fora de uma rota dele (atribuição avulsa ou vindos de outro entregador)
+    @Query("SELECT o FROM Order o LEFT JOIN o.route r WHERE o.assignedDriver.id = :driverId " +
+           "AND o.status = 'ASSIGNED' AND (r IS NULL OR r.driver.id <> :driverId) ORDER BY o.id")
+    List<Order> findAssignedOutsideRoute(@Param("driverId") Long driverId);
     List<Order> findByStatusIn(List<Order.OrderStatus> statuses);
+    
+    // status, quantidade
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupedByStatus();
+    
+    // aceite atômico: só um UPDATE encontra o pedido ainda em NEW
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE orders SET status = 'ASSIGNED', driver_id = :driverId, version = version + 1, " +
+                   "updated_at = :now WHERE id = :orderId AND status = 'NEW'", nativeQuery = true)
+    int claimIfNew(@Param("orderId") Long orderId, @Param("driverId") Long driverId,
+                   @Param("now") LocalDateTime now);
+    
+    @Query(SUMMARY_SELECT + "WHERE o.id = :id")
+    Optional<OrderSummary> findSummaryById(@Param("id") Long id);
+    
+    // paginação por chave: próxima página = ids menores que o último da anterior
+    @Query(SUMMARY_SELECT + "WHERE (:cursor IS NULL OR o.id < :cursor) AND " + SUMMARY_FILTER + "ORDER BY o.id DESC")
+    List<OrderSummary> findSummaryPage(@Param("cursor") Long cursor,
+                                       @Param("status") Order.OrderStatus status,
+                                       @Param("clientId") Long clientId,
+                                       @Param("driverId") Long driverId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+    
+    // fetch size MIN_VALUE faz o driver MySQL trazer as linhas conforme o cursor avança
+    @Query(SUMMARY_SELECT + "WHERE " + SUMMARY_FILTER + "ORDER BY o.id DESC")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderSummary> streamSummaries(@Param("status") Order.OrderStatus status,
+                                         @Param("clientId") Long clientId,
+                                         @Param("driverId") Long driverId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
 }
-
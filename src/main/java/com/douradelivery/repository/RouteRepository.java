@@ -2,15 +2,25 @@
 
 import com.douradelivery.model.Route;
 import com.douradelivery.model.Driver;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RouteRepository extends JpaRepository<Route, Long> {
     List<Route> findByDriver(Driver driver);
     List<Route> findByStatus(Route.RouteStatus status);
     List<Route> findByDriverId(Long driverId);
+    
+    // entregador, usuário e pedidos numa única consulta para montar RouteResponse
+    @EntityGraph(attributePaths = {"driver", "driver.user", "orders"})
+    List<Route> findByStatusIn(List<Route.RouteStatus> statuses);
+    
+    // rota ativa mais recente do entregador, com os pedidos, para o ajuste incremental
+    @EntityGraph(attributePaths = {"driver", "orders"})
+    Optional<Route> findFirstByDriverIdAndStatusInOrderByIdDesc(Long driverId, List<Route.RouteStatus> statuses);
 }
 
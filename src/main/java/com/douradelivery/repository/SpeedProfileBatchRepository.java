@@ -0,0 +1,39 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.routing.SpeedProfile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Upsert em lote dos totais de velocidade: cada rodada da agregação soma ao que já existe
+ */
+@Repository
+@RequiredArgsConstructor
+public class SpeedProfileBatchRepository {
+
+    private static final String UPSERT =
+        "INSERT INTO speed_profiles (cell_key, hour_of_week, distance_km, duration_seconds, samples, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+        "distance_km = distance_km + VALUES(distance_km), " +
+        "duration_seconds = duration_seconds + VALUES(duration_seconds), " +
+        "samples = samples + VALUES(samples), " +
+        "updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsertAll(List<SpeedProfile.Sample> samples) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(UPSERT, samples, 500, (ps, sample) -> {
+            ps.setLong(1, sample.cell());
+            ps.setInt(2, sample.hourOfWeek());
+            ps.setDouble(3, sample.distanceKm());
+            ps.setDouble(4, sample.seconds());
+            ps.setDouble(5, sample.samples());
+            ps.setTimestamp(6, now);
+        });
+    }
+}
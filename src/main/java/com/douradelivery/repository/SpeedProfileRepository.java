@@ -0,0 +1,28 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.model.SpeedProfileCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SpeedProfileRepository extends JpaRepository<SpeedProfileCell, Long> {
+    
+    // cellKey, hourOfWeek, distanceKm, durationSeconds, samples
+    @Query("SELECT s.cellKey, s.hourOfWeek, s.distanceKm, s.durationSeconds, s.samples FROM SpeedProfileCell s")
+    List<Object[]> findAllTotals();
+    
+    // envelhecimento: dados antigos pesam cada vez menos sem precisar de janela deslizante
+    @Modifying
+    @Query("UPDATE SpeedProfileCell s SET s.distanceKm = s.distanceKm * :factor, " +
+           "s.durationSeconds = s.durationSeconds * :factor, s.samples = s.samples * :factor")
+    int decay(@Param("factor") double factor);
+    
+    @Modifying
+    @Query("DELETE FROM SpeedProfileCell s WHERE s.samples < :minSamples")
+    int deleteSparse(@Param("minSamples") double minSamples);
+}
@@ -0,0 +1,139 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.tracking.TelemetrySink;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gravação em lote da telemetria com INSERT de múltiplas linhas.
+ *
+ * A entidade Telemetry usa IDENTITY, o que impede o batching do Hibernate;
+ * aqui cada comando grava até ROWS_PER_STATEMENT pontos de uma vez. Pontos de
+ * entregadores inexistentes são descartados antes do INSERT: uma violação de chave
+ * estrangeira derrubaria o comando inteiro. Ativo com tracking.telemetry.storage=jdbc.
+ */
+@Repository
+@ConditionalOnProperty(name = "tracking.telemetry.storage", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryBatchRepository implements TelemetrySink {
+
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final String INSERT_PREFIX =
+        "INSERT INTO telemetry (driver_id, lat, lon, speed, heading, accuracy, timestamp) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FULL_STATEMENT = buildStatement(ROWS_PER_STATEMENT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // entregadores já vistos no banco; esvaziado se um deles for removido
+    private final Set<Long> knownDrivers = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void write(List<TelemetryPoint> batch) {
+        insertAll(batch);
+    }
+
+    public void insertAll(List<TelemetryPoint> points) {
+        List<TelemetryPoint> valid = withExistingDrivers(points);
+        for (int start = 0; start < valid.size(); start += ROWS_PER_STATEMENT) {
+            List<TelemetryPoint> chunk = valid.subList(start, Math.min(valid.size(), start + ROWS_PER_STATEMENT));
+            try {
+                insertChunk(chunk);
+            } catch (DataIntegrityViolationException e) {
+                // entregador removido depois de entrar no cache: confere de novo e tenta uma vez
+                knownDrivers.clear();
+                insertChunk(withExistingDrivers(chunk));
+            }
+        }
+    }
+
+    private void insertChunk(List<TelemetryPoint> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String sql = chunk.size() == ROWS_PER_STATEMENT ? FULL_STATEMENT : buildStatement(chunk.size());
+        jdbcTemplate.update(sql, ps -> bind(ps, chunk));
+    }
+
+    private List<TelemetryPoint> withExistingDrivers(List<TelemetryPoint> points) {
+        Set<Long> unknown = new HashSet<>();
+        for (TelemetryPoint point : points) {
+            if (!knownDrivers.contains(point.driverId())) {
+                unknown.add(point.driverId());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return points;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(unknown.size(), "?"));
+        List<Long> found = jdbcTemplate.queryForList("SELECT id FROM drivers WHERE id IN (" + placeholders + ")",
+                                                     Long.class, unknown.toArray());
+        knownDrivers.addAll(found);
+        if (found.size() == unknown.size()) {
+            return points;
+        }
+
+        List<TelemetryPoint> valid = new ArrayList<>(points.size());
+        for (TelemetryPoint point : points) {
+            if (knownDrivers.contains(point.driverId())) {
+                valid.add(point);
+            }
+        }
+        unknown.removeAll(found);
+        log.warn("{} pontos de telemetria descartados: entregadores inexistentes {}",
+                 points.size() - valid.size(), unknown);
+        return valid;
+    }
+
+    private static void bind(PreparedStatement ps, List<TelemetryPoint> chunk) throws SQLException {
+        int index = 1;
+        for (TelemetryPoint point : chunk) {
+            ps.setLong(index++, point.driverId());
+            ps.setDouble(index++, point.lat());
+            ps.setDouble(index++, point.lon());
+            setOptional(ps, index++, point.speed());
+            setOptional(ps, index++, point.heading());
+            setOptional(ps, index++, point.accuracy());
+            ps.setTimestamp(index++, new Timestamp(point.timestampMillis()));
+        }
+    }
+
+    private static void setOptional(PreparedStatement ps, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static String buildStatement(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+}
@@ -1,8 +1,11 @@
 package com.douradelivery.repository;
 
 import com.douradelivery.model.Telemetry;
-import com.douradelivery.model.Driver;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -10,8 +13,13 @@
 
 @Repository
 public interface TelemetryRepository extends JpaRepository<Telemetry, Long> {
-    List<Telemetry> findByDriverOrderByTimestampDesc(Driver driver);
-    List<Telemetry> findByDriverIdAndTimestampAfter(Long driverId, LocalDateTime timestamp);
+    List<Telemetry> findByDriverIdOrderByTimestampDesc(Long driverId, Pageable pageable);
+    List<Telemetry> findByDriverIdAndTimestampBetweenOrderByTimestampAsc(Long driverId, LocalDateTime from,
+                                                                        LocalDateTime to, Pageable pageable);
     Telemetry findFirstByDriverIdOrderByTimestampDesc(Long driverId);
+    
+    @Modifying
+    @Query("DELETE FROM Telemetry t WHERE t.timestamp < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
 }
 
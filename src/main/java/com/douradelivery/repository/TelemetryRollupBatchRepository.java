@@ -0,0 +1,54 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.tracking.TelemetryRollupBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Upsert em lote dos agregados de telemetria.
+ *
+ * Agregados parciais da mesma janela (pontos atrasados) são somados ao registro existente.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TelemetryRollupBatchRepository {
+
+    // last_lat/last_lon precisam vir antes de last_timestamp: o MySQL avalia as atribuições em ordem
+    private static final String UPSERT =
+        "INSERT INTO telemetry_rollups (driver_id, resolution_seconds, bucket_start, point_count, speed_sum, " +
+        "speed_count, max_speed, last_lat, last_lon, last_timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "point_count = point_count + VALUES(point_count), " +
+        "speed_sum = speed_sum + VALUES(speed_sum), " +
+        "speed_count = speed_count + VALUES(speed_count), " +
+        "max_speed = GREATEST(COALESCE(max_speed, VALUES(max_speed)), COALESCE(VALUES(max_speed), max_speed)), " +
+        "last_lat = IF(VALUES(last_timestamp) >= last_timestamp, VALUES(last_lat), last_lat), " +
+        "last_lon = IF(VALUES(last_timestamp) >= last_timestamp, VALUES(last_lon), last_lon), " +
+        "last_timestamp = GREATEST(last_timestamp, VALUES(last_timestamp))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsertAll(List<TelemetryRollupBucket> buckets) {
+        jdbcTemplate.batchUpdate(UPSERT, buckets, 500, (ps, bucket) -> {
+            ps.setLong(1, bucket.getDriverId());
+            ps.setInt(2, bucket.getResolutionSeconds());
+            ps.setTimestamp(3, new Timestamp(bucket.getBucketStartMillis()));
+            ps.setInt(4, bucket.getPointCount());
+            ps.setDouble(5, bucket.getSpeedSum());
+            ps.setInt(6, bucket.getSpeedCount());
+            if (Double.isNaN(bucket.getMaxSpeed())) {
+                ps.setNull(7, Types.DOUBLE);
+            } else {
+                ps.setDouble(7, bucket.getMaxSpeed());
+            }
+            ps.setDouble(8, bucket.getLastLat());
+            ps.setDouble(9, bucket.getLastLon());
+            ps.setTimestamp(10, new Timestamp(bucket.getLastTimestampMillis()));
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.model.TelemetryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TelemetryRollupRepository extends JpaRepository<TelemetryRollup, Long> {
+    List<TelemetryRollup> findByDriverIdAndResolutionSecondsAndBucketStartBetweenOrderByBucketStartAsc(
+        Long driverId, int resolutionSeconds, LocalDateTime from, LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM TelemetryRollup r WHERE r.resolutionSeconds = :resolution AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("resolution") int resolutionSeconds, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,77 @@
+package com.douradelivery.routing;
+
+import java.util.stream.IntStream;
+
+/**
+ * Matriz origem x destino de distâncias (km) e durações (s) em arrays planos,
+ * sem mapas nem objetos por par. É imutável depois de preenchida e pode ser
+ * compartilhada entre as threads de uma mesma otimização.
+ */
+public final class DistanceMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final double[] distances;
+    private final float[] durations;
+
+    public DistanceMatrix(int rows, int cols, double[] distances, float[] durations) {
+        if (distances.length != rows * cols || durations.length != rows * cols) {
+            throw new IllegalArgumentException("Dimensões da matriz inconsistentes");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.distances = distances;
+        this.durations = durations;
+    }
+
+    /**
+     * Preenche a matriz por Haversine em paralelo (uma linha por tarefa), com as
+     * coordenadas convertidas para radianos uma única vez
+     */
+    public static DistanceMatrix haversine(double[] fromLat, double[] fromLon,
+                                           double[] toLat, double[] toLon, double speedKmh) {
+        int rows = fromLat.length;
+        int cols = toLat.length;
+        double[] toPhi = new double[cols];
+        double[] toLambda = new double[cols];
+        double[] toCos = new double[cols];
+        for (int j = 0; j < cols; j++) {
+            toPhi[j] = Math.toRadians(toLat[j]);
+            toLambda[j] = Math.toRadians(toLon[j]);
+            toCos[j] = Math.cos(toPhi[j]);
+        }
+
+        double[] distances = new double[rows * cols];
+        float[] durations = new float[rows * cols];
+        double secondsPerKm = 3600.0 / speedKmh;
+
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            double phi = Math.toRadians(fromLat[i]);
+            double lambda = Math.toRadians(fromLon[i]);
+            double cosPhi = Math.cos(phi);
+            int offset = i * cols;
+            for (int j = 0; j < cols; j++) {
+                double d = GeoMath.haversineRadians(phi, lambda, cosPhi, toPhi[j], toLambda[j], toCos[j]);
+                distances[offset + j] = d;
+                durations[offset + j] = (float) (d * secondsPerKm);
+            }
+        });
+        return new DistanceMatrix(rows, cols, distances, durations);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public double distance(int from, int to) {
+        return distances[from * cols + to];
+    }
+
+    public double duration(int from, int to) {
+        return durations[from * cols + to];
+    }
+}
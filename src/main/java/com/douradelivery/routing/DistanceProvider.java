@@ -0,0 +1,31 @@
+package com.douradelivery.routing;
+
+/**
+ * Fonte de distâncias (km) e durações (s) entre coordenadas.
+ * Implementações: linha reta (Haversine), servidor OSRM e motor viário embarcado.
+ */
+public interface DistanceProvider {
+
+    /**
+     * Matriz muitos-para-muitos: linha i = origem i, coluna j = destino j
+     */
+    DistanceMatrix matrix(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon);
+
+    /**
+     * Pares correspondentes (origem i -> destino i), devolvidos como matriz n x 1
+     */
+    default DistanceMatrix pairwise(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        int n = fromLat.length;
+        double[] distances = new double[n];
+        float[] durations = new float[n];
+        for (int i = 0; i < n; i++) {
+            DistanceMatrix single = matrix(new double[] {fromLat[i]}, new double[] {fromLon[i]},
+                                           new double[] {toLat[i]}, new double[] {toLon[i]});
+            distances[i] = single.distance(0, 0);
+            durations[i] = (float) single.duration(0, 0);
+        }
+        return new DistanceMatrix(n, 1, distances, durations);
+    }
+
+    String getName();
+}
@@ -0,0 +1,74 @@
+package com.douradelivery.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+@Configuration
+public class DistanceProviderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanceProviderConfig.class);
+
+    @Value("${routing.distance-provider:haversine}")
+    private String provider;
+
+    @Value("${routing.average-speed-kmh:30}")
+    private double averageSpeedKmh;
+
+    @Value("${routing.road-graph-file:}")
+    private String roadGraphFile;
+
+    @Value("${osrm.enabled:false}")
+    private boolean osrmEnabled;
+
+    @Value("${osrm.base-url:http://localhost:5000}")
+    private String osrmBaseUrl;
+
+    @Value("${osrm.timeout-ms:10000}")
+    private long osrmTimeoutMs;
+
+    @Value("${osrm.max-table-size:100}")
+    private int osrmMaxTableSize;
+
+    @Value("${osrm.max-concurrent-requests:4}")
+    private int osrmMaxConcurrentRequests;
+
+    @Bean
+    public DistanceProvider distanceProvider(WebClient.Builder webClientBuilder) throws IOException {
+        HaversineDistanceProvider haversine = new HaversineDistanceProvider(averageSpeedKmh);
+
+        // osrm.enabled=true mantém compatibilidade com a configuração anterior
+        String selected = provider.toLowerCase(Locale.ROOT);
+        if (osrmEnabled && "haversine".equals(selected)) {
+            selected = "osrm";
+        }
+
+        DistanceProvider distanceProvider = switch (selected) {
+            case "osrm" -> new OsrmDistanceProvider(
+                webClientBuilder
+                    .baseUrl(osrmBaseUrl)
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                    .build(),
+                osrmMaxTableSize, osrmMaxConcurrentRequests, Duration.ofMillis(osrmTimeoutMs), haversine);
+            case "embedded" -> {
+                if (roadGraphFile.isBlank()) {
+                    throw new IllegalStateException("routing.road-graph-file é obrigatório para o provedor embedded");
+                }
+                yield EmbeddedRoadNetworkProvider.load(Path.of(roadGraphFile), averageSpeedKmh, haversine);
+            }
+            case "haversine" -> haversine;
+            default -> throw new IllegalStateException("Provedor de distância desconhecido: " + provider);
+        };
+
+        logger.info("Provedor de distâncias: {}", distanceProvider.getName());
+        return distanceProvider;
+    }
+}
@@ -0,0 +1,119 @@
+package com.douradelivery.routing;
+
+import com.douradelivery.routing.ch.ContractionHierarchy;
+import com.douradelivery.routing.ch.NodeLocator;
+import com.douradelivery.routing.ch.RoadGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Distâncias pela malha viária calculadas em processo com Contraction Hierarchies.
+ *
+ * As coordenadas são encaixadas no nó mais próximo do grafo; o trecho até o nó é
+ * somado em linha reta. Pares sem caminho na malha caem para a linha reta.
+ */
+public class EmbeddedRoadNetworkProvider implements DistanceProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedRoadNetworkProvider.class);
+
+    private final ContractionHierarchy hierarchy;
+    private final NodeLocator locator;
+    private final RoadGraph graph;
+    private final double accessSecondsPerKm;
+    private final DistanceProvider fallback;
+
+    public EmbeddedRoadNetworkProvider(RoadGraph graph, double accessSpeedKmh, DistanceProvider fallback) {
+        long startedAt = System.currentTimeMillis();
+        this.graph = graph;
+        this.hierarchy = ContractionHierarchy.build(graph);
+        this.locator = new NodeLocator(graph);
+        this.accessSecondsPerKm = 3600.0 / accessSpeedKmh;
+        this.fallback = fallback;
+        logger.info("Malha viária carregada: {} nós, {} arestas, {} arestas no grafo contraído ({} ms)",
+                    graph.getNodeCount(), graph.getEdgeCount(), hierarchy.getShortcutGraphSize(),
+                    System.currentTimeMillis() - startedAt);
+    }
+
+    public static EmbeddedRoadNetworkProvider load(Path file, double accessSpeedKmh, DistanceProvider fallback)
+            throws IOException {
+        return new EmbeddedRoadNetworkProvider(RoadGraph.load(file), accessSpeedKmh, fallback);
+    }
+
+    @Override
+    public DistanceMatrix matrix(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        int rows = fromLat.length;
+        int cols = toLat.length;
+        int[] sources = new int[rows];
+        int[] targets = new int[cols];
+        double[] sourceAccess = new double[rows];
+        double[] targetAccess = new double[cols];
+        snap(fromLat, fromLon, sources, sourceAccess);
+        snap(toLat, toLon, targets, targetAccess);
+
+        float[] seconds = new float[rows * cols];
+        float[] meters = new float[rows * cols];
+        hierarchy.manyToMany(sources, targets, seconds, meters);
+
+        double[] distances = new double[rows * cols];
+        float[] durations = new float[rows * cols];
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            for (int j = 0; j < cols; j++) {
+                int cell = i * cols + j;
+                if (Float.isInfinite(seconds[cell])) {
+                    DistanceMatrix single = fallback.matrix(new double[] {fromLat[i]}, new double[] {fromLon[i]},
+                                                            new double[] {toLat[j]}, new double[] {toLon[j]});
+                    distances[cell] = single.distance(0, 0);
+                    durations[cell] = (float) single.duration(0, 0);
+                } else {
+                    double access = sourceAccess[i] + targetAccess[j];
+                    distances[cell] = meters[cell] / 1000.0 + access;
+                    durations[cell] = (float) (seconds[cell] + access * accessSecondsPerKm);
+                }
+            }
+        });
+        return new DistanceMatrix(rows, cols, distances, durations);
+    }
+
+    @Override
+    public DistanceMatrix pairwise(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        int n = fromLat.length;
+        int[] sources = new int[n];
+        int[] targets = new int[n];
+        double[] sourceAccess = new double[n];
+        double[] targetAccess = new double[n];
+        snap(fromLat, fromLon, sources, sourceAccess);
+        snap(toLat, toLon, targets, targetAccess);
+
+        double[] distances = new double[n];
+        float[] durations = new float[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            float[] path = sources[i] < 0 || targets[i] < 0 ? null : hierarchy.route(sources[i], targets[i]);
+            if (path == null || Float.isInfinite(path[0])) {
+                distances[i] = GeoMath.haversineKm(fromLat[i], fromLon[i], toLat[i], toLon[i]);
+                durations[i] = (float) (distances[i] * accessSecondsPerKm);
+            } else {
+                double access = sourceAccess[i] + targetAccess[i];
+                distances[i] = path[1] / 1000.0 + access;
+                durations[i] = (float) (path[0] + access * accessSecondsPerKm);
+            }
+        });
+        return new DistanceMatrix(n, 1, distances, durations);
+    }
+
+    @Override
+    public String getName() {
+        return "embedded";
+    }
+
+    private void snap(double[] lat, double[] lon, int[] nodes, double[] accessKm) {
+        IntStream.range(0, lat.length).parallel().forEach(i -> {
+            int node = locator.nearest(lat[i], lon[i]);
+            nodes[i] = node;
+            accessKm[i] = node < 0 ? 0.0 : GeoMath.haversineKm(lat[i], lon[i], graph.lat(node), graph.lon(node));
+        });
+    }
+}
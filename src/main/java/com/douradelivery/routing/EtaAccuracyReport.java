@@ -0,0 +1,187 @@
+package com.douradelivery.routing;
+
+import com.douradelivery.tracking.TelemetryPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Avaliação offline das ETAs contra viagens reais separadas do treino.
+ *
+ * A telemetria de cada entregador é cortada em viagens nas paradas e nos buracos de
+ * sinal. Uma fração determinística das viagens (por entregador e instante de partida)
+ * fica de fora do treino; para cada uma, a ETA do perfil e a da velocidade média fixa
+ * são comparadas com a duração real, usando a mesma distância percorrida nas duas.
+ */
+public final class EtaAccuracyReport {
+
+    private static final double STOPPED_KMH = 1.0;
+    private static final double JUMP_KMH = 150.0;
+
+    /**
+     * Trecho contínuo em movimento de um entregador, pontos em ordem cronológica
+     */
+    public record Trip(long driverId, List<TelemetryPoint> points) {
+
+        public TelemetryPoint first() {
+            return points.get(0);
+        }
+
+        public TelemetryPoint last() {
+            return points.get(points.size() - 1);
+        }
+
+        public double durationSeconds() {
+            return (last().timestampMillis() - first().timestampMillis()) / 1000.0;
+        }
+
+        public double distanceKm() {
+            double km = 0;
+            for (int i = 1; i < points.size(); i++) {
+                TelemetryPoint a = points.get(i - 1);
+                TelemetryPoint b = points.get(i);
+                km += GeoMath.haversineKm(a.lat(), a.lon(), b.lat(), b.lon());
+            }
+            return km;
+        }
+    }
+
+    /**
+     * Erros absolutos em segundos; mape em fração (0.12 = 12%); bias positivo = ETA acima do real
+     */
+    public record Metrics(double maeSeconds, double mape, double p50Seconds, double p90Seconds, double biasSeconds) {
+    }
+
+    public record Result(int trips, Metrics profile, Metrics baseline) {
+    }
+
+    private EtaAccuracyReport() {
+    }
+
+    /**
+     * Corta os pontos de um entregador em viagens: intervalo acima de maxGapMs, salto
+     * de posição ou parada de pelo menos stopMs encerra a viagem. Viagens curtas demais
+     * são descartadas.
+     */
+    public static List<Trip> splitTrips(long driverId, List<TelemetryPoint> points, long maxGapMs, long stopMs,
+                                        double minKm, long minDurationMs) {
+        List<Trip> trips = new ArrayList<>();
+        List<TelemetryPoint> current = new ArrayList<>();
+        long stoppedSince = -1;
+        int stoppedAt = -1; // índice em current do primeiro ponto parado
+        for (TelemetryPoint point : points) {
+            if (current.isEmpty()) {
+                current.add(point);
+                continue;
+            }
+            TelemetryPoint previous = current.get(current.size() - 1);
+            long interval = point.timestampMillis() - previous.timestampMillis();
+            if (interval <= 0) {
+                continue;
+            }
+            double speed = GeoMath.haversineKm(previous.lat(), previous.lon(), point.lat(), point.lon())
+                / (interval / 3_600_000.0);
+            // buraco de sinal ou salto de GPS encerram a viagem
+            if (interval > maxGapMs || speed > JUMP_KMH) {
+                close(driverId, current, stoppedAt, trips, minKm, minDurationMs);
+                current = new ArrayList<>();
+                current.add(point);
+                stoppedSince = -1;
+                stoppedAt = -1;
+                continue;
+            }
+
+            if (speed < STOPPED_KMH) {
+                if (stoppedSince < 0) {
+                    stoppedSince = previous.timestampMillis();
+                    stoppedAt = current.size() - 1;
+                }
+                current.add(point);
+                if (point.timestampMillis() - stoppedSince >= stopMs) {
+                    // a viagem termina onde a parada começou; a próxima parte do último ponto parado
+                    close(driverId, current, stoppedAt, trips, minKm, minDurationMs);
+                    current = new ArrayList<>();
+                    current.add(point);
+                    stoppedSince = -1;
+                    stoppedAt = -1;
+                }
+            } else {
+                if (stoppedAt == 0) {
+                    // ainda parado desde o início: a viagem parte do último ponto parado
+                    current = new ArrayList<>();
+                    current.add(previous);
+                }
+                // parada curta no meio (semáforo, trânsito) faz parte da viagem
+                stoppedSince = -1;
+                stoppedAt = -1;
+                current.add(point);
+            }
+        }
+        close(driverId, current, stoppedAt, trips, minKm, minDurationMs);
+        return trips;
+    }
+
+    /**
+     * Separação determinística treino/teste: a mesma viagem cai sempre do mesmo lado
+     */
+    public static boolean isHeldOut(Trip trip, int holdoutPercent) {
+        long h = (trip.driverId() * 0x9E3779B97F4A7C15L) ^ trip.first().timestampMillis();
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        return Math.floorMod(h, 100) < holdoutPercent;
+    }
+
+    public static Result evaluate(SpeedProfile profile, List<Trip> trips, double fallbackSpeedKmh) {
+        int n = trips.size();
+        double[] profileErrors = new double[n];
+        double[] baselineErrors = new double[n];
+        double[] actual = new double[n];
+        for (int i = 0; i < n; i++) {
+            Trip trip = trips.get(i);
+            double km = trip.distanceKm();
+            actual[i] = trip.durationSeconds();
+            double predicted = profile.estimateSeconds(trip.first().lat(), trip.first().lon(),
+                trip.last().lat(), trip.last().lon(), km, trip.first().timestampMillis(), fallbackSpeedKmh);
+            profileErrors[i] = predicted - actual[i];
+            baselineErrors[i] = km / fallbackSpeedKmh * 3600.0 - actual[i];
+        }
+        return new Result(n, metrics(profileErrors, actual), metrics(baselineErrors, actual));
+    }
+
+    private static void close(long driverId, List<TelemetryPoint> points, int stoppedAt, List<Trip> trips,
+                              double minKm, long minDurationMs) {
+        // pontos parados no fim não contam como tempo de viagem
+        List<TelemetryPoint> moving = stoppedAt > 0 ? points.subList(0, stoppedAt + 1) : points;
+        if (moving.size() < 2) {
+            return;
+        }
+        Trip trip = new Trip(driverId, List.copyOf(moving));
+        if (trip.durationSeconds() * 1000 >= minDurationMs && trip.distanceKm() >= minKm) {
+            trips.add(trip);
+        }
+    }
+
+    private static Metrics metrics(double[] errors, double[] actual) {
+        int n = errors.length;
+        if (n == 0) {
+            return new Metrics(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double[] absolute = new double[n];
+        double sumAbs = 0;
+        double sumPct = 0;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            absolute[i] = Math.abs(errors[i]);
+            sumAbs += absolute[i];
+            sumPct += absolute[i] / actual[i];
+            sum += errors[i];
+        }
+        Arrays.sort(absolute);
+        return new Metrics(sumAbs / n, sumPct / n, percentile(absolute, 0.5), percentile(absolute, 0.9), sum / n);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+}
@@ -0,0 +1,53 @@
+package com.douradelivery.routing;
+
+/**
+ * Funções geográficas compartilhadas (distâncias em km)
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * Distância de Haversine entre dois pontos em graus decimais
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        return haversineRadians(phi1, Math.toRadians(lon1), Math.cos(phi1),
+                                phi2, Math.toRadians(lon2), Math.cos(phi2));
+    }
+
+    /**
+     * Variante com latitude/longitude já em radianos e cosseno da latitude pré-calculado,
+     * usada no preenchimento das matrizes para evitar trigonometria repetida
+     */
+    static double haversineRadians(double phi1, double lambda1, double cosPhi1,
+                                   double phi2, double lambda2, double cosPhi2) {
+        double sinDPhi = Math.sin((phi2 - phi1) * 0.5);
+        double sinDLambda = Math.sin((lambda2 - lambda1) * 0.5);
+        double a = sinDPhi * sinDPhi + cosPhi1 * cosPhi2 * sinDLambda * sinDLambda;
+        return 2.0 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Distância aproximada do ponto ao segmento (lat1, lon1)-(lat2, lon2), por projeção
+     * equirretangular em torno do ponto; suficiente para segmentos de poucos km
+     */
+    public static double distanceToSegmentKm(double lat, double lon,
+                                             double lat1, double lon1, double lat2, double lon2) {
+        double kmPerDegree = Math.toRadians(EARTH_RADIUS_KM);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double ax = (lon1 - lon) * cosLat * kmPerDegree;
+        double ay = (lat1 - lat) * kmPerDegree;
+        double bx = (lon2 - lon) * cosLat * kmPerDegree;
+        double by = (lat2 - lat) * kmPerDegree;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+        return Math.hypot(ax + t * dx, ay + t * dy);
+    }
+}
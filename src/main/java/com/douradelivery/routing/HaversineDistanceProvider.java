@@ -0,0 +1,36 @@
+package com.douradelivery.routing;
+
+/**
+ * Distância em linha reta com duração pela velocidade média configurada
+ */
+public class HaversineDistanceProvider implements DistanceProvider {
+
+    private final double speedKmh;
+
+    public HaversineDistanceProvider(double speedKmh) {
+        this.speedKmh = speedKmh;
+    }
+
+    @Override
+    public DistanceMatrix matrix(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        return DistanceMatrix.haversine(fromLat, fromLon, toLat, toLon, speedKmh);
+    }
+
+    @Override
+    public DistanceMatrix pairwise(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        int n = fromLat.length;
+        double[] distances = new double[n];
+        float[] durations = new float[n];
+        double secondsPerKm = 3600.0 / speedKmh;
+        for (int i = 0; i < n; i++) {
+            distances[i] = GeoMath.haversineKm(fromLat[i], fromLon[i], toLat[i], toLon[i]);
+            durations[i] = (float) (distances[i] * secondsPerKm);
+        }
+        return new DistanceMatrix(n, 1, distances, durations);
+    }
+
+    @Override
+    public String getName() {
+        return "haversine";
+    }
+}
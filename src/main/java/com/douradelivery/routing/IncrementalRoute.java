@@ -0,0 +1,175 @@
+package com.douradelivery.routing;
+
+import java.util.Arrays;
+
+/**
+ * Ajuste incremental da sequência de uma única rota (veículo 0 de um {@link VrpProblem}).
+ *
+ * Parte da ordem atual, insere pedidos novos na posição mais barata e aplica uma busca
+ * local curta (relocate e 2-opt) só nesta rota. A avaliação segue a do RouteSearch, mas
+ * atraso na janela de tempo vira penalidade em vez de inviabilidade, para que uma rota
+ * que já está atrasada continue podendo ser reordenada.
+ */
+public final class IncrementalRoute {
+
+    // km equivalentes a cada segundo de atraso, multiplicados pelo peso da prioridade
+    private static final double LATENESS_PENALTY_PER_SECOND = 0.05;
+    private static final double EPS = 1e-6;
+
+    private final VrpProblem p;
+    private int[] sequence;
+    private int size;
+    private final int[] candidate;
+
+    private double cost;
+    private double distance;
+    private double duration;
+    private double lastDistance;
+    private double lastDuration;
+
+    public IncrementalRoute(VrpProblem problem, int[] initialSequence) {
+        if (problem.getVehicleCount() != 1) {
+            throw new IllegalArgumentException("IncrementalRoute trabalha com um único veículo");
+        }
+        this.p = problem;
+        this.sequence = Arrays.copyOf(initialSequence, problem.getOrderCount());
+        this.size = initialSequence.length;
+        this.candidate = new int[problem.getOrderCount()];
+        accept(sequence, size);
+    }
+
+    /**
+     * Insere o pedido na posição de menor custo
+     */
+    public void insertCheapest(int order) {
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestPosition = size;
+        for (int position = 0; position <= size; position++) {
+            System.arraycopy(sequence, 0, candidate, 0, position);
+            candidate[position] = order;
+            System.arraycopy(sequence, position, candidate, position + 1, size - position);
+            double c = evaluate(candidate, size + 1);
+            if (c < bestCost) {
+                bestCost = c;
+                bestPosition = position;
+            }
+        }
+        System.arraycopy(sequence, bestPosition, sequence, bestPosition + 1, size - bestPosition);
+        sequence[bestPosition] = order;
+        size++;
+        accept(sequence, size);
+    }
+
+    /**
+     * Relocate e 2-opt com primeira melhoria, até estagnar, maxPasses ou o prazo
+     */
+    public void improve(int maxPasses, long deadlineNanos) {
+        for (int pass = 0; pass < maxPasses && System.nanoTime() < deadlineNanos; pass++) {
+            if (!relocate() && !twoOpt()) {
+                return;
+            }
+        }
+    }
+
+    public int[] getSequence() {
+        return Arrays.copyOf(sequence, size);
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    private boolean relocate() {
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                if (to == from) {
+                    continue;
+                }
+                int order = sequence[from];
+                int len = 0;
+                for (int k = 0; k < size; k++) {
+                    if (k != from) {
+                        candidate[len++] = sequence[k];
+                    }
+                }
+                System.arraycopy(candidate, to, candidate, to + 1, len - to);
+                candidate[to] = order;
+                if (evaluate(candidate, size) < cost - EPS) {
+                    accept(candidate, size);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean twoOpt() {
+        for (int i = 0; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                System.arraycopy(sequence, 0, candidate, 0, size);
+                for (int a = i, b = j; a < b; a++, b--) {
+                    int tmp = candidate[a];
+                    candidate[a] = candidate[b];
+                    candidate[b] = tmp;
+                }
+                if (evaluate(candidate, size) < cost - EPS) {
+                    accept(candidate, size);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void accept(int[] seq, int len) {
+        cost = evaluate(seq, len);
+        distance = lastDistance;
+        duration = lastDuration;
+        if (seq != sequence) {
+            System.arraycopy(seq, 0, sequence, 0, len);
+        }
+    }
+
+    /**
+     * Distância mais penalidade de atraso; distância e duração ficam em lastDistance/lastDuration
+     */
+    private double evaluate(int[] seq, int len) {
+        double time = 0;
+        double dist = 0;
+        double penalty = 0;
+        double service = p.serviceTime();
+        int prev = -1;
+        for (int k = 0; k < len; k++) {
+            int o = seq[k];
+            if (prev < 0) {
+                dist += p.startDistance(0, o);
+                time += p.startDuration(0, o);
+            } else {
+                dist += p.transitionDistance(prev, o);
+                time += p.transitionDuration(prev, o);
+            }
+            time += service;
+            dist += p.legDistance(o);
+            time += p.legDuration(o);
+            if (time < p.timeWindowStart(o)) {
+                time = p.timeWindowStart(o);
+            }
+            if (time > p.timeWindowEnd(o)) {
+                penalty += (time - p.timeWindowEnd(o)) * LATENESS_PENALTY_PER_SECOND * p.priorityWeight(o);
+            }
+            time += service;
+            prev = o;
+        }
+        lastDistance = dist;
+        lastDuration = time;
+        return dist + penalty;
+    }
+}
@@ -0,0 +1,65 @@
+package com.douradelivery.routing;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Listas de vizinhança pré-calculadas (pedidos e veículos mais próximos de cada pedido),
+ * usadas para limitar as rotas candidatas avaliadas na busca local.
+ */
+final class Neighbourhood {
+
+    final int[][] orders;
+    final int[][] vehicles;
+
+    private Neighbourhood(int[][] orders, int[][] vehicles) {
+        this.orders = orders;
+        this.vehicles = vehicles;
+    }
+
+    static Neighbourhood build(VrpProblem p, int orderNeighbours, int vehicleNeighbours) {
+        int n = p.getOrderCount();
+        int m = p.getVehicleCount();
+        int[][] orders = new int[n][];
+        int[][] vehicles = new int[n][];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            orders[i] = nearest(n, orderNeighbours, i,
+                j -> Math.min(p.transitionDistance(i, j), p.transitionDistance(j, i)));
+            vehicles[i] = nearest(m, vehicleNeighbours, -1, v -> p.startDistance(v, i));
+        });
+        return new Neighbourhood(orders, vehicles);
+    }
+
+    /**
+     * Seleciona os k menores custos em O(count * k), sem ordenar a linha inteira
+     */
+    private static int[] nearest(int count, int k, int exclude, IntToDoubleFunction cost) {
+        int limit = Math.min(k, exclude >= 0 ? count - 1 : count);
+        if (limit <= 0) {
+            return new int[0];
+        }
+        int[] best = new int[limit];
+        double[] bestCost = new double[limit];
+        int size = 0;
+
+        for (int j = 0; j < count; j++) {
+            if (j == exclude) {
+                continue;
+            }
+            double c = cost.applyAsDouble(j);
+            if (size == limit && c >= bestCost[size - 1]) {
+                continue;
+            }
+            int pos = size < limit ? size++ : size - 1;
+            while (pos > 0 && bestCost[pos - 1] > c) {
+                best[pos] = best[pos - 1];
+                bestCost[pos] = bestCost[pos - 1];
+                pos--;
+            }
+            best[pos] = j;
+            bestCost[pos] = c;
+        }
+        return best;
+    }
+}
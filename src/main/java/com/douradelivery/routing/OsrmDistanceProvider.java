@@ -0,0 +1,159 @@
+package com.douradelivery.routing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Cliente do serviço /table de um servidor compatível com OSRM.
+ *
+ * Matrizes maiores que osrm.max-table-size são quebradas em blocos consultados em paralelo.
+ * Pares sem rota (ou falha do servidor) caem para a distância em linha reta.
+ */
+public class OsrmDistanceProvider implements DistanceProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsrmDistanceProvider.class);
+
+    private final WebClient webClient;
+    private final int maxTableSize;
+    private final int maxConcurrentRequests;
+    private final Duration timeout;
+    private final DistanceProvider fallback;
+
+    public OsrmDistanceProvider(WebClient webClient, int maxTableSize, int maxConcurrentRequests,
+                                Duration timeout, DistanceProvider fallback) {
+        this.webClient = webClient;
+        this.maxTableSize = maxTableSize;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.timeout = timeout;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public DistanceMatrix matrix(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        int rows = fromLat.length;
+        int cols = toLat.length;
+        double[] distances = new double[rows * cols];
+        float[] durations = new float[rows * cols];
+        Arrays.fill(distances, Double.NaN);
+
+        List<Block> blocks = new ArrayList<>();
+        for (int r = 0; r < rows; r += maxTableSize) {
+            for (int c = 0; c < cols; c += maxTableSize) {
+                blocks.add(new Block(r, Math.min(rows, r + maxTableSize), c, Math.min(cols, c + maxTableSize)));
+            }
+        }
+
+        try {
+            Flux.fromIterable(blocks)
+                .flatMap(block -> fetch(fromLat, fromLon, block.rowStart, block.rowEnd,
+                                        toLat, toLon, block.colStart, block.colEnd)
+                    .doOnNext(table -> fill(table, block, cols, distances, durations)),
+                    maxConcurrentRequests)
+                .then()
+                .block(timeout);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao consultar OSRM, usando distância em linha reta: {}", e.getMessage());
+            return fallback.matrix(fromLat, fromLon, toLat, toLon);
+        }
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int cell = i * cols + j;
+                if (Double.isNaN(distances[cell])) {
+                    DistanceMatrix single = fallback.matrix(new double[] {fromLat[i]}, new double[] {fromLon[i]},
+                                                            new double[] {toLat[j]}, new double[] {toLon[j]});
+                    distances[cell] = single.distance(0, 0);
+                    durations[cell] = (float) single.duration(0, 0);
+                }
+            }
+        }
+        return new DistanceMatrix(rows, cols, distances, durations);
+    }
+
+    @Override
+    public DistanceMatrix pairwise(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        // cada bloco de k pares vira uma consulta k x k da qual só a diagonal é usada
+        int n = fromLat.length;
+        double[] distances = new double[n];
+        float[] durations = new float[n];
+        for (int start = 0; start < n; start += maxTableSize) {
+            int end = Math.min(n, start + maxTableSize);
+            int k = end - start;
+            double[] fLat = Arrays.copyOfRange(fromLat, start, end);
+            double[] fLon = Arrays.copyOfRange(fromLon, start, end);
+            double[] tLat = Arrays.copyOfRange(toLat, start, end);
+            double[] tLon = Arrays.copyOfRange(toLon, start, end);
+            DistanceMatrix block = matrix(fLat, fLon, tLat, tLon);
+            for (int i = 0; i < k; i++) {
+                distances[start + i] = block.distance(i, i);
+                durations[start + i] = (float) block.duration(i, i);
+            }
+        }
+        return new DistanceMatrix(n, 1, distances, durations);
+    }
+
+    @Override
+    public String getName() {
+        return "osrm";
+    }
+
+    private Mono<JsonNode> fetch(double[] fromLat, double[] fromLon, int rowStart, int rowEnd,
+                                 double[] toLat, double[] toLon, int colStart, int colEnd) {
+        StringJoiner coordinates = new StringJoiner(";");
+        StringJoiner sources = new StringJoiner(";");
+        StringJoiner destinations = new StringJoiner(";");
+        int index = 0;
+        for (int i = rowStart; i < rowEnd; i++) {
+            coordinates.add(String.format(Locale.ROOT, "%.6f,%.6f", fromLon[i], fromLat[i]));
+            sources.add(Integer.toString(index++));
+        }
+        for (int j = colStart; j < colEnd; j++) {
+            coordinates.add(String.format(Locale.ROOT, "%.6f,%.6f", toLon[j], toLat[j]));
+            destinations.add(Integer.toString(index++));
+        }
+
+        return webClient.get()
+            .uri(builder -> builder.path("/table/v1/driving/" + coordinates)
+                .queryParam("sources", sources.toString())
+                .queryParam("destinations", destinations.toString())
+                .queryParam("annotations", "duration,distance")
+                .build())
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .flatMap(body -> "Ok".equals(body.path("code").asText())
+                ? Mono.just(body)
+                : Mono.error(new IllegalStateException("OSRM respondeu " + body.path("code").asText())));
+    }
+
+    private static void fill(JsonNode table, Block block, int cols, double[] distances, float[] durations) {
+        JsonNode durationRows = table.path("durations");
+        JsonNode distanceRows = table.path("distances");
+        for (int i = block.rowStart; i < block.rowEnd; i++) {
+            JsonNode durationRow = durationRows.path(i - block.rowStart);
+            JsonNode distanceRow = distanceRows.path(i - block.rowStart);
+            for (int j = block.colStart; j < block.colEnd; j++) {
+                JsonNode duration = durationRow.path(j - block.colStart);
+                JsonNode distance = distanceRow.path(j - block.colStart);
+                if (duration.isNumber() && distance.isNumber()) {
+                    int cell = i * cols + j;
+                    distances[cell] = distance.asDouble() / 1000.0;
+                    durations[cell] = (float) duration.asDouble();
+                }
+            }
+        }
+    }
+
+    private record Block(int rowStart, int rowEnd, int colStart, int colEnd) {
+    }
+}
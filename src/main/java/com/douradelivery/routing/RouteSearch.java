@@ -0,0 +1,459 @@
+package com.douradelivery.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Estado mutável de uma solução, usado por um único worker do {@link VrpSolver}.
+ *
+ * Construção por inserção mais barata seguida de busca local (relocate, swap e 2-opt).
+ * Capacidade é restrição dura; janelas de tempo valem para a entrega no destino
+ * (chegada antecipada espera a abertura da janela). Pedidos com a janela já perdida
+ * ficam fora da busca e saem separados em {@link VrpSolution#getExpired()}.
+ */
+final class RouteSearch {
+
+    private static final double INFEASIBLE = Double.POSITIVE_INFINITY;
+    private static final double UNASSIGNED_PENALTY = 10_000.0;
+    private static final double EPS = 1e-6;
+    private static final int RANDOM_ROUTE_CANDIDATES = 4;
+
+    private final VrpProblem p;
+    private final Neighbourhood nb;
+    private final SplittableRandom random;
+    private final int n;
+    private final int m;
+
+    private final int[][] routes;
+    private final int[] sizes;
+    private final double[] loadWeight;
+    private final double[] loadVolume;
+    private final double[] distance;
+    private final double[] duration;
+    private final int[] routeOf;
+
+    private final int[] unassigned;
+    private final int[] unassignedPos;
+    private int unassignedCount;
+    private final int[] expired;
+
+    private final int[] buffer;
+    private final int[] buffer2;
+    private final int[] routeMark;
+    private int markStamp;
+    private double lastDuration;
+
+    // melhor inserção encontrada pela última chamada de findBestInsertion
+    private int insRoute;
+    private int insPos;
+    private double insDelta;
+    private double insDistance;
+    private double insDuration;
+
+    RouteSearch(VrpProblem problem, Neighbourhood neighbourhood, long seed) {
+        this.p = problem;
+        this.nb = neighbourhood;
+        this.random = new SplittableRandom(seed);
+        this.n = problem.getOrderCount();
+        this.m = problem.getVehicleCount();
+
+        this.routes = new int[m][4];
+        this.sizes = new int[m];
+        this.loadWeight = new double[m];
+        this.loadVolume = new double[m];
+        this.distance = new double[m];
+        this.duration = new double[m];
+        this.routeOf = new int[n];
+        Arrays.fill(routeOf, -1);
+
+        this.unassigned = new int[n];
+        this.unassignedPos = new int[n];
+        int expiredCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (problem.isExpired(i)) {
+                unassignedPos[i] = -1;
+                expiredCount++;
+            } else {
+                unassigned[unassignedCount] = i;
+                unassignedPos[i] = unassignedCount++;
+            }
+        }
+        this.expired = new int[expiredCount];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (unassignedPos[i] < 0) {
+                expired[k++] = i;
+            }
+        }
+
+        this.buffer = new int[n + 1];
+        this.buffer2 = new int[n + 1];
+        this.routeMark = new int[m];
+    }
+
+    /**
+     * Inserção mais barata em ordem de prioridade; noise > 0 perturba a ordem e os custos
+     * para que cada worker parta de uma solução diferente. Se o prazo passar, os pedidos
+     * que faltam ficam sem rota (os de maior prioridade já foram tentados).
+     */
+    void construct(double noise, long deadlineNanos) {
+        Integer[] sequence = new Integer[n];
+        double[] tieBreak = new double[n];
+        for (int i = 0; i < n; i++) {
+            sequence[i] = i;
+            tieBreak[i] = noise > 0 ? random.nextDouble() : i;
+        }
+        Arrays.sort(sequence, (a, b) -> {
+            int c = Double.compare(p.priorityWeight(b), p.priorityWeight(a));
+            if (c != 0) return c;
+            c = Double.compare(p.timeWindowEnd(a), p.timeWindowEnd(b));
+            if (c != 0) return c;
+            return Double.compare(tieBreak[a], tieBreak[b]);
+        });
+
+        for (int i : sequence) {
+            if (System.nanoTime() >= deadlineNanos) {
+                return;
+            }
+            if (unassignedPos[i] >= 0 && findBestInsertion(i, true, noise)) {
+                insert(i, insRoute, insPos, insDistance, insDuration);
+            }
+        }
+    }
+
+    /**
+     * Busca local até o prazo ou até estagnar
+     */
+    void improve(long deadlineNanos) {
+        long stagnationLimit = 20_000L + 50L * n;
+        long sinceImprovement = 0;
+        long iterations = 0;
+        double current = objective();
+
+        while (((iterations & 63) != 0 || System.nanoTime() < deadlineNanos) && sinceImprovement < stagnationLimit) {
+            iterations++;
+            int move = random.nextInt(unassignedCount > 0 ? 4 : 3);
+            switch (move) {
+                case 0 -> relocate();
+                case 1 -> swap();
+                case 2 -> twoOpt();
+                default -> insertUnassigned();
+            }
+            double next = objective();
+            if (next < current - EPS) {
+                current = next;
+                sinceImprovement = 0;
+            } else {
+                sinceImprovement++;
+            }
+        }
+    }
+
+    double objective() {
+        double total = 0;
+        for (int v = 0; v < m; v++) {
+            total += distance[v];
+        }
+        for (int k = 0; k < unassignedCount; k++) {
+            total += UNASSIGNED_PENALTY * p.priorityWeight(unassigned[k]);
+        }
+        return total;
+    }
+
+    VrpSolution toSolution() {
+        int[][] result = new int[m][];
+        for (int v = 0; v < m; v++) {
+            result[v] = Arrays.copyOf(routes[v], sizes[v]);
+        }
+        return new VrpSolution(result, distance.clone(), duration.clone(),
+            Arrays.copyOf(unassigned, unassignedCount), expired.clone(), objective());
+    }
+
+    // ------------------------------------------------------------------ movimentos
+
+    private void relocate() {
+        int order = randomAssignedOrder();
+        if (order < 0) {
+            return;
+        }
+        int v = routeOf[order];
+        int pos = indexOf(v, order);
+        double oldDistance = distance[v];
+        double oldDuration = duration[v];
+
+        int size = sizes[v];
+        int[] r = routes[v];
+        System.arraycopy(r, 0, buffer, 0, pos);
+        System.arraycopy(r, pos + 1, buffer, pos, size - pos - 1);
+        double reduced = evaluate(v, buffer, size - 1);
+        if (reduced == INFEASIBLE) {
+            return;
+        }
+        double gain = oldDistance - reduced;
+
+        removeAt(v, pos, reduced, lastDuration);
+        if (findBestInsertion(order, false, 0) && insDelta - gain < -EPS) {
+            insert(order, insRoute, insPos, insDistance, insDuration);
+        } else {
+            insert(order, v, pos, oldDistance, oldDuration);
+        }
+    }
+
+    private void swap() {
+        int a = randomAssignedOrder();
+        if (a < 0) {
+            return;
+        }
+        int va = routeOf[a];
+        int[] neighbours = nb.orders[a];
+        if (neighbours.length == 0) {
+            return;
+        }
+        int b = neighbours[random.nextInt(neighbours.length)];
+        int vb = routeOf[b];
+        if (vb < 0 || vb == va) {
+            return;
+        }
+
+        double wA = loadWeight[va] - p.weight(a) + p.weight(b);
+        double volA = loadVolume[va] - p.volume(a) + p.volume(b);
+        double wB = loadWeight[vb] - p.weight(b) + p.weight(a);
+        double volB = loadVolume[vb] - p.volume(b) + p.volume(a);
+        if (wA > p.capacityWeight(va) + EPS || volA > p.capacityVolume(va) + EPS
+            || wB > p.capacityWeight(vb) + EPS || volB > p.capacityVolume(vb) + EPS) {
+            return;
+        }
+
+        int pa = indexOf(va, a);
+        int pb = indexOf(vb, b);
+
+        System.arraycopy(routes[va], 0, buffer, 0, sizes[va]);
+        buffer[pa] = b;
+        double da = evaluate(va, buffer, sizes[va]);
+        if (da == INFEASIBLE) {
+            return;
+        }
+        double durA = lastDuration;
+
+        System.arraycopy(routes[vb], 0, buffer2, 0, sizes[vb]);
+        buffer2[pb] = a;
+        double db = evaluate(vb, buffer2, sizes[vb]);
+        if (db == INFEASIBLE) {
+            return;
+        }
+        double durB = lastDuration;
+
+        if (da + db - distance[va] - distance[vb] < -EPS) {
+            routes[va][pa] = b;
+            routes[vb][pb] = a;
+            routeOf[a] = vb;
+            routeOf[b] = va;
+            loadWeight[va] = wA;
+            loadVolume[va] = volA;
+            loadWeight[vb] = wB;
+            loadVolume[vb] = volB;
+            distance[va] = da;
+            duration[va] = durA;
+            distance[vb] = db;
+            duration[vb] = durB;
+        }
+    }
+
+    private void twoOpt() {
+        int order = randomAssignedOrder();
+        if (order < 0) {
+            return;
+        }
+        int v = routeOf[order];
+        int size = sizes[v];
+        if (size < 3) {
+            return;
+        }
+        int i = random.nextInt(size - 1);
+        int j = i + 1 + random.nextInt(size - i - 1);
+
+        System.arraycopy(routes[v], 0, buffer, 0, size);
+        for (int lo = i, hi = j; lo < hi; lo++, hi--) {
+            int tmp = buffer[lo];
+            buffer[lo] = buffer[hi];
+            buffer[hi] = tmp;
+        }
+        double d = evaluate(v, buffer, size);
+        if (d < distance[v] - EPS) {
+            System.arraycopy(buffer, 0, routes[v], 0, size);
+            distance[v] = d;
+            duration[v] = lastDuration;
+        }
+    }
+
+    private void insertUnassigned() {
+        if (unassignedCount == 0) {
+            return;
+        }
+        int order = unassigned[random.nextInt(unassignedCount)];
+        if (findBestInsertion(order, true, 0)) {
+            insert(order, insRoute, insPos, insDistance, insDuration);
+        }
+    }
+
+    // ------------------------------------------------------------------ inserção
+
+    private boolean findBestInsertion(int order, boolean allRoutes, double noise) {
+        insRoute = -1;
+        insDelta = INFEASIBLE;
+
+        if (allRoutes) {
+            for (int v = 0; v < m; v++) {
+                tryRoute(order, v, noise);
+            }
+        } else {
+            markStamp++;
+            for (int neighbour : nb.orders[order]) {
+                int v = routeOf[neighbour];
+                if (v >= 0 && routeMark[v] != markStamp) {
+                    routeMark[v] = markStamp;
+                    tryRoute(order, v, noise);
+                }
+            }
+            for (int v : nb.vehicles[order]) {
+                if (routeMark[v] != markStamp) {
+                    routeMark[v] = markStamp;
+                    tryRoute(order, v, noise);
+                }
+            }
+            for (int k = 0; k < RANDOM_ROUTE_CANDIDATES; k++) {
+                int v = random.nextInt(m);
+                if (routeMark[v] != markStamp) {
+                    routeMark[v] = markStamp;
+                    tryRoute(order, v, noise);
+                }
+            }
+        }
+        return insRoute >= 0;
+    }
+
+    private void tryRoute(int order, int v, double noise) {
+        if (loadWeight[v] + p.weight(order) > p.capacityWeight(v) + EPS
+            || loadVolume[v] + p.volume(order) > p.capacityVolume(v) + EPS) {
+            return;
+        }
+        int size = sizes[v];
+        int[] r = routes[v];
+        for (int pos = 0; pos <= size; pos++) {
+            System.arraycopy(r, 0, buffer, 0, pos);
+            buffer[pos] = order;
+            System.arraycopy(r, pos, buffer, pos + 1, size - pos);
+            double d = evaluate(v, buffer, size + 1);
+            if (d == INFEASIBLE) {
+                continue;
+            }
+            double delta = d - distance[v];
+            if (noise > 0) {
+                delta *= 1 + noise * random.nextDouble();
+            }
+            if (delta < insDelta) {
+                insDelta = delta;
+                insRoute = v;
+                insPos = pos;
+                insDistance = d;
+                insDuration = lastDuration;
+            }
+        }
+    }
+
+    private void insert(int order, int v, int pos, double newDistance, double newDuration) {
+        int size = sizes[v];
+        if (routes[v].length == size) {
+            routes[v] = Arrays.copyOf(routes[v], Math.max(4, size * 2));
+        }
+        int[] r = routes[v];
+        System.arraycopy(r, pos, r, pos + 1, size - pos);
+        r[pos] = order;
+        sizes[v] = size + 1;
+        loadWeight[v] += p.weight(order);
+        loadVolume[v] += p.volume(order);
+        distance[v] = newDistance;
+        duration[v] = newDuration;
+
+        if (routeOf[order] < 0 && unassignedPos[order] >= 0) {
+            int idx = unassignedPos[order];
+            int last = unassigned[--unassignedCount];
+            unassigned[idx] = last;
+            unassignedPos[last] = idx;
+            unassignedPos[order] = -1;
+        }
+        routeOf[order] = v;
+    }
+
+    /**
+     * Remove temporariamente (o pedido não volta para a lista de não atribuídos)
+     */
+    private void removeAt(int v, int pos, double newDistance, double newDuration) {
+        int[] r = routes[v];
+        int order = r[pos];
+        System.arraycopy(r, pos + 1, r, pos, sizes[v] - pos - 1);
+        sizes[v]--;
+        loadWeight[v] -= p.weight(order);
+        loadVolume[v] -= p.volume(order);
+        distance[v] = newDistance;
+        duration[v] = newDuration;
+        routeOf[order] = -1;
+    }
+
+    // ------------------------------------------------------------------ avaliação
+
+    /**
+     * Distância da rota ou INFEASIBLE se alguma janela de tempo estoura; a duração fica em lastDuration
+     */
+    private double evaluate(int v, int[] seq, int len) {
+        double time = 0;
+        double dist = 0;
+        int prev = -1;
+        double service = p.serviceTime();
+        for (int k = 0; k < len; k++) {
+            int o = seq[k];
+            if (prev < 0) {
+                dist += p.startDistance(v, o);
+                time += p.startDuration(v, o);
+            } else {
+                dist += p.transitionDistance(prev, o);
+                time += p.transitionDuration(prev, o);
+            }
+            time += service;
+            dist += p.legDistance(o);
+            time += p.legDuration(o);
+            if (time < p.timeWindowStart(o)) {
+                time = p.timeWindowStart(o);
+            }
+            if (time > p.timeWindowEnd(o)) {
+                return INFEASIBLE;
+            }
+            time += service;
+            prev = o;
+        }
+        lastDuration = time;
+        return dist;
+    }
+
+    private int randomAssignedOrder() {
+        if (unassignedCount + expired.length == n) {
+            return -1;
+        }
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int order = random.nextInt(n);
+            if (routeOf[order] >= 0) {
+                return order;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(int v, int order) {
+        int[] r = routes[v];
+        for (int k = 0; k < sizes[v]; k++) {
+            if (r[k] == order) {
+                return k;
+            }
+        }
+        throw new IllegalStateException("Pedido " + order + " não encontrado na rota " + v);
+    }
+}
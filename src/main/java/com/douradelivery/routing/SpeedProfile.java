@@ -0,0 +1,259 @@
+package com.douradelivery.routing;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabela de velocidades aprendidas por célula da grade e hora da semana (0 = segunda 00h).
+ *
+ * Imutável depois de montada: a consulta é uma sondagem em arrays primitivos
+ * (endereçamento aberto), sem travas, e uma instância nova substitui a anterior
+ * inteira. Sem amostras suficientes na hora, vale a média da célula; sem a célula,
+ * a média da hora em toda a cidade; sem nada, a velocidade padrão do chamador.
+ */
+public final class SpeedProfile {
+
+    public static final int HOURS_PER_WEEK = 168;
+
+    public static final SpeedProfile EMPTY = build(List.of(), 0.01, ZoneId.systemDefault(), 1);
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int MAX_STEPS = 64;
+
+    /**
+     * Totais de uma célula numa hora da semana
+     */
+    public record Sample(long cell, int hourOfWeek, double distanceKm, double seconds, double samples) {
+    }
+
+    private final double cellSizeDeg;
+    private final ZoneId zone;
+
+    // célula << 8 | hora -> km/h
+    private final long[] hourKeys;
+    private final float[] hourSpeeds;
+
+    // célula -> km/h em todas as horas
+    private final long[] cellKeys;
+    private final float[] cellSpeeds;
+
+    // hora -> km/h em todas as células (NaN sem dados)
+    private final float[] globalSpeeds;
+
+    private final int size;
+    private final boolean empty;
+
+    private SpeedProfile(double cellSizeDeg, ZoneId zone, long[] hourKeys, float[] hourSpeeds,
+                         long[] cellKeys, float[] cellSpeeds, float[] globalSpeeds, int size, boolean empty) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.zone = zone;
+        this.hourKeys = hourKeys;
+        this.hourSpeeds = hourSpeeds;
+        this.cellKeys = cellKeys;
+        this.cellSpeeds = cellSpeeds;
+        this.globalSpeeds = globalSpeeds;
+        this.size = size;
+        this.empty = empty;
+    }
+
+    /**
+     * Monta a tabela a partir dos totais; entradas com menos de minSamples ficam de fora
+     */
+    public static SpeedProfile build(List<Sample> samples, double cellSizeDeg, ZoneId zone, double minSamples) {
+        Map<Long, double[]> byCell = new HashMap<>();
+        double[][] byHour = new double[HOURS_PER_WEEK][3];
+        int hourEntries = 0;
+        for (Sample sample : samples) {
+            if (sample.seconds() <= 0 || sample.hourOfWeek() < 0 || sample.hourOfWeek() >= HOURS_PER_WEEK) {
+                continue;
+            }
+            accumulate(byCell.computeIfAbsent(sample.cell(), cell -> new double[3]), sample);
+            accumulate(byHour[sample.hourOfWeek()], sample);
+            if (sample.samples() >= minSamples) {
+                hourEntries++;
+            }
+        }
+
+        long[] hourKeys = newKeys(hourEntries);
+        float[] hourSpeeds = new float[hourKeys.length];
+        for (Sample sample : samples) {
+            if (sample.seconds() > 0 && sample.samples() >= minSamples
+                    && sample.hourOfWeek() >= 0 && sample.hourOfWeek() < HOURS_PER_WEEK) {
+                put(hourKeys, hourSpeeds, hourKey(sample.cell(), sample.hourOfWeek()),
+                    speed(sample.distanceKm(), sample.seconds()));
+            }
+        }
+
+        int cellEntries = (int) byCell.values().stream().filter(t -> t[2] >= minSamples).count();
+        long[] cellKeys = newKeys(cellEntries);
+        float[] cellSpeeds = new float[cellKeys.length];
+        for (Map.Entry<Long, double[]> entry : byCell.entrySet()) {
+            double[] totals = entry.getValue();
+            if (totals[2] >= minSamples) {
+                put(cellKeys, cellSpeeds, entry.getKey(), speed(totals[0], totals[1]));
+            }
+        }
+
+        float[] globalSpeeds = emptyHours();
+        boolean anyHour = false;
+        for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+            if (byHour[hour][2] >= minSamples) {
+                globalSpeeds[hour] = speed(byHour[hour][0], byHour[hour][1]);
+                anyHour = true;
+            }
+        }
+        return new SpeedProfile(cellSizeDeg, zone, hourKeys, hourSpeeds, cellKeys, cellSpeeds,
+                                globalSpeeds, hourEntries, hourEntries == 0 && cellEntries == 0 && !anyHour);
+    }
+
+    public static long cell(double lat, double lon, double cellSizeDeg) {
+        long row = (long) Math.floor(lat / cellSizeDeg);
+        long col = (long) Math.floor(lon / cellSizeDeg);
+        return ((row & 0xFFFFFFL) << 24) | (col & 0xFFFFFFL);
+    }
+
+    public static int hourOfWeek(long epochMillis, ZoneId zone) {
+        ZonedDateTime time = Instant.ofEpochMilli(epochMillis).atZone(zone);
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    /**
+     * Velocidade em km/h no ponto e instante, ou NaN sem dados
+     */
+    public double speedKmh(double lat, double lon, long epochMillis) {
+        return speedKmh(cell(lat, lon, cellSizeDeg), hourOfWeek(epochMillis, zone));
+    }
+
+    /**
+     * Duração em segundos de um trecho de distanceKm entre os dois pontos, saindo em
+     * departureMillis. O trecho é percorrido em passos de meia célula sobre a linha reta;
+     * cada passo usa a velocidade da sua célula na hora em que é alcançado, e passos sem
+     * dados usam fallbackSpeedKmh.
+     */
+    public double estimateSeconds(double lat1, double lon1, double lat2, double lon2,
+                                  double distanceKm, long departureMillis, double fallbackSpeedKmh) {
+        ZonedDateTime departure = Instant.ofEpochMilli(departureMillis).atZone(zone);
+        int hour = (departure.getDayOfWeek().getValue() - 1) * 24 + departure.getHour();
+        double secondsIntoHour = departure.getMinute() * 60 + departure.getSecond();
+        return estimateSeconds(lat1, lon1, lat2, lon2, distanceKm, hour, secondsIntoHour, fallbackSpeedKmh);
+    }
+
+    /**
+     * Variante com a hora de partida já decomposta, para preencher matrizes sem
+     * converter fuso a cada par
+     */
+    public double estimateSeconds(double lat1, double lon1, double lat2, double lon2, double distanceKm,
+                                  int departureHourOfWeek, double secondsIntoHour, double fallbackSpeedKmh) {
+        if (distanceKm <= 0) {
+            return 0;
+        }
+        if (empty) {
+            return distanceKm / fallbackSpeedKmh * 3600.0;
+        }
+        double straightKm = GeoMath.haversineKm(lat1, lon1, lat2, lon2);
+        double stepKm = cellSizeDeg * Math.toRadians(GeoMath.EARTH_RADIUS_KM) * 0.5;
+        int steps = (int) Math.max(1, Math.min(MAX_STEPS, Math.ceil(straightKm / stepKm)));
+        double stepDistance = distanceKm / steps;
+
+        double seconds = 0;
+        for (int s = 0; s < steps; s++) {
+            double t = (s + 0.5) / steps;
+            double lat = lat1 + (lat2 - lat1) * t;
+            double lon = lon1 + (lon2 - lon1) * t;
+            int hour = (departureHourOfWeek + (int) ((secondsIntoHour + seconds) / 3600.0)) % HOURS_PER_WEEK;
+            double speed = speedKmh(cell(lat, lon, cellSizeDeg), hour);
+            seconds += stepDistance / (Double.isNaN(speed) ? fallbackSpeedKmh : speed) * 3600.0;
+        }
+        return seconds;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Entradas célula x hora com amostras suficientes
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getCellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    private double speedKmh(long cell, int hour) {
+        float speed = get(hourKeys, hourSpeeds, hourKey(cell, hour));
+        if (Float.isNaN(speed)) {
+            speed = get(cellKeys, cellSpeeds, cell);
+        }
+        if (Float.isNaN(speed)) {
+            speed = globalSpeeds[hour];
+        }
+        return speed;
+    }
+
+    private static long hourKey(long cell, int hour) {
+        return (cell << 8) | hour;
+    }
+
+    private static void accumulate(double[] totals, Sample sample) {
+        totals[0] += sample.distanceKm();
+        totals[1] += sample.seconds();
+        totals[2] += sample.samples();
+    }
+
+    private static float speed(double distanceKm, double seconds) {
+        return (float) (distanceKm / seconds * 3600.0);
+    }
+
+    private static float[] emptyHours() {
+        float[] hours = new float[HOURS_PER_WEEK];
+        Arrays.fill(hours, Float.NaN);
+        return hours;
+    }
+
+    // tabela com ocupação de no máximo 50%, capacidade potência de 2
+    private static long[] newKeys(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, entries) * 2 - 1) << 1;
+        long[] keys = new long[Math.max(2, capacity)];
+        Arrays.fill(keys, EMPTY_KEY);
+        return keys;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static void put(long[] keys, float[] values, long key, float value) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != EMPTY_KEY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private static float get(long[] keys, float[] values, long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != EMPTY_KEY) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return Float.NaN;
+    }
+}
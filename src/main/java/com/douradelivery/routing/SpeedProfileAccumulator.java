@@ -0,0 +1,101 @@
+package com.douradelivery.routing;
+
+import com.douradelivery.tracking.TelemetryPoint;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregação incremental das velocidades observadas na telemetria, por célula e hora da semana.
+ *
+ * Cada par de pontos consecutivos do mesmo entregador vira um trecho; a velocidade é a
+ * distância percorrida sobre o tempo decorrido, não a informada pelo aparelho. Trechos
+ * parados (entrega, pausa), com intervalo longo ou velocidade implausível são descartados.
+ * Mutável; o chamador garante acesso exclusivo.
+ */
+public final class SpeedProfileAccumulator {
+
+    private static final long MIN_INTERVAL_MS = 3_000;
+    private static final long MAX_INTERVAL_MS = 120_000;
+    private static final double MIN_SPEED_KMH = 1.0;
+    private static final double MAX_SPEED_KMH = 150.0;
+    private static final double MAX_ACCURACY_M = 100.0;
+
+    private final double cellSizeDeg;
+    private final ZoneId zone;
+
+    private final Map<Long, TelemetryPoint> lastByDriver = new HashMap<>();
+
+    // célula << 8 | hora -> {km, segundos, trechos}
+    private final Map<Long, double[]> totals = new HashMap<>();
+
+    public SpeedProfileAccumulator(double cellSizeDeg, ZoneId zone) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.zone = zone;
+    }
+
+    /**
+     * Pontos de um entregador devem chegar em ordem cronológica; atrasados são ignorados
+     */
+    public void add(TelemetryPoint point) {
+        if (!Double.isNaN(point.accuracy()) && point.accuracy() > MAX_ACCURACY_M) {
+            return;
+        }
+        TelemetryPoint previous = lastByDriver.get(point.driverId());
+        if (previous != null && point.timestampMillis() <= previous.timestampMillis()) {
+            return;
+        }
+        lastByDriver.put(point.driverId(), point);
+        if (previous == null) {
+            return;
+        }
+
+        long interval = point.timestampMillis() - previous.timestampMillis();
+        if (interval < MIN_INTERVAL_MS || interval > MAX_INTERVAL_MS) {
+            return;
+        }
+        double km = GeoMath.haversineKm(previous.lat(), previous.lon(), point.lat(), point.lon());
+        double seconds = interval / 1000.0;
+        double speed = km / seconds * 3600.0;
+        if (speed < MIN_SPEED_KMH || speed > MAX_SPEED_KMH) {
+            return;
+        }
+
+        // o trecho conta na célula do ponto médio e na hora em que começou
+        long cell = SpeedProfile.cell((previous.lat() + point.lat()) * 0.5, (previous.lon() + point.lon()) * 0.5,
+                                      cellSizeDeg);
+        int hour = SpeedProfile.hourOfWeek(previous.timestampMillis(), zone);
+        double[] t = totals.computeIfAbsent((cell << 8) | hour, key -> new double[3]);
+        t[0] += km;
+        t[1] += seconds;
+        t[2] += 1;
+    }
+
+    /**
+     * Totais acumulados desde a última chamada; o último ponto de cada entregador é mantido
+     */
+    public List<SpeedProfile.Sample> drain() {
+        List<SpeedProfile.Sample> samples = new ArrayList<>(totals.size());
+        for (Map.Entry<Long, double[]> entry : totals.entrySet()) {
+            long key = entry.getKey();
+            double[] t = entry.getValue();
+            samples.add(new SpeedProfile.Sample(key >>> 8, (int) (key & 0xFF), t[0], t[1], t[2]));
+        }
+        totals.clear();
+        return samples;
+    }
+
+    /**
+     * Esquece o último ponto dos entregadores sem telemetria desde olderThanMillis
+     */
+    public void evictIdle(long olderThanMillis) {
+        lastByDriver.values().removeIf(point -> point.timestampMillis() < olderThanMillis);
+    }
+
+    public boolean isEmpty() {
+        return totals.isEmpty();
+    }
+}
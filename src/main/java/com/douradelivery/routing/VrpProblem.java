@@ -0,0 +1,149 @@
+package com.douradelivery.routing;
+
+import java.util.Arrays;
+
+/**
+ * Instância do problema de roteamento (CVRP com janelas de tempo) em layout primitivo.
+ *
+ * Cada pedido é um "job": coleta na origem seguida da entrega no destino.
+ * Tempos em segundos relativos ao início do planejamento, distâncias em km.
+ */
+public final class VrpProblem {
+
+    private final int orderCount;
+    private final int vehicleCount;
+    private final double serviceTime;
+
+    private final double[] weight;
+    private final double[] volume;
+    private final double[] timeWindowStart;
+    private final double[] timeWindowEnd;
+    private final double[] priorityWeight;
+    private final double[] legDistance;
+    private final double[] legDuration;
+
+    private final double[] capacityWeight;
+    private final double[] capacityVolume;
+
+    // destino do pedido i -> origem do pedido j (n x n)
+    private final DistanceMatrix transitions;
+
+    // posição atual do veículo v -> origem do pedido j (m x n)
+    private final DistanceMatrix starts;
+
+    public VrpProblem(int orderCount, int vehicleCount, double serviceTime,
+                      DistanceMatrix transitions, DistanceMatrix starts) {
+        if (transitions.getRows() != orderCount || transitions.getCols() != orderCount
+            || starts.getRows() != vehicleCount || starts.getCols() != orderCount) {
+            throw new IllegalArgumentException("Matrizes de distância incompatíveis com o problema");
+        }
+        this.orderCount = orderCount;
+        this.vehicleCount = vehicleCount;
+        this.serviceTime = serviceTime;
+        this.transitions = transitions;
+        this.starts = starts;
+
+        this.weight = new double[orderCount];
+        this.volume = new double[orderCount];
+        this.timeWindowStart = new double[orderCount];
+        this.timeWindowEnd = new double[orderCount];
+        this.priorityWeight = new double[orderCount];
+        this.legDistance = new double[orderCount];
+        this.legDuration = new double[orderCount];
+        Arrays.fill(timeWindowEnd, Double.POSITIVE_INFINITY);
+        Arrays.fill(priorityWeight, 1.0);
+
+        this.capacityWeight = new double[vehicleCount];
+        this.capacityVolume = new double[vehicleCount];
+    }
+
+    public void setOrder(int i, double weight, double volume, double twStart, double twEnd, double priorityWeight) {
+        this.weight[i] = weight;
+        this.volume[i] = volume;
+        this.timeWindowStart[i] = twStart;
+        this.timeWindowEnd[i] = twEnd;
+        this.priorityWeight[i] = priorityWeight;
+    }
+
+    public void setLeg(int i, double distance, double duration) {
+        legDistance[i] = distance;
+        legDuration[i] = duration;
+    }
+
+    public void setVehicle(int v, double capacityWeight, double capacityVolume) {
+        this.capacityWeight[v] = capacityWeight;
+        this.capacityVolume[v] = capacityVolume;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    /**
+     * Janela de entrega que fecha antes de qualquer entrega possível, mesmo com o veículo
+     * já na origem: o pedido não cabe em nenhuma rota e não adianta reotimizar
+     */
+    public boolean isExpired(int i) {
+        return timeWindowEnd[i] < serviceTime + legDuration[i];
+    }
+
+    double serviceTime() {
+        return serviceTime;
+    }
+
+    double weight(int i) {
+        return weight[i];
+    }
+
+    double volume(int i) {
+        return volume[i];
+    }
+
+    double timeWindowStart(int i) {
+        return timeWindowStart[i];
+    }
+
+    double timeWindowEnd(int i) {
+        return timeWindowEnd[i];
+    }
+
+    double priorityWeight(int i) {
+        return priorityWeight[i];
+    }
+
+    double legDistance(int i) {
+        return legDistance[i];
+    }
+
+    double legDuration(int i) {
+        return legDuration[i];
+    }
+
+    double capacityWeight(int v) {
+        return capacityWeight[v];
+    }
+
+    double capacityVolume(int v) {
+        return capacityVolume[v];
+    }
+
+    double transitionDistance(int from, int to) {
+        return transitions.distance(from, to);
+    }
+
+    double transitionDuration(int from, int to) {
+        return transitions.duration(from, to);
+    }
+
+    double startDistance(int vehicle, int order) {
+        return starts.distance(vehicle, order);
+    }
+
+    double startDuration(int vehicle, int order) {
+        return starts.duration(vehicle, order);
+    }
+}
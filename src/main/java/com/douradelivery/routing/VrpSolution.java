@@ -0,0 +1,75 @@
+package com.douradelivery.routing;
+
+import java.util.stream.IntStream;
+
+/**
+ * Resultado da otimização: sequência de pedidos (índices do problema) por veículo.
+ */
+public final class VrpSolution {
+
+    private final int[][] routes;
+    private final double[] routeDistance;
+    private final double[] routeDuration;
+    private final int[] unassigned;
+    private final int[] expired;
+    private final double objective;
+
+    VrpSolution(int[][] routes, double[] routeDistance, double[] routeDuration, int[] unassigned, int[] expired,
+                double objective) {
+        this.routes = routes;
+        this.routeDistance = routeDistance;
+        this.routeDuration = routeDuration;
+        this.unassigned = unassigned;
+        this.expired = expired;
+        this.objective = objective;
+    }
+
+    static VrpSolution empty(VrpProblem problem) {
+        int n = problem.getOrderCount();
+        int m = problem.getVehicleCount();
+        return new VrpSolution(new int[m][0], new double[m], new double[m],
+            IntStream.range(0, n).filter(i -> !problem.isExpired(i)).toArray(),
+            IntStream.range(0, n).filter(problem::isExpired).toArray(), 0.0);
+    }
+
+    /**
+     * Pedidos do veículo v, na ordem de atendimento
+     */
+    public int[] getRoute(int vehicle) {
+        return routes[vehicle];
+    }
+
+    public double getRouteDistance(int vehicle) {
+        return routeDistance[vehicle];
+    }
+
+    public double getRouteDuration(int vehicle) {
+        return routeDuration[vehicle];
+    }
+
+    /**
+     * Pedidos que ficaram sem rota nesta rodada (capacidade ou janela apertada)
+     */
+    public int[] getUnassigned() {
+        return unassigned;
+    }
+
+    /**
+     * Pedidos com a janela de entrega já perdida ({@link VrpProblem#isExpired}); fora da busca
+     */
+    public int[] getExpired() {
+        return expired;
+    }
+
+    public double getObjective() {
+        return objective;
+    }
+
+    public double getTotalDistance() {
+        double total = 0;
+        for (double d : routeDistance) {
+            total += d;
+        }
+        return total;
+    }
+}
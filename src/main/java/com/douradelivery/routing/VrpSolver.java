@@ -0,0 +1,75 @@
+package com.douradelivery.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Otimizador de rotas multi-veículo com capacidade e janelas de tempo.
+ *
+ * Cada worker constrói uma solução inicial por inserção mais barata (o primeiro de forma
+ * determinística, os demais com ruído) e depois aplica busca local até o orçamento de
+ * tempo acabar. O orçamento vale também para a construção: o que não coube nele sai
+ * como não atribuído. A melhor solução entre os workers é devolvida.
+ */
+public class VrpSolver {
+
+    private static final int ORDER_NEIGHBOURS = 20;
+    private static final int VEHICLE_NEIGHBOURS = 5;
+    private static final double CONSTRUCTION_NOISE = 0.15;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    public VrpSolution solve(VrpProblem problem, long timeBudgetMillis, int workers) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        if (problem.getOrderCount() == 0 || problem.getVehicleCount() == 0) {
+            return VrpSolution.empty(problem);
+        }
+
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        Neighbourhood neighbourhood = Neighbourhood.build(problem, ORDER_NEIGHBOURS, VEHICLE_NEIGHBOURS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "vrp-worker-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<RouteSearch>> futures = new ArrayList<>(threads);
+            for (int w = 0; w < threads; w++) {
+                final long seed = 0x9E3779B97F4A7C15L * (w + 1);
+                final double noise = w == 0 ? 0.0 : CONSTRUCTION_NOISE;
+                futures.add(executor.submit(() -> {
+                    RouteSearch search = new RouteSearch(problem, neighbourhood, seed);
+                    search.construct(noise, deadline);
+                    search.improve(deadline);
+                    return search;
+                }));
+            }
+
+            RouteSearch best = null;
+            double bestObjective = Double.POSITIVE_INFINITY;
+            for (Future<RouteSearch> future : futures) {
+                RouteSearch candidate = future.get();
+                double objective = candidate.objective();
+                if (objective < bestObjective) {
+                    best = candidate;
+                    bestObjective = objective;
+                }
+            }
+            return best.toSolution();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Otimização de rotas interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na otimização de rotas", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
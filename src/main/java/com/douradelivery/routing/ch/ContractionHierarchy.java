@@ -0,0 +1,558 @@
+package com.douradelivery.routing.ch;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchies sobre um {@link RoadGraph}, com peso = tempo de viagem.
+ *
+ * O pré-processamento contrai os nós em ordem de importância (diferença de arestas com
+ * atualização preguiçosa) e guarda apenas os grafos "para cima" em CSR. Consultas
+ * muitos-para-muitos usam o algoritmo de buckets: uma busca reversa por destino e uma
+ * busca direta por origem, ambas restritas a arestas que sobem na hierarquia.
+ */
+public final class ContractionHierarchy {
+
+    private static final int SIMULATION_SETTLE_LIMIT = 60;
+    private static final int CONTRACTION_SETTLE_LIMIT = 500;
+
+    private final int nodeCount;
+
+    private final int[] fwdStart;
+    private final int[] fwdTarget;
+    private final float[] fwdSeconds;
+    private final float[] fwdMeters;
+
+    private final int[] bwdStart;
+    private final int[] bwdTarget;
+    private final float[] bwdSeconds;
+    private final float[] bwdMeters;
+
+    private final ThreadLocal<SearchSpace[]> workspaces;
+
+    private ContractionHierarchy(int nodeCount, EdgeBuffer forward, EdgeBuffer backward) {
+        this.nodeCount = nodeCount;
+        this.fwdStart = new int[nodeCount + 1];
+        this.fwdTarget = new int[forward.size];
+        this.fwdSeconds = new float[forward.size];
+        this.fwdMeters = new float[forward.size];
+        forward.toCsr(nodeCount, fwdStart, fwdTarget, fwdSeconds, fwdMeters);
+
+        this.bwdStart = new int[nodeCount + 1];
+        this.bwdTarget = new int[backward.size];
+        this.bwdSeconds = new float[backward.size];
+        this.bwdMeters = new float[backward.size];
+        backward.toCsr(nodeCount, bwdStart, bwdTarget, bwdSeconds, bwdMeters);
+
+        this.workspaces = ThreadLocal.withInitial(() ->
+            new SearchSpace[] {new SearchSpace(nodeCount), new SearchSpace(nodeCount)});
+    }
+
+    public static ContractionHierarchy build(RoadGraph graph) {
+        return new Contractor(graph).run();
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getShortcutGraphSize() {
+        return fwdTarget.length + bwdTarget.length;
+    }
+
+    /**
+     * Tempos (s) e distâncias (m) de cada origem para cada destino, em ordem linha-a-linha.
+     * Pares sem caminho ficam com Float.POSITIVE_INFINITY.
+     */
+    public void manyToMany(int[] sources, int[] targets, float[] seconds, float[] meters) {
+        int rows = sources.length;
+        int cols = targets.length;
+        Arrays.fill(seconds, Float.POSITIVE_INFINITY);
+        Arrays.fill(meters, Float.POSITIVE_INFINITY);
+
+        // 1) buscas reversas: cada nó alcançado recebe uma entrada de bucket (destino, custo)
+        BucketEntries[] perTarget = new BucketEntries[cols];
+        IntStream.range(0, cols).parallel().forEach(j -> {
+            if (targets[j] < 0) {
+                perTarget[j] = BucketEntries.EMPTY;
+                return;
+            }
+            SearchSpace ws = workspaces.get()[0];
+            upwardSearch(targets[j], bwdStart, bwdTarget, bwdSeconds, bwdMeters, ws);
+            perTarget[j] = BucketEntries.copyOf(ws);
+        });
+        Buckets buckets = Buckets.build(nodeCount, perTarget);
+
+        // 2) buscas diretas: cada nó alcançado varre seu bucket
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            if (sources[i] < 0) {
+                return;
+            }
+            SearchSpace ws = workspaces.get()[0];
+            upwardSearch(sources[i], fwdStart, fwdTarget, fwdSeconds, fwdMeters, ws);
+            int row = i * cols;
+            for (int k = 0; k < ws.settledCount; k++) {
+                int node = ws.settled[k];
+                float d = ws.seconds[node];
+                float m = ws.meters[node];
+                for (int b = buckets.start[node]; b < buckets.start[node + 1]; b++) {
+                    int cell = row + buckets.target[b];
+                    float candidate = d + buckets.seconds[b];
+                    if (candidate < seconds[cell]) {
+                        seconds[cell] = candidate;
+                        meters[cell] = m + buckets.meters[b];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Consulta ponto-a-ponto; devolve {segundos, metros} ou infinito se não houver caminho
+     */
+    public float[] route(int source, int target) {
+        SearchSpace[] pair = workspaces.get();
+        SearchSpace backward = pair[1];
+        SearchSpace forward = pair[0];
+        upwardSearch(target, bwdStart, bwdTarget, bwdSeconds, bwdMeters, backward);
+        upwardSearch(source, fwdStart, fwdTarget, fwdSeconds, fwdMeters, forward);
+
+        float best = Float.POSITIVE_INFINITY;
+        float bestMeters = Float.POSITIVE_INFINITY;
+        for (int k = 0; k < forward.settledCount; k++) {
+            int node = forward.settled[k];
+            if (backward.isReached(node)) {
+                float candidate = forward.seconds[node] + backward.seconds[node];
+                if (candidate < best) {
+                    best = candidate;
+                    bestMeters = forward.meters[node] + backward.meters[node];
+                }
+            }
+        }
+        return new float[] {best, bestMeters};
+    }
+
+    private static void upwardSearch(int start, int[] csrStart, int[] csrTarget,
+                                     float[] csrSeconds, float[] csrMeters, SearchSpace ws) {
+        ws.reset();
+        ws.reach(start, 0f, 0f);
+        MinHeap heap = ws.heap;
+        heap.push(start, 0f);
+        while (!heap.isEmpty()) {
+            float d = heap.peekKey();
+            int node = heap.pop();
+            if (d > ws.seconds[node] || !ws.settle(node)) {
+                continue;
+            }
+            float m = ws.meters[node];
+            for (int e = csrStart[node]; e < csrStart[node + 1]; e++) {
+                int next = csrTarget[e];
+                float nd = d + csrSeconds[e];
+                if (!ws.isReached(next) || nd < ws.seconds[next]) {
+                    ws.reach(next, nd, m + csrMeters[e]);
+                    heap.push(next, nd);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ estruturas de busca
+
+    private static final class SearchSpace {
+        final float[] seconds;
+        final float[] meters;
+        final int[] reachedStamp;
+        final int[] settledStamp;
+        int[] settled = new int[64];
+        int settledCount;
+        int stamp;
+        final MinHeap heap = new MinHeap(64);
+
+        SearchSpace(int n) {
+            seconds = new float[n];
+            meters = new float[n];
+            reachedStamp = new int[n];
+            settledStamp = new int[n];
+        }
+
+        void reset() {
+            stamp++;
+            settledCount = 0;
+            heap.clear();
+        }
+
+        boolean isReached(int node) {
+            return reachedStamp[node] == stamp;
+        }
+
+        void reach(int node, float s, float m) {
+            reachedStamp[node] = stamp;
+            seconds[node] = s;
+            meters[node] = m;
+        }
+
+        boolean settle(int node) {
+            if (settledStamp[node] == stamp) {
+                return false;
+            }
+            settledStamp[node] = stamp;
+            if (settledCount == settled.length) {
+                settled = Arrays.copyOf(settled, settledCount * 2);
+            }
+            settled[settledCount++] = node;
+            return true;
+        }
+    }
+
+    private static final class BucketEntries {
+        static final BucketEntries EMPTY = new BucketEntries(new int[0], new float[0], new float[0]);
+
+        final int[] nodes;
+        final float[] seconds;
+        final float[] meters;
+
+        BucketEntries(int[] nodes, float[] seconds, float[] meters) {
+            this.nodes = nodes;
+            this.seconds = seconds;
+            this.meters = meters;
+        }
+
+        static BucketEntries copyOf(SearchSpace ws) {
+            int count = ws.settledCount;
+            int[] nodes = Arrays.copyOf(ws.settled, count);
+            float[] seconds = new float[count];
+            float[] meters = new float[count];
+            for (int k = 0; k < count; k++) {
+                seconds[k] = ws.seconds[nodes[k]];
+                meters[k] = ws.meters[nodes[k]];
+            }
+            return new BucketEntries(nodes, seconds, meters);
+        }
+    }
+
+    private static final class Buckets {
+        final int[] start;
+        final int[] target;
+        final float[] seconds;
+        final float[] meters;
+
+        private Buckets(int[] start, int[] target, float[] seconds, float[] meters) {
+            this.start = start;
+            this.target = target;
+            this.seconds = seconds;
+            this.meters = meters;
+        }
+
+        static Buckets build(int nodeCount, BucketEntries[] perTarget) {
+            int[] start = new int[nodeCount + 1];
+            int total = 0;
+            for (BucketEntries entries : perTarget) {
+                for (int node : entries.nodes) {
+                    start[node + 1]++;
+                }
+                total += entries.nodes.length;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                start[i + 1] += start[i];
+            }
+            int[] fill = Arrays.copyOf(start, nodeCount);
+            int[] target = new int[total];
+            float[] seconds = new float[total];
+            float[] meters = new float[total];
+            for (int j = 0; j < perTarget.length; j++) {
+                BucketEntries entries = perTarget[j];
+                for (int k = 0; k < entries.nodes.length; k++) {
+                    int pos = fill[entries.nodes[k]]++;
+                    target[pos] = j;
+                    seconds[pos] = entries.seconds[k];
+                    meters[pos] = entries.meters[k];
+                }
+            }
+            return new Buckets(start, target, seconds, meters);
+        }
+    }
+
+    /**
+     * Lista de arestas (nó, vizinho, custo) acumulada durante a contração e depois convertida para CSR
+     */
+    private static final class EdgeBuffer {
+        int[] owner = new int[1024];
+        int[] target = new int[1024];
+        float[] seconds = new float[1024];
+        float[] meters = new float[1024];
+        int size;
+
+        void add(int from, int to, float s, float m) {
+            if (size == owner.length) {
+                int capacity = size * 2;
+                owner = Arrays.copyOf(owner, capacity);
+                target = Arrays.copyOf(target, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+                meters = Arrays.copyOf(meters, capacity);
+            }
+            owner[size] = from;
+            target[size] = to;
+            seconds[size] = s;
+            meters[size] = m;
+            size++;
+        }
+
+        void toCsr(int nodeCount, int[] csrStart, int[] csrTarget, float[] csrSeconds, float[] csrMeters) {
+            for (int e = 0; e < size; e++) {
+                csrStart[owner[e] + 1]++;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                csrStart[i + 1] += csrStart[i];
+            }
+            int[] fill = Arrays.copyOf(csrStart, nodeCount);
+            for (int e = 0; e < size; e++) {
+                int pos = fill[owner[e]]++;
+                csrTarget[pos] = target[e];
+                csrSeconds[pos] = seconds[e];
+                csrMeters[pos] = meters[e];
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ pré-processamento
+
+    private static final class Contractor {
+        private final int n;
+        private final Adjacency out;
+        private final Adjacency in;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbours;
+
+        private final float[] witnessDist;
+        private final int[] witnessStamp;
+        private int stamp;
+        private final MinHeap witnessHeap = new MinHeap(256);
+
+        private final EdgeBuffer forward = new EdgeBuffer();
+        private final EdgeBuffer backward = new EdgeBuffer();
+
+        Contractor(RoadGraph graph) {
+            this.n = graph.getNodeCount();
+            this.out = new Adjacency(n);
+            this.in = new Adjacency(n);
+            this.contracted = new boolean[n];
+            this.deletedNeighbours = new int[n];
+            this.witnessDist = new float[n];
+            this.witnessStamp = new int[n];
+
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                int from = graph.edgeFrom(e);
+                int to = graph.edgeTo(e);
+                if (from == to) {
+                    continue;
+                }
+                addEdge(from, to, graph.edgeSeconds(e), graph.edgeMeters(e));
+                if (!graph.isOneway(e)) {
+                    addEdge(to, from, graph.edgeSeconds(e), graph.edgeMeters(e));
+                }
+            }
+        }
+
+        ContractionHierarchy run() {
+            MinHeap queue = new MinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.push(v, priority(v));
+            }
+            while (!queue.isEmpty()) {
+                int v = queue.pop();
+                float current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.push(v, current);
+                    continue;
+                }
+                contract(v);
+            }
+            return new ContractionHierarchy(n, forward, backward);
+        }
+
+        private float priority(int v) {
+            int degree = 0;
+            for (int k = 0; k < out.size[v]; k++) {
+                if (!contracted[out.node[v][k]]) degree++;
+            }
+            for (int k = 0; k < in.size[v]; k++) {
+                if (!contracted[in.node[v][k]]) degree++;
+            }
+            int shortcuts = shortcuts(v, false);
+            return (shortcuts - degree) + 2f * deletedNeighbours[v];
+        }
+
+        private void contract(int v) {
+            shortcuts(v, true);
+
+            // arestas restantes de v ligam a nós ainda não contraídos, ou seja, de rank maior;
+            // as arestas de volta para v saem das listas dos vizinhos para manter as buscas enxutas
+            for (int k = 0; k < out.size[v]; k++) {
+                int x = out.node[v][k];
+                if (!contracted[x]) {
+                    forward.add(v, x, out.seconds[v][k], out.meters[v][k]);
+                    deletedNeighbours[x]++;
+                    in.remove(x, v);
+                }
+            }
+            for (int k = 0; k < in.size[v]; k++) {
+                int u = in.node[v][k];
+                if (!contracted[u]) {
+                    backward.add(v, u, in.seconds[v][k], in.meters[v][k]);
+                    deletedNeighbours[u]++;
+                    out.remove(u, v);
+                }
+            }
+            contracted[v] = true;
+        }
+
+        /**
+         * Conta (ou cria) os atalhos necessários para remover v do grafo
+         */
+        private int shortcuts(int v, boolean create) {
+            int count = 0;
+            int settleLimit = create ? CONTRACTION_SETTLE_LIMIT : SIMULATION_SETTLE_LIMIT;
+            for (int a = 0; a < in.size[v]; a++) {
+                int u = in.node[v][a];
+                if (contracted[u]) {
+                    continue;
+                }
+                float w1 = in.seconds[v][a];
+                float m1 = in.meters[v][a];
+
+                float maxWeight = -1f;
+                for (int b = 0; b < out.size[v]; b++) {
+                    int x = out.node[v][b];
+                    if (x != u && !contracted[x]) {
+                        maxWeight = Math.max(maxWeight, w1 + out.seconds[v][b]);
+                    }
+                }
+                if (maxWeight < 0) {
+                    continue;
+                }
+
+                witnessSearch(u, v, maxWeight, settleLimit);
+
+                for (int b = 0; b < out.size[v]; b++) {
+                    int x = out.node[v][b];
+                    if (x == u || contracted[x]) {
+                        continue;
+                    }
+                    float weight = w1 + out.seconds[v][b];
+                    if (witnessStamp[x] == stamp && witnessDist[x] <= weight) {
+                        continue;
+                    }
+                    count++;
+                    if (create) {
+                        addEdge(u, x, weight, m1 + out.meters[v][b]);
+                    }
+                }
+            }
+            return count;
+        }
+
+        private void witnessSearch(int source, int avoid, float maxWeight, int settleLimit) {
+            stamp++;
+            witnessStamp[source] = stamp;
+            witnessDist[source] = 0f;
+            MinHeap heap = witnessHeap;
+            heap.clear();
+            heap.push(source, 0f);
+            int settled = 0;
+            while (!heap.isEmpty()) {
+                float d = heap.peekKey();
+                int node = heap.pop();
+                if (d > witnessDist[node]) {
+                    continue;
+                }
+                if (d > maxWeight || ++settled > settleLimit) {
+                    break;
+                }
+                for (int k = 0; k < out.size[node]; k++) {
+                    int next = out.node[node][k];
+                    if (next == avoid || contracted[next]) {
+                        continue;
+                    }
+                    float nd = d + out.seconds[node][k];
+                    if (witnessStamp[next] != stamp || nd < witnessDist[next]) {
+                        witnessStamp[next] = stamp;
+                        witnessDist[next] = nd;
+                        heap.push(next, nd);
+                    }
+                }
+            }
+        }
+
+        private void addEdge(int from, int to, float seconds, float meters) {
+            int existing = out.indexOf(from, to);
+            if (existing >= 0) {
+                if (seconds < out.seconds[from][existing]) {
+                    out.seconds[from][existing] = seconds;
+                    out.meters[from][existing] = meters;
+                    int reverse = in.indexOf(to, from);
+                    in.seconds[to][reverse] = seconds;
+                    in.meters[to][reverse] = meters;
+                }
+                return;
+            }
+            out.add(from, to, seconds, meters);
+            in.add(to, from, seconds, meters);
+        }
+    }
+
+    /**
+     * Listas de adjacência dinâmicas (uma por nó) usadas somente durante a contração
+     */
+    private static final class Adjacency {
+        final int[][] node;
+        final float[][] seconds;
+        final float[][] meters;
+        final int[] size;
+
+        Adjacency(int n) {
+            node = new int[n][];
+            seconds = new float[n][];
+            meters = new float[n][];
+            size = new int[n];
+            for (int i = 0; i < n; i++) {
+                node[i] = new int[2];
+                seconds[i] = new float[2];
+                meters[i] = new float[2];
+            }
+        }
+
+        int indexOf(int owner, int neighbour) {
+            int[] list = node[owner];
+            for (int k = 0; k < size[owner]; k++) {
+                if (list[k] == neighbour) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        void remove(int owner, int neighbour) {
+            int k = indexOf(owner, neighbour);
+            if (k < 0) {
+                return;
+            }
+            int last = --size[owner];
+            node[owner][k] = node[owner][last];
+            seconds[owner][k] = seconds[owner][last];
+            meters[owner][k] = meters[owner][last];
+        }
+
+        void add(int owner, int neighbour, float s, float m) {
+            int k = size[owner];
+            if (k == node[owner].length) {
+                node[owner] = Arrays.copyOf(node[owner], k * 2);
+                seconds[owner] = Arrays.copyOf(seconds[owner], k * 2);
+                meters[owner] = Arrays.copyOf(meters[owner], k * 2);
+            }
+            node[owner][k] = neighbour;
+            seconds[owner][k] = s;
+            meters[owner][k] = m;
+            size[owner] = k + 1;
+        }
+    }
+}
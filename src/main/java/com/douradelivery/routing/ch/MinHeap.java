@@ -0,0 +1,77 @@
+package com.douradelivery.routing.ch;
+
+import java.util.Arrays;
+
+/**
+ * Heap binário mínimo de pares (chave float, nó int) sem objetos por entrada.
+ * Não tem decrease-key: entradas antigas são descartadas por quem consome.
+ */
+final class MinHeap {
+
+    private float[] keys;
+    private int[] nodes;
+    private int size;
+
+    MinHeap(int initialCapacity) {
+        keys = new float[Math.max(16, initialCapacity)];
+        nodes = new int[keys.length];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    float peekKey() {
+        return keys[0];
+    }
+
+    void push(int node, float key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    int pop() {
+        int result = nodes[0];
+        int last = --size;
+        if (last > 0) {
+            float key = keys[last];
+            int node = nodes[last];
+            int i = 0;
+            int half = last >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < last && keys[right] < keys[child]) {
+                    child = right;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.douradelivery.routing.ch;
+
+import com.douradelivery.routing.GeoMath;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice em grade para encaixar coordenadas no nó mais próximo do grafo viário
+ */
+public final class NodeLocator {
+
+    private static final double CELL_DEGREES = 0.01;
+    private static final int MAX_RINGS = 5;
+
+    private final RoadGraph graph;
+    private final Map<Long, int[]> cells;
+
+    public NodeLocator(RoadGraph graph) {
+        this.graph = graph;
+        Map<Long, int[]> building = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            long key = cellKey(cellOf(graph.lat(node)), cellOf(graph.lon(node)));
+            int size = sizes.getOrDefault(key, 0);
+            int[] list = building.get(key);
+            if (list == null) {
+                list = new int[4];
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = node;
+            building.put(key, list);
+            sizes.put(key, size + 1);
+        }
+        building.replaceAll((key, list) -> Arrays.copyOf(list, sizes.get(key)));
+        this.cells = building;
+    }
+
+    /**
+     * Nó mais próximo ou -1 se não houver nós num raio de alguns quilômetros
+     */
+    public int nearest(double lat, double lon) {
+        int cy = cellOf(lat);
+        int cx = cellOf(lon);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int foundAtRing = -1;
+
+        for (int ring = 0; ring <= MAX_RINGS; ring++) {
+            // o vizinho mais próximo pode estar no anel seguinte ao primeiro acerto
+            if (foundAtRing >= 0 && ring > foundAtRing + 1) {
+                break;
+            }
+            for (int dy = -ring; dy <= ring; dy++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) {
+                        continue;
+                    }
+                    int[] nodes = cells.get(cellKey(cy + dy, cx + dx));
+                    if (nodes == null) {
+                        continue;
+                    }
+                    for (int node : nodes) {
+                        double d = GeoMath.haversineKm(lat, lon, graph.lat(node), graph.lon(node));
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            if (best >= 0 && foundAtRing < 0) {
+                foundAtRing = ring;
+            }
+        }
+        return best;
+    }
+
+    private static int cellOf(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+}
@@ -0,0 +1,134 @@
+package com.douradelivery.routing.ch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grafo viário derivado do OpenStreetMap, carregado de um arquivo binário (big-endian):
+ *
+ * <pre>
+ * int   magic = 0x44445247 ("DDRG")
+ * int   versão = 1
+ * int   quantidade de nós
+ * int   quantidade de arestas
+ * nós:     int latE6, int lonE6
+ * arestas: int origem, int destino, float metros, float segundos, byte flags (bit 0 = mão única)
+ * </pre>
+ *
+ * Arestas sem o bit de mão única valem nos dois sentidos.
+ */
+public final class RoadGraph {
+
+    static final int MAGIC = 0x44445247;
+    static final int VERSION = 1;
+    static final int FLAG_ONEWAY = 1;
+    static final int HEADER_BYTES = 16;
+    static final int NODE_BYTES = 8;
+    static final int EDGE_BYTES = 17;
+
+    private final double[] lat;
+    private final double[] lon;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final float[] edgeMeters;
+    private final float[] edgeSeconds;
+    private final byte[] edgeFlags;
+
+    public RoadGraph(double[] lat, double[] lon, int[] edgeFrom, int[] edgeTo,
+                     float[] edgeMeters, float[] edgeSeconds, byte[] edgeFlags) {
+        this.lat = lat;
+        this.lon = lon;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeMeters = edgeMeters;
+        this.edgeSeconds = edgeSeconds;
+        this.edgeFlags = edgeFlags;
+    }
+
+    public static RoadGraph load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Arquivo de grafo truncado: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Arquivo de grafo inválido: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versão de grafo não suportada: " + version);
+            }
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            // confere o tamanho antes de alocar: contagem corrompida não vira array gigante
+            if (nodeCount < 0 || edgeCount < 0
+                    || size != HEADER_BYTES + (long) nodeCount * NODE_BYTES + (long) edgeCount * EDGE_BYTES) {
+                throw new IOException("Tamanho do arquivo de grafo não confere com o cabeçalho: " + file);
+            }
+
+            double[] lat = new double[nodeCount];
+            double[] lon = new double[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                lat[i] = buffer.getInt() / 1e6;
+                lon[i] = buffer.getInt() / 1e6;
+            }
+
+            int[] from = new int[edgeCount];
+            int[] to = new int[edgeCount];
+            float[] meters = new float[edgeCount];
+            float[] seconds = new float[edgeCount];
+            byte[] flags = new byte[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                from[e] = buffer.getInt();
+                to[e] = buffer.getInt();
+                meters[e] = buffer.getFloat();
+                seconds[e] = buffer.getFloat();
+                flags[e] = buffer.get();
+                if (from[e] < 0 || from[e] >= nodeCount || to[e] < 0 || to[e] >= nodeCount) {
+                    throw new IOException("Aresta " + e + " referencia nó inexistente");
+                }
+            }
+            return new RoadGraph(lat, lon, from, to, meters, seconds, flags);
+        }
+    }
+
+    public int getNodeCount() {
+        return lat.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeFrom.length;
+    }
+
+    public double lat(int node) {
+        return lat[node];
+    }
+
+    public double lon(int node) {
+        return lon[node];
+    }
+
+    int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    float edgeMeters(int edge) {
+        return edgeMeters[edge];
+    }
+
+    float edgeSeconds(int edge) {
+        return edgeSeconds[edge];
+    }
+
+    boolean isOneway(int edge) {
+        return (edgeFlags[edge] & FLAG_ONEWAY) != 0;
+    }
+}
@@ -40,17 +40,17 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
         
         try {
             final String token = authHeader.substring(7);
-            final String email = jwtUtil.getEmailFromToken(token);
-            final Long userId = jwtUtil.getUserIdFromToken(token);
-            final String userType = jwtUtil.getUserTypeFromToken(token);
+            // uma verificação de assinatura por token (ou nenhuma, se já estiver no cache)
+            final JwtPrincipal principal = jwtUtil.authenticate(token);
+            final String email = principal.email();
             
             if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.validateToken(token, email)) {
+                if (!principal.isExpired(System.currentTimeMillis())) {
                     UsernamePasswordAuthenticationToken authToken = 
                         new UsernamePasswordAuthenticationToken(
-                            email,
+                            principal,
                             null,
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + userType))
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.userType()))
                         );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -0,0 +1,21 @@
+package com.douradelivery.security;
+
+import java.security.Principal;
+
+/**
+ * Dados de um token já verificado (assinatura e expiração).
+ *
+ * É o principal da Authentication: getName() continua sendo o e-mail e os controllers
+ * recebem o userId e o tipo via @AuthenticationPrincipal, sem consultar o banco.
+ */
+public record JwtPrincipal(String email, Long userId, String userType, long expiresAtMillis) implements Principal {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis < nowMillis;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,8 +1,11 @@
 package com.douradelivery.security;
 
+import com.douradelivery.cache.LocalCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -20,8 +23,24 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+    
+    @Value("${jwt.cache.ttl-ms:300000}")
+    private long cacheTtlMs;
+    
+    // chave HMAC e parser são imutáveis: montados uma vez só
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // token -> dados verificados; a chave é o token inteiro, então a assinatura faz parte dela
+    private LocalCache<JwtPrincipal> verified;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = new LocalCache<>(cacheMaxEntries, cacheTtlMs);
     }
     
     public String generateToken(String email, Long userId, String userType) {
@@ -34,10 +53,30 @@ public String generateToken(String email, Long userId, String userType) {
                 .claim("userType", userType)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
+    /**
+     * Verifica o token uma única vez e devolve seus dados; tokens já verificados vêm do cache
+     * até expirarem (ou até o TTL do cache). Token inválido lança a mesma JwtException do parser.
+     */
+    public JwtPrincipal authenticate(String token) {
+        long now = System.currentTimeMillis();
+        JwtPrincipal cached = verified.get(token, now);
+        if (cached != null && !cached.isExpired(now)) {
+            return cached;
+        }
+        
+        Claims claims = getAllClaimsFromToken(token);
+        JwtPrincipal principal = new JwtPrincipal(claims.getSubject(),
+                                                  claims.get("userId", Long.class),
+                                                  claims.get("userType", String.class),
+                                                  claims.getExpiration().getTime());
+        verified.put(token, principal, now);
+        return principal;
+    }
+    
     public String getEmailFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -62,11 +101,7 @@ public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver)
     }
     
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
     
     public Boolean isTokenExpired(String token) {
@@ -79,4 +114,3 @@ public Boolean validateToken(String token, String email) {
         return (tokenEmail.equals(email) && !isTokenExpired(token));
     }
 }
-
@@ -42,6 +42,10 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/ws/**").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // posição ao vivo de todos os entregadores: só o admin
+                .requestMatchers("/api/telemetry/positions", "/api/telemetry/drivers/*/position").hasRole("ADMIN")
+                .requestMatchers("/api/entregador/**").hasRole("DRIVER")
+                .requestMatchers("/api/cliente/**").hasRole("CLIENT")
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -2,6 +2,7 @@
 
 import com.douradelivery.dto.LoginRequest;
 import com.douradelivery.dto.RegisterRequest;
+import com.douradelivery.dto.UserAccount;
 import com.douradelivery.model.User;
 import com.douradelivery.repository.UserRepository;
 import com.douradelivery.security.JwtUtil;
@@ -11,7 +12,6 @@
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 public class AuthService {
@@ -28,6 +28,9 @@ public class AuthService {
     @Autowired
     private DocumentValidationService validationService;
     
+    @Autowired
+    private ReadCacheService readCacheService;
+    
     public Map<String, Object> login(String email, String password) {
         Map<String, Object> response = new HashMap<>();
         
@@ -39,34 +42,33 @@ public Map<String, Object> login(String email, String password) {
                 return response;
             }
             
-            // Buscar usuário
-            Optional<User> userOpt = userRepository.findByEmailAndActiveTrue(email);
-            if (userOpt.isEmpty()) {
+            // Buscar usuário (cache local por email)
+            UserAccount user = readCacheService.getUsersByEmail().get(email.toLowerCase(),
+                () -> userRepository.findByEmailAndActiveTrue(email).map(UserAccount::from).orElse(null));
+            if (user == null) {
                 response.put("success", false);
                 response.put("message", "Usuário não encontrado ou inativo");
                 return response;
             }
             
-            User user = userOpt.get();
-            
             // Verificar senha
-            if (!passwordEncoder.matches(password, user.getPassword())) {
+            if (!passwordEncoder.matches(password, user.passwordHash())) {
                 response.put("success", false);
                 response.put("message", "Senha incorreta");
                 return response;
             }
             
             // Gerar token JWT
-            String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getUserType().name());
+            String token = jwtUtil.generateToken(user.email(), user.id(), user.userType().name());
             
             // Resposta de sucesso
             response.put("success", true);
             response.put("token", token);
-            response.put("userType", user.getUserType().name());
-            response.put("userId", user.getId());
-            response.put("name", user.getName());
-            response.put("email", user.getEmail());
-            response.put("verificationStatus", user.getVerificationStatus().name());
+            response.put("userType", user.userType().name());
+            response.put("userId", user.id());
+            response.put("name", user.name());
+            response.put("email", user.email());
+            response.put("verificationStatus", user.verificationStatus().name());
             
         } catch (Exception e) {
             response.put("success", false);
@@ -123,6 +125,7 @@ public Map<String, Object> register(RegisterRequest request) {
             
             // Salvar no banco
             User savedUser = userRepository.save(user);
+            readCacheService.evictUser(savedUser.getEmail());
             
             // Resposta de sucesso
             response.put("success", true);
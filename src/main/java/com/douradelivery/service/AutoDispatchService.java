@@ -0,0 +1,262 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dispatch.DispatchBatch;
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Despacho automático: atribui pedidos NEW a entregadores em micro-lotes.
+ *
+ * Os eventos de pedido alimentam uma fila; o primeiro pedido abre uma janela curta
+ * (dispatch.auto.window-ms) e, ao fim dela, o lote é resolvido como uma atribuição
+ * bipartida (DispatchBatch) contra os entregadores próximos do índice espacial.
+ * Pedidos EXPRESS fecham a janela na hora. As atribuições do lote vão numa única
+ * transação, cada uma pelo UPDATE condicional do aceite, então um pedido aceito
+ * manualmente no meio do caminho simplesmente fica de fora. A varredura periódica
+ * devolve à fila o que ficou sem entregador ou se perdeu num reinício.
+ */
+@Service
+@Slf4j
+public class AutoDispatchService implements OrderEventHandler {
+
+    private final OrderRepository orderRepository;
+    private final DriverLocationService driverLocationService;
+    private final DriverLoadService driverLoadService;
+    private final OrderEventService orderEventService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${dispatch.auto.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dispatch.auto.window-ms:3000}")
+    private long windowMs;
+
+    @Value("${dispatch.auto.max-batch:300}")
+    private int maxBatch;
+
+    @Value("${dispatch.auto.candidates-per-order:8}")
+    private int candidatesPerOrder;
+
+    @Value("${dispatch.auto.unassigned-penalty-km:20}")
+    private double unassignedPenaltyKm;
+
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final Object monitor = new Object();
+    private boolean expressPending; // guardado por monitor
+    private volatile boolean running;
+    private Thread worker;
+
+    private final Timer latencyTimer;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter assignedCounter;
+    private final Counter unassignedCounter;
+
+    public AutoDispatchService(OrderRepository orderRepository,
+                               DriverLocationService driverLocationService,
+                               DriverLoadService driverLoadService,
+                               OrderEventService orderEventService,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.driverLocationService = driverLocationService;
+        this.driverLoadService = driverLoadService;
+        this.orderEventService = orderEventService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.latencyTimer = Timer.builder("dispatch.auto.latency")
+            .description("Da criação do pedido até a atribuição automática")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("dispatch.auto.batch.duration").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("dispatch.auto.batch.size").register(meterRegistry);
+        this.assignedCounter = Counter.builder("dispatch.auto.assigned").register(meterRegistry);
+        this.unassignedCounter = Counter.builder("dispatch.auto.unassigned").register(meterRegistry);
+        Gauge.builder("dispatch.auto.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::loop, "auto-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Despacho automático ativo: janela {} ms, até {} pedidos por lote", windowMs, maxBatch);
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (enabled && event.type() != OrderEvent.Type.DELETED
+                && event.status() == Order.OrderStatus.NEW && event.driverId() == null) {
+            enqueue(event.orderId(), event.priority() == Order.Priority.EXPRESS);
+        }
+    }
+
+    /**
+     * Devolve à fila os pedidos ainda sem entregador (sem candidato no último lote,
+     * lote que falhou ou evento perdido)
+     */
+    @Scheduled(fixedDelayString = "${dispatch.auto.sweep-interval-ms:10000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(windowMs, ChronoUnit.MILLIS);
+        for (Long orderId : orderRepository.findUnassignedIds(before, PageRequest.of(0, maxBatch * 4))) {
+            enqueue(orderId, false);
+        }
+    }
+
+    private void enqueue(Long orderId, boolean express) {
+        if (queued.add(orderId)) {
+            queue.add(orderId);
+        }
+        synchronized (monitor) {
+            expressPending |= express;
+            monitor.notifyAll();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                awaitBatch();
+                if (running) {
+                    runBatch();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro no despacho automático: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Espera o primeiro pedido e então a janela, um EXPRESS ou o lote encher
+     */
+    private void awaitBatch() throws InterruptedException {
+        synchronized (monitor) {
+            while (running && queue.isEmpty()) {
+                monitor.wait();
+            }
+            long deadline = System.currentTimeMillis() + windowMs;
+            long remaining;
+            while (running && !expressPending && queue.size() < maxBatch
+                    && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                monitor.wait(remaining);
+            }
+            expressPending = false;
+        }
+    }
+
+    private void runBatch() {
+        List<Long> ids = new ArrayList<>(maxBatch);
+        queue.drainTo(ids, maxBatch);
+        ids.forEach(queued::remove);
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            int[] result = transactionTemplate.execute(status -> assign(ids));
+            batchSize.record(result[0]);
+            assignedCounter.increment(result[1]);
+            unassignedCounter.increment(result[0] - result[1]);
+            log.debug("Lote de despacho: {} pedidos, {} atribuídos", result[0], result[1]);
+        } catch (RuntimeException e) {
+            // a varredura devolve os pedidos à fila
+            log.warn("Lote de despacho com {} pedidos falhou: {}", ids.size(), e.getMessage());
+        } finally {
+            batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Resolve e grava um lote; devolve {pedidos considerados, pedidos atribuídos}
+     */
+    private int[] assign(List<Long> ids) {
+        List<Order> orders = orderRepository.findAllById(ids).stream()
+            .filter(order -> order.getStatus() == Order.OrderStatus.NEW && order.getAssignedDriver() == null)
+            .toList();
+        if (orders.isEmpty()) {
+            return new int[] {0, 0};
+        }
+
+        DispatchBatch batch = new DispatchBatch(unassignedPenaltyKm);
+        for (Order order : orders) {
+            List<DispatchBatch.Candidate> candidates = driverLocationService
+                .findNearest(order.getOriginLat(), order.getOriginLon(), candidatesPerOrder, null,
+                             order.getWeight(), order.getVolume())
+                .stream()
+                .map(nearby -> new DispatchBatch.Candidate(nearby.position().driverId(), nearby.distanceKm()))
+                .toList();
+            Order.Priority priority = order.getPriority() != null ? order.getPriority() : Order.Priority.NORMAL;
+            batch.addOrder(order.getId(), priority.getWeight(), candidates);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int assigned = 0;
+        for (Map.Entry<Long, Long> entry : batch.solve().entrySet()) {
+            Long orderId = entry.getKey();
+            Long driverId = entry.getValue();
+            if (orderRepository.claimIfNew(orderId, driverId, now) == 0) {
+                // aceito ou alterado por outro caminho desde a leitura
+                continue;
+            }
+            // o UPDATE nativo limpou o contexto de persistência: recarrega o estado gravado
+            Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+            driverLoadService.onTransition(order, null, Order.OrderStatus.NEW);
+            orderEventService.record(OrderEvent.Type.ASSIGNED, order, Order.OrderStatus.NEW, null);
+            latencyTimer.record(Duration.between(order.getCreatedAt(), now));
+            assigned++;
+        }
+        return new int[] {orders.size(), assigned};
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+        worker.join(5000);
+    }
+}
@@ -0,0 +1,127 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Blob;
+import com.douradelivery.repository.BlobRepository;
+import com.douradelivery.storage.BlobStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remove do armazenamento os blobs que ninguém mais referencia.
+ *
+ * Toda remoção passa pela linha do blob travada com FOR UPDATE: um upload do mesmo
+ * conteúdo espera e grava o blob de novo. Blobs sem linha no banco (queda entre a
+ * gravação e o commit) primeiro ganham uma linha com zero referências e só são
+ * apagados numa execução seguinte, depois da carência.
+ */
+@Service
+@Slf4j
+public class BlobCompactionService {
+
+    private final BlobService blobService;
+    private final BlobRepository blobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${storage.blob.compaction.grace-ms:3600000}")
+    private long graceMs;
+
+    @Value("${storage.blob.compaction.batch-size:500}")
+    private int batchSize;
+
+    public BlobCompactionService(BlobService blobService,
+                                 BlobRepository blobRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.blobService = blobService;
+        this.blobRepository = blobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(cron = "${storage.blob.compaction.cron:0 45 3 * * *}")
+    public void compact() {
+        long startedAt = System.currentTimeMillis();
+        Instant cutoffInstant = Instant.now().minusMillis(graceMs);
+        LocalDateTime cutoff = LocalDateTime.ofInstant(cutoffInstant, ZoneId.systemDefault());
+        BlobStore store = blobService.getStore();
+
+        try {
+            int temps = blobService.cleanSpool(cutoffInstant);
+            int orphans = registerOrphans(store, cutoffInstant);
+            long[] removed = removeUnreferenced(store, cutoff);
+
+            meterRegistry.counter("storage.blob.compaction.deleted").increment(removed[0]);
+            meterRegistry.counter("storage.blob.compaction.bytes").increment(removed[1]);
+            log.info("Compactação de arquivos em {} ms: {} blobs removidos ({} bytes), {} órfãos registrados, {} temporários apagados",
+                     System.currentTimeMillis() - startedAt, removed[0], removed[1], orphans, temps);
+        } catch (IOException | RuntimeException e) {
+            log.error("Erro na compactação de arquivos: {}", e.getMessage(), e);
+        }
+    }
+
+    private int registerOrphans(BlobStore store, Instant cutoff) throws IOException {
+        AtomicInteger registered = new AtomicInteger();
+        LocalDateTime now = LocalDateTime.now();
+        store.scan(blob -> {
+            // blobs recentes podem ser de um upload que ainda não fez commit
+            if (blob.lastModified().isBefore(cutoff) && !blobRepository.existsById(blob.hash())) {
+                Integer inserted = transactionTemplate.execute(status ->
+                    blobRepository.registerOrphan(blob.hash(), blob.size(), now));
+                if (inserted != null && inserted > 0) {
+                    registered.incrementAndGet();
+                }
+            }
+        });
+        return registered.get();
+    }
+
+    private long[] removeUnreferenced(BlobStore store, LocalDateTime cutoff) throws IOException {
+        long deleted = 0;
+        long bytes = 0;
+        List<String> hashes;
+        do {
+            hashes = blobRepository.findUnreferencedBefore(cutoff, PageRequest.of(0, batchSize));
+            for (String hash : hashes) {
+                Long size;
+                try {
+                    size = transactionTemplate.execute(status -> {
+                        Blob blob = blobRepository.lockUnreferenced(hash, cutoff).orElse(null);
+                        if (blob == null) {
+                            // ganhou uma referência desde a consulta
+                            return null;
+                        }
+                        try {
+                            store.delete(hash);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        blobRepository.delete(blob);
+                        return blob.getSize();
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                if (size != null) {
+                    deleted++;
+                    bytes += size;
+                }
+            }
+        } while (hashes.size() == batchSize);
+        return new long[] {deleted, bytes};
+    }
+}
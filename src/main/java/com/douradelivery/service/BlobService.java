@@ -0,0 +1,258 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.BlobRepository;
+import com.douradelivery.storage.BlobStore;
+import com.douradelivery.storage.HashingFileWriter;
+import com.douradelivery.storage.LocalBlobStore;
+import com.douradelivery.storage.S3BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Armazenamento de arquivos enviados, deduplicado pelo SHA-256 do conteúdo.
+ *
+ * Cada referência gravada por um documento ou upload soma um na contagem do blob;
+ * quem deixa de usar chama release. Blobs sem referências são removidos pela
+ * compactação (BlobCompactionService). Backend: storage.blob.type = local | s3.
+ *
+ * Quem grava um registro que aponta para o blob faz spool fora da transação e attach
+ * dentro dela: a referência só é contada se o registro também for gravado. Se a
+ * transação não confirmar, o arquivo fica sem linha no banco e a compactação o remove.
+ *
+ * O envio ao armazenamento (no S3, um upload) acontece no spool, antes de qualquer
+ * transação longa: o spool renova o updated_at de uma linha já existente, o que a tira
+ * da compactação pela carência (storage.blob.compaction.grace-ms). O attach precisa
+ * acontecer dentro desse prazo e só grava a contagem.
+ */
+@Service
+@Slf4j
+public class BlobService {
+
+    public record StoredBlob(String hash, long size) {
+    }
+
+    /**
+     * Conteúdo já enviado ao armazenamento com o hash calculado, ainda sem referência;
+     * apaga o temporário que sobrar ao fechar
+     */
+    public record SpooledBlob(String hash, long size, Path path) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Cópia local de um blob para quem precisa de um arquivo (ImageIO); apaga a cópia ao fechar
+     */
+    public record LocalFile(Path path, boolean temporary) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private final BlobRepository blobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore store;
+    private final Path spoolDir;
+
+    @Autowired
+    public BlobService(BlobRepository blobRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.upload.dir:uploads}") String uploadDir,
+                       @Value("${storage.blob.type:local}") String type,
+                       @Value("${storage.blob.s3.endpoint:}") String endpoint,
+                       @Value("${storage.blob.s3.region:us-east-1}") String region,
+                       @Value("${storage.blob.s3.bucket:douradelivery}") String bucket,
+                       @Value("${storage.blob.s3.prefix:blobs/}") String prefix,
+                       @Value("${storage.blob.s3.access-key:}") String accessKey,
+                       @Value("${storage.blob.s3.secret-key:}") String secretKey,
+                       @Value("${storage.blob.s3.create-bucket:false}") boolean createBucket) throws IOException {
+        // temporários no mesmo volume dos blobs locais, para o move ser atômico
+        this(blobRepository, transactionManager,
+             createStore(uploadDir, type, endpoint, region, bucket, prefix, accessKey, secretKey, createBucket),
+             Paths.get(uploadDir, "tmp"));
+    }
+
+    BlobService(BlobRepository blobRepository, PlatformTransactionManager transactionManager,
+                BlobStore store, Path spoolDir) throws IOException {
+        this.blobRepository = blobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.store = store;
+        this.spoolDir = spoolDir.toAbsolutePath();
+        Files.createDirectories(this.spoolDir);
+    }
+
+    /**
+     * Grava o conteúdo (até maxBytes) e soma uma referência ao blob, numa transação própria
+     * ou na do chamador; o envio ao armazenamento acontece antes dela
+     */
+    public StoredBlob store(InputStream in, long maxBytes) throws IOException {
+        try (SpooledBlob spooled = spool(in, maxBytes)) {
+            return attach(spooled);
+        }
+    }
+
+    /**
+     * Copia o conteúdo (até maxBytes) para o spool calculando o hash e envia ao armazenamento;
+     * não soma referência. Não deve ser chamado dentro de uma transação.
+     */
+    public SpooledBlob spool(InputStream in, long maxBytes) throws IOException {
+        HashingFileWriter.WrittenFile written = HashingFileWriter.spool(in, spoolDir, maxBytes);
+        SpooledBlob spooled = new SpooledBlob(written.sha256(), written.size(), written.path());
+        try {
+            // transação curta: espera uma remoção em curso do mesmo blob terminar
+            transactionTemplate.executeWithoutResult(status ->
+                blobRepository.touch(spooled.hash(), LocalDateTime.now()));
+            store.put(spooled.hash(), spooled.path());
+            return spooled;
+        } catch (IOException | RuntimeException e) {
+            spooled.close();
+            throw e;
+        }
+    }
+
+    public SpooledBlob spool(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return spool(in, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Soma a referência a um blob já enviado, participando da transação do chamador se
+     * houver uma; só grava no banco
+     */
+    public StoredBlob attach(SpooledBlob spooled) {
+        transactionTemplate.executeWithoutResult(status ->
+            blobRepository.acquire(spooled.hash(), spooled.size(), LocalDateTime.now()));
+        return new StoredBlob(spooled.hash(), spooled.size());
+    }
+
+    /**
+     * Tira uma referência; o blob fica para a compactação quando chegar a zero
+     */
+    @Transactional
+    public boolean release(String hash) {
+        if (!BlobStore.isValidHash(hash)) {
+            return false;
+        }
+        return blobRepository.release(hash, LocalDateTime.now()) > 0;
+    }
+
+    public InputStream open(String hash) throws IOException {
+        return store.open(hash);
+    }
+
+    public InputStream open(String hash, long offset, long length) throws IOException {
+        return store.open(hash, offset, length);
+    }
+
+    /**
+     * Tamanho do blob, ou -1 se não existir
+     */
+    public long size(String hash) throws IOException {
+        return store.size(hash);
+    }
+
+    /**
+     * Caminho em disco quando o backend é local (permite sendfile); null no S3
+     */
+    public Path localPath(String hash) {
+        return store.localPath(hash);
+    }
+
+    public LocalFile openLocal(String hash) throws IOException {
+        Path path = store.localPath(hash);
+        if (path != null) {
+            return new LocalFile(path, false);
+        }
+        Path temp = Files.createTempFile(spoolDir, ".blob-", ".tmp");
+        try (InputStream in = store.open(hash)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new LocalFile(temp, true);
+    }
+
+    /**
+     * Arquivo temporário para quem vai gerar conteúdo e guardá-lo com spool(Path) e attach
+     */
+    public Path createTempFile(String suffix) throws IOException {
+        return Files.createTempFile(spoolDir, ".derived-", suffix);
+    }
+
+    BlobStore getStore() {
+        return store;
+    }
+
+    /**
+     * Remove temporários abandonados (queda no meio de um upload)
+     */
+    int cleanSpool(Instant cutoff) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)
+                        && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static BlobStore createStore(String uploadDir, String type, String endpoint, String region,
+                                         String bucket, String prefix, String accessKey, String secretKey,
+                                         boolean createBucket) throws IOException {
+        log.info("Armazenamento de arquivos: {}", type);
+        return switch (type.toLowerCase()) {
+            case "s3" -> {
+                S3BlobStore s3 = new S3BlobStore(buildS3Client(endpoint, region, accessKey, secretKey), bucket, prefix);
+                if (createBucket) {
+                    s3.ensureBucket();
+                }
+                yield s3;
+            }
+            default -> new LocalBlobStore(Paths.get(uploadDir, "blobs"));
+        };
+    }
+
+    private static S3Client buildS3Client(String endpoint, String region, String accessKey, String secretKey) {
+        S3ClientBuilder builder = S3Client.builder().region(Region.of(region));
+        if (!endpoint.isBlank()) {
+            // MinIO e afins não resolvem bucket por subdomínio
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        builder.credentialsProvider(accessKey.isBlank()
+            ? DefaultCredentialsProvider.create()
+            : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        return builder.build();
+    }
+}
@@ -1,20 +1,47 @@
 package com.douradelivery.service;
 
+import com.douradelivery.routing.DistanceMatrix;
+import com.douradelivery.routing.DistanceProvider;
+import com.douradelivery.routing.GeoMath;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class DistanceService {
     
+    @Autowired
+    private DistanceProvider distanceProvider;
+    
+    @Autowired
+    private EtaService etaService;
+    
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        // Fórmula de Haversine simplificada para teste
-        double dx = lat1 - lat2;
-        double dy = lon1 - lon2;
-        return Math.sqrt(dx * dx + dy * dy) * 111.0; // Aproximação em km
+        // Linha reta; distâncias pela malha viária vêm de buildMatrix/buildPairwise
+        return GeoMath.haversineKm(lat1, lon1, lat2, lon2);
     }
     
     public double calculateDuration(double lat1, double lon1, double lat2, double lon2) {
-        // Mock duration - baseado na distância
+        // Duração em minutos pelos perfis de velocidade; sem dados, pela velocidade média configurada
         double distance = calculateDistance(lat1, lon1, lat2, lon2);
-        return distance * 2; // 2 minutos por km (mock)
+        return etaService.estimateSeconds(lat1, lon1, lat2, lon2, distance, LocalDateTime.now()) / 60.0;
+    }
+    
+    /**
+     * Matriz de distâncias/durações entre dois conjuntos de coordenadas, calculada uma vez
+     * e reutilizada durante toda a otimização (durações em segundos)
+     */
+    public DistanceMatrix buildMatrix(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        DistanceMatrix matrix = distanceProvider.matrix(fromLat, fromLon, toLat, toLon);
+        return etaService.applyProfiles(matrix, fromLat, fromLon, toLat, toLon, false);
+    }
+    
+    /**
+     * Distâncias/durações de pares correspondentes (origem i -> destino i) como matriz n x 1
+     */
+    public DistanceMatrix buildPairwise(double[] fromLat, double[] fromLon, double[] toLat, double[] toLon) {
+        DistanceMatrix matrix = distanceProvider.pairwise(fromLat, fromLon, toLat, toLon);
+        return etaService.applyProfiles(matrix, fromLat, fromLon, toLat, toLon, true);
     }
-}
\ No newline at end of file
+}
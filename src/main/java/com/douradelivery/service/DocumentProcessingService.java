@@ -0,0 +1,230 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Document;
+import com.douradelivery.repository.DocumentRepository;
+import com.douradelivery.storage.ImageNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Miniatura e normalização das fotos de documentos num pool limitado de workers.
+ *
+ * O upload só grava o original e agenda o processamento; com a fila cheia o documento
+ * continua PENDING e a varredura periódica tenta de novo, sem segurar a requisição.
+ */
+@Service
+@Slf4j
+public class DocumentProcessingService {
+
+    private final DocumentRepository documentRepository;
+    private final BlobService blobService;
+    private final ReadCacheService readCacheService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${documents.processing.threads:2}")
+    private int threads;
+
+    @Value("${documents.processing.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${documents.processing.max-dimension:2048}")
+    private int maxDimension;
+
+    @Value("${documents.processing.thumbnail-dimension:256}")
+    private int thumbnailDimension;
+
+    @Value("${documents.processing.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${documents.processing.max-pixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor executor;
+    private ImageNormalizer normalizer;
+    private Timer processingTimer;
+
+    public DocumentProcessingService(DocumentRepository documentRepository,
+                                     BlobService blobService,
+                                     ReadCacheService readCacheService,
+                                     MeterRegistry meterRegistry,
+                                     PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.blobService = blobService;
+        this.readCacheService = readCacheService;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        normalizer = new ImageNormalizer(maxDimension, thumbnailDimension, jpegQuality, maxPixels);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "document-processing-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        Gauge.builder("documents.processing.queue.depth", executor.getQueue(), BlockingQueue::size)
+            .register(meterRegistry);
+        processingTimer = Timer.builder("documents.processing.latency").register(meterRegistry);
+    }
+
+    /**
+     * Agenda o processamento; devolve false se a fila estiver cheia (a varredura retoma depois)
+     */
+    public boolean submit(Long documentId) {
+        try {
+            executor.execute(() -> processingTimer.record(() -> process(documentId)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("documents.processing.rejected").increment();
+            return false;
+        }
+    }
+
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${documents.processing.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<Long> pending = documentRepository.findPendingProcessingIds(LocalDateTime.now().minusMinutes(1));
+        int submitted = 0;
+        for (Long id : pending) {
+            if (!submit(id)) {
+                break;
+            }
+            submitted++;
+        }
+        if (submitted > 0) {
+            log.info("Reagendados {} documentos sem processamento", submitted);
+        }
+    }
+
+    private void process(Long documentId) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getProcessingStatus() != Document.ProcessingStatus.PENDING) {
+            return;
+        }
+
+        Document.ProcessingStatus status;
+        BlobService.SpooledBlob normalizedBlob = null;
+        BlobService.SpooledBlob thumbnailBlob = null;
+        Path normalized = null;
+        Path thumbnail = null;
+        try {
+            try (BlobService.LocalFile source = blobService.openLocal(document.getContentHash())) {
+                normalized = blobService.createTempFile(".norm.jpg");
+                thumbnail = blobService.createTempFile(".thumb.jpg");
+                status = switch (normalizer.process(source.path(), normalized, thumbnail)) {
+                    case PROCESSED -> {
+                        normalizedBlob = blobService.spool(normalized);
+                        thumbnailBlob = blobService.spool(thumbnail);
+                        yield Document.ProcessingStatus.DONE;
+                    }
+                    // PDFs e formatos que o ImageIO não lê ficam só com o original
+                    case NOT_AN_IMAGE -> Document.ProcessingStatus.SKIPPED;
+                    case TOO_LARGE -> {
+                        log.warn("Documento {} com resolução acima do limite, não processado", documentId);
+                        yield Document.ProcessingStatus.FAILED;
+                    }
+                };
+            } catch (Exception e) {
+                log.error("Erro ao processar documento {}: {}", documentId, e.getMessage());
+                status = Document.ProcessingStatus.FAILED;
+                closeQuietly(normalizedBlob);
+                closeQuietly(thumbnailBlob);
+                normalizedBlob = null;
+                thumbnailBlob = null;
+            } finally {
+                deleteQuietly(normalized);
+                deleteQuietly(thumbnail);
+            }
+
+            try {
+                if (complete(documentId, status, normalizedBlob, thumbnailBlob)) {
+                    // o status em cache passa a trazer as URLs da miniatura
+                    readCacheService.evictDocumentStatus(document.getUser().getId());
+                }
+            } catch (RuntimeException e) {
+                // nada foi gravado: o documento continua PENDING e a varredura tenta de novo
+                log.error("Falha ao gravar o processamento do documento {}: {}", documentId, e.getMessage());
+            }
+        } finally {
+            closeQuietly(normalizedBlob);
+            closeQuietly(thumbnailBlob);
+        }
+    }
+
+    /**
+     * Grava o resultado e as referências dos arquivos gerados na mesma transação; documento
+     * substituído ou já processado não recebe nada e nenhuma referência é contada
+     */
+    private boolean complete(Long documentId, Document.ProcessingStatus status,
+                             BlobService.SpooledBlob normalizedBlob, BlobService.SpooledBlob thumbnailBlob) {
+        String normalizedHash = normalizedBlob != null ? normalizedBlob.hash() : null;
+        String thumbnailHash = thumbnailBlob != null ? thumbnailBlob.hash() : null;
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            if (documentRepository.completeProcessing(documentId, status, normalizedHash, thumbnailHash) == 0) {
+                return false;
+            }
+            if (normalizedBlob != null) {
+                blobService.attach(normalizedBlob);
+            }
+            if (thumbnailBlob != null) {
+                blobService.attach(thumbnailBlob);
+            }
+            return true;
+        }));
+    }
+
+    private static void closeQuietly(BlobService.SpooledBlob blob) {
+        if (blob == null) {
+            return;
+        }
+        try {
+            blob.close();
+        } catch (IOException e) {
+            log.warn("Falha ao remover temporário {}: {}", blob.path(), e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Temporário {} não removido: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // o que ficou na fila continua PENDING e é retomado pela varredura
+            executor.shutdownNow();
+        }
+    }
+}
@@ -6,17 +6,18 @@
 import com.douradelivery.model.User;
 import com.douradelivery.repository.DocumentRepository;
 import com.douradelivery.repository.UserRepository;
+import com.douradelivery.storage.BlobStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -32,8 +33,20 @@ public class DocumentService {
     @Autowired
     private UserRepository userRepository;
     
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private ReadCacheService readCacheService;
+    
+    @Autowired
+    private DocumentProcessingService documentProcessingService;
+    
+    @Autowired
+    private BlobService blobService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${documents.max-file-bytes:5242880}")
+    private long maxFileBytes;
     
     public Map<String, Object> uploadDocuments(Long userId, Map<String, MultipartFile> files) {
         try {
@@ -46,37 +59,43 @@ public Map<String, Object> uploadDocuments(Long userId, Map<String, MultipartFil
             
             User user = userOpt.get();
             
-            // Criar diretório de upload se não existir
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            List<Document> documents = new ArrayList<>();
-            
-            // Processar cada arquivo
-            for (Map.Entry<String, MultipartFile> entry : files.entrySet()) {
-                String fieldName = entry.getKey();
-                MultipartFile file = entry.getValue();
-                
-                if (file != null && !file.isEmpty()) {
-                    DocumentType documentType = mapFieldToDocumentType(fieldName);
-                    if (documentType != null) {
-                        Document document = saveFile(user, file, documentType);
-                        if (document != null) {
-                            documents.add(document);
+            // Processar cada arquivo: o conteúdo vai para o spool antes de abrir a transação
+            List<SpooledUpload> uploads = new ArrayList<>();
+            List<Document> documents;
+            try {
+                for (Map.Entry<String, MultipartFile> entry : files.entrySet()) {
+                    String fieldName = entry.getKey();
+                    MultipartFile file = entry.getValue();
+                    
+                    if (file != null && !file.isEmpty()) {
+                        DocumentType documentType = mapFieldToDocumentType(fieldName);
+                        if (documentType != null) {
+                            SpooledUpload upload = spoolFile(user, file, documentType);
+                            if (upload != null) {
+                                uploads.add(upload);
+                            }
                         }
                     }
                 }
+                
+                if (uploads.isEmpty()) {
+                    return createErrorResponse("Nenhum documento válido foi enviado");
+                }
+                
+                // referências dos blobs, documentos e substituição dos pendentes numa transação só:
+                // se algo falhar nenhuma referência fica contada sem documento
+                documents = new TransactionTemplate(transactionManager)
+                    .execute(status -> saveDocuments(user, uploads));
+            } finally {
+                uploads.forEach(SpooledUpload::discard);
             }
+            readCacheService.evictDocumentStatus(userId);
             
-            if (documents.isEmpty()) {
-                return createErrorResponse("Nenhum documento válido foi enviado");
+            // miniatura e normalização fora da requisição
+            for (Document document : documents) {
+                documentProcessingService.submit(document.getId());
             }
             
-            // Salvar documentos no banco
-            documentRepository.saveAll(documents);
-            
             logger.info("Upload concluído com sucesso. {} documentos salvos para usuário {}", 
                        documents.size(), userId);
             
@@ -93,7 +112,20 @@ public Map<String, Object> uploadDocuments(Long userId, Map<String, MultipartFil
         }
     }
     
-    private Document saveFile(User user, MultipartFile file, DocumentType documentType) {
+    /**
+     * Arquivo enviado já no spool, com o nome que o documento vai receber
+     */
+    private record SpooledUpload(DocumentType documentType, String fileName, BlobService.SpooledBlob blob) {
+        void discard() {
+            try {
+                blob.close();
+            } catch (IOException e) {
+                logger.warn("Falha ao remover temporário {}: {}", blob.path(), e.getMessage());
+            }
+        }
+    }
+    
+    private SpooledUpload spoolFile(User user, MultipartFile file, DocumentType documentType) {
         try {
             // Gerar nome único para o arquivo
             String originalFilename = file.getOriginalFilename();
@@ -107,16 +139,9 @@ private Document saveFile(User user, MultipartFile file, DocumentType documentTy
                 System.currentTimeMillis(),
                 extension);
             
-            // Salvar arquivo no sistema de arquivos
-            Path filePath = Paths.get(uploadDir, fileName);
-            Files.write(filePath, file.getBytes());
-            
-            // Criar registro no banco
-            Document document = new Document(user, documentType, fileName, filePath.toString());
-            
-            logger.info("Arquivo salvo: {} para usuário {}", fileName, user.getId());
-            
-            return document;
+            try (InputStream in = file.getInputStream()) {
+                return new SpooledUpload(documentType, fileName, blobService.spool(in, maxFileBytes));
+            }
             
         } catch (IOException e) {
             logger.error("Erro ao salvar arquivo para usuário {}: {}", user.getId(), e.getMessage(), e);
@@ -124,6 +149,49 @@ private Document saveFile(User user, MultipartFile file, DocumentType documentTy
         }
     }
     
+    private List<Document> saveDocuments(User user, List<SpooledUpload> uploads) {
+        List<Document> documents = new ArrayList<>();
+        for (SpooledUpload upload : uploads) {
+            // Salvar arquivo no armazenamento endereçado por conteúdo (reenvio idêntico não duplica)
+            BlobService.StoredBlob blob = blobService.attach(upload.blob());
+            
+            // Criar registro no banco
+            Document document = new Document(user, upload.documentType(), upload.fileName(),
+                                             BlobStore.key(blob.hash()));
+            document.setContentHash(blob.hash());
+            document.setFileSize(blob.size());
+            documents.add(document);
+            
+            logger.info("Arquivo salvo: {} para usuário {}", upload.fileName(), user.getId());
+        }
+        documentRepository.saveAll(documents);
+        replacePendingDocuments(user.getId(), documents);
+        return documents;
+    }
+    
+    /**
+     * Um novo envio substitui o documento do mesmo tipo que ainda aguardava análise;
+     * os arquivos do anterior perdem a referência e saem na compactação
+     */
+    private void replacePendingDocuments(Long userId, List<Document> uploaded) {
+        Set<DocumentType> types = uploaded.stream().map(Document::getDocumentType).collect(Collectors.toSet());
+        Set<Long> uploadedIds = uploaded.stream().map(Document::getId).collect(Collectors.toSet());
+        List<Document> replaced = documentRepository.findByUserIdAndStatus(userId, DocumentStatus.PENDING).stream()
+            .filter(document -> types.contains(document.getDocumentType()) && !uploadedIds.contains(document.getId()))
+            .collect(Collectors.toList());
+        if (replaced.isEmpty()) {
+            return;
+        }
+        
+        documentRepository.deleteAll(replaced);
+        for (Document document : replaced) {
+            blobService.release(document.getContentHash());
+            blobService.release(document.getNormalizedHash());
+            blobService.release(document.getThumbnailHash());
+        }
+        logger.info("{} documentos pendentes substituídos para usuário {}", replaced.size(), userId);
+    }
+    
     private DocumentType mapFieldToDocumentType(String fieldName) {
         switch (fieldName.toLowerCase()) {
             case "cpfdocument":
@@ -140,7 +208,16 @@ private DocumentType mapFieldToDocumentType(String fieldName) {
         }
     }
     
+    /**
+     * Status dos documentos, servido pelo cache de leitura (o app consulta em polling);
+     * respostas de erro não são cacheadas
+     */
     public Map<String, Object> getDocumentStatus(Long userId) {
+        return readCacheService.getDocumentStatus().get(userId, () -> loadDocumentStatus(userId),
+            response -> Boolean.TRUE.equals(response.get("success")));
+    }
+    
+    private Map<String, Object> loadDocumentStatus(Long userId) {
         try {
             logger.info("Buscando status dos documentos para usuário: {}", userId);
             
@@ -274,6 +351,7 @@ private Map<String, Object> updateDocumentStatus(Long userId, DocumentStatus sta
             }
             
             documentRepository.saveAll(userDocuments);
+            readCacheService.evictDocumentStatus(userId);
             
             logger.info("Status dos documentos do usuário {} atualizado para {} por revisor {}", 
                        userId, status, reviewerId);
@@ -302,6 +380,18 @@ private Map<String, Object> documentToMap(Document document) {
         map.put("submittedAt", document.getSubmittedAt());
         map.put("reviewedAt", document.getReviewedAt());
         map.put("observation", document.getObservation());
+        // URLs servidas pelo FileController; o hash vale como ETag e a resposta é cacheável
+        if (document.getContentHash() != null) {
+            String fileName = document.getFileName();
+            String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase() : "";
+            map.put("fileUrl", FileDownloadService.downloadUrl(document.getContentHash(), extension));
+        }
+        if (document.getNormalizedHash() != null) {
+            map.put("normalizedUrl", FileDownloadService.downloadUrl(document.getNormalizedHash(), "jpg"));
+        }
+        if (document.getThumbnailHash() != null) {
+            map.put("thumbnailUrl", FileDownloadService.downloadUrl(document.getThumbnailHash(), "jpg"));
+        }
         return map;
     }
     
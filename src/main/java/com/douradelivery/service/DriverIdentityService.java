@@ -0,0 +1,50 @@
+package com.douradelivery.service;
+
+import com.douradelivery.cache.LocalCache;
+import com.douradelivery.model.Driver;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.security.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Entregador do usuário autenticado.
+ *
+ * Endpoints do entregador nunca recebem o driverId da requisição: ele sai do userId do
+ * token. O vínculo usuário → entregador não muda depois do cadastro, então fica em cache
+ * local (a telemetria consulta isto a cada ponto).
+ */
+@Service
+public class DriverIdentityService {
+
+    private final DriverRepository driverRepository;
+    private final LocalCache<Long> driverIdByUser;
+
+    public DriverIdentityService(DriverRepository driverRepository,
+                                 @Value("${drivers.identity-cache.max-entries:10000}") int maxEntries,
+                                 @Value("${drivers.identity-cache.ttl-ms:600000}") long ttlMs) {
+        this.driverRepository = driverRepository;
+        this.driverIdByUser = new LocalCache<>(maxEntries, ttlMs);
+    }
+
+    /**
+     * Id do entregador do principal; vazio se o usuário não for entregador ou não tiver cadastro
+     */
+    public Optional<Long> driverIdOf(JwtPrincipal principal) {
+        if (principal == null || principal.userId() == null || !"DRIVER".equals(principal.userType())) {
+            return Optional.empty();
+        }
+        String key = principal.userId().toString();
+        long now = System.currentTimeMillis();
+        Long driverId = driverIdByUser.get(key, now);
+        if (driverId != null) {
+            return Optional.of(driverId);
+        }
+        // só o vínculo encontrado vai para o cache: o cadastro do entregador pode sair depois do login
+        Optional<Long> found = driverRepository.findByUserId(principal.userId()).map(Driver::getId);
+        found.ifPresent(id -> driverIdByUser.put(key, id, now));
+        return found;
+    }
+}
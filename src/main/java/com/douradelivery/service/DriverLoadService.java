@@ -0,0 +1,79 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.DriverRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Mantém os contadores de carga dos entregadores (peso, volume e pedidos em aberto).
+ *
+ * Cada transição de pedido aplica um incremento relativo no banco; a reconciliação
+ * periódica corrige qualquer divergência em relação à tabela de pedidos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLoadService {
+
+    private final DriverRepository driverRepository;
+    private final DriverLocationService driverLocationService;
+
+    public static boolean isOpen(Order.OrderStatus status) {
+        return status != Order.OrderStatus.DELIVERED && status != Order.OrderStatus.CANCELED;
+    }
+
+    /**
+     * Pedido passou a contar na carga do entregador
+     */
+    @Transactional
+    public void addOrder(Long driverId, Order order) {
+        addLoad(driverId, order.getWeight(), order.getVolume(), 1);
+    }
+
+    /**
+     * Pedido deixou de contar na carga do entregador (entregue, cancelado ou reatribuído)
+     */
+    @Transactional
+    public void removeOrder(Long driverId, Order order) {
+        addLoad(driverId, -order.getWeight(), -order.getVolume(), -1);
+    }
+
+    /**
+     * Soma (ou subtrai, com valores negativos) a carga de vários pedidos de uma vez
+     */
+    @Transactional
+    public void addLoad(Long driverId, double weight, double volume, int orders) {
+        driverRepository.adjustLoad(driverId, weight, volume, orders);
+        driverLocationService.reserveCapacity(driverId, weight, volume);
+    }
+
+    /**
+     * Ajusta a carga conforme a mudança de status/entregador de um pedido
+     */
+    @Transactional
+    public void onTransition(Order order, Long previousDriverId, Order.OrderStatus previousStatus) {
+        Long currentDriverId = order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null;
+        boolean counted = previousDriverId != null && isOpen(previousStatus);
+        boolean counts = currentDriverId != null && isOpen(order.getStatus());
+
+        if (counted && (!counts || !previousDriverId.equals(currentDriverId))) {
+            removeOrder(previousDriverId, order);
+        }
+        if (counts && (!counted || !previousDriverId.equals(currentDriverId))) {
+            addOrder(currentDriverId, order);
+        }
+    }
+
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${drivers.load-reconcile-ms:300000}")
+    @Transactional
+    public void reconcile() {
+        int fixed = driverRepository.reconcileLoad();
+        if (fixed > 0) {
+            log.warn("Reconciliação de carga corrigiu {} entregadores", fixed);
+        }
+    }
+}
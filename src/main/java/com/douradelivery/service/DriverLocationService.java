@@ -0,0 +1,124 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dto.DriverLocationSnapshot;
+import com.douradelivery.model.Driver;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.tracking.DriverLocationIndex;
+import com.douradelivery.tracking.DriverPosition;
+import com.douradelivery.tracking.NearbyDriver;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantém o índice espacial dos entregadores em memória.
+ *
+ * Posições chegam pela telemetria; disponibilidade e capacidade restante são
+ * ressincronizadas periodicamente com o banco e ajustadas a cada atribuição.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLocationService implements TelemetryListener {
+
+    private final DriverRepository driverRepository;
+
+    private final DriverLocationIndex index = new DriverLocationIndex();
+
+    @Value("${tracking.nearest-max-radius-km:20}")
+    private double maxRadiusKm;
+
+    /**
+     * Recarrega estado dos entregadores e carga atual (contadores persistidos) numa consulta
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tracking.index-resync-ms:60000}")
+    @Transactional(readOnly = true)
+    public void resync() {
+        long startedAt = System.currentTimeMillis();
+
+        Set<Long> seen = new HashSet<>();
+        for (DriverLocationSnapshot snapshot : driverRepository.findLocationSnapshots()) {
+            seen.add(snapshot.id());
+            double remainingWeight = snapshot.remainingWeight();
+            double remainingVolume = snapshot.remainingVolume();
+
+            DriverPosition current = index.get(snapshot.id());
+            if (current != null) {
+                // a posição da telemetria é mais recente que a do banco
+                index.update(snapshot.id(), p -> p.withAvailable(snapshot.available())
+                                                  .withCapacity(remainingWeight, remainingVolume));
+            } else {
+                index.upsert(new DriverPosition(snapshot.id(), snapshot.currentLat(), snapshot.currentLon(),
+                    snapshot.vehicleType(), snapshot.available(), remainingWeight, remainingVolume,
+                    toMillis(snapshot.lastSeenAt())));
+            }
+        }
+        for (DriverPosition position : index.all()) {
+            if (!seen.contains(position.driverId())) {
+                index.remove(position.driverId());
+            }
+        }
+
+        log.debug("Índice de entregadores ressincronizado: {} entregadores em {} ms",
+                  index.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @Override
+    public void onTelemetry(TelemetryPoint point) {
+        if (!index.move(point.driverId(), point.lat(), point.lon(), point.speed(), point.heading(),
+                        point.timestampMillis())) {
+            log.debug("Telemetria de entregador {} ainda não indexado", point.driverId());
+        }
+    }
+
+    public void updateAvailability(Long driverId, boolean available) {
+        index.update(driverId, p -> p.withAvailable(available));
+    }
+
+    /**
+     * Desconta carga recém atribuída sem esperar a próxima ressincronização
+     */
+    public void reserveCapacity(Long driverId, double weight, double volume) {
+        index.update(driverId, p -> p.withCapacity(Math.max(0, p.remainingWeight() - weight),
+                                                   Math.max(0, p.remainingVolume() - volume)));
+    }
+
+    public List<NearbyDriver> findNearest(double lat, double lon, int k, Driver.VehicleType vehicleType,
+                                          double weight, double volume) {
+        return index.nearest(lat, lon, k, maxRadiusKm,
+                             DriverLocationIndex.dispatchable(vehicleType, weight, volume));
+    }
+
+    public List<NearbyDriver> findWithinRadius(double lat, double lon, double radiusKm,
+                                               Driver.VehicleType vehicleType, double weight, double volume) {
+        return index.withinRadius(lat, lon, radiusKm,
+                                  DriverLocationIndex.dispatchable(vehicleType, weight, volume));
+    }
+
+    public DriverPosition getPosition(Long driverId) {
+        return index.get(driverId);
+    }
+
+    /**
+     * Visão ao vivo de todas as posições do índice (não é cópia)
+     */
+    public Collection<DriverPosition> getPositions() {
+        return index.all();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? 0L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
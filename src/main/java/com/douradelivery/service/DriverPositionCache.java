@@ -0,0 +1,109 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.DriverPositionBatchRepository;
+import com.douradelivery.tracking.DriverPosition;
+import com.douradelivery.tracking.LastKnownPosition;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Última posição conhecida de cada entregador, lida do índice espacial do
+ * DriverLocationService (a mesma cópia em memória usada no despacho).
+ *
+ * As leituras não vão ao banco; aqui só se guardam os ids com telemetria nova, e as
+ * posições deles são gravadas em lote na tabela drivers periodicamente. O snapshot
+ * completo é reconstruído no máximo uma vez por snapshot-ttl-ms, já que mapas e
+ * dashboard consultam o tempo todo. Entregadores entram no índice pela
+ * ressincronização com o banco, não pela telemetria.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriverPositionCache implements TelemetryListener {
+
+    private final DriverLocationService driverLocationService;
+    private final DriverPositionBatchRepository driverPositionBatchRepository;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot = new Snapshot(0L, List.of());
+
+    @Value("${tracking.positions.snapshot-ttl-ms:500}")
+    private long snapshotTtlMs;
+
+    public record Snapshot(long generatedAtMillis, List<LastKnownPosition> positions) {
+    }
+
+    @Override
+    public void onTelemetry(TelemetryPoint point) {
+        // a posição em si fica no índice; o flush lê a mais nova na hora de gravar
+        dirty.add(point.driverId());
+    }
+
+    public LastKnownPosition get(Long driverId) {
+        DriverPosition position = driverLocationService.getPosition(driverId);
+        return position != null ? position.toLastKnown() : null;
+    }
+
+    /**
+     * Todas as posições num único snapshot imutável
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (now - current.generatedAtMillis() < snapshotTtlMs) {
+            return current;
+        }
+        Snapshot rebuilt = new Snapshot(now, driverLocationService.getPositions().stream()
+            .map(DriverPosition::toLastKnown)
+            .toList());
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * Grava em lote as posições alteradas desde o último flush
+     */
+    @Scheduled(fixedDelayString = "${tracking.positions.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<LastKnownPosition> batch = new ArrayList<>(dirty.size());
+        for (Long driverId : dirty) {
+            dirty.remove(driverId);
+            // fora do índice (ainda não ressincronizado ou removido): nada a gravar
+            LastKnownPosition position = get(driverId);
+            if (position != null) {
+                batch.add(position);
+            }
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            driverPositionBatchRepository.updatePositions(batch);
+            log.debug("{} posições de entregadores gravadas em {} ms", batch.size(),
+                      System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            // volta ao conjunto pendente; o próximo flush lê a posição mais nova do índice
+            batch.forEach(position -> dirty.add(position.driverId()));
+            log.error("Falha ao gravar posições de entregadores: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,223 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Driver;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.repository.SpeedProfileBatchRepository;
+import com.douradelivery.repository.SpeedProfileRepository;
+import com.douradelivery.routing.DistanceMatrix;
+import com.douradelivery.routing.EtaAccuracyReport;
+import com.douradelivery.routing.SpeedProfile;
+import com.douradelivery.routing.SpeedProfileAccumulator;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.tracking.TelemetrySink;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * ETAs a partir de perfis de velocidade aprendidos da telemetria.
+ *
+ * Como sink do pipeline de telemetria, acumula em memória os trechos percorridos por
+ * célula da grade e hora da semana; a cada rodada os totais são somados no banco
+ * (speed_profiles) e a tabela de consulta é remontada a partir deles e publicada numa
+ * referência volátil. Consultas leem a tabela atual sem travas. Um envelhecimento
+ * diário reduz o peso dos dados antigos.
+ */
+@Service
+@Slf4j
+public class EtaService implements TelemetrySink {
+
+    private final SpeedProfileRepository speedProfileRepository;
+    private final SpeedProfileBatchRepository speedProfileBatchRepository;
+    private final DriverRepository driverRepository;
+    private final TelemetryHistoryService telemetryHistoryService;
+
+    @Value("${routing.eta.enabled:true}")
+    private boolean enabled;
+
+    @Value("${routing.eta.min-samples:5}")
+    private double minSamples;
+
+    @Value("${routing.eta.decay-factor:0.9}")
+    private double decayFactor;
+
+    @Value("${routing.average-speed-kmh:30}")
+    private double averageSpeedKmh;
+
+    private final double cellSizeDeg;
+    private final ZoneId zone;
+    private final SpeedProfileAccumulator accumulator;
+    private volatile SpeedProfile profile = SpeedProfile.EMPTY;
+
+    public EtaService(SpeedProfileRepository speedProfileRepository,
+                      SpeedProfileBatchRepository speedProfileBatchRepository,
+                      DriverRepository driverRepository,
+                      TelemetryHistoryService telemetryHistoryService,
+                      MeterRegistry meterRegistry,
+                      @Value("${routing.eta.cell-size-deg:0.01}") double cellSizeDeg,
+                      @Value("${routing.eta.zone:}") String zone) {
+        this.speedProfileRepository = speedProfileRepository;
+        this.speedProfileBatchRepository = speedProfileBatchRepository;
+        this.driverRepository = driverRepository;
+        this.telemetryHistoryService = telemetryHistoryService;
+        this.cellSizeDeg = cellSizeDeg;
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.accumulator = new SpeedProfileAccumulator(cellSizeDeg, this.zone);
+        Gauge.builder("routing.eta.profile.size", this, service -> service.profile.size()).register(meterRegistry);
+    }
+
+    @Override
+    public void write(List<TelemetryPoint> batch) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (accumulator) {
+            for (TelemetryPoint point : batch) {
+                accumulator.add(point);
+            }
+        }
+    }
+
+    /**
+     * Soma no banco o que foi acumulado desde a última rodada e remonta a tabela de consulta
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${routing.eta.refresh-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        List<SpeedProfile.Sample> pending;
+        synchronized (accumulator) {
+            pending = accumulator.drain();
+            accumulator.evictIdle(System.currentTimeMillis() - 3_600_000L);
+        }
+        if (!pending.isEmpty()) {
+            try {
+                speedProfileBatchRepository.upsertAll(pending);
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar {} totais de velocidade: {}", pending.size(), e.getMessage());
+            }
+        }
+
+        long startedAt = System.currentTimeMillis();
+        List<SpeedProfile.Sample> totals = new ArrayList<>();
+        for (Object[] row : speedProfileRepository.findAllTotals()) {
+            totals.add(new SpeedProfile.Sample((Long) row[0], (Integer) row[1], (Double) row[2],
+                                               (Double) row[3], (Double) row[4]));
+        }
+        profile = SpeedProfile.build(totals, cellSizeDeg, zone, minSamples);
+        log.debug("Perfis de velocidade recarregados em {} ms: {} entradas",
+                  System.currentTimeMillis() - startedAt, profile.size());
+    }
+
+    @Scheduled(cron = "${routing.eta.decay-cron:0 0 4 * * *}")
+    @Transactional
+    public void decay() {
+        if (!enabled) {
+            return;
+        }
+        speedProfileRepository.decay(decayFactor);
+        int removed = speedProfileRepository.deleteSparse(0.5);
+        log.info("Perfis de velocidade envelhecidos (fator {}), {} entradas removidas", decayFactor, removed);
+    }
+
+    /**
+     * Duração em segundos de um trecho de distanceKm entre os dois pontos, saindo em departure
+     */
+    public double estimateSeconds(double lat1, double lon1, double lat2, double lon2,
+                                  double distanceKm, LocalDateTime departure) {
+        return profile.estimateSeconds(lat1, lon1, lat2, lon2, distanceKm, toMillis(departure), averageSpeedKmh);
+    }
+
+    /**
+     * Refaz as durações da matriz com os perfis, partindo agora. Trechos sem dados mantêm a
+     * velocidade implícita do provedor naquele par; sem perfis a matriz volta intacta.
+     */
+    public DistanceMatrix applyProfiles(DistanceMatrix matrix, double[] fromLat, double[] fromLon,
+                                        double[] toLat, double[] toLon, boolean pairwise) {
+        SpeedProfile current = profile;
+        if (!enabled || current.isEmpty()) {
+            return matrix;
+        }
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        int hour = (now.getDayOfWeek().getValue() - 1) * 24 + now.getHour();
+        double secondsIntoHour = now.getMinute() * 60 + now.getSecond();
+
+        int rows = matrix.getRows();
+        int cols = matrix.getCols();
+        double[] distances = new double[rows * cols];
+        float[] durations = new float[rows * cols];
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            for (int j = 0; j < cols; j++) {
+                int to = pairwise ? i : j;
+                double km = matrix.distance(i, j);
+                double seconds = matrix.duration(i, j);
+                double providerSpeed = seconds > 0 ? km / seconds * 3600.0 : averageSpeedKmh;
+                distances[i * cols + j] = km;
+                durations[i * cols + j] = (float) current.estimateSeconds(fromLat[i], fromLon[i], toLat[to], toLon[to],
+                                                                         km, hour, secondsIntoHour, providerSpeed);
+            }
+        });
+        return new DistanceMatrix(rows, cols, distances, durations);
+    }
+
+    /**
+     * Treina um perfil só com parte das viagens dos últimos days dias e mede o erro nas
+     * demais (holdoutPercent%), comparando com a velocidade média fixa
+     */
+    public Map<String, Object> accuracyReport(int days, int holdoutPercent, int maxPointsPerDriver) {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(days);
+
+        SpeedProfileAccumulator training = new SpeedProfileAccumulator(cellSizeDeg, zone);
+        List<EtaAccuracyReport.Trip> heldOut = new ArrayList<>();
+        int totalTrips = 0;
+        for (Driver driver : driverRepository.findAll()) {
+            List<TelemetryPoint> points = telemetryHistoryService.getRawPoints(driver.getId(), from, to,
+                                                                                maxPointsPerDriver);
+            // viagens: cortes em buracos de 5 min e paradas de 3 min; ao menos 1 km e 2 min
+            for (EtaAccuracyReport.Trip trip : EtaAccuracyReport.splitTrips(driver.getId(), points,
+                                                                            300_000, 180_000, 1.0, 120_000)) {
+                totalTrips++;
+                if (EtaAccuracyReport.isHeldOut(trip, holdoutPercent)) {
+                    heldOut.add(trip);
+                } else {
+                    trip.points().forEach(training::add);
+                }
+            }
+        }
+
+        SpeedProfile trained = SpeedProfile.build(training.drain(), cellSizeDeg, zone, minSamples);
+        EtaAccuracyReport.Result result = EtaAccuracyReport.evaluate(trained, heldOut, averageSpeedKmh);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("trips", totalTrips);
+        response.put("heldOutTrips", result.trips());
+        response.put("profileEntries", trained.size());
+        response.put("profile", result.profile());
+        response.put("baseline", result.baseline());
+        response.put("baselineSpeedKmh", averageSpeedKmh);
+        response.put("computeTimeMs", System.currentTimeMillis() - startedAt);
+        return response;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,70 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.DocumentRepository;
+import com.douradelivery.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Localiza os arquivos servidos em /api/files/download/{hash}.{extensão}.
+ *
+ * Admin lê qualquer arquivo; os demais só os de documentos próprios. Arquivo sem
+ * permissão responde como inexistente, para não revelar quais hashes existem.
+ *
+ * A extensão da URL é escolhida por quem monta o link e o conteúdo não é conferido no
+ * upload: só imagens e PDF são exibidos no navegador; qualquer outro tipo (html, svg...)
+ * sai como application/octet-stream em anexo, para nunca ser interpretado como página.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileDownloadService {
+
+    public record DownloadableFile(String hash, long size, MediaType mediaType, boolean inline, Path localPath) {
+    }
+
+    private static final Set<MediaType> INLINE_TYPES = Set.of(
+        MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG, MediaType.IMAGE_GIF,
+        MediaType.parseMediaType("image/webp"), MediaType.APPLICATION_PDF);
+
+    private final BlobService blobService;
+    private final DocumentRepository documentRepository;
+
+    public DownloadableFile resolve(String fileName, String email, boolean admin) throws IOException {
+        int dot = fileName.indexOf('.');
+        String hash = dot >= 0 ? fileName.substring(0, dot) : fileName;
+        if (!BlobStore.isValidHash(hash)) {
+            return null;
+        }
+        if (!admin && !documentRepository.existsByOwnerEmailAndHash(email, hash)) {
+            return null;
+        }
+        long size = blobService.size(hash);
+        if (size < 0) {
+            return null;
+        }
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean inline = INLINE_TYPES.contains(mediaType);
+        if (!inline) {
+            mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        }
+        return new DownloadableFile(hash, size, mediaType, inline, blobService.localPath(hash));
+    }
+
+    public InputStream open(DownloadableFile file, long offset, long length) throws IOException {
+        return blobService.open(file.hash(), offset, length);
+    }
+
+    /**
+     * URL de download de um blob; a extensão só define o Content-Type (dentro da lista de tipos exibíveis)
+     */
+    public static String downloadUrl(String hash, String extension) {
+        return "/api/files/download/" + hash + (extension != null && !extension.isEmpty() ? "." + extension : "");
+    }
+}
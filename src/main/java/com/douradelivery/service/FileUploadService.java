@@ -1,24 +1,21 @@
 package com.douradelivery.service;
 
 import com.douradelivery.dto.DocumentUploadResponse;
-import org.springframework.beans.factory.annotation.Value;
+import com.douradelivery.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 public class FileUploadService {
     
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private final BlobService blobService;
     
     private final List<String> allowedExtensions = Arrays.asList("jpg", "jpeg", "png", "pdf");
     private final long maxFileSize = 5 * 1024 * 1024; // 5MB
@@ -54,23 +51,19 @@ public DocumentUploadResponse uploadDocument(MultipartFile file, String document
                 return response;
             }
             
-            // Criar diretório se não existir
-            Path uploadPath = Paths.get(uploadDir, "users", userId.toString(), documentType);
-            Files.createDirectories(uploadPath);
-            
-            // Gerar nome único para o arquivo
-            String fileName = UUID.randomUUID().toString() + "." + extension;
-            Path filePath = uploadPath.resolve(fileName);
-            
-            // Salvar arquivo
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Salvar arquivo no armazenamento endereçado por conteúdo; o nome é o próprio hash
+            BlobService.StoredBlob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = blobService.store(in, maxFileSize);
+            }
+            String fileName = blob.hash() + "." + extension.toLowerCase();
             
             // Preparar resposta
             response.setSuccess(true);
             response.setFileName(fileName);
-            response.setFilePath(filePath.toString());
-            response.setFileUrl("/api/files/download/" + userId + "/" + documentType + "/" + fileName);
-            response.setFileSize(file.getSize());
+            response.setFilePath(BlobStore.key(blob.hash()));
+            response.setFileUrl(FileDownloadService.downloadUrl(blob.hash(), extension.toLowerCase()));
+            response.setFileSize(blob.size());
             response.setMessage("Arquivo enviado com sucesso");
             
         } catch (IOException e) {
@@ -89,12 +82,10 @@ private String getFileExtension(String fileName) {
         return "";
     }
     
-    public boolean deleteFile(String filePath) {
-        try {
-            Path path = Paths.get(filePath);
-            return Files.deleteIfExists(path);
-        } catch (IOException e) {
-            return false;
-        }
+    /**
+     * Solta a referência ao arquivo; os bytes saem na compactação se ninguém mais usar o mesmo conteúdo
+     */
+    public boolean deleteFile(String contentHash) {
+        return blobService.release(contentHash);
     }
 }
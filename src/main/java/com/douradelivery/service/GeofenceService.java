@@ -0,0 +1,139 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.OrderRepository;
+import com.douradelivery.tracking.GeofenceEngine;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.websocket.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Detecção de chegada na coleta e na entrega a partir da telemetria.
+ *
+ * Cada pedido com entregador tem uma cerca na origem e outra no destino, mantidas em
+ * memória pelos eventos de pedido e por uma ressincronização periódica; o ponto de
+ * telemetria é avaliado no GeofenceEngine sem acesso ao banco. Eventos confirmados
+ * (ARRIVED/DEPARTED) vão ao entregador e ao cliente pelo NotificationService. O
+ * status do pedido continua sendo alterado pelo entregador.
+ */
+@Service
+@Slf4j
+public class GeofenceService implements TelemetryListener, OrderEventHandler {
+
+    private static final List<Order.OrderStatus> ACTIVE =
+        List.of(Order.OrderStatus.ASSIGNED, Order.OrderStatus.PICKED, Order.OrderStatus.IN_TRANSIT);
+
+    private final OrderRepository orderRepository;
+    private final NotificationService notificationService;
+    private final GeofenceEngine engine;
+
+    @Value("${tracking.geofence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracking.geofence.pickup-radius-m:80}")
+    private double pickupRadiusMeters;
+
+    @Value("${tracking.geofence.dropoff-radius-m:80}")
+    private double dropoffRadiusMeters;
+
+    private final Counter arrivedCounter;
+    private final Counter departedCounter;
+
+    public GeofenceService(OrderRepository orderRepository,
+                           NotificationService notificationService,
+                           MeterRegistry meterRegistry,
+                           @Value("${tracking.geofence.cell-size-deg:0.005}") double cellSizeDeg,
+                           @Value("${tracking.geofence.exit-factor:1.5}") double exitFactor,
+                           @Value("${tracking.geofence.enter-dwell-ms:20000}") long enterDwellMs,
+                           @Value("${tracking.geofence.exit-dwell-ms:30000}") long exitDwellMs) {
+        this.orderRepository = orderRepository;
+        this.notificationService = notificationService;
+        this.engine = new GeofenceEngine(cellSizeDeg, exitFactor, enterDwellMs, exitDwellMs);
+        this.arrivedCounter = Counter.builder("tracking.geofence.events").tag("transition", "arrived")
+            .register(meterRegistry);
+        this.departedCounter = Counter.builder("tracking.geofence.events").tag("transition", "departed")
+            .register(meterRegistry);
+        Gauge.builder("tracking.geofence.fences", engine, GeofenceEngine::fenceCount).register(meterRegistry);
+    }
+
+    @Override
+    public void onTelemetry(TelemetryPoint point) {
+        if (!enabled) {
+            return;
+        }
+        for (GeofenceEngine.GeofenceEvent event : engine.onPoint(point)) {
+            (event.transition() == GeofenceEngine.Transition.ARRIVED ? arrivedCounter : departedCounter).increment();
+            try {
+                notificationService.notifyGeofenceEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao notificar cerca do pedido {}: {}", event.fence().orderId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    // cada nó avalia as cercas da telemetria que recebe
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.type() == OrderEvent.Type.DELETED || event.driverId() == null || !ACTIVE.contains(event.status())) {
+            engine.remove(event.orderId());
+            return;
+        }
+        engine.setFences(event.orderId(), fences(event.orderId(), event.driverId(), event.clientId(),
+            event.originLat(), event.originLon(), event.destinationLat(), event.destinationLon()));
+    }
+
+    /**
+     * Recarrega as cercas dos pedidos em andamento (eventos perdidos, reinício)
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tracking.geofence.resync-ms:120000}")
+    @Transactional(readOnly = true)
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> active = new HashSet<>();
+        for (Order order : orderRepository.findByStatusIn(ACTIVE)) {
+            if (order.getAssignedDriver() == null) {
+                continue;
+            }
+            active.add(order.getId());
+            engine.setFences(order.getId(), fences(order.getId(), order.getAssignedDriver().getId(),
+                order.getClient() != null ? order.getClient().getId() : null,
+                order.getOriginLat(), order.getOriginLon(), order.getDestinationLat(), order.getDestinationLon()));
+        }
+        engine.retainOrders(active);
+        log.debug("Cercas ressincronizadas: {} pedidos, {} cercas", active.size(), engine.fenceCount());
+    }
+
+    private List<GeofenceEngine.Fence> fences(long orderId, long driverId, Long clientId,
+                                              double originLat, double originLon,
+                                              double destinationLat, double destinationLon) {
+        return List.of(
+            new GeofenceEngine.Fence(orderId, driverId, clientId, GeofenceEngine.Kind.PICKUP,
+                                     originLat, originLon, pickupRadiusMeters),
+            new GeofenceEngine.Fence(orderId, driverId, clientId, GeofenceEngine.Kind.DROPOFF,
+                                     destinationLat, destinationLon, dropoffRadiusMeters));
+    }
+}
@@ -0,0 +1,73 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventPublisher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transporte em memória para desenvolvimento e testes, sem broker.
+ *
+ * Imita as partições do Kafka: cada pedido cai sempre na mesma thread, então os
+ * eventos de um pedido são consumidos em ordem e os de pedidos diferentes em paralelo.
+ * Sem broker não há para onde reenviar: esgotadas as tentativas do dispatcher, o evento
+ * é registrado no log e a varredura periódica de cada handler cobre a lacuna.
+ */
+@Service
+@ConditionalOnProperty(name = "events.transport", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOrderEventBus implements OrderEventPublisher {
+
+    private final OrderEventDispatcher dispatcher;
+    private final ExecutorService[] partitions;
+
+    public InMemoryOrderEventBus(OrderEventDispatcher dispatcher,
+                                 @Value("${events.memory.partitions:4}") int partitionCount) {
+        this.dispatcher = dispatcher;
+        this.partitions = new ExecutorService[Math.max(1, partitionCount)];
+        for (int i = 0; i < partitions.length; i++) {
+            int index = i;
+            partitions[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "order-events-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void publish(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            partitions[Math.floorMod(event.orderId().hashCode(), partitions.length)]
+                .execute(() -> dispatchQuietly(event));
+        }
+    }
+
+    private void dispatchQuietly(OrderEvent event) {
+        try {
+            dispatcher.dispatch(event);
+        } catch (RuntimeException e) {
+            log.error("Evento {} do pedido {} descartado: {}", event.eventId(), event.orderId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+        for (ExecutorService partition : partitions) {
+            if (!partition.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Barramento de eventos encerrado com eventos pendentes");
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Consome o tópico de eventos de pedido e repassa ao dispatcher.
+ *
+ * Dois grupos de consumo: o compartilhado divide as partições entre as instâncias
+ * (cada evento processado uma vez no cluster); o da instância recebe todos os eventos
+ * em todos os nós, para os handlers com estado em memória. Esse grupo começa do fim
+ * do tópico: o estado em memória é reconstruído do banco na subida.
+ */
+@Service
+@ConditionalOnProperty(name = "events.transport", havingValue = "kafka")
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaOrderEventConsumer {
+
+    private final OrderEventDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${events.kafka.topic:order-events}",
+                   groupId = "${events.kafka.group-id:doura-delivery}",
+                   concurrency = "${events.kafka.consumers:3}")
+    public void consume(String payload) {
+        OrderEvent event = parse(payload);
+        if (event != null) {
+            dispatcher.dispatch(event, false);
+        }
+    }
+
+    @KafkaListener(topics = "${events.kafka.topic:order-events}",
+                   groupId = "${events.kafka.group-id:doura-delivery}-${events.kafka.instance-id}",
+                   properties = "auto.offset.reset=latest")
+    public void consumeOnInstance(String payload) {
+        OrderEvent event = parse(payload);
+        if (event != null) {
+            dispatcher.dispatch(event, true);
+        }
+    }
+
+    private OrderEvent parse(String payload) {
+        try {
+            return objectMapper.readValue(payload, OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            log.error("Evento de pedido ilegível descartado: {}", e.getMessage());
+            return null;
+        }
+    }
+}
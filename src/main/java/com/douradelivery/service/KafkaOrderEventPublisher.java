@@ -0,0 +1,58 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventPublisher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica os eventos no tópico com chave = id do pedido, garantindo a ordem por pedido
+ */
+@Service
+@ConditionalOnProperty(name = "events.transport", havingValue = "kafka")
+public class KafkaOrderEventPublisher implements OrderEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${events.kafka.topic:order-events}")
+    private String topic;
+
+    @Value("${events.kafka.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public KafkaOrderEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<OrderEvent> events) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        try {
+            for (OrderEvent event : events) {
+                sends.add(kafkaTemplate.send(topic, event.orderId().toString(), objectMapper.writeValueAsString(event)));
+            }
+            // os envios seguem em paralelo; só confirmamos o lote quando o broker aceitou todos
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento de pedido", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka não confirmou o lote de eventos", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Publicação de eventos interrompida", e);
+        }
+    }
+}
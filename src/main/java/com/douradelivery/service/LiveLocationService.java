@@ -0,0 +1,254 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.OrderRepository;
+import com.douradelivery.tracking.LastKnownPosition;
+import com.douradelivery.tracking.LocationDeltaEncoder;
+import com.douradelivery.tracking.LocationFrame;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.websocket.CoalescingMessageSender;
+import com.douradelivery.websocket.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Localização ao vivo do entregador para o cliente que acompanha o pedido.
+ *
+ * O listener de telemetria só guarda o ponto mais recente dos entregadores com
+ * assinantes; um ticker envia a cada assinante, no máximo uma vez por intervalo,
+ * um frame delta em /topic/client/{id}. O banco só é consultado ao assinar.
+ */
+@Service
+@Slf4j
+public class LiveLocationService implements TelemetryListener, OrderEventHandler {
+
+    public enum SubscribeResult {
+        SUBSCRIBED, ORDER_NOT_FOUND, FORBIDDEN, ORDER_CLOSED
+    }
+
+    private final OrderRepository orderRepository;
+    private final DriverPositionCache driverPositionCache;
+    private final CoalescingMessageSender sender;
+
+    @Value("${tracking.live.min-interval-ms:1000}")
+    private long minIntervalMs;
+
+    @Value("${tracking.live.subscription-ttl-ms:1800000}")
+    private long subscriptionTtlMs;
+
+    @Value("${tracking.live.keyframe-interval:30}")
+    private int keyframeInterval;
+
+    // pedido -> assinatura; entregador -> assinaturas dos seus pedidos
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscription>> byDriver = new ConcurrentHashMap<>();
+
+    // ponto mais recente ainda não entregue a todos os assinantes do entregador
+    private final Map<Long, LastKnownPosition> latest = new ConcurrentHashMap<>();
+
+    private final Counter framesCounter;
+
+    private static final class Subscription {
+        final long orderId;
+        final long clientId;
+        final String destination;
+        final LocationDeltaEncoder encoder;
+        volatile Long driverId;
+        volatile long expiresAtMillis;
+        volatile boolean resetPending;
+        long lastSentAtMillis; // só o ticker lê e escreve
+
+        Subscription(long orderId, long clientId, int keyframeInterval) {
+            this.orderId = orderId;
+            this.clientId = clientId;
+            this.destination = NotificationService.clientDestination(clientId);
+            this.encoder = new LocationDeltaEncoder(orderId, keyframeInterval);
+        }
+    }
+
+    public LiveLocationService(OrderRepository orderRepository,
+                               DriverPositionCache driverPositionCache,
+                               CoalescingMessageSender sender,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.driverPositionCache = driverPositionCache;
+        this.sender = sender;
+        this.framesCounter = Counter.builder("tracking.live.frames").register(meterRegistry);
+        Gauge.builder("tracking.live.subscriptions", subscriptions, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Passa a enviar a localização do entregador do pedido ao cliente; renova se já existir
+     */
+    @Transactional(readOnly = true)
+    public SubscribeResult subscribe(Long orderId, Long clientId) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            return SubscribeResult.ORDER_NOT_FOUND;
+        }
+        if (!order.getClient().getId().equals(clientId)) {
+            return SubscribeResult.FORBIDDEN;
+        }
+        if (!DriverLoadService.isOpen(order.getStatus())) {
+            return SubscribeResult.ORDER_CLOSED;
+        }
+
+        Subscription subscription = subscriptions.compute(orderId, (id, existing) ->
+            existing != null && existing.clientId == clientId ? existing : new Subscription(orderId, clientId, keyframeInterval));
+        subscription.expiresAtMillis = System.currentTimeMillis() + subscriptionTtlMs;
+        // nova assinatura ou reconexão: o próximo frame sai completo
+        subscription.resetPending = true;
+        bind(subscription, order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null);
+        return SubscribeResult.SUBSCRIBED;
+    }
+
+    public boolean unsubscribe(Long orderId, Long clientId) {
+        Subscription subscription = subscriptions.get(orderId);
+        if (subscription == null || subscription.clientId != clientId) {
+            return false;
+        }
+        remove(subscription);
+        return true;
+    }
+
+    public long getSubscriptionTtlMs() {
+        return subscriptionTtlMs;
+    }
+
+    @Override
+    public void onTelemetry(TelemetryPoint point) {
+        if (byDriver.containsKey(point.driverId())) {
+            latest.merge(point.driverId(), LastKnownPosition.of(point),
+                (current, next) -> next.timestampMillis() >= current.timestampMillis() ? next : current);
+        }
+    }
+
+    @Override
+    // as assinaturas vivem no nó em que o cliente abriu o acompanhamento
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        Subscription subscription = subscriptions.get(event.orderId());
+        if (subscription == null) {
+            return;
+        }
+        if (event.type() == OrderEvent.Type.DELETED || !DriverLoadService.isOpen(event.status())) {
+            remove(subscription);
+        } else if (event.driverId() != null && !event.driverId().equals(subscription.driverId)) {
+            subscription.resetPending = true;
+            bind(subscription, event.driverId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.live.tick-ms:200}")
+    public void tick() {
+        if (latest.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, LastKnownPosition> entry : latest.entrySet()) {
+            Long driverId = entry.getKey();
+            LastKnownPosition position = entry.getValue();
+            Set<Subscription> subscribers = byDriver.get(driverId);
+            boolean delivered = true;
+            if (subscribers != null) {
+                for (Subscription subscription : subscribers) {
+                    if (subscription.expiresAtMillis <= now) {
+                        remove(subscription);
+                    } else if (now - subscription.lastSentAtMillis < minIntervalMs) {
+                        // limite por assinante: o ponto fica para um próximo tick
+                        delivered = false;
+                    } else {
+                        send(subscription, position, now);
+                    }
+                }
+            }
+            if (delivered) {
+                latest.remove(driverId, position);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.live.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        subscriptions.values().removeIf(subscription -> {
+            if (subscription.expiresAtMillis > now) {
+                return false;
+            }
+            unbind(subscription);
+            return true;
+        });
+    }
+
+    private void send(Subscription subscription, LastKnownPosition position, long now) {
+        if (subscription.resetPending) {
+            subscription.resetPending = false;
+            subscription.encoder.reset();
+        }
+        LocationFrame frame = subscription.encoder.next(position);
+        if (frame == null) {
+            return;
+        }
+        try {
+            sender.sendNow(subscription.destination, frame);
+            subscription.lastSentAtMillis = now;
+            framesCounter.increment();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao enviar localização do pedido {}: {}", subscription.orderId, e.getMessage());
+        }
+    }
+
+    private void bind(Subscription subscription, Long driverId) {
+        Long previous = subscription.driverId;
+        if (previous != null && !previous.equals(driverId)) {
+            unbind(subscription);
+        }
+        subscription.driverId = driverId;
+        if (driverId == null) {
+            return;
+        }
+        byDriver.compute(driverId, (id, set) -> {
+            Set<Subscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscription);
+            return target;
+        });
+        // primeiro frame vem da última posição conhecida, sem esperar o próximo ponto
+        LastKnownPosition known = driverPositionCache.get(driverId);
+        if (known != null) {
+            latest.putIfAbsent(driverId, known);
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.remove(subscription.orderId, subscription);
+        unbind(subscription);
+    }
+
+    private void unbind(Subscription subscription) {
+        Long driverId = subscription.driverId;
+        if (driverId == null) {
+            return;
+        }
+        byDriver.computeIfPresent(driverId, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dispatch.OrderClaimTable;
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aceite de pedidos pelos entregadores.
+ *
+ * A tabela de reivindicações em memória deixa passar um único entregador por pedido;
+ * o vencedor confirma com um UPDATE condicional (status = 'NEW'), que continua correto
+ * mesmo com várias instâncias da aplicação disputando o mesmo pedido. Quando um pedido
+ * volta a NEW, o evento limpa a reivindicação guardada em todas as instâncias.
+ */
+@Service
+@Slf4j
+public class OrderClaimService implements OrderEventHandler {
+
+    public enum ClaimResult {
+        CLAIMED, TAKEN, ORDER_NOT_FOUND, DRIVER_NOT_FOUND
+    }
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+    private final DriverLoadService driverLoadService;
+    private final OrderEventService orderEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderClaimTable claims;
+
+    public OrderClaimService(OrderRepository orderRepository,
+                             DriverRepository driverRepository,
+                             DriverLoadService driverLoadService,
+                             OrderEventService orderEventService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${dispatch.claim.shards:64}") int shards,
+                             @Value("${dispatch.claim.pending-ttl-ms:5000}") long pendingTtlMs,
+                             @Value("${dispatch.claim.resolved-ttl-ms:60000}") long resolvedTtlMs) {
+        this.orderRepository = orderRepository;
+        this.driverRepository = driverRepository;
+        this.driverLoadService = driverLoadService;
+        this.orderEventService = orderEventService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claims = new OrderClaimTable(shards, pendingTtlMs, resolvedTtlMs);
+    }
+
+    public ClaimResult claim(Long orderId, Long driverId) {
+        long now = System.currentTimeMillis();
+        OrderClaimTable.Claim claim = claims.tryAcquire(orderId, driverId, now);
+        if (claim == null) {
+            // outro entregador já está confirmando ou já levou o pedido: recusa sem ir ao banco
+            return ClaimResult.TAKEN;
+        }
+
+        ClaimResult result;
+        try {
+            result = transactionTemplate.execute(status -> claimInDatabase(orderId, driverId));
+        } catch (RuntimeException e) {
+            claims.release(orderId, claim);
+            throw e;
+        }
+
+        switch (result) {
+            case CLAIMED -> claims.resolve(orderId, claim, driverId, System.currentTimeMillis());
+            case TAKEN -> claims.resolve(orderId, claim, OrderClaimTable.NO_WINNER, System.currentTimeMillis());
+            default -> claims.release(orderId, claim);
+        }
+        return result;
+    }
+
+    /**
+     * Esquece a reivindicação de um pedido que voltou a ficar disponível
+     */
+    public void reopen(Long orderId) {
+        claims.forget(orderId);
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (event.type() != OrderEvent.Type.CREATED && event.status() == Order.OrderStatus.NEW
+                && event.previousStatus() != Order.OrderStatus.NEW) {
+            reopen(event.orderId());
+        }
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    private ClaimResult claimInDatabase(Long orderId, Long driverId) {
+        if (!driverRepository.existsById(driverId)) {
+            return ClaimResult.DRIVER_NOT_FOUND;
+        }
+        Order current = orderRepository.findById(orderId).orElse(null);
+        if (current == null) {
+            return ClaimResult.ORDER_NOT_FOUND;
+        }
+        if (current.getStatus() != Order.OrderStatus.NEW) {
+            return ClaimResult.TAKEN;
+        }
+        Long previousDriverId = current.getAssignedDriver() != null ? current.getAssignedDriver().getId() : null;
+        if (orderRepository.claimIfNew(orderId, driverId, LocalDateTime.now()) == 0) {
+            return ClaimResult.TAKEN;
+        }
+
+        // o UPDATE nativo limpou o contexto de persistência: recarrega o estado gravado
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+        driverLoadService.onTransition(order, previousDriverId, Order.OrderStatus.NEW);
+        orderEventService.record(OrderEvent.Type.ASSIGNED, order, Order.OrderStatus.NEW, previousDriverId);
+        log.info("Pedido {} aceito pelo entregador {}", orderId, driverId);
+        return ClaimResult.CLAIMED;
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.claim.purge-interval-ms:30000}")
+    public void purgeExpired() {
+        int removed = claims.purgeExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("Reivindicações expiradas removidas: {}", removed);
+        }
+    }
+}
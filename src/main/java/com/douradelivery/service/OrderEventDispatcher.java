@@ -0,0 +1,94 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Entrega cada evento recebido do transporte aos handlers, isolando falhas.
+ *
+ * Um handler que falha é chamado de novo (só ele) algumas vezes com espera entre as
+ * tentativas; se continuar falhando o dispatch lança a exceção, e o transporte decide
+ * o que fazer com o evento (o Kafka tenta de novo e por fim manda para o tópico DLT).
+ */
+@Service
+@Slf4j
+public class OrderEventDispatcher {
+
+    private final ObjectProvider<OrderEventHandler> handlers;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${events.dispatch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${events.dispatch.backoff-ms:200}")
+    private long backoffMs;
+
+    public OrderEventDispatcher(ObjectProvider<OrderEventHandler> handlers, MeterRegistry meterRegistry) {
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Todos os handlers (transporte em memória: uma instância só)
+     */
+    public void dispatch(OrderEvent event) {
+        dispatch(event, handler -> true);
+    }
+
+    /**
+     * Só os handlers por instância ou só os compartilhados, conforme o grupo de consumo
+     */
+    public void dispatch(OrderEvent event, boolean perInstance) {
+        dispatch(event, handler -> handler.perInstance() == perInstance);
+    }
+
+    private void dispatch(OrderEvent event, Predicate<OrderEventHandler> scope) {
+        List<OrderEventHandler> pending = handlers.orderedStream().filter(scope).toList();
+        RuntimeException lastFailure = null;
+        for (int attempt = 1; !pending.isEmpty() && attempt <= maxAttempts; attempt++) {
+            if (attempt > 1 && !pause(backoffMs * (attempt - 1))) {
+                break;
+            }
+            List<OrderEventHandler> failed = new ArrayList<>();
+            for (OrderEventHandler handler : pending) {
+                try {
+                    handler.onOrderEvent(event);
+                } catch (RuntimeException e) {
+                    failed.add(handler);
+                    lastFailure = e;
+                    meterRegistry.counter("orders.events.handler.failures",
+                        "handler", handler.getClass().getSimpleName()).increment();
+                    log.warn("Handler {} falhou no evento {} do pedido {} (tentativa {}/{}): {}",
+                             handler.getClass().getSimpleName(), event.eventId(), event.orderId(),
+                             attempt, maxAttempts, e.getMessage());
+                }
+            }
+            pending = failed;
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Evento " + event.eventId() + " do pedido " + event.orderId()
+                + " não processado por " + pending.stream().map(h -> h.getClass().getSimpleName()).toList(),
+                lastFailure);
+        }
+        meterRegistry.counter("orders.events.consumed", "type", event.type().name()).increment();
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
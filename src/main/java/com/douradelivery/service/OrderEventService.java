@@ -0,0 +1,49 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.OrderOutboxEvent;
+import com.douradelivery.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Grava eventos de pedido no outbox, dentro da transação que alterou o pedido.
+ *
+ * Se a transação for desfeita o evento some junto; a publicação fica a cargo do
+ * OrderOutboxRelay, fora da thread da requisição.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderEventService {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ReadCacheService readCacheService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OrderEvent.Type type, Order order, Order.OrderStatus previousStatus, Long previousDriverId) {
+        OrderEvent event = OrderEvent.of(type, order, previousStatus, previousDriverId);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento do pedido " + order.getId(), e);
+        }
+
+        outboxRepository.save(OrderOutboxEvent.builder()
+            .orderId(order.getId())
+            .eventType(type.name())
+            .payload(payload)
+            .createdAt(LocalDateTime.now())
+            .build());
+        // toda escrita de pedido passa por aqui: ponto único de invalidação do cache de leitura
+        readCacheService.evictOrder(order.getId(), event.driverId(), previousDriverId);
+    }
+}
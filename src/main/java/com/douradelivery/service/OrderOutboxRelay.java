@@ -0,0 +1,148 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventPublisher;
+import com.douradelivery.model.OrderOutboxEvent;
+import com.douradelivery.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica os eventos pendentes do outbox no transporte configurado.
+ *
+ * Cada ciclo reserva um lote em ordem de id numa transação curta (claimed_until), publica
+ * fora dela e só então marca como publicado; assim os INSERTs no outbox nunca esperam o
+ * transporte. Se a publicação falhar a reserva é desfeita e o lote volta no próximo ciclo;
+ * se o relay cair no meio, a reserva vence e outro relay retoma (entrega "pelo menos uma vez").
+ */
+@Service
+@Slf4j
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderEventPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${events.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${events.relay.retention-hours:24}")
+    private long retentionHours;
+
+    // bem acima do timeout de envio do transporte: reserva vencida significa relay morto
+    @Value("${events.relay.claim-ms:60000}")
+    private long claimMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public OrderOutboxRelay(OrderOutboxRepository outboxRepository,
+                            OrderEventPublisher publisher,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("orders.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        this.publishedCounter = Counter.builder("orders.outbox.events").tag("result", "published").register(meterRegistry);
+        this.failedCounter = Counter.builder("orders.outbox.events").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${events.relay.interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            List<OrderOutboxEvent> rows;
+            try {
+                rows = transactionTemplate.execute(status -> claimBatch());
+            } catch (RuntimeException e) {
+                log.warn("Falha ao reservar eventos do outbox, nova tentativa no próximo ciclo: {}", e.getMessage());
+                return;
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (OrderOutboxEvent row : rows) {
+                ids.add(row.getId());
+            }
+            try {
+                publisher.publish(toEvents(rows));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("Falha ao publicar eventos do outbox, nova tentativa no próximo ciclo: {}", e.getMessage());
+                release(ids);
+                return;
+            }
+            // se a marcação falhar a reserva vence e o lote é reenviado: repetição, nunca perda
+            transactionTemplate.execute(status -> outboxRepository.markPublished(ids, LocalDateTime.now()));
+            published = rows.size();
+            publishedCounter.increment(published);
+        } while (published == batchSize);
+    }
+
+    private List<OrderOutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> rows = outboxRepository.lockClaimable(now, batchSize);
+        if (!rows.isEmpty()) {
+            outboxRepository.claim(rows.stream().map(OrderOutboxEvent::getId).toList(),
+                                   now.plusNanos(claimMs * 1_000_000));
+        }
+        return rows;
+    }
+
+    private List<OrderEvent> toEvents(List<OrderOutboxEvent> rows) {
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        for (OrderOutboxEvent row : rows) {
+            try {
+                events.add(objectMapper.readValue(row.getPayload(), OrderEvent.class).withEventId(row.getId()));
+            } catch (JsonProcessingException e) {
+                // payload ilegível não tem como ser reenviado: marca como publicado para não travar o outbox
+                log.error("Evento {} do outbox descartado: {}", row.getId(), e.getMessage());
+            }
+        }
+        return events;
+    }
+
+    private void release(List<Long> ids) {
+        try {
+            transactionTemplate.execute(status -> outboxRepository.releaseClaims(ids));
+        } catch (RuntimeException e) {
+            // sem liberar, o lote volta quando a reserva vencer
+            log.warn("Falha ao liberar reserva do outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${events.relay.stats-interval-ms:10000}")
+    public void refreshPending() {
+        pending.set(outboxRepository.countPending());
+    }
+
+    @Scheduled(cron = "${events.relay.cleanup-cron:0 15 * * * *}")
+    public void cleanup() {
+        int removed = transactionTemplate.execute(status ->
+            outboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (removed > 0) {
+            log.info("Outbox de pedidos: {} eventos publicados removidos", removed);
+        }
+    }
+}
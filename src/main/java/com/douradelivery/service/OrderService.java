@@ -1,16 +1,32 @@
 package com.douradelivery.service;
 
+import com.douradelivery.dto.OrderFilter;
+import com.douradelivery.dto.OrderSummary;
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.model.Driver;
 import com.douradelivery.model.Order;
 import com.douradelivery.model.User;
+import com.douradelivery.repository.DriverRepository;
 import com.douradelivery.repository.OrderRepository;
 import com.douradelivery.repository.UserRepository;
+import com.douradelivery.routing.GeoMath;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +35,15 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final DriverRepository driverRepository;
+    private final DriverLoadService driverLoadService;
+    private final OrderClaimService orderClaimService;
+    private final OrderEventService orderEventService;
+    private final ReadCacheService readCacheService;
+    
+    // tamanho padrão da página do app do entregador, a única variante cacheada
+    private static final int CACHED_DRIVER_PAGE_SIZE = 50;
+    private final ObjectMapper objectMapper;
     
     public Order createOrder(Order order, Long clientId) {
         User client = userRepository.findById(clientId)
@@ -29,25 +54,62 @@ public Order createOrder(Order order, Long clientId) {
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderEventService.record(OrderEvent.Type.CREATED, saved, null, null);
+        return saved;
     }
     
-    public List<Order> getOrdersByClient(Long clientId) {
-        User client = userRepository.findById(clientId)
-            .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
-        return orderRepository.findByClient(client);
+    /**
+     * Página de pedidos em ordem decrescente de id, começando depois de cursor (null = primeira página)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<OrderSummary> getOrderPage(OrderFilter filter, Long cursor, int size) {
+        if (cursor == null && size == CACHED_DRIVER_PAGE_SIZE && isDriverOnly(filter)) {
+            // primeira página do entregador: o app consulta a mesma chave repetidamente
+            return readCacheService.getDriverOrders().get(filter.driverId(), () -> loadOrderPage(filter, null, size));
+        }
+        return loadOrderPage(filter, cursor, size);
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * Pedido por id na visão plana, servido pelo cache de leitura quando possível
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<OrderSummary> getOrderSummary(Long id) {
+        return Optional.ofNullable(readCacheService.getOrders().get(id,
+            () -> orderRepository.findSummaryById(id).orElse(null)));
     }
     
-    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatus(status);
+    private List<OrderSummary> loadOrderPage(OrderFilter filter, Long cursor, int size) {
+        return orderRepository.findSummaryPage(cursor, filter.status(), filter.clientId(), filter.driverId(),
+                                               filter.from(), filter.to(), PageRequest.of(0, size));
     }
     
-    public List<Order> getOrdersByDriver(Long driverId) {
-        return orderRepository.findByAssignedDriverId(driverId);
+    /**
+     * Exporta os pedidos como NDJSON (um objeto por linha), escrevendo conforme o cursor avança
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderFilter filter, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("\n");
+        long rows = 0;
+        try (Stream<OrderSummary> summaries = orderRepository.streamSummaries(
+                 filter.status(), filter.clientId(), filter.driverId(), filter.from(), filter.to());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<OrderSummary> iterator = summaries.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                if (++rows % 1000 == 0) {
+                    generator.flush();
+                }
+            }
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return rows;
     }
     
     public Optional<Order> getOrderById(Long id) {
@@ -57,6 +119,8 @@ public Optional<Order> getOrderById(Long id) {
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
         Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+        Order.OrderStatus previousStatus = order.getStatus();
+        Long driverId = order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null;
         
         order.setStatus(status);
         order.setUpdatedAt(LocalDateTime.now());
@@ -65,43 +129,55 @@ public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
             order.setDeliveredAt(LocalDateTime.now());
         }
         
-        return orderRepository.save(order);
+        driverLoadService.onTransition(order, driverId, previousStatus);
+        if (status == Order.OrderStatus.NEW) {
+            // pedido voltou a ficar disponível para aceite
+            orderClaimService.reopen(orderId);
+        }
+        Order saved = orderRepository.save(order);
+        orderEventService.record(OrderEvent.Type.STATUS_CHANGED, saved, previousStatus, driverId);
+        return saved;
     }
     
     public Order assignDriverToOrder(Long orderId, Long driverId) {
         Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+        if (!driverRepository.existsById(driverId)) {
+            throw new RuntimeException("Entregador não encontrado");
+        }
+        Order.OrderStatus previousStatus = order.getStatus();
+        Long previousDriverId = order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null;
         
-        // Aqui você pode adicionar lógica para verificar se o driver existe
-        // Driver driver = driverRepository.findById(driverId)...
-        
+        Driver driver = driverRepository.getReferenceById(driverId);
+        order.setAssignedDriver(driver);
         order.setStatus(Order.OrderStatus.ASSIGNED);
         order.setUpdatedAt(LocalDateTime.now());
         
-        return orderRepository.save(order);
+        driverLoadService.onTransition(order, previousDriverId, previousStatus);
+        Order saved = orderRepository.save(order);
+        orderEventService.record(OrderEvent.Type.ASSIGNED, saved, previousStatus, previousDriverId);
+        return saved;
     }
     
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        orderRepository.findById(id).ifPresent(order -> {
+            if (order.getAssignedDriver() != null && DriverLoadService.isOpen(order.getStatus())) {
+                driverLoadService.removeOrder(order.getAssignedDriver().getId(), order);
+            }
+            orderEventService.record(OrderEvent.Type.DELETED, order, order.getStatus(),
+                order.getAssignedDriver() != null ? order.getAssignedDriver().getId() : null);
+            orderRepository.delete(order);
+        });
     }
     
-    public List<Order> getAvailableOrders() {
-        return orderRepository.findByStatus(Order.OrderStatus.NEW);
+    private static boolean isDriverOnly(OrderFilter filter) {
+        return filter.driverId() != null && filter.status() == null && filter.clientId() == null
+            && filter.from() == null && filter.to() == null;
     }
     
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
         // Fórmula de Haversine para calcular distância entre dois pontos
-        final int R = 6371; // Raio da Terra em km
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distance = R * c;
-        
-        return distance;
+        return GeoMath.haversineKm(lat1, lon1, lat2, lon2);
     }
     
     public double calculateOrderDistance(Order order) {
@@ -0,0 +1,96 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contagem de pedidos por status mantida pelos eventos do ciclo de vida.
+ *
+ * A entrega dos eventos é "pelo menos uma vez", então a contagem pode divergir
+ * levemente; a recontagem periódica no banco corrige o desvio.
+ */
+@Service
+@Slf4j
+public class OrderStatsService implements OrderEventHandler {
+
+    private final OrderRepository orderRepository;
+    private final Map<Order.OrderStatus, AtomicLong> counts = new EnumMap<>(Order.OrderStatus.class);
+
+    public OrderStatsService(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            counts.put(status, count);
+            Gauge.builder("orders.by.status", count, AtomicLong::get)
+                .tag("status", status.name())
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    // contagem local de cada nó
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        switch (event.type()) {
+            case CREATED -> increment(event.status(), 1);
+            case DELETED -> increment(event.status(), -1);
+            default -> {
+                if (event.previousStatus() != event.status()) {
+                    increment(event.previousStatus(), -1);
+                    increment(event.status(), 1);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<Order.OrderStatus, AtomicLong> entry : counts.entrySet()) {
+            long count = Math.max(0, entry.getValue().get());
+            byStatus.put(entry.getKey().name(), count);
+            total += count;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalOrders", total);
+        stats.put("ordersByStatus", byStatus);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelay = 600000, fixedDelayString = "${events.stats.recount-ms:600000}")
+    public void recount() {
+        Map<Order.OrderStatus, Long> fresh = new EnumMap<>(Order.OrderStatus.class);
+        for (Object[] row : orderRepository.countGroupedByStatus()) {
+            fresh.put((Order.OrderStatus) row[0], (Long) row[1]);
+        }
+        for (Map.Entry<Order.OrderStatus, AtomicLong> entry : counts.entrySet()) {
+            entry.getValue().set(fresh.getOrDefault(entry.getKey(), 0L));
+        }
+        log.debug("Contagem de pedidos por status recalculada: {}", fresh);
+    }
+
+    private void increment(Order.OrderStatus status, long delta) {
+        if (status != null) {
+            counts.get(status).addAndGet(delta);
+        }
+    }
+}
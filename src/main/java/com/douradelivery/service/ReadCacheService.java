@@ -0,0 +1,105 @@
+package com.douradelivery.service;
+
+import com.douradelivery.cache.CacheRegion;
+import com.douradelivery.cache.InMemoryRemoteCache;
+import com.douradelivery.cache.RedisRemoteCache;
+import com.douradelivery.cache.RemoteCache;
+import com.douradelivery.dto.OrderSummary;
+import com.douradelivery.dto.UserAccount;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches das leituras mais repetidas pelos apps (polling).
+ *
+ * L1 local com TTL curto e L2 opcional (cache.l2.type: none | memory | redis).
+ * Escritas chamam os métodos evict*, que removem as chaves depois do commit para
+ * que uma leitura concorrente não repovoe o cache com o estado antigo.
+ *
+ * Com L2, o evict troca o carimbo da chave e vale em todas as instâncias na próxima
+ * leitura, inclusive contra um leitor que carregou o estado antigo e gravou depois do
+ * evict (ver CacheRegion). Sem L2, o L1 das outras instâncias pode servir o valor
+ * antigo por até cache.l1.ttl-ms.
+ */
+@Service
+@Getter
+@Slf4j
+public class ReadCacheService {
+
+    private final CacheRegion<OrderSummary> orders;
+    private final CacheRegion<List<OrderSummary>> driverOrders;
+    private final CacheRegion<Map<String, Object>> documentStatus;
+    private final CacheRegion<UserAccount> usersByEmail;
+
+    public ReadCacheService(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            ObjectProvider<StringRedisTemplate> redisTemplate,
+                            @Value("${cache.l2.type:none}") String remoteType,
+                            @Value("${cache.l1.max-entries:10000}") int localMaxEntries,
+                            @Value("${cache.l1.ttl-ms:5000}") long localTtlMs,
+                            @Value("${cache.l2.ttl-ms:60000}") long remoteTtlMs) {
+        RemoteCache remote = switch (remoteType.toLowerCase()) {
+            case "redis" -> new RedisRemoteCache(redisTemplate.getObject());
+            case "memory" -> new InMemoryRemoteCache();
+            default -> null;
+        };
+        log.info("Cache de leitura: L1 {} entradas/{} ms, L2 {}", localMaxEntries, localTtlMs, remoteType);
+
+        JavaType summaryList = objectMapper.getTypeFactory().constructCollectionType(List.class, OrderSummary.class);
+        JavaType statusMap = objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+
+        this.orders = new CacheRegion<>("orders", localMaxEntries, localTtlMs, remote, true, remoteTtlMs,
+            objectMapper, objectMapper.constructType(OrderSummary.class), meterRegistry);
+        this.driverOrders = new CacheRegion<>("driver-orders", localMaxEntries, localTtlMs, remote, true,
+            remoteTtlMs, objectMapper, summaryList, meterRegistry);
+        this.documentStatus = new CacheRegion<>("document-status", localMaxEntries, localTtlMs, remote, true,
+            remoteTtlMs, objectMapper, statusMap, meterRegistry);
+        // hashes de senha não saem do processo: o L2 guarda só o carimbo de invalidação
+        this.usersByEmail = new CacheRegion<>("users-by-email", localMaxEntries, localTtlMs, remote, false,
+            remoteTtlMs, objectMapper, objectMapper.constructType(UserAccount.class), meterRegistry);
+    }
+
+    public void evictOrder(Long orderId, Long... driverIds) {
+        afterCommit(() -> {
+            orders.evict(orderId);
+            for (Long driverId : driverIds) {
+                if (driverId != null) {
+                    driverOrders.evict(driverId);
+                }
+            }
+        });
+    }
+
+    public void evictDocumentStatus(Long userId) {
+        afterCommit(() -> documentStatus.evict(userId));
+    }
+
+    public void evictUser(String email) {
+        afterCommit(() -> usersByEmail.evict(email.toLowerCase()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
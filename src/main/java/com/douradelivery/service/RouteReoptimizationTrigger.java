@@ -0,0 +1,50 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispara a otimização de rotas quando surgem pedidos disponíveis.
+ *
+ * Os eventos só marcam que há trabalho; a otimização roda no máximo uma vez por
+ * intervalo, agrupando rajadas de pedidos numa única execução.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteReoptimizationTrigger implements OrderEventHandler {
+
+    private final RoutingService routingService;
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    @Value("${routing.auto-reoptimize.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (event.status() == Order.OrderStatus.NEW && event.type() != OrderEvent.Type.DELETED) {
+            pending.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${routing.auto-reoptimize.interval-ms:30000}")
+    public void run() {
+        if (!enabled || !pending.getAndSet(false)) {
+            return;
+        }
+        try {
+            routingService.computeRoutes();
+        } catch (RuntimeException e) {
+            pending.set(true);
+            log.warn("Otimização automática de rotas falhou: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.Route;
+import com.douradelivery.repository.RouteRepository;
+import com.douradelivery.routing.GeoMath;
+import com.douradelivery.tracking.DriverPosition;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.websocket.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reotimização incremental das rotas em andamento.
+ *
+ * Eventos de pedido (novo pedido atribuído, cancelamento, reatribuição) e desvios do
+ * entregador em relação ao trajeto planejado só marcam o entregador como pendente; um
+ * agendador curto chama RoutingService.repairRoute para cada pendente, que mexe apenas
+ * na rota dele, e envia a nova sequência ao entregador depois do commit. O listener de
+ * telemetria compara o ponto com o trajeto em memória, no máximo uma vez por intervalo
+ * por entregador, sem acessar o banco.
+ */
+@Service
+@Slf4j
+public class RouteRepairService implements OrderEventHandler, TelemetryListener {
+
+    private static final List<Route.RouteStatus> ACTIVE =
+        List.of(Route.RouteStatus.PLANNED, Route.RouteStatus.IN_PROGRESS);
+
+    private final RoutingService routingService;
+    private final RouteRepository routeRepository;
+    private final DriverLocationService driverLocationService;
+    private final NotificationService notificationService;
+
+    @Value("${routing.incremental.enabled:true}")
+    private boolean enabled;
+
+    @Value("${routing.incremental.deviation-km:0.5}")
+    private double deviationKm;
+
+    @Value("${routing.incremental.check-interval-ms:10000}")
+    private long checkIntervalMs;
+
+    @Value("${routing.incremental.deviation-cooldown-ms:120000}")
+    private long deviationCooldownMs;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deviated = ConcurrentHashMap.newKeySet();
+
+    // entregador -> trajeto planejado restante
+    private final Map<Long, RouteShape> shapes = new ConcurrentHashMap<>();
+
+    private final Timer repairTimer;
+    private final Counter deviationCounter;
+    private final Counter conflictCounter;
+
+    /**
+     * Polilinha planejada: partida, depois coleta e entrega de cada pedido ainda aberto
+     */
+    private static final class RouteShape {
+        final long routeId;
+        final List<Long> orderIds;
+        final double[] lat;
+        final double[] lon;
+        volatile long lastCheckMillis;
+        volatile long lastDeviationMillis;
+
+        RouteShape(long routeId, List<Long> orderIds, double[] lat, double[] lon, long lastDeviationMillis) {
+            this.routeId = routeId;
+            this.orderIds = orderIds;
+            this.lat = lat;
+            this.lon = lon;
+            this.lastDeviationMillis = lastDeviationMillis;
+        }
+
+        double distanceKm(double pointLat, double pointLon) {
+            if (lat.length == 1) {
+                return GeoMath.haversineKm(pointLat, pointLon, lat[0], lon[0]);
+            }
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < lat.length; i++) {
+                min = Math.min(min, GeoMath.distanceToSegmentKm(pointLat, pointLon,
+                                                                lat[i - 1], lon[i - 1], lat[i], lon[i]));
+            }
+            return min;
+        }
+    }
+
+    public RouteRepairService(RoutingService routingService,
+                              RouteRepository routeRepository,
+                              DriverLocationService driverLocationService,
+                              NotificationService notificationService,
+                              MeterRegistry meterRegistry) {
+        this.routingService = routingService;
+        this.routeRepository = routeRepository;
+        this.driverLocationService = driverLocationService;
+        this.notificationService = notificationService;
+        this.repairTimer = Timer.builder("routing.incremental.duration").register(meterRegistry);
+        this.deviationCounter = Counter.builder("routing.incremental.deviations").register(meterRegistry);
+        this.conflictCounter = Counter.builder("routing.incremental.conflicts").register(meterRegistry);
+    }
+
+    @Override
+    // o trajeto em memória é comparado com a telemetria que chega a cada nó
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (!enabled || event.type() == OrderEvent.Type.CREATED) {
+            return;
+        }
+        if (event.driverId() != null) {
+            dirty.add(event.driverId());
+        }
+        if (event.driverChanged() && event.previousDriverId() != null) {
+            dirty.add(event.previousDriverId());
+        }
+    }
+
+    @Override
+    public void onTelemetry(TelemetryPoint point) {
+        RouteShape shape = shapes.get(point.driverId());
+        if (!enabled || shape == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - shape.lastCheckMillis < checkIntervalMs) {
+            return;
+        }
+        shape.lastCheckMillis = now;
+        if (now - shape.lastDeviationMillis < deviationCooldownMs
+                || shape.distanceKm(point.lat(), point.lon()) <= deviationKm) {
+            return;
+        }
+        shape.lastDeviationMillis = now;
+        deviationCounter.increment();
+        deviated.add(point.driverId());
+        dirty.add(point.driverId());
+    }
+
+    @Scheduled(fixedDelayString = "${routing.incremental.interval-ms:2000}")
+    public void processPending() {
+        if (!enabled || dirty.isEmpty()) {
+            return;
+        }
+        for (Long driverId : new ArrayList<>(dirty)) {
+            dirty.remove(driverId);
+            boolean force = deviated.remove(driverId);
+            long startedAt = System.nanoTime();
+            try {
+                // repairRoute faz commit ao retornar: a notificação nunca antecipa o banco
+                Route route = routingService.repairRoute(driverId, force);
+                if (route != null) {
+                    notificationService.notifyDriverRouteUpdate(route.getDriver(), route);
+                    updateShape(driverId, route);
+                }
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // pedido alterado no meio do ajuste: tenta de novo no próximo ciclo
+                conflictCounter.increment();
+                markAgain(driverId, force);
+            } catch (RuntimeException e) {
+                log.warn("Ajuste incremental da rota do entregador {} falhou: {}", driverId, e.getMessage());
+                markAgain(driverId, force);
+            } finally {
+                repairTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Recarrega os trajetos das rotas ativas (rotas criadas ou encerradas por outros caminhos)
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${routing.incremental.resync-ms:60000}")
+    @Transactional(readOnly = true)
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        // mais de uma rota ativa: vale a mais recente, a mesma que repairRoute ajusta
+        Map<Long, Route> latest = new HashMap<>();
+        for (Route route : routeRepository.findByStatusIn(ACTIVE)) {
+            latest.merge(route.getDriver().getId(), route, (a, b) -> a.getId() > b.getId() ? a : b);
+        }
+        latest.forEach((driverId, route) -> {
+            RouteShape current = shapes.get(driverId);
+            // trajeto inalterado mantém o ponto de partida original, senão um desvio lento sumiria
+            if (current == null || current.routeId != route.getId() || !current.orderIds.equals(orderIds(route))) {
+                updateShape(driverId, route);
+            }
+        });
+        shapes.keySet().retainAll(latest.keySet());
+    }
+
+    private void updateShape(Long driverId, Route route) {
+        List<double[]> points = new ArrayList<>();
+        DriverPosition position = driverLocationService.getPosition(driverId);
+        if (position != null) {
+            points.add(new double[] {position.lat(), position.lon()});
+        }
+        for (Order order : route.getOrders()) {
+            if (order == null || !DriverLoadService.isOpen(order.getStatus())) {
+                continue;
+            }
+            if (order.getStatus() == Order.OrderStatus.ASSIGNED) {
+                points.add(new double[] {order.getOriginLat(), order.getOriginLon()});
+            }
+            points.add(new double[] {order.getDestinationLat(), order.getDestinationLon()});
+        }
+        if (points.isEmpty()) {
+            shapes.remove(driverId);
+            return;
+        }
+        double[] lat = new double[points.size()];
+        double[] lon = new double[points.size()];
+        for (int i = 0; i < lat.length; i++) {
+            lat[i] = points.get(i)[0];
+            lon[i] = points.get(i)[1];
+        }
+        RouteShape previous = shapes.get(driverId);
+        shapes.put(driverId, new RouteShape(route.getId(), orderIds(route), lat, lon,
+                                            previous != null ? previous.lastDeviationMillis : 0L));
+    }
+
+    private static List<Long> orderIds(Route route) {
+        return route.getOrders().stream()
+            .filter(order -> order != null && DriverLoadService.isOpen(order.getStatus()))
+            .map(Order::getId)
+            .toList();
+    }
+
+    private void markAgain(Long driverId, boolean force) {
+        if (force) {
+            deviated.add(driverId);
+        }
+        dirty.add(driverId);
+    }
+}
@@ -1,31 +1,332 @@
 package com.douradelivery.service;
 
+import com.douradelivery.dto.RouteResponse;
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.model.Driver;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.Route;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.repository.OrderRepository;
+import com.douradelivery.repository.RouteRepository;
+import com.douradelivery.routing.DistanceMatrix;
+import com.douradelivery.routing.IncrementalRoute;
+import com.douradelivery.routing.VrpProblem;
+import com.douradelivery.routing.VrpSolution;
+import com.douradelivery.routing.VrpSolver;
+import com.douradelivery.tracking.DriverPosition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class RoutingService {
-    
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+    private final RouteRepository routeRepository;
+    private final DistanceService distanceService;
+    private final DriverLoadService driverLoadService;
+    private final OrderEventService orderEventService;
+    private final DriverLocationService driverLocationService;
+    private final ReadCacheService readCacheService;
+
+    private final VrpSolver solver = new VrpSolver();
+
+    @Value("${routing.time-budget-ms:2000}")
+    private long timeBudgetMs;
+
+    @Value("${routing.workers:0}")
+    private int workers;
+
+    @Value("${routing.service-time-seconds:120}")
+    private double serviceTimeSeconds;
+
+    @Value("${routing.incremental.max-passes:50}")
+    private int incrementalMaxPasses;
+
+    @Value("${routing.incremental.time-budget-ms:50}")
+    private long incrementalTimeBudgetMs;
+
+    /**
+     * Calcula rotas para todos os pedidos NEW usando os entregadores disponíveis
+     * e persiste as rotas resultantes
+     */
+    @Transactional
     public Map<String, Object> computeRoutes() {
-        // Mock routing - retorna rotas vazias para teste
+        long startedAt = System.currentTimeMillis();
+
+        List<Order> orders = orderRepository.findByStatus(Order.OrderStatus.NEW);
+        List<Driver> drivers = driverRepository.findByAvailableTrue();
+
         Map<String, Object> response = new HashMap<>();
+        if (orders.isEmpty() || drivers.isEmpty()) {
+            response.put("message", "Nenhum pedido ou entregador disponível para roteamento");
+            response.put("routes", new ArrayList<>());
+            response.put("totalRoutes", 0);
+            response.put("totalOrders", 0);
+            response.put("totalDrivers", drivers.size());
+            response.put("unassignedOrders", orders.stream().map(Order::getId).toList());
+            response.put("expiredOrders", List.of());
+            return response;
+        }
+
+        VrpProblem problem = buildProblem(orders, drivers, LocalDateTime.now());
+        VrpSolution solution = solver.solve(problem, timeBudgetMs, workers);
+
+        List<RouteResponse> routes = new ArrayList<>();
+        int assignedOrders = 0;
+        for (int v = 0; v < drivers.size(); v++) {
+            int[] sequence = solution.getRoute(v);
+            if (sequence.length == 0) {
+                continue;
+            }
+            Route route = persistRoute(drivers.get(v), orders, sequence,
+                solution.getRouteDistance(v), solution.getRouteDuration(v));
+            routes.add(toResponse(route));
+            assignedOrders += sequence.length;
+        }
+
+        List<Long> unassigned = new ArrayList<>();
+        for (int i : solution.getUnassigned()) {
+            unassigned.add(orders.get(i).getId());
+        }
+        // janela já perdida: nenhuma rodada vai atribuí-los, quem decide é o operador
+        List<Long> expired = new ArrayList<>();
+        for (int i : solution.getExpired()) {
+            expired.add(orders.get(i).getId());
+        }
+        if (!expired.isEmpty()) {
+            log.warn("{} pedidos com janela de entrega perdida, fora do roteamento: {}", expired.size(), expired);
+        }
+
+        long elapsed = System.currentTimeMillis() - startedAt;
+        log.info("Roteamento concluído em {} ms: {} rotas, {} pedidos atribuídos, {} sem rota, {} com janela perdida",
+                 elapsed, routes.size(), assignedOrders, unassigned.size(), expired.size());
+
         response.put("message", "Rotas calculadas com sucesso!");
-        response.put("routes", new ArrayList<>());
-        response.put("totalRoutes", 0);
-        response.put("totalOrders", 0);
-        response.put("totalDrivers", 0);
+        response.put("routes", routes);
+        response.put("totalRoutes", routes.size());
+        response.put("totalOrders", assignedOrders);
+        response.put("totalDrivers", drivers.size());
+        response.put("unassignedOrders", unassigned);
+        response.put("expiredOrders", expired);
+        response.put("totalDistance", solution.getTotalDistance());
+        response.put("computeTimeMs", elapsed);
         return response;
     }
-    
-    public List<Map<String, Object>> getActiveRoutes() {
-        // Mock active routes
-        return new ArrayList<>();
+
+    @Transactional(readOnly = true)
+    public List<RouteResponse> getActiveRoutes() {
+        return routeRepository.findByStatusIn(List.of(Route.RouteStatus.PLANNED, Route.RouteStatus.IN_PROGRESS))
+            .stream()
+            .map(this::toResponse)
+            .toList();
+    }
+
+    /**
+     * Ajuste incremental da rota ativa do entregador: tira pedidos cancelados ou
+     * reatribuídos, encaixa na posição mais barata os pedidos ASSIGNED que ainda não
+     * estão na rota e faz uma busca local curta só nesta rota. Pedidos já coletados
+     * ou entregues ficam no início, na ordem em que estavam. As estimativas passam a
+     * cobrir o trecho restante. Devolve a rota alterada ou null se não havia o que fazer.
+     */
+    @Transactional
+    public Route repairRoute(Long driverId, boolean force) {
+        List<Order> incoming = orderRepository.findAssignedOutsideRoute(driverId);
+        Route route = routeRepository
+            .findFirstByDriverIdAndStatusInOrderByIdDesc(driverId,
+                List.of(Route.RouteStatus.PLANNED, Route.RouteStatus.IN_PROGRESS))
+            .orElse(null);
+        if (route == null) {
+            if (incoming.isEmpty()) {
+                return null;
+            }
+            Driver driver = driverRepository.findById(driverId)
+                .orElseThrow(() -> new RuntimeException("Entregador não encontrado"));
+            route = Route.builder().driver(driver).build();
+        }
+
+        boolean changed = !incoming.isEmpty();
+        List<Order> moved = new ArrayList<>(incoming);
+        List<Order> fixed = new ArrayList<>();
+        List<Order> movable = new ArrayList<>();
+        for (Order order : new ArrayList<>(route.getOrders())) {
+            if (order == null) {
+                // buraco no sequence_order deixado por um pedido que saiu da rota
+                changed = true;
+            } else if (order.getStatus() == Order.OrderStatus.CANCELED || order.getAssignedDriver() == null
+                    || !driverId.equals(order.getAssignedDriver().getId())) {
+                route.removeOrder(order);
+                moved.add(order);
+                changed = true;
+            } else if (order.getStatus() == Order.OrderStatus.ASSIGNED) {
+                movable.add(order);
+            } else {
+                fixed.add(order);
+            }
+        }
+        if (!changed && !force) {
+            return null;
+        }
+
+        // parte do destino do último pedido em andamento; sem ele, da posição atual
+        double startLat;
+        double startLon;
+        Order inProgress = fixed.stream()
+            .filter(order -> order.getStatus() != Order.OrderStatus.DELIVERED)
+            .reduce((first, second) -> second)
+            .orElse(null);
+        DriverPosition position = driverLocationService.getPosition(driverId);
+        if (inProgress != null) {
+            startLat = inProgress.getDestinationLat();
+            startLon = inProgress.getDestinationLon();
+        } else if (position != null) {
+            startLat = position.lat();
+            startLon = position.lon();
+        } else {
+            startLat = route.getDriver().getCurrentLat();
+            startLon = route.getDriver().getCurrentLon();
+        }
+
+        List<Order> pending = new ArrayList<>(movable);
+        pending.addAll(incoming);
+        double distance = 0;
+        double duration = 0;
+        List<Order> sequence = new ArrayList<>(fixed);
+        if (!pending.isEmpty()) {
+            VrpProblem problem = buildProblem(pending, new double[] {startLat}, new double[] {startLon},
+                                              LocalDateTime.now());
+            int[] initial = new int[movable.size()];
+            for (int i = 0; i < initial.length; i++) {
+                initial[i] = i;
+            }
+            IncrementalRoute incremental = new IncrementalRoute(problem, initial);
+            for (int i = movable.size(); i < pending.size(); i++) {
+                incremental.insertCheapest(i);
+            }
+            incremental.improve(incrementalMaxPasses,
+                                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(incrementalTimeBudgetMs));
+            for (int index : incremental.getSequence()) {
+                sequence.add(pending.get(index));
+            }
+            distance = incremental.getDistance();
+            duration = incremental.getDuration();
+        }
+
+        // reescreve a lista inteira: o @OrderColumn renumera sequence_order de 0 a n-1
+        route.getOrders().clear();
+        for (Order order : sequence) {
+            route.getOrders().add(order);
+            order.setRoute(route);
+        }
+        route.setEstimatedDistance(distance);
+        route.setEstimatedDuration((int) Math.round(duration));
+        Route saved = routeRepository.save(route);
+        // mudar de rota não gera evento (os consumidores reagiriam com outro ajuste),
+        // mas o routeId do resumo em cache muda
+        for (Order order : moved) {
+            readCacheService.evictOrder(order.getId(), driverId);
+        }
+        log.debug("Rota {} do entregador {} ajustada: {} pedidos, {} novos", saved.getId(), driverId,
+                  sequence.size(), incoming.size());
+        return saved;
+    }
+
+    /**
+     * Previsão de coleta e entrega do pedido: da posição atual do entregador, passando
+     * pelas paradas que vêm antes dele na rota, com durações dos perfis de velocidade
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getOrderEta(Long orderId) {
+        Order target = orderRepository.findById(orderId).orElse(null);
+        if (target == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", orderId);
+        response.put("status", target.getStatus());
+        Driver driver = target.getAssignedDriver();
+        if (driver == null || target.getStatus() == Order.OrderStatus.NEW || !DriverLoadService.isOpen(target.getStatus())) {
+            response.put("message", "Pedido sem entregador a caminho");
+            return Optional.of(response);
+        }
+
+        List<Order> ahead = new ArrayList<>();
+        Route route = target.getRoute();
+        if (route != null && route.getDriver().getId().equals(driver.getId())) {
+            for (Order order : route.getOrders()) {
+                if (order == null || order.getId().equals(orderId)) {
+                    break;
+                }
+                if (DriverLoadService.isOpen(order.getStatus())) {
+                    ahead.add(order);
+                }
+            }
+        }
+        ahead.add(target);
+
+        // paradas na ordem: coleta e entrega dos pedidos ASSIGNED, só a entrega dos já coletados
+        List<double[]> stops = new ArrayList<>();
+        DriverPosition position = driverLocationService.getPosition(driver.getId());
+        stops.add(position != null
+            ? new double[] {position.lat(), position.lon()}
+            : new double[] {driver.getCurrentLat(), driver.getCurrentLon()});
+        int pickupStop = -1;
+        for (Order order : ahead) {
+            if (order.getStatus() == Order.OrderStatus.ASSIGNED) {
+                stops.add(new double[] {order.getOriginLat(), order.getOriginLon()});
+                if (order == target) {
+                    pickupStop = stops.size() - 1;
+                }
+            }
+            stops.add(new double[] {order.getDestinationLat(), order.getDestinationLon()});
+        }
+
+        int legs = stops.size() - 1;
+        double[] fromLat = new double[legs];
+        double[] fromLon = new double[legs];
+        double[] toLat = new double[legs];
+        double[] toLon = new double[legs];
+        for (int i = 0; i < legs; i++) {
+            fromLat[i] = stops.get(i)[0];
+            fromLon[i] = stops.get(i)[1];
+            toLat[i] = stops.get(i + 1)[0];
+            toLon[i] = stops.get(i + 1)[1];
+        }
+        DistanceMatrix matrix = distanceService.buildPairwise(fromLat, fromLon, toLat, toLon);
+
+        LocalDateTime now = LocalDateTime.now();
+        double seconds = 0;
+        for (int i = 0; i < legs; i++) {
+            seconds += matrix.duration(i, 0);
+            if (i + 1 == pickupStop) {
+                response.put("pickupEtaSeconds", Math.round(seconds));
+                response.put("estimatedPickupAt", now.plusSeconds(Math.round(seconds)));
+            }
+            if (i + 1 < legs) {
+                seconds += serviceTimeSeconds;
+            }
+        }
+        response.put("deliveryEtaSeconds", Math.round(seconds));
+        response.put("estimatedDeliveryAt", now.plusSeconds(Math.round(seconds)));
+        response.put("ordersAhead", ahead.size() - 1);
+        return Optional.of(response);
     }
-    
+
     public Map<String, Object> assignOrderToDriver(Long orderId, Long driverId) {
         // Mock assignment
         Map<String, Object> response = new HashMap<>();
@@ -35,4 +336,108 @@ public Map<String, Object> assignOrderToDriver(Long orderId, Long driverId) {
         response.put("status", "ASSIGNED");
         return response;
     }
-}
\ No newline at end of file
+
+    private VrpProblem buildProblem(List<Order> orders, List<Driver> drivers, LocalDateTime planningStart) {
+        int m = drivers.size();
+        double[] driverLat = new double[m];
+        double[] driverLon = new double[m];
+        for (int v = 0; v < m; v++) {
+            driverLat[v] = drivers.get(v).getCurrentLat();
+            driverLon[v] = drivers.get(v).getCurrentLon();
+        }
+        VrpProblem problem = buildProblem(orders, driverLat, driverLon, planningStart);
+
+        for (int v = 0; v < m; v++) {
+            Driver driver = drivers.get(v);
+            problem.setVehicle(v,
+                Math.max(0, driver.getCapacityWeight() - driver.getCurrentUsedWeight()),
+                Math.max(0, driver.getCapacityVolume() - driver.getCurrentUsedVolume()));
+        }
+        return problem;
+    }
+
+    /**
+     * Pedidos e matrizes a partir das posições de partida; capacidades ficam a cargo do chamador
+     */
+    private VrpProblem buildProblem(List<Order> orders, double[] driverLat, double[] driverLon,
+                                    LocalDateTime planningStart) {
+        int n = orders.size();
+        int m = driverLat.length;
+
+        double[] originLat = new double[n];
+        double[] originLon = new double[n];
+        double[] destinationLat = new double[n];
+        double[] destinationLon = new double[n];
+        for (int i = 0; i < n; i++) {
+            Order order = orders.get(i);
+            originLat[i] = order.getOriginLat();
+            originLon[i] = order.getOriginLon();
+            destinationLat[i] = order.getDestinationLat();
+            destinationLon[i] = order.getDestinationLon();
+        }
+
+        // Matrizes calculadas uma vez por otimização e compartilhadas entre os workers
+        DistanceMatrix transitions = distanceService.buildMatrix(destinationLat, destinationLon, originLat, originLon);
+        DistanceMatrix starts = distanceService.buildMatrix(driverLat, driverLon, originLat, originLon);
+        DistanceMatrix legs = distanceService.buildPairwise(originLat, originLon, destinationLat, destinationLon);
+        VrpProblem problem = new VrpProblem(n, m, serviceTimeSeconds, transitions, starts);
+
+        for (int i = 0; i < n; i++) {
+            Order order = orders.get(i);
+            problem.setOrder(i, order.getWeight(), order.getVolume(),
+                secondsFrom(planningStart, order.getTimeWindowStart(), 0.0),
+                secondsFrom(planningStart, order.getTimeWindowEnd(), Double.POSITIVE_INFINITY),
+                priorityWeight(order.getPriority()));
+            problem.setLeg(i, legs.distance(i, 0), legs.duration(i, 0));
+        }
+        return problem;
+    }
+
+    private Route persistRoute(Driver driver, List<Order> orders, int[] sequence,
+                               double distance, double duration) {
+        Route route = Route.builder()
+            .driver(driver)
+            .estimatedDistance(distance)
+            .estimatedDuration((int) Math.round(duration))
+            .build();
+
+        double weight = 0;
+        double volume = 0;
+        for (int index : sequence) {
+            Order order = orders.get(index);
+            order.setStatus(Order.OrderStatus.ASSIGNED);
+            order.setAssignedDriver(driver);
+            route.addOrder(order);
+            weight += order.getWeight();
+            volume += order.getVolume();
+        }
+        driverLoadService.addLoad(driver.getId(), weight, volume, sequence.length);
+        Route saved = routeRepository.save(route);
+        for (int index : sequence) {
+            // só pedidos NEW entram na otimização
+            orderEventService.record(OrderEvent.Type.ASSIGNED, orders.get(index), Order.OrderStatus.NEW, null);
+        }
+        return saved;
+    }
+
+    private RouteResponse toResponse(Route route) {
+        return RouteResponse.builder()
+            .routeId(route.getId())
+            .driverId(route.getDriver().getId())
+            .driverName(route.getDriver().getUser().getName())
+            // buracos no sequence_order (pedido que saiu da rota) chegam como null até o próximo ajuste
+            .orderIds(route.getOrders().stream().filter(Objects::nonNull).map(Order::getId).toList())
+            .estimatedDistance(route.getEstimatedDistance())
+            .estimatedDuration(route.getEstimatedDuration())
+            .status(route.getStatus())
+            .build();
+    }
+
+    private static double secondsFrom(LocalDateTime start, LocalDateTime instant, double fallback) {
+        return instant == null ? fallback : Duration.between(start, instant).toMillis() / 1000.0;
+    }
+
+    private static double priorityWeight(Order.Priority priority) {
+        return (priority != null ? priority : Order.Priority.NORMAL).getWeight();
+    }
+}
@@ -0,0 +1,64 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Telemetry;
+import com.douradelivery.model.TelemetryRollup;
+import com.douradelivery.repository.TelemetryRepository;
+import com.douradelivery.repository.TelemetryRollupRepository;
+import com.douradelivery.tracking.TelemetryPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Consultas ao histórico de telemetria por entregador e janela de tempo
+ */
+@Service
+@RequiredArgsConstructor
+public class TelemetryHistoryService {
+
+    private final TelemetryRepository telemetryRepository;
+    private final TelemetryRollupRepository rollupRepository;
+    private final ObjectProvider<TelemetrySegmentService> segmentService;
+
+    /**
+     * Pontos brutos em ordem cronológica, limitados a limit
+     */
+    @Transactional(readOnly = true)
+    public List<TelemetryPoint> getRawPoints(Long driverId, LocalDateTime from, LocalDateTime to, int limit) {
+        TelemetrySegmentService segments = segmentService.getIfAvailable();
+        if (segments != null) {
+            return segments.read(driverId, toMillis(from), toMillis(to), limit);
+        }
+        return telemetryRepository
+            .findByDriverIdAndTimestampBetweenOrderByTimestampAsc(driverId, from, to, PageRequest.of(0, limit))
+            .stream()
+            .map(t -> toPoint(driverId, t))
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TelemetryRollup> getRollups(Long driverId, int resolutionSeconds, LocalDateTime from, LocalDateTime to) {
+        return rollupRepository.findByDriverIdAndResolutionSecondsAndBucketStartBetweenOrderByBucketStartAsc(
+            driverId, resolutionSeconds, from, to);
+    }
+
+    private static TelemetryPoint toPoint(Long driverId, Telemetry telemetry) {
+        return new TelemetryPoint(driverId, telemetry.getLat(), telemetry.getLon(),
+            orNaN(telemetry.getSpeed()), orNaN(telemetry.getHeading()), orNaN(telemetry.getAccuracy()),
+            toMillis(telemetry.getTimestamp()));
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,236 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dto.TelemetryRequest;
+import com.douradelivery.tracking.TelemetryBatchCodec;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.tracking.TelemetrySink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline de ingestão de telemetria.
+ *
+ * Pontos validados são repassados aos listeners em memória e enfileirados numa fila
+ * limitada; writers em background drenam a fila e entregam cada lote aos sinks
+ * (segmentos ou tabela telemetry, e agregados). Fila cheia recusa
+ * o ponto (o controller responde 429) em vez de acumular memória.
+ */
+@Service
+@Slf4j
+public class TelemetryIngestionService {
+
+    private final List<TelemetrySink> sinks;
+    private final List<TelemetryListener> listeners;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tracking.telemetry.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${tracking.telemetry.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${tracking.telemetry.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${tracking.telemetry.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${tracking.telemetry.max-batch-points:1000}")
+    private int maxBatchPoints;
+
+    @Value("${tracking.telemetry.max-future-skew-ms:60000}")
+    private long maxFutureSkewMs;
+
+    @Value("${tracking.telemetry.max-age-ms:86400000}")
+    private long maxAgeMs;
+
+    private BlockingQueue<TelemetryPoint> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+    private DistributionSummary batchSizeSummary;
+
+    public TelemetryIngestionService(List<TelemetrySink> sinks,
+                                     List<TelemetryListener> listeners,
+                                     MeterRegistry meterRegistry) {
+        this.sinks = sinks;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("telemetry.queue.depth", queue, BlockingQueue::size)
+            .description("Pontos de telemetria aguardando gravação")
+            .register(meterRegistry);
+        acceptedCounter = Counter.builder("telemetry.points").tag("result", "accepted").register(meterRegistry);
+        rejectedCounter = Counter.builder("telemetry.points").tag("result", "rejected").register(meterRegistry);
+        writtenCounter = Counter.builder("telemetry.points").tag("result", "written").register(meterRegistry);
+        failedCounter = Counter.builder("telemetry.points").tag("result", "failed").register(meterRegistry);
+        flushTimer = Timer.builder("telemetry.flush.latency")
+            .description("Tempo de gravação de um lote de telemetria")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("telemetry.flush.batch.size").register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            Thread writer = new Thread(this::runWriter, "telemetry-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        log.info("Pipeline de telemetria iniciado: fila {}, lote {}, {} writers",
+                 queueCapacity, batchSize, writerThreads);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} pontos de telemetria descartados no desligamento", queue.size());
+        }
+    }
+
+    /**
+     * Valida e aceita um ponto do entregador autenticado; devolve false quando a fila está cheia.
+     * IllegalArgumentException se o horário do dispositivo estiver fora da janela aceita
+     */
+    public boolean ingest(long driverId, TelemetryRequest request) {
+        long now = System.currentTimeMillis();
+        long timestamp = request.getTimestamp() != null ? request.getTimestamp() : now;
+        checkTimestamp(timestamp, now);
+        return ingest(new TelemetryPoint(driverId, request.getLat(), request.getLon(),
+            orNaN(request.getSpeed()), orNaN(request.getHeading()), orNaN(request.getAccuracy()), timestamp));
+    }
+
+    public boolean ingest(TelemetryPoint point) {
+        if (!queue.offer(point)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        acceptedCounter.increment();
+        for (TelemetryListener listener : listeners) {
+            try {
+                listener.onTelemetry(point);
+            } catch (RuntimeException e) {
+                log.warn("Listener de telemetria {} falhou: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aceita os pontos enquanto houver espaço; devolve quantos foram aceitos
+     */
+    public int ingestAll(List<TelemetryPoint> points) {
+        int accepted = 0;
+        for (TelemetryPoint point : points) {
+            if (!ingest(point)) {
+                rejectedCounter.increment(points.size() - accepted - 1);
+                break;
+            }
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Decodifica um lote binário (ver TelemetryBatchCodec) do entregador autenticado e aceita os pontos.
+     * Devolve {recebidos, aceitos}; IllegalArgumentException se o lote for inválido, de outro
+     * entregador ou tiver pontos fora da janela de horário
+     */
+    public int[] ingestBinary(long driverId, ByteBuffer body) {
+        List<TelemetryPoint> points = TelemetryBatchCodec.decode(body, maxBatchPoints);
+        long now = System.currentTimeMillis();
+        for (TelemetryPoint point : points) {
+            if (point.driverId() != driverId) {
+                throw new IllegalArgumentException("Lote de outro entregador");
+            }
+            checkTimestamp(point.timestampMillis(), now);
+        }
+        return new int[] {points.size(), ingestAll(points)};
+    }
+
+    /**
+     * Relógio do aparelho adiantado ou ponto antigo demais: recusado antes de chegar ao
+     * índice espacial, ao acompanhamento ao vivo, às cercas e aos perfis de ETA
+     */
+    private void checkTimestamp(long timestampMillis, long nowMillis) {
+        if (timestampMillis > nowMillis + maxFutureSkewMs || timestampMillis < nowMillis - maxAgeMs) {
+            rejectedCounter.increment();
+            throw new IllegalArgumentException("Horário do ponto fora da janela aceita");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<TelemetryPoint> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TelemetryPoint first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<TelemetryPoint> batch) {
+        long startedAt = System.nanoTime();
+        boolean failed = false;
+        for (TelemetrySink sink : sinks) {
+            try {
+                sink.write(batch);
+            } catch (RuntimeException e) {
+                failed = true;
+                log.error("Falha ao gravar lote de {} pontos de telemetria em {}: {}",
+                          batch.size(), sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        (failed ? failedCounter : writtenCounter).increment(batch.size());
+        flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,56 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.TelemetryRepository;
+import com.douradelivery.repository.TelemetryRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Retenção da telemetria: remove dados brutos e agregados mais antigos que o configurado
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryRetentionService {
+
+    private final TelemetryRepository telemetryRepository;
+    private final TelemetryRollupRepository rollupRepository;
+    private final ObjectProvider<TelemetrySegmentService> segmentService;
+
+    @Value("${tracking.telemetry.retention.raw-days:30}")
+    private int rawDays;
+
+    @Value("${tracking.telemetry.retention.one-minute-days:90}")
+    private int oneMinuteDays;
+
+    @Value("${tracking.telemetry.retention.fifteen-minute-days:365}")
+    private int fifteenMinuteDays;
+
+    @Scheduled(cron = "${tracking.telemetry.retention.cron:0 30 3 * * *}")
+    @Transactional
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int partitions = 0;
+        TelemetrySegmentService segments = segmentService.getIfAvailable();
+        if (segments != null) {
+            partitions = segments.deletePartitionsBefore(LocalDate.now(ZoneOffset.UTC).minusDays(rawDays));
+        }
+        int rows = telemetryRepository.deleteOlderThan(now.minusDays(rawDays));
+        int oneMinute = rollupRepository.deleteOlderThan(TelemetryRollupService.ONE_MINUTE, now.minusDays(oneMinuteDays));
+        int fifteenMinutes = rollupRepository.deleteOlderThan(TelemetryRollupService.FIFTEEN_MINUTES,
+                                                              now.minusDays(fifteenMinuteDays));
+
+        log.info("Retenção de telemetria: {} partições, {} linhas brutas, {} agregados de 1 min e {} de 15 min removidos",
+                 partitions, rows, oneMinute, fifteenMinutes);
+    }
+}
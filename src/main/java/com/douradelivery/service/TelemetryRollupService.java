@@ -0,0 +1,95 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.TelemetryRollupBatchRepository;
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.tracking.TelemetryRollupBucket;
+import com.douradelivery.tracking.TelemetrySink;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrega a telemetria em janelas de 1 e 15 minutos à medida que os lotes são gravados.
+ *
+ * Janelas abertas ficam em memória; depois do fim da janela mais uma tolerância para
+ * pontos atrasados, são gravadas com upsert. Pontos que chegam depois disso geram um
+ * agregado parcial que é somado ao já gravado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryRollupService implements TelemetrySink {
+
+    public static final int ONE_MINUTE = 60;
+    public static final int FIFTEEN_MINUTES = 900;
+
+    private static final int[] RESOLUTIONS = {ONE_MINUTE, FIFTEEN_MINUTES};
+
+    private final TelemetryRollupBatchRepository rollupBatchRepository;
+
+    private final Map<BucketKey, TelemetryRollupBucket> open = new ConcurrentHashMap<>();
+
+    @Value("${tracking.telemetry.rollup-grace-ms:120000}")
+    private long graceMs;
+
+    @Override
+    public void write(List<TelemetryPoint> batch) {
+        for (TelemetryPoint point : batch) {
+            for (int resolution : RESOLUTIONS) {
+                long start = TelemetryRollupBucket.bucketStart(point.timestampMillis(), resolution);
+                // compute mantém a atualização atômica em relação à remoção feita no flush
+                open.compute(new BucketKey(point.driverId(), resolution, start), (key, bucket) -> {
+                    TelemetryRollupBucket target = bucket != null
+                        ? bucket : new TelemetryRollupBucket(key.driverId(), key.resolution(), key.start());
+                    target.add(point);
+                    return target;
+                });
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.telemetry.rollup-flush-ms:30000}")
+    public void flushClosed() {
+        flush(System.currentTimeMillis() - graceMs);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(Long.MAX_VALUE);
+    }
+
+    private void flush(long closedBefore) {
+        List<TelemetryRollupBucket> closed = new ArrayList<>();
+        for (Map.Entry<BucketKey, TelemetryRollupBucket> entry : open.entrySet()) {
+            if (entry.getValue().getBucketEndMillis() <= closedBefore) {
+                TelemetryRollupBucket bucket = open.remove(entry.getKey());
+                if (bucket != null) {
+                    closed.add(bucket);
+                }
+            }
+        }
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            rollupBatchRepository.upsertAll(closed);
+            log.debug("{} agregados de telemetria gravados em {} ms", closed.size(),
+                      System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar {} agregados de telemetria: {}", closed.size(), e.getMessage());
+        }
+    }
+
+    private record BucketKey(long driverId, int resolution, long start) {
+    }
+}
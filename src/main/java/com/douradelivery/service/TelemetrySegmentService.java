@@ -0,0 +1,228 @@
+package com.douradelivery.service;
+
+import com.douradelivery.tracking.TelemetryPoint;
+import com.douradelivery.tracking.TelemetrySegmentFile;
+import com.douradelivery.tracking.TelemetrySink;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento da telemetria bruta em segmentos comprimidos particionados por dia (UTC).
+ *
+ * Os pontos ficam num buffer em memória e são selados num segmento imutável a cada
+ * intervalo ou ao atingir o limite de pontos. Consultas por entregador e janela de tempo
+ * abrem apenas as partições do período e os segmentos cuja faixa de tempo se sobrepõe.
+ */
+@Service
+@ConditionalOnProperty(name = "tracking.telemetry.storage", havingValue = "segments", matchIfMissing = true)
+@Slf4j
+public class TelemetrySegmentService implements TelemetrySink {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${tracking.telemetry.segment-dir:telemetry-segments}")
+    private String segmentDir;
+
+    @Value("${tracking.telemetry.segment-max-points:200000}")
+    private int segmentMaxPoints;
+
+    private Path root;
+    private final Object lock = new Object();
+    private Map<Long, List<TelemetryPoint>> buffer = new HashMap<>();
+    private int buffered;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // faixa de tempo de cada segmento, lida do cabeçalho uma única vez
+    private final Map<Path, long[]> timeRanges = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(segmentDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Segmentos de telemetria em {}", root);
+    }
+
+    @PreDestroy
+    public void close() {
+        seal();
+    }
+
+    @Override
+    public void write(List<TelemetryPoint> batch) {
+        Map<Long, List<TelemetryPoint>> full = null;
+        synchronized (lock) {
+            for (TelemetryPoint point : batch) {
+                buffer.computeIfAbsent(point.driverId(), id -> new ArrayList<>()).add(point);
+            }
+            buffered += batch.size();
+            if (buffered >= segmentMaxPoints) {
+                full = swap();
+            }
+        }
+        if (full != null) {
+            persist(full);
+        }
+    }
+
+    /**
+     * Sela o buffer atual num segmento
+     */
+    @Scheduled(fixedDelayString = "${tracking.telemetry.segment-interval-ms:60000}")
+    public void seal() {
+        Map<Long, List<TelemetryPoint>> current;
+        synchronized (lock) {
+            current = swap();
+        }
+        persist(current);
+    }
+
+    /**
+     * Pontos do entregador em [from, to] (epoch millis), em ordem cronológica, até limit pontos
+     */
+    public List<TelemetryPoint> read(long driverId, long from, long to, int limit) {
+        List<TelemetryPoint> result = new ArrayList<>();
+        LocalDate first = partitionOf(from);
+        LocalDate last = partitionOf(to);
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            Path partition = root.resolve(day.toString());
+            if (!Files.isDirectory(partition)) {
+                continue;
+            }
+            for (Path segment : segments(partition)) {
+                long[] range = timeRange(segment);
+                if (range == null || range[1] < from || range[0] > to) {
+                    continue;
+                }
+                try {
+                    result.addAll(TelemetrySegmentFile.read(segment, driverId, from, to));
+                } catch (IOException e) {
+                    log.error("Erro ao ler segmento {}: {}", segment, e.getMessage());
+                }
+            }
+        }
+
+        // pontos ainda não selados
+        synchronized (lock) {
+            for (TelemetryPoint point : buffer.getOrDefault(driverId, List.of())) {
+                if (point.timestampMillis() >= from && point.timestampMillis() <= to) {
+                    result.add(point);
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingLong(TelemetryPoint::timestampMillis));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Remove as partições anteriores à data informada; devolve quantas foram removidas
+     */
+    public int deletePartitionsBefore(LocalDate cutoff) {
+        int removed = 0;
+        try (DirectoryStream<Path> partitions = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path partition : partitions) {
+                LocalDate day;
+                try {
+                    day = LocalDate.parse(partition.getFileName().toString());
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                if (day.isBefore(cutoff)) {
+                    deleteRecursively(partition);
+                    timeRanges.keySet().removeIf(path -> path.startsWith(partition));
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Erro ao aplicar retenção de telemetria: {}", e.getMessage());
+        }
+        return removed;
+    }
+
+    private Map<Long, List<TelemetryPoint>> swap() {
+        Map<Long, List<TelemetryPoint>> current = buffer;
+        buffer = new HashMap<>();
+        buffered = 0;
+        return current;
+    }
+
+    private void persist(Map<Long, List<TelemetryPoint>> points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        // um segmento por partição (dia) presente no buffer
+        Map<LocalDate, Map<Long, List<TelemetryPoint>>> byPartition = new HashMap<>();
+        for (Map.Entry<Long, List<TelemetryPoint>> entry : points.entrySet()) {
+            for (TelemetryPoint point : entry.getValue()) {
+                byPartition.computeIfAbsent(partitionOf(point.timestampMillis()), day -> new HashMap<>())
+                    .computeIfAbsent(entry.getKey(), id -> new ArrayList<>())
+                    .add(point);
+            }
+        }
+
+        for (Map.Entry<LocalDate, Map<Long, List<TelemetryPoint>>> entry : byPartition.entrySet()) {
+            Path partition = root.resolve(entry.getKey().toString());
+            Path segment = partition.resolve(System.currentTimeMillis() + "-" + sequence.incrementAndGet() + SEGMENT_SUFFIX);
+            try {
+                Files.createDirectories(partition);
+                TelemetrySegmentFile.write(segment, entry.getValue());
+            } catch (IOException e) {
+                log.error("Falha ao gravar segmento de telemetria {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    private List<Path> segments(Path partition) {
+        try (Stream<Path> files = Files.list(partition)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long[] timeRange(Path segment) {
+        return timeRanges.computeIfAbsent(segment, path -> {
+            try {
+                return TelemetrySegmentFile.timeRange(path);
+            } catch (IOException e) {
+                log.error("Segmento de telemetria ilegível {}: {}", path, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private static LocalDate partitionOf(long timestampMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneOffset.UTC);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
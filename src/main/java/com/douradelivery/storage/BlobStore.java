@@ -0,0 +1,67 @@
+package com.douradelivery.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Armazenamento de blobs endereçados pelo SHA-256 do conteúdo.
+ *
+ * O mesmo conteúdo é gravado uma única vez; quem decide se um blob ainda é usado
+ * é a contagem de referências no banco, não o backend.
+ */
+public interface BlobStore {
+
+    Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    record BlobInfo(String hash, long size, Instant lastModified) {
+    }
+
+    boolean exists(String hash) throws IOException;
+
+    /**
+     * Guarda o arquivo com o hash já calculado; o arquivo é consumido (movido ou apagado)
+     */
+    void put(String hash, Path file) throws IOException;
+
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * Stream a partir de offset; o chamador lê só os bytes de que precisa
+     */
+    InputStream open(String hash, long offset, long length) throws IOException;
+
+    /**
+     * Tamanho em bytes, ou -1 se o blob não existir
+     */
+    long size(String hash) throws IOException;
+
+    /**
+     * Caminho local do blob, ou null se o backend não for um sistema de arquivos local
+     */
+    Path localPath(String hash);
+
+    boolean delete(String hash) throws IOException;
+
+    /**
+     * Percorre todos os blobs guardados (usado pela compactação)
+     */
+    void scan(Consumer<BlobInfo> visitor) throws IOException;
+
+    static boolean isValidHash(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    /**
+     * Chave relativa do blob: ab/cd/abcd..., para não concentrar milhares de arquivos num diretório
+     */
+    static String key(String hash) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Hash inválido: " + hash);
+        }
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
@@ -0,0 +1,81 @@
+package com.douradelivery.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Grava um stream em disco por canais NIO, calculando o SHA-256 durante a cópia.
+ *
+ * O conteúdo passa por um buffer fixo (nunca inteiro no heap) e vai primeiro para um
+ * arquivo temporário no mesmo diretório; só é movido para o destino quando completo.
+ */
+public final class HashingFileWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private HashingFileWriter() {
+    }
+
+    public record WrittenFile(Path path, long size, String sha256) {
+    }
+
+    /**
+     * Copia até maxBytes do stream para target; lança IOException se o limite for excedido
+     */
+    public static WrittenFile write(InputStream in, Path target, long maxBytes) throws IOException {
+        WrittenFile temp = spool(in, target.toAbsolutePath().getParent(), maxBytes);
+        Files.move(temp.path(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new WrittenFile(target, temp.size(), temp.sha256());
+    }
+
+    /**
+     * Copia o stream para um arquivo temporário em directory, que passa a ser do chamador
+     */
+    public static WrittenFile spool(InputStream in, Path directory, long maxBytes) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxBytes) {
+                    throw new IOException("Arquivo excede o limite de " + maxBytes + " bytes");
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new WrittenFile(temp, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.douradelivery.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Normaliza fotos de documentos: JPEG RGB sem metadados, com lado maior limitado,
+ * mais uma miniatura para a fila de análise.
+ *
+ * As dimensões são lidas do cabeçalho antes de decodificar, para recusar imagens
+ * gigantes sem alocar o bitmap.
+ */
+public final class ImageNormalizer {
+
+    public enum Result {
+        PROCESSED, NOT_AN_IMAGE, TOO_LARGE
+    }
+
+    private final int maxDimension;
+    private final int thumbnailDimension;
+    private final float quality;
+    private final long maxPixels;
+
+    public ImageNormalizer(int maxDimension, int thumbnailDimension, float quality, long maxPixels) {
+        this.maxDimension = maxDimension;
+        this.thumbnailDimension = thumbnailDimension;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    public Result process(Path source, Path normalizedTarget, Path thumbnailTarget) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return Result.NOT_AN_IMAGE;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Result.NOT_AN_IMAGE;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return Result.TOO_LARGE;
+                }
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        BufferedImage normalized = scale(image, maxDimension);
+        writeJpeg(normalized, normalizedTarget);
+        writeJpeg(scale(normalized, thumbnailDimension), thumbnailTarget);
+        return Result.PROCESSED;
+    }
+
+    /**
+     * Reduz (nunca amplia) para caber em maxSide, sempre em RGB com fundo branco
+     */
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        double factor = Math.min(1.0, (double) maxSide / Math.max(source.getWidth(), source.getHeight()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        // reduções grandes em etapas de no máximo 2x: interpolação bilinear direta perde detalhes
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (factor == 1.0) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), ".image-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
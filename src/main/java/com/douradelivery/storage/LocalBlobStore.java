@@ -0,0 +1,107 @@
+package com.douradelivery.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Blobs em disco local, em root/ab/cd/{hash}
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath();
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(localPath(hash));
+    }
+
+    @Override
+    public void put(String hash, Path file) throws IOException {
+        Path target = localPath(hash);
+        try {
+            if (Files.exists(target)) {
+                // conteúdo idêntico já guardado: só descarta a cópia
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // outra gravação do mesmo conteúdo chegou antes
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(localPath(hash));
+    }
+
+    @Override
+    public InputStream open(String hash, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(localPath(hash), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return Channels.newInputStream(channel);
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        try {
+            return Files.size(localPath(hash));
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return root.resolve(BlobStore.key(hash));
+    }
+
+    @Override
+    public boolean delete(String hash) throws IOException {
+        return Files.deleteIfExists(localPath(hash));
+    }
+
+    @Override
+    public void scan(Consumer<BlobInfo> visitor) throws IOException {
+        try (Stream<Path> files = Files.find(root, 3,
+                (path, attributes) -> attributes.isRegularFile() && BlobStore.isValidHash(path.getFileName().toString()))) {
+            files.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    visitor.accept(new BlobInfo(path.getFileName().toString(), attributes.size(),
+                        attributes.lastModifiedTime().toInstant()));
+                } catch (NoSuchFileException e) {
+                    // apagado durante a varredura
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
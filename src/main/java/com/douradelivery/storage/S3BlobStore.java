@@ -0,0 +1,157 @@
+package com.douradelivery.storage;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Blobs num bucket compatível com S3 (AWS, MinIO, Ceph), em {prefix}ab/cd/{hash}.
+ *
+ * Erros do cliente viram IOException para o chamador tratar igual ao disco local.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private final S3Client client;
+    private final String bucket;
+    private final String prefix;
+
+    public S3BlobStore(S3Client client, String bucket, String prefix) {
+        this.client = client;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    /**
+     * Cria o bucket se ainda não existir (ambiente local com MinIO)
+     */
+    public void ensureBucket() throws IOException {
+        try {
+            client.headBucket(b -> b.bucket(bucket));
+        } catch (S3Exception e) {
+            if (e.statusCode() != 404) {
+                throw new IOException("Falha ao verificar o bucket " + bucket, e);
+            }
+            try {
+                client.createBucket(b -> b.bucket(bucket));
+            } catch (S3Exception createError) {
+                throw new IOException("Falha ao criar o bucket " + bucket, createError);
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) throws IOException {
+        try {
+            client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey(hash)).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Falha ao consultar o blob " + hash, e);
+        }
+    }
+
+    @Override
+    public void put(String hash, Path file) throws IOException {
+        try {
+            if (!exists(hash)) {
+                long size = Files.size(file);
+                client.putObject(b -> b.bucket(bucket).key(objectKey(hash)).contentLength(size),
+                    RequestBody.fromFile(file));
+            }
+        } catch (S3Exception e) {
+            throw new IOException("Falha ao enviar o blob " + hash, e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        try {
+            return client.getObject(b -> b.bucket(bucket).key(objectKey(hash)));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(objectKey(hash));
+        } catch (S3Exception e) {
+            throw new IOException("Falha ao ler o blob " + hash, e);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash, long offset, long length) throws IOException {
+        try {
+            // GET com Range: só o trecho pedido sai do bucket
+            String range = "bytes=" + offset + "-" + (offset + length - 1);
+            return client.getObject(b -> b.bucket(bucket).key(objectKey(hash)).range(range));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(objectKey(hash));
+        } catch (S3Exception e) {
+            throw new IOException("Falha ao ler o blob " + hash, e);
+        }
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        try {
+            return client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey(hash)).build())
+                .contentLength();
+        } catch (NoSuchKeyException e) {
+            return -1;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return -1;
+            }
+            throw new IOException("Falha ao consultar o blob " + hash, e);
+        }
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return null;
+    }
+
+    @Override
+    public boolean delete(String hash) throws IOException {
+        try {
+            // DELETE no S3 é idempotente: não diz se o objeto existia
+            client.deleteObject(b -> b.bucket(bucket).key(objectKey(hash)));
+            return true;
+        } catch (S3Exception e) {
+            throw new IOException("Falha ao remover o blob " + hash, e);
+        }
+    }
+
+    @Override
+    public void scan(Consumer<BlobInfo> visitor) throws IOException {
+        try {
+            ListObjectsV2Request request = ListObjectsV2Request.builder().bucket(bucket).prefix(prefix).build();
+            for (S3Object object : client.listObjectsV2Paginator(request).contents()) {
+                String key = object.key();
+                String hash = key.substring(key.lastIndexOf('/') + 1);
+                if (BlobStore.isValidHash(hash)) {
+                    visitor.accept(new BlobInfo(hash, object.size(), object.lastModified()));
+                }
+            }
+        } catch (S3Exception e) {
+            throw new IOException("Falha ao listar o bucket " + bucket, e);
+        }
+    }
+
+    private String objectKey(String hash) {
+        return prefix + BlobStore.key(hash);
+    }
+}
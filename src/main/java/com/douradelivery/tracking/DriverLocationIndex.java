@@ -0,0 +1,232 @@
+package com.douradelivery.tracking;
+
+import com.douradelivery.model.Driver;
+import com.douradelivery.routing.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Índice espacial em grade das posições dos entregadores.
+ *
+ * Células de 0,01° (~1,1 km); cada célula guarda os entregadores nela. Atualizações são
+ * atômicas por entregador e podem ocorrer concorrentemente com as consultas.
+ */
+public final class DriverLocationIndex {
+
+    private static final double CELL_DEGREES = 0.01;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final Map<Long, DriverPosition> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, DriverPosition>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Filtro usual de despacho: disponível, tipo de veículo (null = qualquer) e capacidade restante
+     */
+    public static Predicate<DriverPosition> dispatchable(Driver.VehicleType vehicleType,
+                                                         double weight, double volume) {
+        return p -> p.available()
+            && (vehicleType == null || p.vehicleType() == vehicleType)
+            && p.remainingWeight() >= weight
+            && p.remainingVolume() >= volume;
+    }
+
+    public void upsert(DriverPosition position) {
+        positions.compute(position.driverId(), (id, previous) -> {
+            place(previous, position);
+            return position;
+        });
+    }
+
+    public boolean move(long driverId, double lat, double lon, long timestampMillis) {
+        return move(driverId, lat, lon, Double.NaN, Double.NaN, timestampMillis);
+    }
+
+    /**
+     * Atualiza coordenada, velocidade e direção; entregadores ainda não indexados são
+     * ignorados e pontos mais antigos que o atual não mudam nada
+     */
+    public boolean move(long driverId, double lat, double lon, double speed, double heading, long timestampMillis) {
+        return positions.computeIfPresent(driverId, (id, previous) -> {
+            if (timestampMillis < previous.updatedAtMillis()) {
+                return previous;
+            }
+            DriverPosition moved = previous.moveTo(lat, lon, speed, heading, timestampMillis);
+            place(previous, moved);
+            return moved;
+        }) != null;
+    }
+
+    public void update(long driverId, UnaryOperator<DriverPosition> change) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            DriverPosition updated = change.apply(previous);
+            place(previous, updated);
+            return updated;
+        });
+    }
+
+    public void remove(long driverId) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            long key = cellKey(previous.lat(), previous.lon());
+            cells.computeIfPresent(key, (k, cell) -> {
+                cell.remove(id);
+                return cell.isEmpty() ? null : cell;
+            });
+            return null;
+        });
+    }
+
+    public DriverPosition get(long driverId) {
+        return positions.get(driverId);
+    }
+
+    public Collection<DriverPosition> all() {
+        return positions.values();
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * k entregadores mais próximos que satisfazem o filtro, até maxRadiusKm, do mais próximo ao mais distante
+     */
+    public List<NearbyDriver> nearest(double lat, double lon, int k, double maxRadiusKm,
+                                      Predicate<DriverPosition> filter) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // heap de máximo com os k melhores candidatos até agora
+        PriorityQueue<NearbyDriver> best = new PriorityQueue<>(
+            k, Comparator.comparingDouble(NearbyDriver::distanceKm).reversed());
+
+        int cy = cellOf(lat);
+        int cx = cellOf(lon);
+        double minCellKm = minCellKm(lat);
+        int maxRings = (int) Math.ceil(maxRadiusKm / minCellKm) + 1;
+
+        for (int ring = 0; ring <= maxRings; ring++) {
+            // células do anel r estão a pelo menos (r - 1) células do ponto consultado
+            if (best.size() == k && (ring - 1) * minCellKm > best.peek().distanceKm()) {
+                break;
+            }
+            if (ring == 0) {
+                scanCell(cy, cx, lat, lon, maxRadiusKm, filter, best, k);
+                continue;
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                scanCell(cy - ring, cx + dx, lat, lon, maxRadiusKm, filter, best, k);
+                scanCell(cy + ring, cx + dx, lat, lon, maxRadiusKm, filter, best, k);
+            }
+            for (int dy = -ring + 1; dy <= ring - 1; dy++) {
+                scanCell(cy + dy, cx - ring, lat, lon, maxRadiusKm, filter, best, k);
+                scanCell(cy + dy, cx + ring, lat, lon, maxRadiusKm, filter, best, k);
+            }
+        }
+
+        List<NearbyDriver> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(NearbyDriver::distanceKm));
+        return result;
+    }
+
+    /**
+     * Todos os entregadores que satisfazem o filtro dentro do raio, ordenados por distância
+     */
+    public List<NearbyDriver> withinRadius(double lat, double lon, double radiusKm,
+                                           Predicate<DriverPosition> filter) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(lat))));
+        int minY = cellOf(lat - latSpan);
+        int maxY = cellOf(lat + latSpan);
+        int minX = cellOf(lon - lonSpan);
+        int maxX = cellOf(lon + lonSpan);
+
+        List<NearbyDriver> result = new ArrayList<>();
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                Map<Long, DriverPosition> cell = cells.get(cellKey(y, x));
+                if (cell == null) {
+                    continue;
+                }
+                for (DriverPosition p : cell.values()) {
+                    if (!filter.test(p)) {
+                        continue;
+                    }
+                    double d = GeoMath.haversineKm(lat, lon, p.lat(), p.lon());
+                    if (d <= radiusKm) {
+                        result.add(new NearbyDriver(p, d));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(NearbyDriver::distanceKm));
+        return result;
+    }
+
+    private void scanCell(int y, int x, double lat, double lon, double maxRadiusKm,
+                          Predicate<DriverPosition> filter, PriorityQueue<NearbyDriver> best, int k) {
+        Map<Long, DriverPosition> cell = cells.get(cellKey(y, x));
+        if (cell == null) {
+            return;
+        }
+        for (DriverPosition p : cell.values()) {
+            if (!filter.test(p)) {
+                continue;
+            }
+            double d = GeoMath.haversineKm(lat, lon, p.lat(), p.lon());
+            if (d > maxRadiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new NearbyDriver(p, d));
+            } else if (d < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new NearbyDriver(p, d));
+            }
+        }
+    }
+
+    // chamado dentro do compute do entregador: move a entrada entre células de forma atômica
+    private void place(DriverPosition previous, DriverPosition current) {
+        long newKey = cellKey(current.lat(), current.lon());
+        if (previous != null) {
+            long oldKey = cellKey(previous.lat(), previous.lon());
+            if (oldKey != newKey) {
+                cells.computeIfPresent(oldKey, (k, cell) -> {
+                    cell.remove(previous.driverId());
+                    return cell.isEmpty() ? null : cell;
+                });
+            }
+        }
+        cells.compute(newKey, (k, cell) -> {
+            Map<Long, DriverPosition> target = cell != null ? cell : new ConcurrentHashMap<>();
+            target.put(current.driverId(), current);
+            return target;
+        });
+    }
+
+    private static double minCellKm(double lat) {
+        double height = CELL_DEGREES * KM_PER_DEGREE;
+        double width = height * Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + CELL_DEGREES)));
+        return Math.min(height, width);
+    }
+
+    private static int cellOf(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(double lat, double lon) {
+        return cellKey(cellOf(lat), cellOf(lon));
+    }
+
+    private static long cellKey(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+}
@@ -0,0 +1,44 @@
+package com.douradelivery.tracking;
+
+import com.douradelivery.model.Driver;
+
+/**
+ * Estado de um entregador mantido no índice espacial (imutável). Velocidade e direção
+ * vêm do último ponto de telemetria (NaN se o ponto não trouxe ou a posição veio do banco).
+ */
+public record DriverPosition(long driverId,
+                             double lat,
+                             double lon,
+                             Driver.VehicleType vehicleType,
+                             boolean available,
+                             double remainingWeight,
+                             double remainingVolume,
+                             long updatedAtMillis,
+                             double speed,
+                             double heading) {
+
+    public DriverPosition(long driverId, double lat, double lon, Driver.VehicleType vehicleType, boolean available,
+                          double remainingWeight, double remainingVolume, long updatedAtMillis) {
+        this(driverId, lat, lon, vehicleType, available, remainingWeight, remainingVolume, updatedAtMillis,
+             Double.NaN, Double.NaN);
+    }
+
+    public DriverPosition moveTo(double lat, double lon, double speed, double heading, long updatedAtMillis) {
+        return new DriverPosition(driverId, lat, lon, vehicleType, available,
+                                  remainingWeight, remainingVolume, updatedAtMillis, speed, heading);
+    }
+
+    public DriverPosition withCapacity(double remainingWeight, double remainingVolume) {
+        return new DriverPosition(driverId, lat, lon, vehicleType, available,
+                                  remainingWeight, remainingVolume, updatedAtMillis, speed, heading);
+    }
+
+    public DriverPosition withAvailable(boolean available) {
+        return new DriverPosition(driverId, lat, lon, vehicleType, available,
+                                  remainingWeight, remainingVolume, updatedAtMillis, speed, heading);
+    }
+
+    public LastKnownPosition toLastKnown() {
+        return new LastKnownPosition(driverId, lat, lon, speed, heading, updatedAtMillis);
+    }
+}
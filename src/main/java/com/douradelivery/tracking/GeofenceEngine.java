@@ -0,0 +1,282 @@
+package com.douradelivery.tracking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Cercas de chegada (coleta e entrega) avaliadas ponto a ponto sobre a telemetria.
+ *
+ * As cercas ficam num hash espacial de células fixas; cada cerca é inscrita em todas as
+ * células que o seu raio de saída toca, então um ponto só consulta a própria célula.
+ * Uma cerca só reage ao entregador do pedido. Entrar exige ficar dentro do raio por
+ * enterDwellMs; sair exige ficar além de radius × exitFactor por exitDwellMs, o que
+ * evita eventos repetidos com o GPS oscilando na borda.
+ *
+ * Leituras do índice não usam trava; alterações de cercas são serializadas entre si e o
+ * estado de permanência de cada entregador é protegido pelo seu próprio monitor.
+ */
+public final class GeofenceEngine {
+
+    private static final double METERS_PER_DEGREE = 111_195.0;
+
+    public enum Kind {
+        PICKUP, DROPOFF
+    }
+
+    public enum Transition {
+        ARRIVED, DEPARTED
+    }
+
+    public record Fence(long orderId, long driverId, Long clientId, Kind kind, double lat, double lon,
+                        double radiusMeters) {
+    }
+
+    /**
+     * dwellMillis: em ARRIVED, tempo dentro até confirmar; em DEPARTED, tempo total dentro da cerca
+     */
+    public record GeofenceEvent(Transition transition, Fence fence, double lat, double lon,
+                                long timestampMillis, long dwellMillis) {
+    }
+
+    private static final class FenceState {
+        boolean inside;
+        long insideSince;
+        long candidateSince = -1;
+    }
+
+    private static final class DriverState {
+        long lastTimestampMillis = Long.MIN_VALUE;
+        final Map<Fence, FenceState> fences = new HashMap<>();
+    }
+
+    private final double cellSizeDeg;
+    private final double exitFactor;
+    private final long enterDwellMs;
+    private final long exitDwellMs;
+
+    private final Map<Long, Fence[]> cells = new ConcurrentHashMap<>();
+    private final Map<Long, List<Fence>> byOrder = new ConcurrentHashMap<>();
+    private final Map<Long, DriverState> drivers = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    public GeofenceEngine(double cellSizeDeg, double exitFactor, long enterDwellMs, long exitDwellMs) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.exitFactor = exitFactor;
+        this.enterDwellMs = enterDwellMs;
+        this.exitDwellMs = exitDwellMs;
+    }
+
+    /**
+     * Substitui as cercas do pedido; cercas iguais às anteriores mantêm o estado de permanência
+     */
+    public void setFences(long orderId, List<Fence> fences) {
+        synchronized (writeLock) {
+            List<Fence> previous = byOrder.get(orderId);
+            if (fences.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unindex(previous);
+            }
+            byOrder.put(orderId, List.copyOf(fences));
+            for (Fence fence : fences) {
+                index(fence);
+            }
+        }
+    }
+
+    public void remove(long orderId) {
+        synchronized (writeLock) {
+            List<Fence> previous = byOrder.remove(orderId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        }
+    }
+
+    /**
+     * Mantém só os pedidos informados (ressincronização com o banco)
+     */
+    public void retainOrders(Set<Long> orderIds) {
+        synchronized (writeLock) {
+            for (Long orderId : new ArrayList<>(byOrder.keySet())) {
+                if (!orderIds.contains(orderId)) {
+                    unindex(byOrder.remove(orderId));
+                }
+            }
+        }
+        drivers.values().removeIf(state -> {
+            synchronized (state) {
+                return state.fences.isEmpty();
+            }
+        });
+    }
+
+    public int fenceCount() {
+        return byOrder.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Avalia o ponto contra as cercas da sua célula e as que o entregador ocupa ou está
+     * prestes a ocupar; devolve os eventos confirmados (normalmente nenhum)
+     */
+    public List<GeofenceEvent> onPoint(TelemetryPoint point) {
+        Fence[] candidates = cells.get(cell(point.lat(), point.lon()));
+        DriverState state = drivers.get(point.driverId());
+        if (state == null) {
+            if (candidates == null || !hasDriver(candidates, point.driverId())) {
+                return List.of();
+            }
+            state = drivers.computeIfAbsent(point.driverId(), id -> new DriverState());
+        }
+
+        List<GeofenceEvent> events = null;
+        synchronized (state) {
+            if (point.timestampMillis() < state.lastTimestampMillis) {
+                return List.of();
+            }
+            state.lastTimestampMillis = point.timestampMillis();
+
+            if (candidates != null) {
+                for (Fence fence : candidates) {
+                    if (fence.driverId() == point.driverId() && !state.fences.containsKey(fence)
+                            && distanceMeters(point, fence) <= fence.radiusMeters()) {
+                        state.fences.put(fence, new FenceState());
+                    }
+                }
+            }
+
+            Iterator<Map.Entry<Fence, FenceState>> it = state.fences.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Fence, FenceState> entry = it.next();
+                Fence fence = entry.getKey();
+                List<Fence> active = byOrder.get(fence.orderId());
+                if (active == null || !active.contains(fence)) {
+                    it.remove();
+                    continue;
+                }
+                GeofenceEvent event = evaluate(fence, entry.getValue(), point);
+                if (event != null) {
+                    if (events == null) {
+                        events = new ArrayList<>(2);
+                    }
+                    events.add(event);
+                }
+                FenceState fenceState = entry.getValue();
+                if (!fenceState.inside && fenceState.candidateSince < 0) {
+                    it.remove();
+                }
+            }
+        }
+        return events != null ? events : List.of();
+    }
+
+    private GeofenceEvent evaluate(Fence fence, FenceState state, TelemetryPoint point) {
+        double distance = distanceMeters(point, fence);
+        long now = point.timestampMillis();
+        if (!state.inside) {
+            if (distance > fence.radiusMeters()) {
+                state.candidateSince = -1;
+                return null;
+            }
+            if (state.candidateSince < 0) {
+                state.candidateSince = now;
+            }
+            if (now - state.candidateSince < enterDwellMs) {
+                return null;
+            }
+            state.inside = true;
+            state.insideSince = state.candidateSince;
+            state.candidateSince = -1;
+            return new GeofenceEvent(Transition.ARRIVED, fence, point.lat(), point.lon(), now,
+                                     now - state.insideSince);
+        }
+
+        if (distance <= fence.radiusMeters() * exitFactor) {
+            state.candidateSince = -1;
+            return null;
+        }
+        if (state.candidateSince < 0) {
+            state.candidateSince = now;
+        }
+        if (now - state.candidateSince < exitDwellMs) {
+            return null;
+        }
+        state.inside = false;
+        long dwell = state.candidateSince - state.insideSince;
+        state.candidateSince = -1;
+        return new GeofenceEvent(Transition.DEPARTED, fence, point.lat(), point.lon(), now, dwell);
+    }
+
+    private void index(Fence fence) {
+        forEachCell(fence, key -> cells.compute(key, (k, current) -> {
+            if (current == null) {
+                return new Fence[] {fence};
+            }
+            Fence[] next = new Fence[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = fence;
+            return next;
+        }));
+    }
+
+    private void unindex(List<Fence> fences) {
+        for (Fence fence : fences) {
+            forEachCell(fence, key -> cells.computeIfPresent(key, (k, current) -> {
+                List<Fence> kept = new ArrayList<>(current.length);
+                for (Fence f : current) {
+                    if (f != fence) {
+                        kept.add(f);
+                    }
+                }
+                return kept.isEmpty() ? null : kept.toArray(new Fence[0]);
+            }));
+        }
+    }
+
+    // células tocadas pelo retângulo que envolve o raio de saída
+    private void forEachCell(Fence fence, LongConsumer action) {
+        double reachMeters = fence.radiusMeters() * exitFactor;
+        double dLat = reachMeters / METERS_PER_DEGREE;
+        double dLon = reachMeters / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(fence.lat()))));
+        long row0 = (long) Math.floor((fence.lat() - dLat) / cellSizeDeg);
+        long row1 = (long) Math.floor((fence.lat() + dLat) / cellSizeDeg);
+        long col0 = (long) Math.floor((fence.lon() - dLon) / cellSizeDeg);
+        long col1 = (long) Math.floor((fence.lon() + dLon) / cellSizeDeg);
+        for (long row = row0; row <= row1; row++) {
+            for (long col = col0; col <= col1; col++) {
+                action.accept(key(row, col));
+            }
+        }
+    }
+
+    private long cell(double lat, double lon) {
+        return key((long) Math.floor(lat / cellSizeDeg), (long) Math.floor(lon / cellSizeDeg));
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private static boolean hasDriver(Fence[] fences, long driverId) {
+        for (Fence fence : fences) {
+            if (fence.driverId() == driverId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // projeção equirretangular: precisa o bastante na escala de uma cerca
+    private static double distanceMeters(TelemetryPoint point, Fence fence) {
+        double dy = (point.lat() - fence.lat()) * METERS_PER_DEGREE;
+        double dx = (point.lon() - fence.lon()) * METERS_PER_DEGREE * Math.cos(Math.toRadians(fence.lat()));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,17 @@
+package com.douradelivery.tracking;
+
+/**
+ * Última posição conhecida de um entregador (timestamp em epoch millis)
+ */
+public record LastKnownPosition(long driverId,
+                                double lat,
+                                double lon,
+                                double speed,
+                                double heading,
+                                long timestampMillis) {
+
+    public static LastKnownPosition of(TelemetryPoint point) {
+        return new LastKnownPosition(point.driverId(), point.lat(), point.lon(),
+                                     point.speed(), point.heading(), point.timestampMillis());
+    }
+}
@@ -0,0 +1,94 @@
+package com.douradelivery.tracking;
+
+/**
+ * Gera os frames de localização de um assinante, comparando com o último enviado.
+ *
+ * Mudanças abaixo dos limiares não contam (ruído do GPS); a cada keyframeInterval
+ * frames sai um frame completo. Não é thread-safe: cada instância pertence a um
+ * único assinante e é usada por uma thread só.
+ */
+public final class LocationDeltaEncoder {
+
+    private static final double POSITION_EPSILON = 0.000005; // ~0,5 m
+    private static final double SPEED_EPSILON = 0.5;
+    private static final double HEADING_EPSILON = 2.0;
+
+    private final long orderId;
+    private final int keyframeInterval;
+
+    private long seq;
+    private int sinceKeyframe;
+    private boolean hasState;
+    private double lat;
+    private double lon;
+    private double speed = Double.NaN;
+    private double heading = Double.NaN;
+    private long timestampMillis;
+
+    public LocationDeltaEncoder(long orderId, int keyframeInterval) {
+        this.orderId = orderId;
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /**
+     * Próximo frame para a posição informada, ou null se ela não traz nada novo
+     */
+    public LocationFrame next(LastKnownPosition position) {
+        if (hasState && position.timestampMillis() <= timestampMillis) {
+            return null;
+        }
+        boolean full = !hasState || sinceKeyframe >= keyframeInterval;
+
+        Double newLat = null;
+        Double newLon = null;
+        if (full || Math.abs(position.lat() - lat) > POSITION_EPSILON
+                 || Math.abs(position.lon() - lon) > POSITION_EPSILON) {
+            newLat = round(position.lat());
+            newLon = round(position.lon());
+            lat = position.lat();
+            lon = position.lon();
+        }
+        Double newSpeed = changed(full, position.speed(), speed, SPEED_EPSILON, false) ? position.speed() : null;
+        if (newSpeed != null) {
+            speed = newSpeed;
+        }
+        Double newHeading = changed(full, position.heading(), heading, HEADING_EPSILON, true) ? position.heading() : null;
+        if (newHeading != null) {
+            heading = newHeading;
+        }
+        timestampMillis = position.timestampMillis();
+
+        if (!full && newLat == null && newSpeed == null && newHeading == null) {
+            return null;
+        }
+        hasState = true;
+        sinceKeyframe = full ? 0 : sinceKeyframe + 1;
+        return new LocationFrame(LocationFrame.TYPE, orderId, ++seq, full ? Boolean.TRUE : null,
+                                 newLat, newLon, newSpeed, newHeading, timestampMillis);
+    }
+
+    /**
+     * Força o próximo frame a ser completo (ex.: troca de entregador)
+     */
+    public void reset() {
+        hasState = false;
+    }
+
+    private static boolean changed(boolean full, double value, double last, double epsilon, boolean angle) {
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        if (full || Double.isNaN(last)) {
+            return true;
+        }
+        double diff = Math.abs(value - last);
+        if (angle) {
+            diff = Math.min(diff, 360.0 - diff); // 359° -> 1° é uma variação de 2°
+        }
+        return diff > epsilon;
+    }
+
+    private static double round(double degrees) {
+        return Math.round(degrees * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,24 @@
+package com.douradelivery.tracking;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Frame de localização ao vivo enviado ao cliente que acompanha um pedido.
+ *
+ * Nomes curtos e campos nulos omitidos: um frame delta traz só o que mudou desde o
+ * anterior (lat/lon em graus, speed em km/h, heading em graus, t em epoch millis).
+ * full = true marca um frame completo, que o cliente usa para se ressincronizar.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LocationFrame(String type,
+                            long orderId,
+                            long seq,
+                            Boolean full,
+                            Double lat,
+                            Double lon,
+                            Double speed,
+                            Double heading,
+                            long t) {
+
+    public static final String TYPE = "LOC";
+}
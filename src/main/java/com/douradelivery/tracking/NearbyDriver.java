@@ -0,0 +1,7 @@
+package com.douradelivery.tracking;
+
+/**
+ * Resultado de consulta espacial: posição do entregador e distância em linha reta (km)
+ */
+public record NearbyDriver(DriverPosition position, double distanceKm) {
+}
@@ -0,0 +1,155 @@
+package com.douradelivery.tracking;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binário de lote de telemetria enviado pelo app do entregador.
+ *
+ * <pre>
+ * byte    versão (1)
+ * varint  driverId
+ * varint  quantidade de pontos
+ * por ponto, em relação ao ponto anterior (o primeiro em relação a zero):
+ *   byte    flags: bit0 velocidade, bit1 direção, bit2 precisão
+ *   varint  delta do timestamp em ms (não negativo)
+ *   zigzag  delta da latitude em microgrados
+ *   zigzag  delta da longitude em microgrados
+ *   varint  velocidade em décimos de km/h (se flag)
+ *   varint  direção em décimos de grau (se flag)
+ *   varint  precisão em décimos de metro (se flag)
+ * </pre>
+ *
+ * A decodificação lê direto do ByteBuffer, sem cópias intermediárias.
+ */
+public final class TelemetryBatchCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_SPEED = 1;
+    private static final int FLAG_HEADING = 1 << 1;
+    private static final int FLAG_ACCURACY = 1 << 2;
+    private static final double MICRODEGREES = 1_000_000.0;
+
+    private TelemetryBatchCodec() {
+    }
+
+    /**
+     * Decodifica um lote; lança IllegalArgumentException se o conteúdo for inválido
+     */
+    public static List<TelemetryPoint> decode(ByteBuffer buffer, int maxPoints) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versão de lote não suportada: " + version);
+            }
+            long driverId = readVarLong(buffer);
+            long declared = readVarLong(buffer);
+            if (declared < 0 || declared > maxPoints) {
+                throw new IllegalArgumentException("Quantidade de pontos inválida: " + declared);
+            }
+            int count = (int) declared;
+
+            List<TelemetryPoint> points = new ArrayList<>(count);
+            long timestamp = 0;
+            long latE6 = 0;
+            long lonE6 = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = buffer.get() & 0xff;
+                long dt = readVarLong(buffer);
+                if (dt < 0) {
+                    throw new IllegalArgumentException("Timestamp fora de ordem no ponto " + i);
+                }
+                timestamp += dt;
+                latE6 += readZigZag(buffer);
+                lonE6 += readZigZag(buffer);
+                double speed = (flags & FLAG_SPEED) != 0 ? readVarLong(buffer) / 10.0 : Double.NaN;
+                double heading = (flags & FLAG_HEADING) != 0 ? readVarLong(buffer) / 10.0 : Double.NaN;
+                double accuracy = (flags & FLAG_ACCURACY) != 0 ? readVarLong(buffer) / 10.0 : Double.NaN;
+
+                double lat = latE6 / MICRODEGREES;
+                double lon = lonE6 / MICRODEGREES;
+                if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                    throw new IllegalArgumentException("Coordenada inválida no ponto " + i);
+                }
+                points.add(new TelemetryPoint(driverId, lat, lon, speed, heading, accuracy, timestamp));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Bytes excedentes no lote");
+            }
+            return points;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Lote truncado");
+        }
+    }
+
+    /**
+     * Codifica um lote de um único entregador (usado por clientes Java e ferramentas)
+     */
+    public static ByteBuffer encode(long driverId, List<TelemetryPoint> points) {
+        ByteBuffer buffer = ByteBuffer.allocate(21 + points.size() * 61);
+        buffer.put(VERSION);
+        writeVarLong(buffer, driverId);
+        writeVarLong(buffer, points.size());
+
+        long timestamp = 0;
+        long latE6 = 0;
+        long lonE6 = 0;
+        for (TelemetryPoint point : points) {
+            int flags = (Double.isNaN(point.speed()) ? 0 : FLAG_SPEED)
+                | (Double.isNaN(point.heading()) ? 0 : FLAG_HEADING)
+                | (Double.isNaN(point.accuracy()) ? 0 : FLAG_ACCURACY);
+            long nextLat = Math.round(point.lat() * MICRODEGREES);
+            long nextLon = Math.round(point.lon() * MICRODEGREES);
+            buffer.put((byte) flags);
+            writeVarLong(buffer, point.timestampMillis() - timestamp);
+            writeVarLong(buffer, zigZag(nextLat - latE6));
+            writeVarLong(buffer, zigZag(nextLon - lonE6));
+            if ((flags & FLAG_SPEED) != 0) {
+                writeVarLong(buffer, Math.round(point.speed() * 10));
+            }
+            if ((flags & FLAG_HEADING) != 0) {
+                writeVarLong(buffer, Math.round(point.heading() * 10));
+            }
+            if ((flags & FLAG_ACCURACY) != 0) {
+                writeVarLong(buffer, Math.round(point.accuracy() * 10));
+            }
+            timestamp = point.timestampMillis();
+            latE6 = nextLat;
+            lonE6 = nextLon;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint maior que 64 bits");
+    }
+
+    private static long readZigZag(ByteBuffer buffer) {
+        long raw = readVarLong(buffer);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,12 @@
+package com.douradelivery.tracking;
+
+/**
+ * Consumidor em memória dos pontos aceitos pelo pipeline de telemetria.
+ *
+ * Chamado na thread da requisição, antes da persistência: implementações devem ser
+ * rápidas e não bloqueantes.
+ */
+public interface TelemetryListener {
+
+    void onTelemetry(TelemetryPoint point);
+}
@@ -0,0 +1,14 @@
+package com.douradelivery.tracking;
+
+/**
+ * Ponto de telemetria validado, pronto para os consumidores do pipeline.
+ * Campos opcionais ausentes são Double.NaN; timestamp em epoch millis.
+ */
+public record TelemetryPoint(long driverId,
+                             double lat,
+                             double lon,
+                             double speed,
+                             double heading,
+                             double accuracy,
+                             long timestampMillis) {
+}
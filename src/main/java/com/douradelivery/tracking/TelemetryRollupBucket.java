@@ -0,0 +1,89 @@
+package com.douradelivery.tracking;
+
+/**
+ * Agregado de telemetria de um entregador numa janela fixa (1 ou 15 minutos).
+ * Mutável; o chamador garante acesso exclusivo durante as atualizações.
+ */
+public final class TelemetryRollupBucket {
+
+    private final long driverId;
+    private final int resolutionSeconds;
+    private final long bucketStartMillis;
+
+    private int pointCount;
+    private double speedSum;
+    private int speedCount;
+    private double maxSpeed = Double.NaN;
+    private double lastLat;
+    private double lastLon;
+    private long lastTimestampMillis = Long.MIN_VALUE;
+
+    public TelemetryRollupBucket(long driverId, int resolutionSeconds, long bucketStartMillis) {
+        this.driverId = driverId;
+        this.resolutionSeconds = resolutionSeconds;
+        this.bucketStartMillis = bucketStartMillis;
+    }
+
+    public static long bucketStart(long timestampMillis, int resolutionSeconds) {
+        long size = resolutionSeconds * 1000L;
+        return Math.floorDiv(timestampMillis, size) * size;
+    }
+
+    public void add(TelemetryPoint point) {
+        pointCount++;
+        if (!Double.isNaN(point.speed())) {
+            speedSum += point.speed();
+            speedCount++;
+            maxSpeed = Double.isNaN(maxSpeed) ? point.speed() : Math.max(maxSpeed, point.speed());
+        }
+        if (point.timestampMillis() >= lastTimestampMillis) {
+            lastLat = point.lat();
+            lastLon = point.lon();
+            lastTimestampMillis = point.timestampMillis();
+        }
+    }
+
+    public long getBucketEndMillis() {
+        return bucketStartMillis + resolutionSeconds * 1000L;
+    }
+
+    public long getDriverId() {
+        return driverId;
+    }
+
+    public int getResolutionSeconds() {
+        return resolutionSeconds;
+    }
+
+    public long getBucketStartMillis() {
+        return bucketStartMillis;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public double getSpeedSum() {
+        return speedSum;
+    }
+
+    public int getSpeedCount() {
+        return speedCount;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public double getLastLat() {
+        return lastLat;
+    }
+
+    public double getLastLon() {
+        return lastLon;
+    }
+
+    public long getLastTimestampMillis() {
+        return lastTimestampMillis;
+    }
+}
@@ -0,0 +1,183 @@
+package com.douradelivery.tracking;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Segmento imutável de telemetria em disco.
+ *
+ * <pre>
+ * int   magic "DDTS", int versão, int quantidade de blocos
+ * long  menor timestamp, long maior timestamp
+ * blocos ordenados por driverId, 40 bytes cada:
+ *   long driverId, long menor ts, long maior ts, int pontos, long offset, int tamanho
+ * corpo: um bloco por entregador, TelemetryBatchCodec comprimido com deflate
+ * </pre>
+ *
+ * A leitura de um entregador faz busca binária no índice e descomprime só o bloco dele.
+ */
+public final class TelemetrySegmentFile {
+
+    private static final int MAGIC = 0x44445453;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+    private static final int ENTRY_BYTES = 40;
+
+    private TelemetrySegmentFile() {
+    }
+
+    /**
+     * Grava o segmento num arquivo temporário e move para o destino de forma atômica
+     */
+    public static void write(Path target, Map<Long, List<TelemetryPoint>> pointsByDriver) throws IOException {
+        long[] driverIds = pointsByDriver.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int blocks = driverIds.length;
+
+        byte[][] bodies = new byte[blocks][];
+        long[] minTs = new long[blocks];
+        long[] maxTs = new long[blocks];
+        int[] counts = new int[blocks];
+        long segmentMin = Long.MAX_VALUE;
+        long segmentMax = Long.MIN_VALUE;
+        for (int b = 0; b < blocks; b++) {
+            List<TelemetryPoint> points = new ArrayList<>(pointsByDriver.get(driverIds[b]));
+            points.sort(Comparator.comparingLong(TelemetryPoint::timestampMillis));
+            bodies[b] = deflate(TelemetryBatchCodec.encode(driverIds[b], points));
+            minTs[b] = points.get(0).timestampMillis();
+            maxTs[b] = points.get(points.size() - 1).timestampMillis();
+            counts[b] = points.size();
+            segmentMin = Math.min(segmentMin, minTs[b]);
+            segmentMax = Math.max(segmentMax, maxTs[b]);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + blocks * ENTRY_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(blocks).putLong(segmentMin).putLong(segmentMax);
+        long offset = header.capacity();
+        for (int b = 0; b < blocks; b++) {
+            header.putLong(driverIds[b]).putLong(minTs[b]).putLong(maxTs[b]).putInt(counts[b])
+                  .putLong(offset).putInt(bodies[b].length);
+            offset += bodies[b].length;
+        }
+        header.flip();
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (byte[] body : bodies) {
+                writeFully(channel, ByteBuffer.wrap(body));
+            }
+            channel.force(false);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Menor e maior timestamp do segmento, lidos só do cabeçalho
+     */
+    public static long[] timeRange(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readAt(channel, 0, HEADER_BYTES);
+            checkHeader(header, file);
+            header.getInt();
+            return new long[] {header.getLong(), header.getLong()};
+        }
+    }
+
+    /**
+     * Pontos do entregador com timestamp em [from, to], em ordem cronológica
+     */
+    public static List<TelemetryPoint> read(Path file, long driverId, long from, long to) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readAt(channel, 0, HEADER_BYTES);
+            checkHeader(header, file);
+            int blocks = header.getInt();
+
+            int low = 0;
+            int high = blocks - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                ByteBuffer entry = readAt(channel, HEADER_BYTES + (long) mid * ENTRY_BYTES, ENTRY_BYTES);
+                long id = entry.getLong();
+                if (id < driverId) {
+                    low = mid + 1;
+                } else if (id > driverId) {
+                    high = mid - 1;
+                } else {
+                    long blockMin = entry.getLong();
+                    long blockMax = entry.getLong();
+                    entry.getInt();
+                    long offset = entry.getLong();
+                    int length = entry.getInt();
+                    if (blockMax < from || blockMin > to) {
+                        return List.of();
+                    }
+                    byte[] body = inflate(readAt(channel, offset, length));
+                    List<TelemetryPoint> result = new ArrayList<>();
+                    for (TelemetryPoint point : TelemetryBatchCodec.decode(ByteBuffer.wrap(body), Integer.MAX_VALUE)) {
+                        if (point.timestampMillis() >= from && point.timestampMillis() <= to) {
+                            result.add(point);
+                        }
+                    }
+                    return result;
+                }
+            }
+            return List.of();
+        }
+    }
+
+    private static void checkHeader(ByteBuffer header, Path file) throws IOException {
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Segmento de telemetria inválido: " + file);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Segmento de telemetria truncado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] deflate(ByteBuffer encoded) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.remaining() / 2 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(encoded.array(), encoded.position(), encoded.remaining());
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(ByteBuffer compressed) throws IOException {
+        try (InputStream stream = new InflaterInputStream(new ByteArrayInputStream(
+                compressed.array(), compressed.position(), compressed.remaining()))) {
+            return stream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.douradelivery.tracking;
+
+import java.util.List;
+
+/**
+ * Destino persistente dos lotes drenados pelos writers de telemetria.
+ * Pode ser chamado por vários writers ao mesmo tempo.
+ */
+public interface TelemetrySink {
+
+    void write(List<TelemetryPoint> batch);
+}
@@ -0,0 +1,119 @@
+package com.douradelivery.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa rajadas de mensagens para o mesmo destino numa janela curta.
+ *
+ * Dentro da janela, mensagens com a mesma chave (ex.: o mesmo pedido) se substituem
+ * e só a última sai; se sobrar mais de uma mensagem para o destino, elas vão juntas
+ * num único frame BATCH. Janela 0 envia tudo na hora.
+ */
+@Component
+@Slf4j
+public class CoalescingMessageSender {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${websocket.coalesce.window-ms:250}")
+    private long windowMs;
+
+    // destino -> (chave -> mensagem mais recente), em ordem de chegada
+    private final ConcurrentHashMap<String, LinkedHashMap<String, Object>> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private final Counter sentCounter;
+    private final Counter coalescedCounter;
+
+    public CoalescingMessageSender(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.sentCounter = Counter.builder("websocket.frames").tag("result", "sent").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("websocket.frames").tag("result", "coalesced").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (windowMs <= 0) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-coalesce");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Envia agora, sem coalescência (mensagens que não podem ser substituídas)
+     */
+    public void sendNow(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        sentCounter.increment();
+    }
+
+    /**
+     * Enfileira para a próxima janela; uma mensagem pendente com a mesma chave é substituída
+     */
+    public void send(String destination, String key, Object payload) {
+        if (flusher == null) {
+            sendNow(destination, payload);
+            return;
+        }
+        pending.compute(destination, (d, batch) -> {
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+            }
+            if (batch.put(key, payload) != null) {
+                coalescedCounter.increment();
+            }
+            return batch;
+        });
+    }
+
+    void flush() {
+        for (String destination : pending.keySet()) {
+            // remove é atômico em relação ao compute de send: o lote removido não muda mais
+            LinkedHashMap<String, Object> batch = pending.remove(destination);
+            if (batch == null || batch.isEmpty()) {
+                continue;
+            }
+            try {
+                if (batch.size() == 1) {
+                    sendNow(destination, batch.values().iterator().next());
+                } else {
+                    coalescedCounter.increment(batch.size() - 1);
+                    sendNow(destination, new NotificationPayloads.Batch(new ArrayList<>(batch.values())));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao enviar {} mensagens para {}: {}", batch.size(), destination, e.getMessage());
+            }
+        }
+    }
+
+    public int getPendingDestinations() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+}
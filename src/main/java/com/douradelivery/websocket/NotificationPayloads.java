@@ -0,0 +1,57 @@
+package com.douradelivery.websocket;
+
+import com.douradelivery.dto.OrderSummary;
+import com.douradelivery.model.Order;
+
+import java.util.List;
+
+/**
+ * Formatos das mensagens enviadas via WebSocket; records serializam direto, sem montar mapas
+ */
+public final class NotificationPayloads {
+
+    private NotificationPayloads() {
+    }
+
+    public record NewOrder(String type, Long orderId, Long routeId, double originLat, double originLon,
+                           double destinationLat, double destinationLon, Order.Priority priority) {
+        public NewOrder(Long orderId, Long routeId, double originLat, double originLon,
+                        double destinationLat, double destinationLon, Order.Priority priority) {
+            this("NEW_ORDER", orderId, routeId, originLat, originLon, destinationLat, destinationLon, priority);
+        }
+    }
+
+    public record OrderUpdate(String type, Long orderId, Object status, Long driverId, String driverName) {
+        public OrderUpdate(Long orderId, Object status, Long driverId, String driverName) {
+            this("ORDER_UPDATE", orderId, status, driverId, driverName);
+        }
+    }
+
+    public record RouteUpdate(String type, Long routeId, double estimatedDistance, int estimatedDuration,
+                              List<OrderSummary> orders) {
+        public RouteUpdate(Long routeId, double estimatedDistance, int estimatedDuration,
+                           List<OrderSummary> orders) {
+            this("ROUTE_UPDATE", routeId, estimatedDistance, estimatedDuration, orders);
+        }
+    }
+
+    public record Geofence(String type, Long orderId, String kind, String transition, double lat, double lon,
+                           long occurredAtMillis) {
+        public Geofence(Long orderId, String kind, String transition, double lat, double lon,
+                        long occurredAtMillis) {
+            this("GEOFENCE", orderId, kind, transition, lat, lon, occurredAtMillis);
+        }
+    }
+
+    public record AdminEvent(String type, Object data) {
+    }
+
+    /**
+     * Várias mensagens para o mesmo destino agrupadas pela janela de coalescência
+     */
+    public record Batch(String type, List<Object> messages) {
+        public Batch(List<Object> messages) {
+            this("BATCH", messages);
+        }
+    }
+}
@@ -1,40 +1,53 @@
 package com.douradelivery.websocket;
 
+import com.douradelivery.dto.OrderSummary;
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
 import com.douradelivery.model.Driver;
 import com.douradelivery.model.Order;
 import com.douradelivery.model.Route;
+import com.douradelivery.tracking.GeofenceEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * Serviço para enviar notificações em tempo real via WebSocket
+ * Serviço para enviar notificações em tempo real via WebSocket.
+ *
+ * Mudanças de pedido chegam como eventos do outbox, fora da thread da requisição.
+ * ROUTE_UPDATE e ORDER_UPDATE passam pela janela de coalescência; NEW_ORDER e
+ * eventos de admin saem na hora.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class NotificationService {
+public class NotificationService implements OrderEventHandler {
+    
+    private final CoalescingMessageSender sender;
     
-    private final SimpMessagingTemplate messagingTemplate;
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        if (event.clientId() != null && event.type() != OrderEvent.Type.CREATED) {
+            Object status = event.type() == OrderEvent.Type.DELETED ? "DELETED" : event.status();
+            sendOrderUpdate(event.clientId(), new NotificationPayloads.OrderUpdate(
+                event.orderId(), status, event.driverId(), null));
+        }
+        if (event.type() == OrderEvent.Type.ASSIGNED && event.driverChanged()) {
+            sender.sendNow(driverDestination(event.driverId()), new NotificationPayloads.NewOrder(
+                event.orderId(), event.routeId(), event.originLat(), event.originLon(),
+                event.destinationLat(), event.destinationLon(), event.priority()));
+        }
+        log.debug("Evento {} do pedido {} notificado", event.type(), event.orderId());
+    }
     
     /**
      * Notifica entregador sobre novo pedido atribuído
      */
     public void notifyDriverNewOrder(Driver driver, Order order) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "NEW_ORDER");
-        payload.put("orderId", order.getId());
-        payload.put("originLat", order.getOriginLat());
-        payload.put("originLon", order.getOriginLon());
-        payload.put("destinationLat", order.getDestinationLat());
-        payload.put("destinationLon", order.getDestinationLon());
-        payload.put("priority", order.getPriority());
-        
-        messagingTemplate.convertAndSend("/queue/driver/" + driver.getId(), payload);
+        Long routeId = order.getRoute() != null ? order.getRoute().getId() : null;
+        sender.sendNow(driverDestination(driver.getId()), new NotificationPayloads.NewOrder(
+            order.getId(), routeId, order.getOriginLat(), order.getOriginLon(),
+            order.getDestinationLat(), order.getDestinationLon(), order.getPriority()));
         log.info("Notificação enviada ao entregador {} sobre pedido {}", driver.getId(), order.getId());
     }
     
@@ -42,14 +55,12 @@ public void notifyDriverNewOrder(Driver driver, Order order) {
      * Notifica entregador sobre rota atualizada
      */
     public void notifyDriverRouteUpdate(Driver driver, Route route) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "ROUTE_UPDATE");
-        payload.put("routeId", route.getId());
-        payload.put("estimatedDistance", route.getEstimatedDistance());
-        payload.put("estimatedDuration", route.getEstimatedDuration());
-        payload.put("orders", route.getOrders());
+        NotificationPayloads.RouteUpdate payload = new NotificationPayloads.RouteUpdate(
+            route.getId(), route.getEstimatedDistance(), route.getEstimatedDuration(),
+            route.getOrders().stream().map(OrderSummary::from).toList());
         
-        messagingTemplate.convertAndSend("/queue/driver/" + driver.getId(), payload);
+        // só a versão mais recente da rota interessa ao entregador
+        sender.send(driverDestination(driver.getId()), "route:" + route.getId(), payload);
         log.info("Rota atualizada enviada ao entregador {}", driver.getId());
     }
     
@@ -57,28 +68,57 @@ public void notifyDriverRouteUpdate(Driver driver, Route route) {
      * Notifica cliente sobre atualização do pedido
      */
     public void notifyClientOrderUpdate(Long clientId, Order order) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "ORDER_UPDATE");
-        payload.put("orderId", order.getId());
-        payload.put("status", order.getStatus());
+        Long driverId = null;
+        String driverName = null;
         if (order.getAssignedDriver() != null) {
-            payload.put("driverName", order.getAssignedDriver().getUser().getName());
+            driverId = order.getAssignedDriver().getId();
+            driverName = order.getAssignedDriver().getUser().getName();
         }
-        
-        messagingTemplate.convertAndSend("/queue/client/" + clientId, payload);
+        sendOrderUpdate(clientId, new NotificationPayloads.OrderUpdate(order.getId(), order.getStatus(),
+                                                                       driverId, driverName));
         log.info("Atualização de pedido enviada ao cliente {}", clientId);
     }
     
+    /**
+     * Chegada/saída do entregador numa cerca de coleta ou entrega, para ele e para o cliente
+     */
+    public void notifyGeofenceEvent(GeofenceEngine.GeofenceEvent event) {
+        GeofenceEngine.Fence fence = event.fence();
+        NotificationPayloads.Geofence payload = new NotificationPayloads.Geofence(
+            fence.orderId(), fence.kind().name(), event.transition().name(),
+            event.lat(), event.lon(), event.timestampMillis());
+        // chave por transição: chegada e saída na mesma janela não se substituem
+        String key = "geofence:" + fence.orderId() + ":" + fence.kind() + ":" + event.transition();
+        sender.send(driverDestination(fence.driverId()), key, payload);
+        if (fence.clientId() != null) {
+            sender.send(clientDestination(fence.clientId()), key, payload);
+        }
+        log.debug("Cerca {} do pedido {}: {}", fence.kind(), fence.orderId(), event.transition());
+    }
+    
     /**
      * Notifica admin sobre eventos do sistema
      */
     public void notifyAdmin(String eventType, Object data) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", eventType);
-        payload.put("data", data);
-        
-        messagingTemplate.convertAndSend("/topic/admin", payload);
+        sender.sendNow("/topic/admin", new NotificationPayloads.AdminEvent(eventType, data));
         log.info("Notificação admin: {}", eventType);
     }
+    
+    private void sendOrderUpdate(Long clientId, NotificationPayloads.OrderUpdate payload) {
+        sender.send(clientDestination(clientId), "order:" + payload.orderId(), payload);
+    }
+    
+    /**
+     * Destino das notificações do cliente (pedidos, cercas, posição ao vivo)
+     */
+    public static String clientDestination(Long clientId) {
+        return "/topic/client/" + clientId;
+    }
+    
+    /**
+     * Destino das notificações do entregador (novos pedidos, rotas, cercas)
+     */
+    public static String driverDestination(Long driverId) {
+        return "/topic/driver/" + driverId;
+    }
 }
-
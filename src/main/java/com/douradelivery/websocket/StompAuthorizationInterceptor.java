@@ -0,0 +1,121 @@
+package com.douradelivery.websocket;
+
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.security.JwtUtil;
+import com.douradelivery.service.DriverIdentityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Autenticação e autorização dos frames STOMP que chegam dos clientes.
+ *
+ * O handshake em /ws é livre; o CONNECT precisa trazer o JWT no cabeçalho nativo
+ * Authorization ("Bearer ..."), e o usuário fica na sessão. Cada SUBSCRIBE só passa se o
+ * destino for do próprio usuário: /topic/client/{userId} para o cliente,
+ * /topic/driver/{driverId} para o entregador e /topic/admin para o admin (que assina
+ * qualquer destino). Clientes não publicam em destinos do broker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthorizationInterceptor implements ChannelInterceptor {
+
+    private static final String CLIENT_PREFIX = "/topic/client/";
+    private static final String DRIVER_PREFIX = "/topic/driver/";
+    private static final String ADMIN_DESTINATION = "/topic/admin";
+
+    private final JwtUtil jwtUtil;
+    private final DriverIdentityService driverIdentityService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+            case SUBSCRIBE -> {
+                JwtPrincipal principal = principalOf(accessor.getUser());
+                if (!canSubscribe(principal, accessor.getDestination())) {
+                    log.warn("Assinatura negada: usuário {} em {}", principal.userId(), accessor.getDestination());
+                    throw new AccessDeniedException("Destino não permitido: " + accessor.getDestination());
+                }
+            }
+            case SEND -> {
+                principalOf(accessor.getUser());
+                String destination = accessor.getDestination();
+                if (destination == null || !destination.startsWith("/app/")) {
+                    throw new AccessDeniedException("Envio não permitido: " + destination);
+                }
+            }
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    boolean canSubscribe(JwtPrincipal principal, String destination) {
+        if (destination == null) {
+            return false;
+        }
+        if ("ADMIN".equals(principal.userType())) {
+            return true;
+        }
+        if (destination.startsWith(CLIENT_PREFIX)) {
+            Long clientId = idOf(destination, CLIENT_PREFIX);
+            return "CLIENT".equals(principal.userType()) && clientId != null && clientId.equals(principal.userId());
+        }
+        if (destination.startsWith(DRIVER_PREFIX)) {
+            Long driverId = idOf(destination, DRIVER_PREFIX);
+            return driverId != null && driverIdentityService.driverIdOf(principal).map(driverId::equals).orElse(false);
+        }
+        return false;
+    }
+
+    private Authentication authenticate(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new AccessDeniedException("CONNECT sem token");
+        }
+        JwtPrincipal principal;
+        try {
+            principal = jwtUtil.authenticate(header.substring(7));
+        } catch (RuntimeException e) {
+            throw new AccessDeniedException("Token inválido", e);
+        }
+        if (principal.isExpired(System.currentTimeMillis())) {
+            throw new AccessDeniedException("Token expirado");
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null,
+            List.of(new SimpleGrantedAuthority("ROLE_" + principal.userType())));
+    }
+
+    private static JwtPrincipal principalOf(Principal user) {
+        if (user instanceof Authentication authentication && authentication.getPrincipal() instanceof JwtPrincipal p) {
+            return p;
+        }
+        throw new AccessDeniedException("Sessão STOMP não autenticada");
+    }
+
+    // só o id, sem sufixos: /topic/client/7/extra não é o destino do cliente 7
+    private static Long idOf(String destination, String prefix) {
+        try {
+            return Long.valueOf(destination.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
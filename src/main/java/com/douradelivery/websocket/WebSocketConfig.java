@@ -1,19 +1,119 @@
 package com.douradelivery.websocket;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Broker STOMP da aplicação.
+ *
+ * Modo "simple" usa o broker em memória (uma instância só); modo "relay" repassa
+ * assinaturas e mensagens a um broker STOMP externo (ex.: RabbitMQ com o plugin
+ * STOMP), de modo que uma notificação enviada por qualquer nó chega ao cliente
+ * conectado em outro. As notificações saem em /topic/...: no relay um destino /queue
+ * vira fila com consumidores concorrentes e cada frame chegaria a uma só sessão.
+ * Quem pode assinar cada destino é decidido no StompAuthorizationInterceptor.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    private final MeterRegistry meterRegistry;
+    private final StompAuthorizationInterceptor authorizationInterceptor;
+    
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+    
+    @Value("${websocket.broker.relay-host:localhost}")
+    private String relayHost;
+    
+    @Value("${websocket.broker.relay-port:61613}")
+    private int relayPort;
+    
+    @Value("${websocket.broker.client-login:guest}")
+    private String clientLogin;
+    
+    @Value("${websocket.broker.client-passcode:guest}")
+    private String clientPasscode;
+    
+    @Value("${websocket.broker.system-login:guest}")
+    private String systemLogin;
+    
+    @Value("${websocket.broker.system-passcode:guest}")
+    private String systemPasscode;
+    
+    @Value("${websocket.broker.virtual-host:/}")
+    private String virtualHost;
+    
+    @Value("${websocket.heartbeat-ms:10000}")
+    private long heartbeatMs;
+    
+    @Value("${websocket.outbound.core-threads:8}")
+    private int outboundCoreThreads;
+    
+    @Value("${websocket.outbound.max-threads:32}")
+    private int outboundMaxThreads;
+    
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+    
+    @Value("${websocket.inbound.threads:8}")
+    private int inboundThreads;
+    
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${websocket.send-buffer-limit-bytes:524288}")
+    private int sendBufferLimitBytes;
+    
+    private TaskScheduler heartbeatScheduler;
+    
+    public WebSocketConfig(MeterRegistry meterRegistry, StompAuthorizationInterceptor authorizationInterceptor) {
+        this.meterRegistry = meterRegistry;
+        this.authorizationInterceptor = authorizationInterceptor;
+    }
+    
+    // scheduler do próprio Spring para o broker: o contexto cria e encerra
+    @Autowired
+    public void setHeartbeatScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler heartbeatScheduler) {
+        this.heartbeatScheduler = heartbeatScheduler;
+    }
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                  .setRelayHost(relayHost)
+                  .setRelayPort(relayPort)
+                  .setClientLogin(clientLogin)
+                  .setClientPasscode(clientPasscode)
+                  .setSystemLogin(systemLogin)
+                  .setSystemPasscode(systemPasscode)
+                  .setVirtualHost(virtualHost)
+                  .setSystemHeartbeatSendInterval(heartbeatMs)
+                  .setSystemHeartbeatReceiveInterval(heartbeatMs);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                  .setHeartbeatValue(new long[] {heartbeatMs, heartbeatMs})
+                  .setTaskScheduler(heartbeatScheduler);
+        }
         config.setApplicationDestinationPrefixes("/app");
+        // o canal de saída tem várias threads: sem isso, frames da mesma sessão podem se inverter
+        config.setPreservePublishOrder(true);
     }
     
     @Override
@@ -22,5 +122,38 @@ public void registerStompEndpoints(StompEndpointRegistry registry) {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(executor("ws-outbound-", outboundCoreThreads, outboundMaxThreads,
+                                           outboundQueueCapacity, "websocket.outbound"));
+    }
+    
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(executor("ws-inbound-", inboundThreads, inboundThreads,
+                                           Integer.MAX_VALUE, "websocket.inbound"));
+        registration.interceptors(authorizationInterceptor);
+    }
+    
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // cliente lento não segura a thread de saída nem acumula memória sem limite
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                    .setSendBufferSizeLimit(sendBufferLimitBytes);
+    }
+    
+    private ThreadPoolTaskExecutor executor(String prefix, int core, int max, int queueCapacity, String metricName) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(core);
+        executor.setMaxPoolSize(Math.max(core, max));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        // fila cheia: quem envia executa a entrega, freando a produção em vez de descartar frames
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), metricName);
+        return executor;
+    }
 }
-
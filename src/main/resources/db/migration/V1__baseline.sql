@@ -0,0 +1,117 @@
+-- Esquema de partida: as tabelas como o ddl-auto update as criava antes das migrações.
+-- Bancos já existentes entram no histórico nesta versão (baseline-version 1) e seguem
+-- pelas migrações seguintes; bancos novos começam por aqui.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    user_type VARCHAR(20) NOT NULL,
+    cpf VARCHAR(255),
+    birth_date DATE,
+    phone VARCHAR(255),
+    cnh_number VARCHAR(255),
+    cnh_category VARCHAR(10),
+    cnh_expiry_date DATE,
+    profile_photo_path VARCHAR(255),
+    cpf_photo_path VARCHAR(255),
+    cnh_photo_path VARCHAR(255),
+    verification_status VARCHAR(32),
+    active BIT(1) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_cpf UNIQUE (cpf)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS drivers (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    current_lat DOUBLE NOT NULL,
+    current_lon DOUBLE NOT NULL,
+    capacity_weight DOUBLE NOT NULL,
+    capacity_volume DOUBLE NOT NULL,
+    available BIT(1) NOT NULL,
+    vehicle_type VARCHAR(32) NOT NULL,
+    phone_number VARCHAR(255),
+    license_plate VARCHAR(255),
+    last_seen_at DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_drivers_user UNIQUE (user_id),
+    CONSTRAINT fk_drivers_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS routes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    driver_id BIGINT NOT NULL,
+    estimated_distance DOUBLE NOT NULL,
+    estimated_duration INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    started_at DATETIME(6),
+    completed_at DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_routes_driver FOREIGN KEY (driver_id) REFERENCES drivers (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    client_id BIGINT NOT NULL,
+    origin_lat DOUBLE NOT NULL,
+    origin_lon DOUBLE NOT NULL,
+    destination_lat DOUBLE NOT NULL,
+    destination_lon DOUBLE NOT NULL,
+    origin_address VARCHAR(255),
+    destination_address VARCHAR(255),
+    weight DOUBLE NOT NULL,
+    volume DOUBLE NOT NULL,
+    priority VARCHAR(32) NOT NULL,
+    time_window_start DATETIME(6),
+    time_window_end DATETIME(6),
+    status VARCHAR(32) NOT NULL,
+    driver_id BIGINT,
+    route_id BIGINT,
+    sequence_order INT,
+    description VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    delivered_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_client FOREIGN KEY (client_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_driver FOREIGN KEY (driver_id) REFERENCES drivers (id),
+    CONSTRAINT fk_orders_route FOREIGN KEY (route_id) REFERENCES routes (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS documents (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    document_type VARCHAR(32) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    observation TEXT,
+    submitted_at DATETIME(6) NOT NULL,
+    reviewed_at DATETIME(6),
+    reviewed_by BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_documents_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_documents_reviewed_by FOREIGN KEY (reviewed_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS telemetry (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    driver_id BIGINT NOT NULL,
+    lat DOUBLE NOT NULL,
+    lon DOUBLE NOT NULL,
+    speed DOUBLE,
+    heading DOUBLE,
+    accuracy DOUBLE,
+    timestamp DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_telemetry_driver FOREIGN KEY (driver_id) REFERENCES drivers (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,76 @@
+-- Colunas acrescentadas às tabelas do esquema de partida.
+-- Cada uma só é criada se ainda não existir: bancos em que o ddl-auto já rodou com
+-- parte delas chegam aqui com qualquer combinação.
+
+-- orders.version: trava otimista do pedido
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'orders' AND column_name = 'version') = 0,
+              'ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- drivers.used_weight/used_volume/active_orders: carga mantida pelo banco
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'drivers' AND column_name = 'used_weight') = 0,
+              'ALTER TABLE drivers ADD COLUMN used_weight DOUBLE NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'drivers' AND column_name = 'used_volume') = 0,
+              'ALTER TABLE drivers ADD COLUMN used_volume DOUBLE NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'drivers' AND column_name = 'active_orders') = 0,
+              'ALTER TABLE drivers ADD COLUMN active_orders INT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- documents: conteúdo endereçado por hash e processamento em background
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'documents' AND column_name = 'content_hash') = 0,
+              'ALTER TABLE documents ADD COLUMN content_hash VARCHAR(64)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'documents' AND column_name = 'file_size') = 0,
+              'ALTER TABLE documents ADD COLUMN file_size BIGINT', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'documents' AND column_name = 'normalized_hash') = 0,
+              'ALTER TABLE documents ADD COLUMN normalized_hash VARCHAR(64)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'documents' AND column_name = 'thumbnail_hash') = 0,
+              'ALTER TABLE documents ADD COLUMN thumbnail_hash VARCHAR(64)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'documents' AND column_name = 'processing_status') = 0,
+              'ALTER TABLE documents ADD COLUMN processing_status VARCHAR(16)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- carga inicial dos entregadores a partir dos pedidos em aberto (mesma conta do DriverRepository.reconcileLoad)
+UPDATE drivers d LEFT JOIN (
+    SELECT driver_id, SUM(weight) AS w, SUM(volume) AS v, COUNT(*) AS c FROM orders
+    WHERE driver_id IS NOT NULL AND status NOT IN ('DELIVERED', 'CANCELED') GROUP BY driver_id
+) l ON l.driver_id = d.id
+SET d.used_weight = COALESCE(l.w, 0), d.used_volume = COALESCE(l.v, 0), d.active_orders = COALESCE(l.c, 0);
@@ -0,0 +1,51 @@
+-- Tabelas acrescentadas depois do esquema de partida (agregados de telemetria, perfis de ETA, blobs e outbox).
+-- IF NOT EXISTS: bancos em que o ddl-auto já as criou ficam como estão.
+
+CREATE TABLE IF NOT EXISTS telemetry_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    driver_id BIGINT NOT NULL,
+    resolution_seconds INT NOT NULL,
+    bucket_start DATETIME(6) NOT NULL,
+    point_count INT NOT NULL,
+    speed_sum DOUBLE NOT NULL,
+    speed_count INT NOT NULL,
+    max_speed DOUBLE,
+    last_lat DOUBLE NOT NULL,
+    last_lon DOUBLE NOT NULL,
+    last_timestamp DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_telemetry_rollup_bucket UNIQUE (driver_id, resolution_seconds, bucket_start)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS speed_profiles (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cell_key BIGINT NOT NULL,
+    hour_of_week INT NOT NULL,
+    distance_km DOUBLE NOT NULL,
+    duration_seconds DOUBLE NOT NULL,
+    samples DOUBLE NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_speed_profile_cell_hour UNIQUE (cell_key, hour_of_week)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS blobs (
+    hash VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (hash),
+    INDEX idx_blobs_unreferenced (ref_count, updated_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_order_outbox_pending (published_at, id)
+) ENGINE = InnoDB;
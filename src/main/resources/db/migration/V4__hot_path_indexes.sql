@@ -0,0 +1,63 @@
+-- Índices compostos para as consultas quentes dos repositórios.
+-- O InnoDB acrescenta o id ao fim de todo índice secundário, então (a, b) também
+-- entrega as linhas de cada (a, b) em ordem de id sem filesort.
+
+-- pedidos ------------------------------------------------------------------
+
+-- findByStatus, findByStatusIn, countGroupedByStatus; findUnassignedIds
+-- (status = 'NEW' AND driver_id IS NULL ... ORDER BY id: leitura em ordem, para no LIMIT)
+CREATE INDEX idx_orders_status_driver ON orders (status, driver_id);
+
+-- findByAssignedDriverId, findAssignedOutsideRoute, filtro por entregador do resumo,
+-- reconcileLoad (GROUP BY driver_id dos pedidos em aberto)
+CREATE INDEX idx_orders_driver_status ON orders (driver_id, status);
+
+-- findSummaryPage/streamSummaries com intervalo de criação
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+
+-- rotas --------------------------------------------------------------------
+
+-- findFirstByDriverIdAndStatusInOrderByIdDesc, findByDriverId
+CREATE INDEX idx_routes_driver_status ON routes (driver_id, status);
+
+-- findByStatus, findByStatusIn (rotas ativas no painel e na ressincronização)
+CREATE INDEX idx_routes_status ON routes (status);
+
+-- telemetria ---------------------------------------------------------------
+
+-- findByDriverIdOrderByTimestampDesc, findFirstByDriverIdOrderByTimestampDesc,
+-- findByDriverIdAndTimestampBetweenOrderByTimestampAsc
+CREATE INDEX idx_telemetry_driver_timestamp ON telemetry (driver_id, timestamp);
+
+-- deleteOlderThan (retenção)
+CREATE INDEX idx_telemetry_timestamp ON telemetry (timestamp);
+
+-- deleteOlderThan por resolução; a consulta por entregador usa uk_telemetry_rollup_bucket
+CREATE INDEX idx_telemetry_rollups_resolution_bucket ON telemetry_rollups (resolution_seconds, bucket_start);
+
+-- documentos ---------------------------------------------------------------
+
+-- findByUser, findByUserOrderBySubmittedAtDesc, findByUserIdOrderBySubmittedAtDesc,
+-- findFirstByUserOrderBySubmittedAtDesc, findByUserIdAndStatus, existsByOwnerEmailAndHash
+CREATE INDEX idx_documents_user_submitted ON documents (user_id, submitted_at);
+
+-- findByStatus, findByStatusOrderBySubmittedAtAsc, findPendingDocumentsWithUser
+CREATE INDEX idx_documents_status_submitted ON documents (status, submitted_at);
+
+-- findPendingProcessingIds
+CREATE INDEX idx_documents_processing_submitted ON documents (processing_status, submitted_at);
+
+-- usuários e entregadores --------------------------------------------------
+
+-- findByUserTypeAndActiveTrue
+CREATE INDEX idx_users_type_active ON users (user_type, active);
+
+-- findByVerificationStatus
+CREATE INDEX idx_users_verification_status ON users (verification_status);
+
+-- findByCnhNumber
+CREATE INDEX idx_users_cnh_number ON users (cnh_number);
+
+-- findByAvailableTrue, findByVehicleType
+CREATE INDEX idx_drivers_available ON drivers (available);
+CREATE INDEX idx_drivers_vehicle_type ON drivers (vehicle_type);
@@ -0,0 +1,8 @@
+-- order_outbox.claimed_until: reserva do lote por um relay enquanto ele publica fora da transação.
+-- Reserva vencida (relay caiu no meio do envio) volta a ser elegível.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'order_outbox' AND column_name = 'claimed_until') = 0,
+              'ALTER TABLE order_outbox ADD COLUMN claimed_until DATETIME(6) NULL', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,26 @@
+package com.douradelivery;
+
+import com.douradelivery.service.BlobService;
+import com.douradelivery.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sobe o contexto inteiro contra o MySQL das migrações: falhas de injeção (construtor
+ * ambíguo, bean faltando, placeholder sem padrão) quebram o build em vez da implantação
+ */
+@SpringBootTest
+class DouraDeliveryApplicationTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        assertThat(context.getBean(BlobService.class)).isNotNull();
+    }
+}
@@ -0,0 +1,136 @@
+package com.douradelivery.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheRegionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryRemoteCache remote = new InMemoryRemoteCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void secondInstanceReadsTheValueFromL2() {
+        CacheRegion<String> nodeA = region(remote, true);
+        CacheRegion<String> nodeB = region(remote, true);
+
+        assertThat(nodeA.get("k", () -> load("v1"))).isEqualTo("v1");
+        assertThat(nodeB.get("k", () -> load("v2"))).isEqualTo("v1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(remote.get("cache:test:k")).contains("\"value\":\"v1\"");
+    }
+
+    @Test
+    void evictClearsBothLevelsOfTheWritingInstance() {
+        CacheRegion<String> nodeA = region(remote, true);
+        CacheRegion<String> nodeC = region(remote, true);
+        nodeA.get("k", () -> load("v1"));
+
+        nodeA.evict("k");
+
+        assertThat(nodeA.localSize()).isZero();
+        assertThat(remote.get("cache:test:k")).isNull();
+        // instância que ainda não tinha a chave no L1 já lê do banco
+        assertThat(nodeC.get("k", () -> load("v2"))).isEqualTo("v2");
+        assertThat(nodeA.get("k", () -> load("v3"))).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void sensitiveRegionKeepsValuesOutOfL2() {
+        CacheRegion<String> nodeA = region(remote, false);
+
+        nodeA.get("k", () -> load("hash-da-senha"));
+
+        assertThat(remote.get("cache:test:k")).isNull();
+        assertThat(remote.size()).isZero();
+        assertThat(nodeA.get("k", () -> load("outro"))).isEqualTo("hash-da-senha");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictOnOneInstanceInvalidatesTheL1OfTheOthers() {
+        CacheRegion<String> nodeA = region(remote, false);
+        CacheRegion<String> nodeB = region(remote, false);
+        nodeA.get("k", () -> load("senha-antiga"));
+        nodeB.get("k", () -> load("senha-antiga"));
+
+        nodeA.evict("k");
+
+        assertThat(nodeB.get("k", () -> load("senha-nova"))).isEqualTo("senha-nova");
+        // depois de recarregar, o L1 volta a responder sozinho
+        assertThat(nodeB.get("k", () -> load("outra"))).isEqualTo("senha-nova");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void evictDuringALoadDoesNotLeaveTheOldValueCached() {
+        CacheRegion<String> nodeA = region(remote, false);
+        CacheRegion<String> nodeB = region(remote, false);
+
+        // B lê o banco antes do commit da escrita; A invalida antes de B guardar no L1
+        nodeB.get("k", () -> {
+            nodeA.evict("k");
+            return load("senha-antiga");
+        });
+
+        assertThat(nodeB.get("k", () -> load("senha-nova"))).isEqualTo("senha-nova");
+    }
+
+    @Test
+    void readerThatStoresAfterTheEvictDoesNotServeTheOldValue() {
+        CacheRegion<String> nodeA = region(remote, true);
+        CacheRegion<String> nodeB = region(remote, true);
+        CacheRegion<String> nodeC = region(remote, true);
+
+        // B leu o pedido antes do commit; o evict de A chega antes de B gravar nos dois níveis
+        nodeB.get("k", () -> {
+            nodeA.evict("k");
+            return load("atribuido");
+        });
+
+        assertThat(nodeB.get("k", () -> load("em-rota"))).isEqualTo("em-rota");
+        assertThat(nodeC.get("k", () -> load("em-rota"))).isEqualTo("em-rota");
+        assertThat(nodeA.get("k", () -> load("outro"))).isEqualTo("em-rota");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictOnOneInstanceInvalidatesTheSharedL1OfTheOthers() {
+        CacheRegion<String> nodeA = region(remote, true);
+        CacheRegion<String> nodeB = region(remote, true);
+        nodeA.get("k", () -> load("v1"));
+        nodeB.get("k", () -> load("v1"));
+
+        nodeA.evict("k");
+
+        assertThat(nodeB.get("k", () -> load("v2"))).isEqualTo("v2");
+    }
+
+    @Test
+    void withoutL2TheRegionIsLocalOnly() {
+        CacheRegion<String> node = region(null, false);
+        node.get("k", () -> load("v1"));
+
+        assertThat(node.get("k", () -> load("v2"))).isEqualTo("v1");
+        node.evict("k");
+        assertThat(node.get("k", () -> load("v3"))).isEqualTo("v3");
+        assertThat(loads).hasValue(2);
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private CacheRegion<String> region(RemoteCache remote, boolean shareValues) {
+        return new CacheRegion<>("test", 100, 60_000, remote, shareValues, 60_000, objectMapper,
+                                 objectMapper.constructType(String.class), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,81 @@
+package com.douradelivery.controller;
+
+import com.douradelivery.security.JwtUtil;
+import com.douradelivery.security.SecurityConfig;
+import com.douradelivery.service.DriverIdentityService;
+import com.douradelivery.service.OrderClaimService;
+import com.douradelivery.service.TelemetryIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EntregadorController.class, properties = {
+    "jwt.secret=segredoDeTesteComTamanhoSuficienteParaHmacSha256!!",
+    "jwt.expiration=60000",
+    "tracking.telemetry.max-batch-bytes=64"
+})
+@Import({SecurityConfig.class, JwtUtil.class})
+class EntregadorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private TelemetryIngestionService telemetryIngestionService;
+
+    @MockBean
+    private OrderClaimService orderClaimService;
+
+    @MockBean
+    private DriverIdentityService driverIdentityService;
+
+    @BeforeEach
+    void setUp() {
+        when(driverIdentityService.driverIdOf(any())).thenReturn(Optional.of(3L));
+        when(telemetryIngestionService.ingestBinary(anyLong(), any())).thenReturn(new int[] {1, 1});
+    }
+
+    @Test
+    void batchWithinTheLimitIsIngested() throws Exception {
+        mockMvc.perform(post("/api/entregador/telemetry/batch")
+                .header("Authorization", bearer())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[64]))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void oversizedBatchIsRejectedBeforeDecoding() throws Exception {
+        mockMvc.perform(post("/api/entregador/telemetry/batch")
+                .header("Authorization", bearer())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[65]))
+            .andExpect(status().isPayloadTooLarge())
+            .andExpect(jsonPath("$.status").value("TOO_LARGE"));
+
+        verify(telemetryIngestionService, never()).ingestBinary(anyLong(), any());
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtUtil.generateToken("entregador@x.com", 20L, "DRIVER");
+    }
+}
@@ -0,0 +1,85 @@
+package com.douradelivery.controller;
+
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.security.JwtUtil;
+import com.douradelivery.security.SecurityConfig;
+import com.douradelivery.service.DriverIdentityService;
+import com.douradelivery.service.DriverPositionCache;
+import com.douradelivery.service.TelemetryHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = TelemetryController.class, properties = {
+    "jwt.secret=segredoDeTesteComTamanhoSuficienteParaHmacSha256!!",
+    "jwt.expiration=60000"
+})
+@Import({SecurityConfig.class, JwtUtil.class})
+class TelemetryControllerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private TelemetryHistoryService telemetryHistoryService;
+
+    @MockBean
+    private DriverPositionCache driverPositionCache;
+
+    @MockBean
+    private DriverIdentityService driverIdentityService;
+
+    @BeforeEach
+    void setUp() {
+        when(driverPositionCache.snapshot()).thenReturn(new DriverPositionCache.Snapshot(0, List.of()));
+        when(driverIdentityService.driverIdOf(any())).thenAnswer(invocation -> {
+            JwtPrincipal principal = invocation.getArgument(0);
+            // usuário 20 é o entregador 3
+            return principal.userId() == 20L && "DRIVER".equals(principal.userType())
+                ? Optional.of(3L) : Optional.empty();
+        });
+    }
+
+    @Test
+    void livePositionsAreForAdminsOnly() throws Exception {
+        mockMvc.perform(get("/api/telemetry/positions").header("Authorization", bearer(1L, "ADMIN")))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/telemetry/positions").header("Authorization", bearer(7L, "CLIENT")))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/telemetry/drivers/3/position").header("Authorization", bearer(7L, "CLIENT")))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/telemetry/drivers/3/position").header("Authorization", bearer(20L, "DRIVER")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void historyIsForAdminsAndTheDriverItself() throws Exception {
+        String history = "/api/telemetry/drivers/3/history?from=2024-01-01T00:00:00&to=2024-01-01T01:00:00";
+
+        mockMvc.perform(get(history).header("Authorization", bearer(1L, "ADMIN"))).andExpect(status().isOk());
+        mockMvc.perform(get(history).header("Authorization", bearer(20L, "DRIVER"))).andExpect(status().isOk());
+        mockMvc.perform(get(history).header("Authorization", bearer(21L, "DRIVER")))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get(history).header("Authorization", bearer(7L, "CLIENT")))
+            .andExpect(status().isForbidden());
+    }
+
+    private String bearer(long userId, String userType) {
+        return "Bearer " + jwtUtil.generateToken("u" + userId + "@x.com", userId, userType);
+    }
+}
@@ -0,0 +1,133 @@
+package com.douradelivery.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DispatchBatchTest {
+
+    private static final double PENALTY_KM = 20;
+
+    @Test
+    void minimisesTotalDistanceInsteadOfGreedyNearest() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        // guloso daria o entregador 1 ao pedido 10 (1 km) e deixaria o 11 com o 2 (9 km): 10 km
+        batch.addOrder(10, 1.0, List.of(candidate(1, 1), candidate(2, 2)));
+        batch.addOrder(11, 1.0, List.of(candidate(1, 2), candidate(2, 9)));
+
+        Map<Long, Long> result = batch.solve();
+
+        // ótimo: 2 + 2 = 4 km
+        assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 2L, 11L, 1L));
+    }
+
+    @Test
+    void eachDriverGetsAtMostOneOrderPerBatch() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        for (long order = 1; order <= 5; order++) {
+            batch.addOrder(order, 1.0, List.of(candidate(7, order), candidate(8, order + 1)));
+        }
+
+        Map<Long, Long> result = batch.solve();
+
+        assertThat(result).hasSize(2);
+        assertThat(new HashSet<>(result.values())).containsExactlyInAnyOrder(7L, 8L);
+    }
+
+    @Test
+    void higherPriorityWinsWhenDriversAreScarce() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        batch.addOrder(1, 1.0, List.of(candidate(5, 1)));
+        batch.addOrder(2, 3.0, List.of(candidate(5, 4)));
+
+        assertThat(batch.solve()).containsExactlyEntriesOf(Map.of(2L, 5L));
+    }
+
+    @Test
+    void driverFartherThanThePenaltyIsNotAssigned() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        batch.addOrder(1, 1.0, List.of(candidate(5, PENALTY_KM + 1)));
+        batch.addOrder(2, 2.0, List.of(candidate(6, PENALTY_KM + 1)));
+
+        Map<Long, Long> result = batch.solve();
+
+        // prioridade 2 dobra a penalidade: 21 km ainda compensa
+        assertThat(result).containsExactlyEntriesOf(Map.of(2L, 6L));
+    }
+
+    @Test
+    void orderWithoutCandidatesStaysUnassigned() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        batch.addOrder(1, 1.0, List.of());
+        batch.addOrder(2, 1.0, List.of(candidate(3, 1)));
+
+        assertThat(batch.solve()).containsExactlyEntriesOf(Map.of(2L, 3L));
+    }
+
+    @Test
+    void duplicateCandidateKeepsTheShortestDistance() {
+        DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+        batch.addOrder(1, 1.0, List.of(candidate(3, 30), candidate(3, 2)));
+
+        assertThat(batch.solve()).containsExactlyEntriesOf(Map.of(1L, 3L));
+    }
+
+    @Test
+    void matchesBruteForceOnSmallRandomBatches() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int orders = 1 + random.nextInt(5);
+            int drivers = 1 + random.nextInt(5);
+            double[] priority = new double[orders];
+            double[][] distance = new double[orders][drivers];
+            DispatchBatch batch = new DispatchBatch(PENALTY_KM);
+            for (int i = 0; i < orders; i++) {
+                priority[i] = 1 + random.nextInt(3);
+                List<DispatchBatch.Candidate> candidates = new ArrayList<>();
+                for (int d = 0; d < drivers; d++) {
+                    distance[i][d] = random.nextInt(4) == 0 ? Double.NaN : random.nextDouble() * 40;
+                    if (!Double.isNaN(distance[i][d])) {
+                        candidates.add(candidate(d, distance[i][d]));
+                    }
+                }
+                batch.addOrder(i, priority[i], candidates);
+            }
+
+            Map<Long, Long> result = batch.solve();
+
+            double cost = 0;
+            for (int i = 0; i < orders; i++) {
+                Long driver = result.get((long) i);
+                cost += driver == null ? priority[i] * PENALTY_KM : distance[i][driver.intValue()];
+            }
+            assertThat(new HashSet<>(result.values())).hasSameSizeAs(result.values());
+            assertThat(cost).isCloseTo(bruteForce(0, new boolean[drivers], priority, distance), within(1e-6));
+        }
+    }
+
+    private static double bruteForce(int order, boolean[] used, double[] priority, double[][] distance) {
+        if (order == priority.length) {
+            return 0;
+        }
+        double best = priority[order] * PENALTY_KM + bruteForce(order + 1, used, priority, distance);
+        for (int d = 0; d < used.length; d++) {
+            if (!used[d] && !Double.isNaN(distance[order][d])) {
+                used[d] = true;
+                best = Math.min(best, distance[order][d] + bruteForce(order + 1, used, priority, distance));
+                used[d] = false;
+            }
+        }
+        return best;
+    }
+
+    private static DispatchBatch.Candidate candidate(long driverId, double distanceKm) {
+        return new DispatchBatch.Candidate(driverId, distanceKm);
+    }
+}
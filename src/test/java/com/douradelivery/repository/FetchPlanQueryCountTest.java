@@ -0,0 +1,135 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.dto.OrderSummary;
+import com.douradelivery.model.Driver;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.Route;
+import com.douradelivery.model.User;
+import com.douradelivery.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Os caminhos de listagem rodam um número fixo de comandos SQL, qualquer que seja o
+ * tamanho da lista: nada de uma consulta extra por entregador, usuário ou pedido
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FetchPlanQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int DRIVERS = 8;
+    private static final int ORDERS_PER_ROUTE = 5;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private Long clientId;
+
+    @BeforeAll
+    void seed() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tx.executeWithoutResult(status -> {
+            User client = userRepository.save(OrderClaimRepositoryTest.user("cliente-n1@example.com", User.UserType.CLIENT));
+            clientId = client.getId();
+            for (int d = 0; d < DRIVERS; d++) {
+                User user = userRepository.save(
+                    OrderClaimRepositoryTest.user("entregador-n1-" + d + "@example.com", User.UserType.DRIVER));
+                Driver driver = driverRepository.save(OrderClaimRepositoryTest.driver(user));
+                Route route = Route.builder().driver(driver).build();
+                for (int i = 0; i < ORDERS_PER_ROUTE; i++) {
+                    Order order = OrderClaimRepositoryTest.order(client);
+                    order.setStatus(Order.OrderStatus.ASSIGNED);
+                    order.setAssignedDriver(driver);
+                    route.addOrder(orderRepository.save(order));
+                }
+                routeRepository.save(route);
+            }
+        });
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void activeRoutesLoadDriversUsersAndOrdersInOneStatement() {
+        int touched = tx.execute(status -> {
+            int count = 0;
+            for (Route route : routeRepository.findByStatusIn(List.of(Route.RouteStatus.PLANNED))) {
+                // o que RoutingService.toResponse lê
+                assertThat(route.getDriver().getUser().getName()).isNotNull();
+                count += route.getOrders().stream().map(Order::getId).toList().size();
+            }
+            return count;
+        });
+
+        // o contêiner é compartilhado com as outras classes: pode haver rotas delas
+        assertThat(touched).isGreaterThanOrEqualTo(DRIVERS * ORDERS_PER_ROUTE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void availableDriversComeWithTheirUsers() {
+        int drivers = tx.execute(status -> {
+            List<Driver> available = driverRepository.findByAvailableTrue();
+            available.forEach(driver -> assertThat(driver.getUser().getName()).isNotNull());
+            return available.size();
+        });
+
+        assertThat(drivers).isGreaterThanOrEqualTo(DRIVERS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void orderPageIsASingleProjectionQuery() {
+        List<OrderSummary> page = tx.execute(status ->
+            orderRepository.findSummaryPage(null, Order.OrderStatus.ASSIGNED, clientId, null, null, null,
+                                            PageRequest.ofSize(100)));
+
+        assertThat(page).hasSize(DRIVERS * ORDERS_PER_ROUTE);
+        assertThat(page).allSatisfy(summary -> {
+            assertThat(summary.getDriverId()).isNotNull();
+            assertThat(summary.getRouteId()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,234 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAIN das consultas quentes dos repositórios sobre o esquema das migrações.
+ *
+ * As tabelas recebem volume e distribuição parecidos com produção (a maioria dos pedidos
+ * entregues, poucos documentos pendentes etc.) e estatísticas atualizadas; cada consulta
+ * precisa usar o índice esperado na tabela principal, nunca uma varredura completa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotPathIndexTest extends MySqlIntegrationTest {
+
+    private static final int CLIENTS = 250;
+    private static final int DRIVERS = 50;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstDriverId;
+    private long firstClientId;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < CLIENTS + DRIVERS; i++) {
+            jdbcTemplate.update("INSERT INTO users (name, email, password, user_type, active, verification_status, " +
+                                "created_at, updated_at) VALUES ('Teste', ?, 'x', ?, 1, 'APPROVED', ?, ?)",
+                                "user-" + i + "@example.com", i < CLIENTS ? "CLIENT" : "DRIVER", ts(NOW), ts(NOW));
+        }
+        firstClientId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        for (int i = 0; i < DRIVERS; i++) {
+            jdbcTemplate.update("INSERT INTO drivers (user_id, current_lat, current_lon, capacity_weight, " +
+                                "capacity_volume, available, vehicle_type, created_at) " +
+                                "VALUES (?, -22.22, -54.80, 100, 100, 1, 'MOTO', ?)",
+                                firstClientId + CLIENTS + i, ts(NOW));
+        }
+        firstDriverId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM drivers", Long.class);
+
+        seedRoutes();
+        seedOrders();
+        seedTelemetry();
+        seedDocuments();
+        seedOutboxAndBlobs();
+
+        for (String table : List.of("users", "drivers", "routes", "orders", "telemetry", "telemetry_rollups",
+                                    "documents", "order_outbox", "blobs")) {
+            jdbcTemplate.execute("ANALYZE TABLE " + table);
+        }
+    }
+
+    Stream<Arguments> hotQueries() {
+        Timestamp hourAgo = ts(NOW.minusHours(1));
+        Timestamp dayAgo = ts(NOW.minusDays(1));
+        return Stream.of(
+            Arguments.of("OrderRepository.findByStatus", "orders", "idx_orders_status_driver",
+                "SELECT * FROM orders WHERE status = 'NEW'", new Object[0]),
+            Arguments.of("OrderRepository.findUnassignedIds", "orders", "idx_orders_status_driver",
+                "SELECT id FROM orders WHERE status = 'NEW' AND driver_id IS NULL AND created_at < ? " +
+                "ORDER BY id LIMIT 50", new Object[] {ts(NOW)}),
+            Arguments.of("OrderRepository.findByAssignedDriverId", "orders", "idx_orders_driver_status",
+                "SELECT * FROM orders WHERE driver_id = ?", new Object[] {firstDriverId}),
+            Arguments.of("OrderRepository.findAssignedOutsideRoute", "o", "idx_orders_driver_status",
+                "SELECT o.* FROM orders o LEFT JOIN routes r ON r.id = o.route_id WHERE o.driver_id = ? " +
+                "AND o.status = 'ASSIGNED' AND (r.id IS NULL OR r.driver_id <> ?) ORDER BY o.id",
+                new Object[] {firstDriverId, firstDriverId}),
+            Arguments.of("OrderRepository.streamSummaries (período)", "o", "idx_orders_created_at",
+                "SELECT o.id FROM orders o WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.id DESC",
+                new Object[] {dayAgo, ts(NOW)}),
+            Arguments.of("RouteRepository.findFirstByDriverIdAndStatusIn", "routes", "idx_routes_driver_status",
+                "SELECT * FROM routes WHERE driver_id = ? AND status IN ('PLANNED', 'IN_PROGRESS') " +
+                "ORDER BY id DESC LIMIT 1", new Object[] {firstDriverId}),
+            Arguments.of("RouteRepository.findByStatusIn", "routes", "idx_routes_status",
+                "SELECT * FROM routes WHERE status IN ('PLANNED', 'IN_PROGRESS')", new Object[0]),
+            Arguments.of("TelemetryRepository.findByDriverIdOrderByTimestampDesc", "telemetry",
+                "idx_telemetry_driver_timestamp",
+                "SELECT * FROM telemetry WHERE driver_id = ? ORDER BY timestamp DESC LIMIT 100",
+                new Object[] {firstDriverId}),
+            Arguments.of("TelemetryRepository.findByDriverIdAndTimestampBetween", "telemetry",
+                "idx_telemetry_driver_timestamp",
+                "SELECT * FROM telemetry WHERE driver_id = ? AND timestamp BETWEEN ? AND ? " +
+                "ORDER BY timestamp ASC LIMIT 1000", new Object[] {firstDriverId, dayAgo, ts(NOW)}),
+            Arguments.of("TelemetryRepository.deleteOlderThan", "telemetry", "idx_telemetry_timestamp",
+                "DELETE FROM telemetry WHERE timestamp < ?", new Object[] {ts(NOW.minusDays(29))}),
+            Arguments.of("TelemetryRollupRepository.findByDriverIdAndResolutionSeconds...", "telemetry_rollups",
+                "uk_telemetry_rollup_bucket",
+                "SELECT * FROM telemetry_rollups WHERE driver_id = ? AND resolution_seconds = 60 " +
+                "AND bucket_start BETWEEN ? AND ? ORDER BY bucket_start", new Object[] {firstDriverId, dayAgo, ts(NOW)}),
+            Arguments.of("TelemetryRollupRepository.deleteOlderThan", "telemetry_rollups",
+                "idx_telemetry_rollups_resolution_bucket",
+                "DELETE FROM telemetry_rollups WHERE resolution_seconds = 60 AND bucket_start < ?",
+                new Object[] {hourAgo}),
+            Arguments.of("DocumentRepository.findByUserIdOrderBySubmittedAtDesc", "documents",
+                "idx_documents_user_submitted",
+                "SELECT * FROM documents WHERE user_id = ? ORDER BY submitted_at DESC", new Object[] {firstClientId}),
+            Arguments.of("DocumentRepository.findPendingDocumentsWithUser", "d", "idx_documents_status_submitted",
+                "SELECT d.*, u.* FROM documents d JOIN users u ON u.id = d.user_id WHERE d.status = 'PENDING' " +
+                "ORDER BY d.submitted_at", new Object[0]),
+            Arguments.of("DocumentRepository.findPendingProcessingIds", "documents",
+                "idx_documents_processing_submitted",
+                "SELECT id FROM documents WHERE processing_status = 'PENDING' AND submitted_at < ?",
+                new Object[] {ts(NOW)}),
+            Arguments.of("OrderOutboxRepository.lockClaimable", "o", "idx_order_outbox_pending",
+                "SELECT * FROM order_outbox o WHERE o.published_at IS NULL " +
+                "AND (o.claimed_until IS NULL OR o.claimed_until < ?) AND o.order_id NOT IN " +
+                "(SELECT c.order_id FROM order_outbox c WHERE c.published_at IS NULL AND c.claimed_until >= ?) " +
+                "ORDER BY o.id LIMIT 100", new Object[] {ts(NOW), ts(NOW)}),
+            Arguments.of("BlobRepository.findUnreferencedBefore", "blobs", "idx_blobs_unreferenced",
+                "SELECT hash FROM blobs WHERE ref_count = 0 AND updated_at < ? ORDER BY updated_at LIMIT 100",
+                new Object[] {ts(NOW)}),
+            Arguments.of("UserRepository.findByEmail", "users", "uk_users_email",
+                "SELECT * FROM users WHERE email = ?", new Object[] {"user-3@example.com"})
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesItsIndex(String query, String table, String expectedIndex, String sql, Object[] args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+
+        Map<String, Object> row = plan.stream()
+            .filter(r -> table.equals(r.get("table")))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("Tabela " + table + " fora do plano: " + plan));
+        assertThat(row.get("type")).as("%s: tipo de acesso em %s (%s)", query, table, plan).isNotEqualTo("ALL");
+        assertThat(row.get("key")).as("%s: índice usado em %s (%s)", query, table, plan).isEqualTo(expectedIndex);
+    }
+
+    private void seedRoutes() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            // quase todas concluídas: as ativas são poucas, como em produção
+            String status = i % 30 == 0 ? "PLANNED" : "COMPLETED";
+            rows.add(new Object[] {firstDriverId + i % DRIVERS, status, ts(NOW.minusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO routes (driver_id, estimated_distance, estimated_duration, status, " +
+                                 "created_at) VALUES (?, 10, 600, ?, ?)", rows);
+    }
+
+    private void seedOrders() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            String status;
+            Long driverId = firstDriverId + i % DRIVERS;
+            if (i % 60 == 0) {
+                status = "NEW";
+                driverId = null;
+            } else if (i % 60 == 1) {
+                status = "ASSIGNED";
+            } else if (i % 60 == 2) {
+                status = "IN_TRANSIT";
+            } else {
+                status = "DELIVERED";
+            }
+            rows.add(new Object[] {firstClientId + i % CLIENTS, status, driverId, ts(NOW.minusMinutes(i * 48L))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (client_id, origin_lat, origin_lon, destination_lat, " +
+                                 "destination_lon, weight, volume, priority, status, driver_id, version, created_at) " +
+                                 "VALUES (?, -22.22, -54.80, -22.23, -54.81, 1, 1, 'NORMAL', ?, ?, 0, ?)", rows);
+    }
+
+    private void seedTelemetry() {
+        List<Object[]> points = new ArrayList<>();
+        List<Object[]> rollups = new ArrayList<>();
+        for (int d = 0; d < DRIVERS; d++) {
+            long driverId = firstDriverId + d;
+            for (int i = 0; i < 300; i++) {
+                points.add(new Object[] {driverId, ts(NOW.minusMinutes(i * 144L))});
+            }
+            for (int i = 0; i < 100; i++) {
+                rollups.add(new Object[] {driverId, 60, ts(NOW.minusMinutes(i * 60L))});
+                rollups.add(new Object[] {driverId, 900, ts(NOW.minusMinutes(i * 900L))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO telemetry (driver_id, lat, lon, timestamp) VALUES (?, -22.22, -54.80, ?)",
+                                 points);
+        jdbcTemplate.batchUpdate("INSERT INTO telemetry_rollups (driver_id, resolution_seconds, bucket_start, " +
+                                 "point_count, speed_sum, speed_count, last_lat, last_lon, last_timestamp) " +
+                                 "VALUES (?, ?, ?, 1, 0, 0, -22.22, -54.80, NOW())", rollups);
+    }
+
+    private void seedDocuments() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            boolean pending = i % 40 == 0;
+            rows.add(new Object[] {firstClientId + i % (CLIENTS + DRIVERS), pending ? "PENDING" : "APPROVED",
+                                   pending ? "PENDING" : "DONE", ts(NOW.minusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO documents (user_id, document_type, file_name, file_path, status, " +
+                                 "processing_status, submitted_at) VALUES (?, 'CPF', 'a.jpg', 'a.jpg', ?, ?, ?)", rows);
+    }
+
+    private void seedOutboxAndBlobs() {
+        List<Object[]> events = new ArrayList<>();
+        List<Object[]> blobs = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            boolean pending = i % 150 == 0;
+            events.add(new Object[] {i, ts(NOW.minusMinutes(i)), pending ? null : ts(NOW.minusMinutes(i))});
+            blobs.add(new Object[] {String.format("%064x", i), pending ? 0 : 1, ts(NOW.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO order_outbox (order_id, event_type, payload, created_at, published_at) " +
+                                 "VALUES (?, 'UPDATED', '{}', ?, ?)", events);
+        jdbcTemplate.batchUpdate("INSERT INTO blobs (hash, size, ref_count, created_at, updated_at) " +
+                                 "VALUES (?, 10, ?, NOW(), ?)", blobs);
+    }
+
+    private static Timestamp ts(LocalDateTime time) {
+        return Timestamp.valueOf(time);
+    }
+}
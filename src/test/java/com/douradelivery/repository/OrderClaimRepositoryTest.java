@@ -0,0 +1,116 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.model.Driver;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.User;
+import com.douradelivery.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O UPDATE condicional do aceite contra o MySQL: mil transações concorrentes, um vencedor
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderClaimRepositoryTest extends MySqlIntegrationTest {
+
+    private static final int CLAIMERS = 1000;
+    private static final int DRIVERS = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void exactlyOneConcurrentClaimUpdatesTheOrder() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User client = userRepository.save(user("cliente-claim@example.com", User.UserType.CLIENT));
+        List<Long> driverIds = new ArrayList<>();
+        for (int i = 0; i < DRIVERS; i++) {
+            User user = userRepository.save(user("entregador-claim-" + i + "@example.com", User.UserType.DRIVER));
+            driverIds.add(driverRepository.save(driver(user)).getId());
+        }
+        Long orderId = orderRepository.save(order(client)).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS; i++) {
+            Long driverId = driverIds.get(i % DRIVERS);
+            results.add(pool.submit(() -> {
+                start.await();
+                return tx.execute(status -> orderRepository.claimIfNew(orderId, driverId, LocalDateTime.now()));
+            }));
+        }
+        start.countDown();
+
+        int updated = 0;
+        for (Future<Integer> result : results) {
+            updated += result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(updated).isEqualTo(1);
+        Order order = tx.execute(status -> orderRepository.findById(orderId).orElseThrow());
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.ASSIGNED);
+        assertThat(order.getVersion()).isEqualTo(1L);
+    }
+
+    static User user(String email, User.UserType type) {
+        return User.builder()
+            .name("Teste")
+            .email(email)
+            .password("x")
+            .userType(type)
+            .build();
+    }
+
+    static Driver driver(User user) {
+        return Driver.builder()
+            .user(user)
+            .capacityWeight(100)
+            .capacityVolume(100)
+            .available(true)
+            .vehicleType(Driver.VehicleType.MOTO)
+            .build();
+    }
+
+    static Order order(User client) {
+        return Order.builder()
+            .client(client)
+            .originLat(-22.22)
+            .originLon(-54.80)
+            .destinationLat(-22.23)
+            .destinationLon(-54.81)
+            .weight(1)
+            .priority(Order.Priority.NORMAL)
+            .status(Order.OrderStatus.NEW)
+            .build();
+    }
+}
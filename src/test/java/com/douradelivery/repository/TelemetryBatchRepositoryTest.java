@@ -0,0 +1,74 @@
+package com.douradelivery.repository;
+
+import com.douradelivery.tracking.TelemetryPoint;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TelemetryBatchRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TelemetryBatchRepository repository = new TelemetryBatchRepository(jdbcTemplate);
+
+    @Test
+    void pointsOfUnknownDriversAreDroppedBeforeTheInsert() throws Exception {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L));
+
+        repository.insertAll(List.of(point(1L), point(2L), point(1L)));
+
+        // um único INSERT, com as duas linhas do entregador existente
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(eq(insertFor(2)), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        verify(ps, times(2)).setLong(anyInt(), eq(1L));
+        verify(ps, never()).setLong(anyInt(), eq(2L));
+    }
+
+    @Test
+    void knownDriversAreNotQueriedAgain() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L));
+
+        repository.insertAll(List.of(point(1L)));
+        repository.insertAll(List.of(point(1L)));
+
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), any(Object[].class));
+        verify(jdbcTemplate, times(2)).update(eq(insertFor(1)), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void batchWithOnlyUnknownDriversWritesNothing() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+
+        repository.insertAll(List.of(point(5L)));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    private static String insertFor(int rows) {
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO telemetry (driver_id, lat, lon, speed, heading, accuracy, timestamp) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i > 0 ? ", " : "").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static TelemetryPoint point(long driverId) {
+        return new TelemetryPoint(driverId, -22.22, -54.80, Double.NaN, Double.NaN, Double.NaN, 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.douradelivery.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class IncrementalRouteTest {
+
+    @Test
+    void insertionsAndImprovementKeepEveryOrderExactlyOnce() {
+        VrpProblem problem = VrpSolverTest.randomProblem(12, 1, 19L);
+        IncrementalRoute route = new IncrementalRoute(problem, new int[] {0, 1, 2, 3, 4, 5});
+
+        for (int order = 6; order < 12; order++) {
+            route.insertCheapest(order);
+        }
+        route.improve(50, Long.MAX_VALUE);
+
+        int[] sorted = route.getSequence();
+        Arrays.sort(sorted);
+        assertThat(sorted).containsExactly(IntStream.range(0, 12).toArray());
+    }
+
+    @Test
+    void improveNeverIncreasesTheCostAndReportsTheFinalSequence() {
+        VrpProblem problem = VrpSolverTest.randomProblem(10, 1, 29L);
+        // ordem inversa: quase sempre pior que a reordenada
+        IncrementalRoute route = new IncrementalRoute(problem, new int[] {9, 8, 7, 6, 5, 4, 3, 2, 1, 0});
+        double before = route.getCost();
+
+        route.improve(200, Long.MAX_VALUE);
+
+        assertThat(route.getCost()).isLessThanOrEqualTo(before);
+        assertThat(route.getDistance()).isCloseTo(distanceOf(problem, route.getSequence()), within(1e-6));
+    }
+
+    @Test
+    void lateRouteCanStillBeReordered() {
+        VrpProblem problem = VrpSolverTest.randomProblem(6, 1, 31L);
+        for (int i = 0; i < 6; i++) {
+            // todas as janelas já estouradas: viram penalidade, não inviabilidade
+            problem.setOrder(i, 1, 0.01, 0, 1, 1.0);
+        }
+        IncrementalRoute route = new IncrementalRoute(problem, new int[] {4, 3, 2, 1, 0});
+
+        route.insertCheapest(5);
+        double afterInsert = route.getCost();
+        route.improve(50, Long.MAX_VALUE);
+
+        assertThat(route.getSequence()).hasSize(6).contains(5);
+        assertThat(route.getCost()).isLessThanOrEqualTo(afterInsert);
+        assertThat(route.getCost()).isGreaterThan(route.getDistance());
+    }
+
+    @Test
+    void rejectsProblemsWithMoreThanOneVehicle() {
+        VrpProblem problem = VrpSolverTest.randomProblem(3, 2, 1L);
+
+        assertThatThrownBy(() -> new IncrementalRoute(problem, new int[] {0}))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double distanceOf(VrpProblem problem, int[] sequence) {
+        double distance = 0;
+        for (int k = 0; k < sequence.length; k++) {
+            int o = sequence[k];
+            distance += k == 0 ? problem.startDistance(0, o) : problem.transitionDistance(sequence[k - 1], o);
+            distance += problem.legDistance(o);
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,185 @@
+package com.douradelivery.routing;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OsrmDistanceProviderTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final HaversineDistanceProvider fallback = new HaversineDistanceProvider(30);
+
+    private HttpServer server;
+    private volatile int failStatus;
+    private volatile double unroutableSourceLon = Double.NaN;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/table/v1/driving/", this::table);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void largeMatrixIsSplitIntoBlocksAndReassembled() {
+        double[][] from = points(5, 0);
+        double[][] to = points(7, 100);
+
+        DistanceMatrix matrix = provider(3).matrix(from[0], from[1], to[0], to[1]);
+
+        // 5 x 7 com blocos de 3: 2 x 3 consultas
+        assertThat(requests).hasValue(6);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 7; j++) {
+                assertThat(matrix.distance(i, j)).isCloseTo(expectedKm(i, 100 + j), within(1e-9));
+                assertThat(matrix.duration(i, j)).isCloseTo(expectedKm(i, 100 + j) * 10, within(1e-3));
+            }
+        }
+    }
+
+    @Test
+    void pairWithoutRouteFallsBackToStraightLineOnly() {
+        unroutableSourceLon = 2;
+        double[][] from = points(4, 0);
+        double[][] to = points(3, 100);
+
+        DistanceMatrix matrix = provider(10).matrix(from[0], from[1], to[0], to[1]);
+
+        DistanceMatrix straight = fallback.matrix(from[0], from[1], to[0], to[1]);
+        for (int j = 0; j < 3; j++) {
+            assertThat(matrix.distance(2, j)).isEqualTo(straight.distance(2, j));
+            assertThat(matrix.distance(1, j)).isCloseTo(expectedKm(1, 100 + j), within(1e-9));
+        }
+    }
+
+    @Test
+    void serverErrorFallsBackForTheWholeMatrix() {
+        failStatus = 500;
+        double[][] from = points(3, 0);
+        double[][] to = points(3, 100);
+
+        DistanceMatrix matrix = provider(10).matrix(from[0], from[1], to[0], to[1]);
+
+        DistanceMatrix straight = fallback.matrix(from[0], from[1], to[0], to[1]);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertThat(matrix.distance(i, j)).isEqualTo(straight.distance(i, j));
+            }
+        }
+    }
+
+    @Test
+    void pairwiseKeepsOnlyTheDiagonalOfEachBlock() {
+        double[][] from = points(5, 0);
+        double[][] to = points(5, 100);
+
+        DistanceMatrix pairs = provider(2).pairwise(from[0], from[1], to[0], to[1]);
+
+        assertThat(pairs.getRows()).isEqualTo(5);
+        assertThat(pairs.getCols()).isEqualTo(1);
+        // blocos 2 + 2 + 1
+        assertThat(requests).hasValue(3);
+        for (int i = 0; i < 5; i++) {
+            assertThat(pairs.distance(i, 0)).isCloseTo(expectedKm(i, 100 + i), within(1e-9));
+        }
+    }
+
+    private OsrmDistanceProvider provider(int maxTableSize) {
+        WebClient webClient = WebClient.builder().baseUrl("http://127.0.0.1:" + server.getAddress().getPort()).build();
+        return new OsrmDistanceProvider(webClient, maxTableSize, 2, Duration.ofSeconds(5), fallback);
+    }
+
+    /**
+     * Pontos cuja longitude identifica o índice: o servidor calcula a resposta a partir dela
+     */
+    private static double[][] points(int count, int firstLon) {
+        double[] lat = new double[count];
+        double[] lon = new double[count];
+        for (int i = 0; i < count; i++) {
+            lat[i] = -22.2;
+            lon[i] = firstLon + i;
+        }
+        return new double[][] {lat, lon};
+    }
+
+    private static double expectedKm(double sourceLon, double destinationLon) {
+        return sourceLon + destinationLon / 1000.0;
+    }
+
+    // ------------------------------------------------------------------ servidor /table
+
+    private void table(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            if (failStatus != 0) {
+                exchange.sendResponseHeaders(failStatus, -1);
+                return;
+            }
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            String[] coordinates = path.substring("/table/v1/driving/".length()).split(";");
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String[] sources = query.get("sources").split(";");
+            String[] destinations = query.get("destinations").split(";");
+
+            StringJoiner distances = new StringJoiner(",", "[", "]");
+            StringJoiner durations = new StringJoiner(",", "[", "]");
+            for (String source : sources) {
+                double sourceLon = Double.parseDouble(coordinates[Integer.parseInt(source)].split(",")[0]);
+                StringJoiner distanceRow = new StringJoiner(",", "[", "]");
+                StringJoiner durationRow = new StringJoiner(",", "[", "]");
+                for (String destination : destinations) {
+                    double destinationLon = Double.parseDouble(coordinates[Integer.parseInt(destination)].split(",")[0]);
+                    if (sourceLon == unroutableSourceLon) {
+                        distanceRow.add("null");
+                        durationRow.add("null");
+                    } else {
+                        double km = expectedKm(sourceLon, destinationLon);
+                        distanceRow.add(Double.toString(km * 1000));
+                        durationRow.add(Double.toString(km * 10));
+                    }
+                }
+                distances.add(distanceRow.toString());
+                durations.add(durationRow.toString());
+            }
+
+            byte[] body = ("{\"code\":\"Ok\",\"distances\":" + distances + ",\"durations\":" + durations + "}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
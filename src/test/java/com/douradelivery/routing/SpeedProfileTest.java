@@ -0,0 +1,126 @@
+package com.douradelivery.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpeedProfileTest {
+
+    private static final double CELL_SIZE = 0.01;
+    private static final double MIN_SAMPLES = 3;
+    // segunda-feira, 2024-01-01T00:00Z: hora da semana 0
+    private static final long MONDAY_MILLIS = 1_704_067_200_000L;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    // célula com dados próprios
+    private static final double LAT = -22.215;
+    private static final double LON = -54.805;
+    // célula com dados só na hora 11
+    private static final double OTHER_LAT = -22.245;
+    private static final double OTHER_LON = -54.835;
+    // célula sem dado nenhum
+    private static final double UNKNOWN_LAT = -22.275;
+    private static final double UNKNOWN_LON = -54.865;
+
+    @Test
+    void hourOfTheCellWinsWhenItHasEnoughSamples() {
+        SpeedProfile profile = profile();
+
+        assertThat(profile.speedKmh(LAT, LON, at(11))).isCloseTo(60, within(1e-3));
+        assertThat(profile.size()).isEqualTo(2);
+    }
+
+    @Test
+    void hourWithTooFewSamplesFallsBackToTheCellAverage() {
+        SpeedProfile profile = profile();
+
+        // hora 10 tem só 2 amostras; a célula soma 40 km em 3600 s nas duas horas
+        assertThat(profile.speedKmh(LAT, LON, at(10))).isCloseTo(40, within(1e-3));
+    }
+
+    @Test
+    void unknownCellFallsBackToTheCityAverageForTheHour() {
+        SpeedProfile profile = profile();
+
+        // hora 11 na cidade: 30 km + 10 km em 1800 s + 3600 s
+        assertThat(profile.speedKmh(UNKNOWN_LAT, UNKNOWN_LON, at(11))).isCloseTo(40.0 / 5400 * 3600, within(1e-3));
+    }
+
+    @Test
+    void noDataAtAnyLevelIsNaNAndTheEstimateUsesTheCallersSpeed() {
+        SpeedProfile profile = profile();
+
+        // hora 10 na cidade também tem só 2 amostras
+        assertThat(profile.speedKmh(UNKNOWN_LAT, UNKNOWN_LON, at(10))).isNaN();
+        assertThat(profile.estimateSeconds(UNKNOWN_LAT, UNKNOWN_LON, UNKNOWN_LAT + 0.001, UNKNOWN_LON,
+                                           3, at(10), 30)).isCloseTo(360, within(1e-6));
+    }
+
+    @Test
+    void emptyProfileEstimatesWithTheFallbackSpeed() {
+        assertThat(SpeedProfile.EMPTY.isEmpty()).isTrue();
+        assertThat(SpeedProfile.EMPTY.speedKmh(LAT, LON, at(11))).isNaN();
+        assertThat(SpeedProfile.EMPTY.estimateSeconds(LAT, LON, OTHER_LAT, OTHER_LON, 15, at(11), 30))
+            .isCloseTo(1800, within(1e-6));
+    }
+
+    @Test
+    void longLegPicksUpTheSpeedOfTheHourItReaches() {
+        // células de 1 grau: os dois pontos ficam na mesma célula, a ~89 km, em dois passos
+        long cell = SpeedProfile.cell(-22.5, -54.5, 1.0);
+        SpeedProfile profile = SpeedProfile.build(List.of(
+            new SpeedProfile.Sample(cell, 10, 60, 3600, 5),
+            new SpeedProfile.Sample(cell, 11, 20, 3600, 5)), 1.0, ZoneOffset.UTC, MIN_SAMPLES);
+
+        // sai às 10:50: 30 km a 60 km/h até 11:20, mais 30 km a 20 km/h
+        double seconds = profile.estimateSeconds(-22.1, -54.5, -22.9, -54.5, 60, at(10) + 50 * 60_000L, 30);
+
+        assertThat(seconds).isCloseTo(1800 + 5400, within(1e-3));
+    }
+
+    @Test
+    void everyCellStaysReachableInALargeTable() {
+        List<SpeedProfile.Sample> samples = new ArrayList<>();
+        for (int row = 0; row < 40; row++) {
+            for (int col = 0; col < 40; col++) {
+                long cell = SpeedProfile.cell(centerLat(row), centerLon(col), CELL_SIZE);
+                samples.add(new SpeedProfile.Sample(cell, 11, 1 + row * 40 + col, 3600, 5));
+            }
+        }
+        SpeedProfile profile = SpeedProfile.build(samples, CELL_SIZE, ZoneOffset.UTC, MIN_SAMPLES);
+
+        assertThat(profile.size()).isEqualTo(1600);
+        for (int row = 0; row < 40; row++) {
+            for (int col = 0; col < 40; col++) {
+                assertThat(profile.speedKmh(centerLat(row), centerLon(col), at(11)))
+                    .isCloseTo(1 + row * 40 + col, within(1e-3));
+            }
+        }
+    }
+
+    private static SpeedProfile profile() {
+        long cell = SpeedProfile.cell(LAT, LON, CELL_SIZE);
+        long other = SpeedProfile.cell(OTHER_LAT, OTHER_LON, CELL_SIZE);
+        return SpeedProfile.build(List.of(
+            new SpeedProfile.Sample(cell, 10, 10, 1800, 2),
+            new SpeedProfile.Sample(cell, 11, 30, 1800, 5),
+            new SpeedProfile.Sample(other, 11, 10, 3600, 5)), CELL_SIZE, ZoneOffset.UTC, MIN_SAMPLES);
+    }
+
+    private static double centerLat(int row) {
+        return -22 - (row + 0.5) * CELL_SIZE;
+    }
+
+    private static double centerLon(int col) {
+        return -54 - (col + 0.5) * CELL_SIZE;
+    }
+
+    private static long at(int hourOfWeek) {
+        return MONDAY_MILLIS + hourOfWeek * HOUR_MILLIS;
+    }
+}
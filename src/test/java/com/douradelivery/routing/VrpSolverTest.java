@@ -0,0 +1,177 @@
+package com.douradelivery.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VrpSolverTest {
+
+    private static final double SPEED_KMH = 30;
+    private static final double SERVICE_SECONDS = 120;
+
+    private final VrpSolver solver = new VrpSolver();
+
+    @Test
+    void everyOrderEndsUpInExactlyOnePlace() {
+        VrpProblem problem = randomProblem(80, 6, 11L);
+
+        VrpSolution solution = solver.solve(problem, 300, 2);
+
+        Set<Integer> seen = new HashSet<>();
+        int total = 0;
+        for (int v = 0; v < problem.getVehicleCount(); v++) {
+            for (int order : solution.getRoute(v)) {
+                seen.add(order);
+                total++;
+            }
+        }
+        for (int order : solution.getUnassigned()) {
+            seen.add(order);
+            total++;
+        }
+        for (int order : solution.getExpired()) {
+            seen.add(order);
+            total++;
+        }
+        assertThat(total).isEqualTo(problem.getOrderCount());
+        assertThat(seen).hasSize(problem.getOrderCount());
+    }
+
+    @Test
+    void routesRespectCapacityTimeWindowsAndReportTheirDistance() {
+        VrpProblem problem = randomProblem(80, 6, 23L);
+
+        VrpSolution solution = solver.solve(problem, 300, 2);
+
+        for (int v = 0; v < problem.getVehicleCount(); v++) {
+            int[] route = solution.getRoute(v);
+            double weight = 0;
+            double volume = 0;
+            double time = 0;
+            double distance = 0;
+            for (int k = 0; k < route.length; k++) {
+                int o = route[k];
+                weight += problem.weight(o);
+                volume += problem.volume(o);
+                distance += k == 0 ? problem.startDistance(v, o) : problem.transitionDistance(route[k - 1], o);
+                time += k == 0 ? problem.startDuration(v, o) : problem.transitionDuration(route[k - 1], o);
+                time += SERVICE_SECONDS + problem.legDuration(o);
+                distance += problem.legDistance(o);
+                time = Math.max(time, problem.timeWindowStart(o));
+                assertThat(time).isLessThanOrEqualTo(problem.timeWindowEnd(o));
+                time += SERVICE_SECONDS;
+            }
+            assertThat(weight).isLessThanOrEqualTo(problem.capacityWeight(v) + 1e-6);
+            assertThat(volume).isLessThanOrEqualTo(problem.capacityVolume(v) + 1e-6);
+            assertThat(solution.getRouteDistance(v)).isCloseTo(distance, within(1e-6));
+        }
+    }
+
+    @Test
+    void ordersWhoseWindowAlreadyClosedAreReportedAsExpired() {
+        VrpProblem problem = randomProblem(10, 2, 5L);
+        // janela fechou há dez minutos
+        problem.setOrder(3, 1, 0.01, 0, -600, 1.0);
+        // fecha antes mesmo de sair da origem e entregar
+        problem.setOrder(7, 1, 0.01, 0, SERVICE_SECONDS / 2, 1.0);
+
+        VrpSolution solution = solver.solve(problem, 100, 1);
+
+        assertThat(solution.getExpired()).containsExactly(3, 7);
+        assertThat(solution.getUnassigned()).doesNotContain(3, 7);
+        for (int v = 0; v < problem.getVehicleCount(); v++) {
+            assertThat(solution.getRoute(v)).doesNotContain(3, 7);
+        }
+    }
+
+    @Test
+    void tightButReachableWindowIsNotExpired() {
+        VrpProblem problem = randomProblem(4, 1, 7L);
+        double earliest = SERVICE_SECONDS + problem.legDuration(0);
+        problem.setOrder(0, 1, 0.01, 0, earliest + 1, 1.0);
+
+        assertThat(problem.isExpired(0)).isFalse();
+        assertThat(VrpSolution.empty(problem).getUnassigned()).contains(0);
+        assertThat(VrpSolution.empty(problem).getExpired()).isEmpty();
+    }
+
+    @Test
+    void withoutVehiclesExpiredOrdersAreStillSeparated() {
+        VrpProblem problem = randomProblem(5, 0, 3L);
+        problem.setOrder(1, 1, 0.01, 0, -1, 1.0);
+
+        VrpSolution solution = solver.solve(problem, 50, 1);
+
+        assertThat(solution.getExpired()).containsExactly(1);
+        assertThat(solution.getUnassigned()).containsExactly(0, 2, 3, 4);
+    }
+
+    @Test
+    void constructionStopsAtTheDeadlineAndLeavesTheRestUnassigned() {
+        VrpProblem problem = randomProblem(40, 4, 17L);
+        Neighbourhood neighbourhood = Neighbourhood.build(problem, 20, 5);
+
+        RouteSearch late = new RouteSearch(problem, neighbourhood, 1L);
+        late.construct(0, System.nanoTime() - 1);
+        RouteSearch onTime = new RouteSearch(problem, neighbourhood, 1L);
+        onTime.construct(0, Long.MAX_VALUE);
+
+        assertThat(late.toSolution().getUnassigned()).hasSize(problem.getOrderCount());
+        assertThat(onTime.toSolution().getUnassigned()).hasSizeLessThan(problem.getOrderCount());
+    }
+
+    @Test
+    void exhaustedBudgetStillAccountsForEveryOrder() {
+        VrpProblem problem = randomProblem(40, 4, 19L);
+
+        VrpSolution solution = solver.solve(problem, 0, 2);
+
+        assertThat(solution.getUnassigned()).hasSize(problem.getOrderCount());
+        for (int v = 0; v < problem.getVehicleCount(); v++) {
+            assertThat(solution.getRoute(v)).isEmpty();
+        }
+    }
+
+    /**
+     * Pedidos e veículos espalhados num raio de ~10 km, com janelas de uma a três horas
+     */
+    static VrpProblem randomProblem(int n, int m, long seed) {
+        Random random = new Random(seed);
+        double[] originLat = new double[n];
+        double[] originLon = new double[n];
+        double[] destinationLat = new double[n];
+        double[] destinationLon = new double[n];
+        for (int i = 0; i < n; i++) {
+            originLat[i] = -22.22 + random.nextDouble() * 0.1;
+            originLon[i] = -54.80 + random.nextDouble() * 0.1;
+            destinationLat[i] = -22.22 + random.nextDouble() * 0.1;
+            destinationLon[i] = -54.80 + random.nextDouble() * 0.1;
+        }
+        double[] vehicleLat = new double[m];
+        double[] vehicleLon = new double[m];
+        for (int v = 0; v < m; v++) {
+            vehicleLat[v] = -22.22 + random.nextDouble() * 0.1;
+            vehicleLon[v] = -54.80 + random.nextDouble() * 0.1;
+        }
+
+        HaversineDistanceProvider provider = new HaversineDistanceProvider(SPEED_KMH);
+        DistanceMatrix legs = provider.pairwise(originLat, originLon, destinationLat, destinationLon);
+        VrpProblem problem = new VrpProblem(n, m, SERVICE_SECONDS,
+            provider.matrix(destinationLat, destinationLon, originLat, originLon),
+            provider.matrix(vehicleLat, vehicleLon, originLat, originLon));
+        for (int i = 0; i < n; i++) {
+            problem.setOrder(i, 1 + random.nextInt(10), 0.01, 0, 3600 * (1 + random.nextInt(3)),
+                             random.nextInt(4) == 0 ? 2.0 : 1.0);
+            problem.setLeg(i, legs.distance(i, 0), legs.duration(i, 0));
+        }
+        for (int v = 0; v < m; v++) {
+            problem.setVehicle(v, 60, 1);
+        }
+        return problem;
+    }
+}
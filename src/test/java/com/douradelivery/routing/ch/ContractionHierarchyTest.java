@@ -0,0 +1,243 @@
+package com.douradelivery.routing.ch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Hierarquia contra Dijkstra simples no grafo original, e leitura do arquivo DDRG
+ */
+class ContractionHierarchyTest {
+
+    private static final float INF = Float.POSITIVE_INFINITY;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void oneWayEdgesAreFollowedOnlyInTheirDirection() {
+        // 0 -> 1 mão única, 1 <-> 2 mão dupla, 2 -> 0 mão única e lenta
+        RoadGraph graph = graph(3,
+            new int[] {0, 1, 2}, new int[] {1, 2, 0},
+            new float[] {10, 10, 100}, new boolean[] {true, false, true});
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+
+        assertThat(hierarchy.route(0, 1)[0]).isEqualTo(10f);
+        assertThat(hierarchy.route(1, 0)[0]).isEqualTo(110f);
+        assertThat(hierarchy.route(2, 1)[0]).isEqualTo(10f);
+        assertThat(hierarchy.route(0, 2)[0]).isEqualTo(20f);
+    }
+
+    @Test
+    void manyToManyAndRouteMatchDijkstraIncludingUnreachablePairs() {
+        RoadGraph graph = randomGraph(60, 11L);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        int n = graph.getNodeCount();
+
+        int[] nodes = new int[n];
+        Arrays.setAll(nodes, i -> i);
+        float[] seconds = new float[n * n];
+        float[] meters = new float[n * n];
+        hierarchy.manyToMany(nodes, nodes, seconds, meters);
+
+        int unreachable = 0;
+        for (int s = 0; s < n; s++) {
+            double[][] expected = dijkstra(graph, s);
+            for (int t = 0; t < n; t++) {
+                float[] single = hierarchy.route(s, t);
+                if (Double.isInfinite(expected[0][t])) {
+                    unreachable++;
+                    assertThat(seconds[s * n + t]).isEqualTo(INF);
+                    assertThat(single[0]).isEqualTo(INF);
+                    continue;
+                }
+                assertThat((double) seconds[s * n + t]).isCloseTo(expected[0][t], within(1e-2));
+                assertThat((double) meters[s * n + t]).isCloseTo(expected[1][t], within(1e-1));
+                assertThat((double) single[0]).isCloseTo(expected[0][t], within(1e-2));
+                assertThat((double) single[1]).isCloseTo(expected[1][t], within(1e-1));
+            }
+        }
+        // a ilha separada garante pares sem caminho
+        assertThat(unreachable).isPositive();
+    }
+
+    @Test
+    void negativeNodeIndexesLeaveTheirRowOrColumnUnreachable() {
+        RoadGraph graph = randomGraph(20, 5L);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        float[] seconds = new float[4];
+        float[] meters = new float[4];
+
+        // -1 = ponto que não encaixou em nenhum nó
+        hierarchy.manyToMany(new int[] {0, -1}, new int[] {0, -1}, seconds, meters);
+
+        assertThat(seconds).containsExactly(0f, INF, INF, INF);
+    }
+
+    @Test
+    void loadedGraphAnswersLikeTheOneInMemory() throws IOException {
+        RoadGraph graph = randomGraph(30, 7L);
+        Path file = dir.resolve("grafo.ddrg");
+        Files.write(file, encode(graph));
+
+        RoadGraph loaded = RoadGraph.load(file);
+
+        assertThat(loaded.getNodeCount()).isEqualTo(graph.getNodeCount());
+        assertThat(loaded.getEdgeCount()).isEqualTo(graph.getEdgeCount());
+        assertThat(loaded.lat(3)).isCloseTo(graph.lat(3), within(1e-6));
+        ContractionHierarchy fromFile = ContractionHierarchy.build(loaded);
+        ContractionHierarchy inMemory = ContractionHierarchy.build(graph);
+        for (int t = 0; t < graph.getNodeCount(); t++) {
+            assertThat(fromFile.route(0, t)).containsExactly(inMemory.route(0, t));
+        }
+    }
+
+    @Test
+    void shortOrCorruptGraphFilesAreRejected() throws IOException {
+        RoadGraph graph = randomGraph(10, 3L);
+        byte[] valid = encode(graph);
+
+        assertRejected(Arrays.copyOf(valid, 10));
+        assertRejected(Arrays.copyOf(valid, valid.length - 5));
+        assertRejected(Arrays.copyOf(valid, valid.length + 3));
+
+        byte[] badMagic = valid.clone();
+        badMagic[0] = 'X';
+        assertRejected(badMagic);
+
+        byte[] badVersion = valid.clone();
+        badVersion[7] = 9;
+        assertRejected(badVersion);
+
+        // quantidade de nós absurda no cabeçalho
+        byte[] hugeCount = valid.clone();
+        hugeCount[8] = 0x7f;
+        assertRejected(hugeCount);
+
+        // aresta apontando para um nó que não existe (destino da primeira aresta)
+        byte[] badEdge = valid.clone();
+        int firstEdge = RoadGraph.HEADER_BYTES + graph.getNodeCount() * RoadGraph.NODE_BYTES;
+        badEdge[firstEdge + 4] = 0x10;
+        assertRejected(badEdge);
+    }
+
+    private void assertRejected(byte[] content) throws IOException {
+        Path file = Files.createTempFile(dir, "grafo", ".ddrg");
+        Files.write(file, content);
+        assertThatThrownBy(() -> RoadGraph.load(file)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Grade aleatória com um quarto das arestas em mão única, mais uma ilha de dois nós
+     * sem ligação com o resto
+     */
+    private static RoadGraph randomGraph(int mainNodes, long seed) {
+        Random random = new Random(seed);
+        int n = mainNodes + 2;
+        int edges = mainNodes * 3 + 1;
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        float[] seconds = new float[edges];
+        boolean[] oneway = new boolean[edges];
+        for (int e = 0; e < edges - 1; e++) {
+            from[e] = random.nextInt(mainNodes);
+            to[e] = random.nextInt(mainNodes);
+            seconds[e] = 5 + random.nextFloat() * 120;
+            oneway[e] = random.nextInt(4) == 0;
+        }
+        from[edges - 1] = mainNodes;
+        to[edges - 1] = mainNodes + 1;
+        seconds[edges - 1] = 30;
+        return graph(n, from, to, seconds, oneway);
+    }
+
+    private static RoadGraph graph(int n, int[] from, int[] to, float[] seconds, boolean[] oneway) {
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -22.22 + i * 0.001;
+            lon[i] = -54.80 - i * 0.001;
+        }
+        float[] meters = new float[from.length];
+        byte[] flags = new byte[from.length];
+        for (int e = 0; e < from.length; e++) {
+            // ~30 km/h, com variação para que metros não sejam só proporcionais ao tempo
+            meters[e] = seconds[e] * 8.3f + (e % 7);
+            flags[e] = oneway[e] ? (byte) RoadGraph.FLAG_ONEWAY : 0;
+        }
+        return new RoadGraph(lat, lon, from, to, meters, seconds, flags);
+    }
+
+    /**
+     * {segundos, metros} do caminho mais rápido de source a cada nó, no grafo original
+     */
+    private static double[][] dijkstra(RoadGraph graph, int source) {
+        int n = graph.getNodeCount();
+        double[] seconds = new double[n];
+        double[] meters = new double[n];
+        Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+        Arrays.fill(meters, Double.POSITIVE_INFINITY);
+        seconds[source] = 0;
+        meters[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0, source});
+        while (!queue.isEmpty()) {
+            double[] top = queue.poll();
+            int node = (int) top[1];
+            if (top[0] > seconds[node]) {
+                continue;
+            }
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                int next;
+                if (graph.edgeFrom(e) == node) {
+                    next = graph.edgeTo(e);
+                } else if (graph.edgeTo(e) == node && !graph.isOneway(e)) {
+                    next = graph.edgeFrom(e);
+                } else {
+                    continue;
+                }
+                double candidate = seconds[node] + graph.edgeSeconds(e);
+                if (candidate < seconds[next]) {
+                    seconds[next] = candidate;
+                    meters[next] = meters[node] + graph.edgeMeters(e);
+                    queue.add(new double[] {candidate, next});
+                }
+            }
+        }
+        return new double[][] {seconds, meters};
+    }
+
+    private static byte[] encode(RoadGraph graph) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(RoadGraph.MAGIC);
+            out.writeInt(RoadGraph.VERSION);
+            out.writeInt(graph.getNodeCount());
+            out.writeInt(graph.getEdgeCount());
+            for (int i = 0; i < graph.getNodeCount(); i++) {
+                out.writeInt((int) Math.round(graph.lat(i) * 1e6));
+                out.writeInt((int) Math.round(graph.lon(i) * 1e6));
+            }
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                out.writeInt(graph.edgeFrom(e));
+                out.writeInt(graph.edgeTo(e));
+                out.writeFloat(graph.edgeMeters(e));
+                out.writeFloat(graph.edgeSeconds(e));
+                out.writeByte(graph.isOneway(e) ? RoadGraph.FLAG_ONEWAY : 0);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
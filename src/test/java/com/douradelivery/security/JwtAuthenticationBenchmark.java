@@ -0,0 +1,59 @@
+package com.douradelivery.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de autenticar uma requisição: o filtro antigo lia e-mail, userId e tipo com
+ * três verificações de assinatura; authenticate verifica uma vez e reaproveita o resultado.
+ *
+ * Não roda no mvn test; executar o main desta classe com o classpath de teste
+ * (mvn test-compile e depois org.openjdk.jmh.Main JwtAuthenticationBenchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtUtilTest.newJwtUtil(3_600_000);
+        token = jwtUtil.generateToken("ana@example.com", 42L, "DRIVER");
+    }
+
+    @Benchmark
+    public void parseEachClaim(Blackhole blackhole) {
+        blackhole.consume(jwtUtil.getEmailFromToken(token));
+        blackhole.consume(jwtUtil.getUserIdFromToken(token));
+        blackhole.consume(jwtUtil.getUserTypeFromToken(token));
+    }
+
+    @Benchmark
+    public JwtPrincipal authenticateCached() {
+        return jwtUtil.authenticate(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthenticationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.douradelivery.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    static final String SECRET = "segredoDeTesteComTamanhoSuficienteParaHmacSha256!!";
+
+    private JwtUtil jwtUtil;
+
+    static JwtUtil newJwtUtil(long expirationMs) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", expirationMs);
+        ReflectionTestUtils.setField(util, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(util, "cacheTtlMs", 60_000L);
+        util.init();
+        return util;
+    }
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(60_000);
+    }
+
+    @Test
+    void authenticateExposesClaimsOnPrincipal() {
+        String token = jwtUtil.generateToken("ana@example.com", 42L, "DRIVER");
+
+        JwtPrincipal principal = jwtUtil.authenticate(token);
+
+        assertThat(principal.email()).isEqualTo("ana@example.com");
+        assertThat(principal.getName()).isEqualTo("ana@example.com");
+        assertThat(principal.userId()).isEqualTo(42L);
+        assertThat(principal.userType()).isEqualTo("DRIVER");
+        assertThat(principal.isExpired(System.currentTimeMillis())).isFalse();
+    }
+
+    @Test
+    void secondAuthenticationComesFromCache() {
+        String token = jwtUtil.generateToken("ana@example.com", 42L, "DRIVER");
+
+        JwtPrincipal first = jwtUtil.authenticate(token);
+        JwtPrincipal second = jwtUtil.authenticate(token);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterOriginalWasCached() {
+        String token = jwtUtil.generateToken("ana@example.com", 42L, "CLIENT");
+        jwtUtil.authenticate(token);
+
+        // troca o último caractere da assinatura: outra chave no cache, nova verificação
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThatThrownBy(() -> jwtUtil.authenticate(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JwtUtil other = newJwtUtil(60_000);
+        ReflectionTestUtils.setField(other, "secret", SECRET.replace('s', 'x'));
+        other.init();
+        String foreign = other.generateToken("ana@example.com", 42L, "ADMIN");
+
+        assertThatThrownBy(() -> jwtUtil.authenticate(foreign)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil shortLived = newJwtUtil(-1_000);
+        String token = shortLived.generateToken("ana@example.com", 42L, "CLIENT");
+
+        assertThatThrownBy(() -> shortLived.authenticate(token)).isInstanceOf(JwtException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.BlobRepository;
+import com.douradelivery.support.InMemoryBlobStore;
+import com.douradelivery.support.RecordingTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BlobServiceTest {
+
+    private static final byte[] CONTENT = "cnh frente".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path spoolDir;
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final InMemoryBlobStore store = new InMemoryBlobStore();
+    private BlobRepository blobRepository;
+    private BlobService blobService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobRepository = mock(BlobRepository.class);
+        blobService = new BlobService(blobRepository, transactionManager, store, spoolDir);
+    }
+
+    @Test
+    void springCanBuildTheServiceFromItsConfiguration() {
+        new ApplicationContextRunner()
+            .withBean(BlobRepository.class, () -> blobRepository)
+            .withBean(PlatformTransactionManager.class, () -> transactionManager)
+            .withPropertyValues("app.upload.dir=" + spoolDir)
+            .withUserConfiguration(BlobService.class)
+            .run(context -> assertThat(context).hasNotFailed().hasSingleBean(BlobService.class));
+    }
+
+    @Test
+    void storeUploadsFirstAndThenAcquiresOneReference() throws IOException {
+        BlobService.StoredBlob blob = blobService.store(new ByteArrayInputStream(CONTENT), 1024);
+
+        verify(blobRepository, times(1)).touch(eq(blob.hash()), any());
+        verify(blobRepository, times(1)).acquire(eq(blob.hash()), eq((long) CONTENT.length), any());
+        assertThat(store.blobs.get(blob.hash())).isEqualTo(CONTENT);
+        // a renovação do updated_at e a contagem, cada uma na sua transação curta
+        assertThat(transactionManager.begins).isEqualTo(2);
+        assertThat(transactionManager.commits).isEqualTo(2);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void uploadRunsOutsideAnyTransaction() throws IOException {
+        List<Boolean> putInsideTransaction = new ArrayList<>();
+        InMemoryBlobStore observed = new InMemoryBlobStore() {
+            @Override
+            public void put(String hash, Path file) throws IOException {
+                putInsideTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+                super.put(hash, file);
+            }
+        };
+        blobService = new BlobService(blobRepository, transactionManager, observed, spoolDir);
+
+        BlobService.SpooledBlob spooled = blobService.spool(new ByteArrayInputStream(CONTENT), 1024);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> blobService.attach(spooled));
+
+        assertThat(putInsideTransaction).containsExactly(false);
+        assertThat(observed.blobs).containsKey(spooled.hash());
+    }
+
+    @Test
+    void attachJoinsTheCallerTransactionAndRollsBackWithIt() throws IOException {
+        BlobService.SpooledBlob spooled = blobService.spool(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            blobService.attach(spooled);
+            throw new IllegalStateException("falha ao gravar o documento");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // a referência foi tomada dentro da transação do chamador, que não confirmou;
+        // o único commit é o da renovação feita no spool
+        assertThat(transactionManager.begins).isEqualTo(2);
+        assertThat(transactionManager.commits).isEqualTo(1);
+        assertThat(transactionManager.rollbacks).isEqualTo(1);
+        // o conteúdo fica no armazenamento sem linha no banco: a compactação o registra e remove
+        assertThat(store.blobs).containsKey(spooled.hash());
+    }
+
+    @Test
+    void failedPutPropagatesTheIOExceptionTakesNoReferenceAndLeavesNoSpoolBehind() {
+        store.failPuts = true;
+
+        assertThatThrownBy(() -> blobService.store(new ByteArrayInputStream(CONTENT), 1024))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("indisponível");
+
+        verify(blobRepository, times(0)).acquire(any(), anyLong(), any());
+        assertThat(transactionManager.rollbacks).isZero();
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void spoolOverTheLimitTouchesNeitherDatabaseNorStore() {
+        assertThatThrownBy(() -> blobService.store(new ByteArrayInputStream(CONTENT), 3))
+            .isInstanceOf(IOException.class);
+
+        verify(blobRepository, times(0)).acquire(any(), anyLong(), any());
+        assertThat(transactionManager.begins).isZero();
+        assertThat(store.blobs).isEmpty();
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+}
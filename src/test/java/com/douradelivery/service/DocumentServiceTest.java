@@ -0,0 +1,117 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.User;
+import com.douradelivery.repository.BlobRepository;
+import com.douradelivery.repository.DocumentRepository;
+import com.douradelivery.repository.UserRepository;
+import com.douradelivery.support.InMemoryBlobStore;
+import com.douradelivery.support.RecordingTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final InMemoryBlobStore store = new InMemoryBlobStore();
+    private BlobRepository blobRepository;
+    private DocumentRepository documentRepository;
+    private DocumentProcessingService documentProcessingService;
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobRepository = mock(BlobRepository.class);
+        documentRepository = mock(DocumentRepository.class);
+        documentProcessingService = mock(DocumentProcessingService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        User user = new User();
+        user.setId(9L);
+        when(userRepository.findById(9L)).thenReturn(Optional.of(user));
+
+        documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(documentService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(documentService, "readCacheService", mock(ReadCacheService.class));
+        ReflectionTestUtils.setField(documentService, "documentProcessingService", documentProcessingService);
+        ReflectionTestUtils.setField(documentService, "blobService",
+                                     new BlobService(blobRepository, transactionManager, store, spoolDir));
+        ReflectionTestUtils.setField(documentService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(documentService, "maxFileBytes", 1024L);
+    }
+
+    @Test
+    void referencesAndDocumentsCommitInOneTransaction() {
+        Map<String, Object> response = documentService.uploadDocuments(9L, files());
+
+        assertThat(response.get("success")).isEqualTo(true);
+        assertThat(response.get("documentsCount")).isEqualTo(2);
+        verify(blobRepository, times(2)).acquire(any(), anyLong(), any());
+        // uma transação curta por arquivo no spool e uma só para referências e documentos
+        assertThat(transactionManager.begins).isEqualTo(3);
+        assertThat(transactionManager.commits).isEqualTo(3);
+        assertThat(store.blobs).hasSize(2);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void failedDocumentInsertRollsTheReferencesBack() {
+        when(documentRepository.saveAll(anyList())).thenThrow(new IllegalStateException("deadlock"));
+
+        Map<String, Object> response = documentService.uploadDocuments(9L, files());
+
+        assertThat(response.get("success")).isEqualTo(false);
+        // as referências foram tomadas na mesma transação que não confirmou
+        assertThat(transactionManager.begins).isEqualTo(3);
+        assertThat(transactionManager.commits).isEqualTo(2);
+        assertThat(transactionManager.rollbacks).isEqualTo(1);
+        // os arquivos ficam sem linha no banco, para a compactação
+        assertThat(store.blobs).hasSize(2);
+        assertThat(spoolDir).isEmptyDirectory();
+        verify(documentProcessingService, never()).submit(any());
+    }
+
+    @Test
+    void failedStorePutAbortsBeforeAnyDocumentIsSaved() {
+        store.failPuts = true;
+
+        Map<String, Object> response = documentService.uploadDocuments(9L, files());
+
+        assertThat(response.get("success")).isEqualTo(false);
+        // o upload falha no spool, antes da transação dos documentos
+        assertThat(transactionManager.rollbacks).isZero();
+        verify(blobRepository, never()).acquire(any(), anyLong(), any());
+        verify(documentRepository, never()).saveAll(anyList());
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    private static Map<String, MultipartFile> files() {
+        return Map.of(
+            "cnhDocument", new MockMultipartFile("cnhDocument", "cnh.jpg", "image/jpeg",
+                                                 "cnh".getBytes(StandardCharsets.UTF_8)),
+            "profilePhoto", new MockMultipartFile("profilePhoto", "perfil.jpg", "image/jpeg",
+                                                  "perfil".getBytes(StandardCharsets.UTF_8)));
+    }
+}
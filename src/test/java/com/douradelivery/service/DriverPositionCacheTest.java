@@ -0,0 +1,119 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dto.DriverLocationSnapshot;
+import com.douradelivery.model.Driver;
+import com.douradelivery.repository.DriverPositionBatchRepository;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.tracking.LastKnownPosition;
+import com.douradelivery.tracking.TelemetryPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DriverPositionCacheTest {
+
+    private static final double LAT = -22.2210;
+    private static final double LON = -54.8056;
+    private static final long NOW = System.currentTimeMillis();
+
+    private DriverPositionBatchRepository batchRepository;
+    private DriverLocationService driverLocationService;
+    private DriverPositionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        DriverRepository driverRepository = mock(DriverRepository.class);
+        when(driverRepository.findLocationSnapshots()).thenReturn(List.of(snapshot(1L), snapshot(2L)));
+        driverLocationService = new DriverLocationService(driverRepository);
+        driverLocationService.resync();
+
+        batchRepository = mock(DriverPositionBatchRepository.class);
+        cache = new DriverPositionCache(driverLocationService, batchRepository);
+    }
+
+    @Test
+    void readsComeFromTheDispatchIndex() {
+        TelemetryPoint point = new TelemetryPoint(1L, LAT + 0.01, LON, 35.0, 90.0, 4.0, NOW + 5_000);
+        driverLocationService.onTelemetry(point);
+        cache.onTelemetry(point);
+
+        LastKnownPosition position = cache.get(1L);
+
+        assertThat(position).isEqualTo(new LastKnownPosition(1L, LAT + 0.01, LON, 35.0, 90.0, NOW + 5_000));
+        assertThat(driverLocationService.getPosition(1L).lat()).isEqualTo(position.lat());
+        assertThat(cache.snapshot().positions()).hasSize(2).contains(position);
+    }
+
+    @Test
+    void flushWritesTheNewestPositionOfDriversWithTelemetryOnly() {
+        send(1L, LAT + 0.01, NOW + 5_000);
+        send(1L, LAT + 0.02, NOW + 6_000);
+        // fora do índice: nada a gravar
+        send(9L, LAT, NOW + 6_000);
+
+        cache.flush();
+
+        List<LastKnownPosition> written = written(1).get(0);
+        assertThat(written).singleElement().satisfies(position -> {
+            assertThat(position.driverId()).isEqualTo(1L);
+            assertThat(position.lat()).isEqualTo(LAT + 0.02);
+        });
+        cache.flush();
+        verify(batchRepository, times(1)).updatePositions(any());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithTheLatestPosition() {
+        send(2L, LAT + 0.01, NOW + 5_000);
+        doThrow(new IllegalStateException("banco fora")).doNothing().when(batchRepository).updatePositions(any());
+
+        cache.flush();
+        send(2L, LAT + 0.03, NOW + 7_000);
+        cache.flush();
+
+        assertThat(written(2).get(1)).singleElement()
+            .satisfies(position -> assertThat(position.lat()).isEqualTo(LAT + 0.03));
+    }
+
+    @Test
+    void nothingToFlushDoesNotTouchTheDatabase() {
+        cache.flush();
+
+        verify(batchRepository, never()).updatePositions(any());
+    }
+
+    private void send(long driverId, double lat, long timestampMillis) {
+        TelemetryPoint point = new TelemetryPoint(driverId, lat, LON, Double.NaN, Double.NaN, Double.NaN,
+                                                  timestampMillis);
+        driverLocationService.onTelemetry(point);
+        cache.onTelemetry(point);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<LastKnownPosition>> written(int calls) {
+        ArgumentCaptor<Collection<LastKnownPosition>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(batchRepository, times(calls)).updatePositions(captor.capture());
+        List<List<LastKnownPosition>> batches = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batches.add(List.copyOf(batch)));
+        return batches;
+    }
+
+    private static DriverLocationSnapshot snapshot(long driverId) {
+        return new DriverLocationSnapshot(driverId, LAT, LON, Driver.VehicleType.MOTO, true, 20.0, 1.0,
+                                          LocalDateTime.now().minusMinutes(5), 0.0, 0.0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.douradelivery.service;
+
+import com.douradelivery.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileDownloadServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    private FileDownloadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BlobService blobService = mock(BlobService.class);
+        DocumentRepository documentRepository = mock(DocumentRepository.class);
+        when(blobService.size(HASH)).thenReturn(42L);
+        when(documentRepository.existsByOwnerEmailAndHash(anyString(), anyString())).thenReturn(true);
+        service = new FileDownloadService(blobService, documentRepository);
+    }
+
+    @Test
+    void imagesAndPdfAreServedInline() throws Exception {
+        FileDownloadService.DownloadableFile jpeg = service.resolve(HASH + ".jpg", "a@example.com", false);
+        FileDownloadService.DownloadableFile pdf = service.resolve(HASH + ".pdf", "a@example.com", false);
+
+        assertThat(jpeg.mediaType()).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(jpeg.inline()).isTrue();
+        assertThat(pdf.mediaType()).isEqualTo(MediaType.APPLICATION_PDF);
+        assertThat(pdf.inline()).isTrue();
+    }
+
+    @Test
+    void activeContentExtensionsAreDownloadedAsOctetStream() throws Exception {
+        for (String extension : new String[] {"html", "htm", "svg", "xml", "js"}) {
+            FileDownloadService.DownloadableFile file = service.resolve(HASH + "." + extension, "a@example.com", false);
+
+            assertThat(file.mediaType()).as(extension).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+            assertThat(file.inline()).as(extension).isFalse();
+        }
+    }
+
+    @Test
+    void missingExtensionIsAnAttachment() throws Exception {
+        FileDownloadService.DownloadableFile file = service.resolve(HASH, "a@example.com", false);
+
+        assertThat(file.mediaType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(file.inline()).isFalse();
+    }
+}
@@ -0,0 +1,111 @@
+package com.douradelivery.service;
+
+import com.douradelivery.model.Driver;
+import com.douradelivery.model.Order;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mil entregadores aceitando o mesmo pedido ao mesmo tempo, espalhados por quatro
+ * "instâncias" (tabelas de reivindicação separadas) que compartilham o mesmo banco.
+ * O banco é simulado com o mesmo contrato do UPDATE condicional: só uma troca NEW → ASSIGNED.
+ */
+class OrderClaimServiceConcurrencyTest {
+
+    private static final long ORDER_ID = 7L;
+    private static final int CLAIMERS = 1000;
+    private static final int INSTANCES = 4;
+
+    private final AtomicReference<Long> winner = new AtomicReference<>();
+    private final AtomicInteger conditionalUpdates = new AtomicInteger();
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final DriverRepository driverRepository = mock(DriverRepository.class);
+    private final DriverLoadService driverLoadService = mock(DriverLoadService.class);
+    private final OrderEventService orderEventService = mock(OrderEventService.class);
+
+    @Test
+    void exactlyOneOfAThousandConcurrentClaimersWins() throws Exception {
+        when(driverRepository.existsById(anyLong())).thenReturn(true);
+        when(orderRepository.findById(ORDER_ID)).thenAnswer(invocation -> Optional.of(currentOrder()));
+        when(orderRepository.claimIfNew(eq(ORDER_ID), anyLong(), any())).thenAnswer(invocation -> {
+            conditionalUpdates.incrementAndGet();
+            return winner.compareAndSet(null, invocation.getArgument(1)) ? 1 : 0;
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        List<OrderClaimService> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            instances.add(new OrderClaimService(orderRepository, driverRepository, driverLoadService,
+                                                orderEventService, transactionManager, 64, 5_000, 60_000));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderClaimService.ClaimResult>> results = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS; i++) {
+            long driverId = i + 1;
+            OrderClaimService instance = instances.get(i % INSTANCES);
+            results.add(pool.submit(() -> {
+                start.await();
+                return instance.claim(ORDER_ID, driverId);
+            }));
+        }
+        start.countDown();
+
+        Map<OrderClaimService.ClaimResult, Integer> counts = new ConcurrentHashMap<>();
+        for (Future<OrderClaimService.ClaimResult> result : results) {
+            counts.merge(result.get(30, TimeUnit.SECONDS), 1, Integer::sum);
+        }
+        pool.shutdown();
+
+        assertThat(counts).containsEntry(OrderClaimService.ClaimResult.CLAIMED, 1)
+                          .containsEntry(OrderClaimService.ClaimResult.TAKEN, CLAIMERS - 1)
+                          .hasSize(2);
+        assertThat(winner.get()).isNotNull();
+        // a tabela em memória deixa no máximo um candidato por instância chegar ao banco
+        assertThat(conditionalUpdates.get()).isBetween(1, INSTANCES);
+        verify(orderEventService, times(1)).record(any(), any(), eq(Order.OrderStatus.NEW), any());
+    }
+
+    private Order currentOrder() {
+        Long driverId = winner.get();
+        Driver driver = null;
+        if (driverId != null) {
+            driver = new Driver();
+            driver.setId(driverId);
+        }
+        return Order.builder()
+            .id(ORDER_ID)
+            .status(driverId == null ? Order.OrderStatus.NEW : Order.OrderStatus.ASSIGNED)
+            .assignedDriver(driver)
+            .build();
+    }
+}
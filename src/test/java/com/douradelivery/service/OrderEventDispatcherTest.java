@@ -0,0 +1,110 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventHandler;
+import com.douradelivery.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderEventDispatcherTest {
+
+    private final List<OrderEventHandler> handlers = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<OrderEventHandler> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> handlers.stream());
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new OrderEventDispatcher(provider, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 1L);
+    }
+
+    @Test
+    void retriesOnlyTheHandlerThatFailed() {
+        RecordingHandler healthy = new RecordingHandler(false, 0);
+        RecordingHandler flaky = new RecordingHandler(false, 2);
+        handlers.addAll(List.of(healthy, flaky));
+
+        dispatcher.dispatch(event());
+
+        assertThat(healthy.calls).isEqualTo(1);
+        assertThat(flaky.calls).isEqualTo(3);
+        assertThat(meterRegistry.counter("orders.events.consumed", "type", "ASSIGNED").count()).isEqualTo(1);
+    }
+
+    @Test
+    void exhaustedRetriesPropagateSoTheTransportCanRedeliver() {
+        RecordingHandler broken = new RecordingHandler(false, Integer.MAX_VALUE);
+        handlers.add(broken);
+
+        assertThatThrownBy(() -> dispatcher.dispatch(event()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("RecordingHandler");
+        assertThat(broken.calls).isEqualTo(3);
+        assertThat(meterRegistry.counter("orders.events.consumed", "type", "ASSIGNED").count()).isZero();
+    }
+
+    @Test
+    void consumerGroupSelectsSharedOrPerInstanceHandlers() {
+        RecordingHandler shared = new RecordingHandler(false, 0);
+        RecordingHandler local = new RecordingHandler(true, 0);
+        handlers.addAll(List.of(shared, local));
+
+        dispatcher.dispatch(event(), false);
+        assertThat(shared.calls).isEqualTo(1);
+        assertThat(local.calls).isZero();
+
+        dispatcher.dispatch(event(), true);
+        assertThat(shared.calls).isEqualTo(1);
+        assertThat(local.calls).isEqualTo(1);
+
+        // transporte em memória: todos
+        dispatcher.dispatch(event());
+        assertThat(shared.calls).isEqualTo(2);
+        assertThat(local.calls).isEqualTo(2);
+    }
+
+    static OrderEvent event() {
+        return new OrderEvent(7L, OrderEvent.Type.ASSIGNED, 42L, 1L, Order.OrderStatus.ASSIGNED, Order.OrderStatus.NEW,
+            3L, null, null, Order.Priority.NORMAL, -22.2, -54.8, -22.3, -54.9, 1, 1, 0L);
+    }
+
+    private static final class RecordingHandler implements OrderEventHandler {
+        private final boolean perInstance;
+        private final int failures;
+        int calls;
+
+        RecordingHandler(boolean perInstance, int failures) {
+            this.perInstance = perInstance;
+            this.failures = failures;
+        }
+
+        @Override
+        public void onOrderEvent(OrderEvent event) {
+            calls++;
+            if (calls <= failures) {
+                throw new IllegalStateException("falha " + calls);
+            }
+        }
+
+        @Override
+        public boolean perInstance() {
+            return perInstance;
+        }
+    }
+}
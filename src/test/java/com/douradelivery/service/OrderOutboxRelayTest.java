@@ -0,0 +1,124 @@
+package com.douradelivery.service;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.events.OrderEventPublisher;
+import com.douradelivery.model.OrderOutboxEvent;
+import com.douradelivery.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderOutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TrackingTransactionManager transactionManager = new TrackingTransactionManager();
+    private OrderOutboxRepository outboxRepository;
+    private OrderEventPublisher publisher;
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(OrderOutboxRepository.class);
+        publisher = mock(OrderEventPublisher.class);
+        relay = new OrderOutboxRelay(outboxRepository, publisher, objectMapper, transactionManager,
+                                     new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "claimMs", 60000L);
+    }
+
+    @Test
+    void publishesOutsideTheClaimTransactionThenMarksPublished() throws Exception {
+        when(outboxRepository.lockClaimable(any(), anyInt())).thenReturn(rows(1L, 2L));
+        List<Boolean> transactionActiveDuringPublish = new ArrayList<>();
+        doAnswer(invocation -> transactionActiveDuringPublish.add(transactionManager.active))
+            .when(publisher).publish(anyList());
+
+        relay.relay();
+
+        assertThat(transactionActiveDuringPublish).containsExactly(false);
+        verify(outboxRepository).claim(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxRepository).markPublished(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxRepository, never()).releaseClaims(anyList());
+        assertThat(transactionManager.commits).isEqualTo(2);
+    }
+
+    @Test
+    void failedPublishReleasesTheClaimWithoutMarking() throws Exception {
+        when(outboxRepository.lockClaimable(any(), anyInt())).thenReturn(rows(5L));
+        doThrow(new IllegalStateException("broker fora")).when(publisher).publish(anyList());
+
+        relay.relay();
+
+        verify(outboxRepository).releaseClaims(List.of(5L));
+        verify(outboxRepository, never()).markPublished(anyList(), any());
+    }
+
+    @Test
+    void nothingClaimableDoesNotPublish() {
+        when(outboxRepository.lockClaimable(any(), anyInt())).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(publisher, never()).publish(anyList());
+        verify(outboxRepository, never()).claim(anyList(), any());
+    }
+
+    private List<OrderOutboxEvent> rows(Long... ids) throws Exception {
+        List<OrderOutboxEvent> rows = new ArrayList<>();
+        for (Long id : ids) {
+            OrderEvent event = OrderEventDispatcherTest.event();
+            rows.add(OrderOutboxEvent.builder()
+                .id(id)
+                .orderId(event.orderId())
+                .eventType(event.type().name())
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(LocalDateTime.now())
+                .build());
+        }
+        return rows;
+    }
+
+    private static final class TrackingTransactionManager implements PlatformTransactionManager {
+        boolean active;
+        int commits;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            active = true;
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            active = false;
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            active = false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dto.RouteResponse;
+import com.douradelivery.model.Driver;
+import com.douradelivery.model.Order;
+import com.douradelivery.model.Route;
+import com.douradelivery.model.User;
+import com.douradelivery.repository.DriverRepository;
+import com.douradelivery.repository.OrderRepository;
+import com.douradelivery.repository.RouteRepository;
+import com.douradelivery.routing.HaversineDistanceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Invariantes do ajuste incremental de RoutingService.repairRoute sobre a lista da rota,
+ * que o @OrderColumn grava como sequence_order
+ */
+class RouteRepairTest {
+
+    private static final long DRIVER_ID = 3L;
+
+    private OrderRepository orderRepository;
+    private RouteRepository routeRepository;
+    private RoutingService routingService;
+    private ReadCacheService readCacheService;
+    private Driver driver;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        routeRepository = mock(RouteRepository.class);
+        readCacheService = mock(ReadCacheService.class);
+        DistanceService distanceService = mock(DistanceService.class);
+        HaversineDistanceProvider haversine = new HaversineDistanceProvider(30);
+        when(distanceService.buildMatrix(any(), any(), any(), any())).thenAnswer(invocation ->
+            haversine.matrix(invocation.getArgument(0), invocation.getArgument(1),
+                             invocation.getArgument(2), invocation.getArgument(3)));
+        when(distanceService.buildPairwise(any(), any(), any(), any())).thenAnswer(invocation ->
+            haversine.pairwise(invocation.getArgument(0), invocation.getArgument(1),
+                               invocation.getArgument(2), invocation.getArgument(3)));
+        when(routeRepository.save(any(Route.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        routingService = new RoutingService(orderRepository, mock(DriverRepository.class), routeRepository,
+            distanceService, mock(DriverLoadService.class), mock(OrderEventService.class),
+            mock(DriverLocationService.class), readCacheService);
+        ReflectionTestUtils.setField(routingService, "serviceTimeSeconds", 120.0);
+        ReflectionTestUtils.setField(routingService, "incrementalMaxPasses", 50);
+        ReflectionTestUtils.setField(routingService, "incrementalTimeBudgetMs", 1000L);
+
+        driver = Driver.builder().id(DRIVER_ID).currentLat(-22.22).currentLon(-54.80).build();
+    }
+
+    @Test
+    void repairClosesGapsDropsStaleOrdersAndKeepsStartedOrdersFirst() {
+        Order delivered = order(1, Order.OrderStatus.DELIVERED, driver);
+        Order picked = order(2, Order.OrderStatus.PICKED, driver);
+        Order assigned = order(3, Order.OrderStatus.ASSIGNED, driver);
+        Order canceled = order(4, Order.OrderStatus.CANCELED, driver);
+        Order reassigned = order(5, Order.OrderStatus.ASSIGNED, Driver.builder().id(99L).build());
+        Order incoming = order(6, Order.OrderStatus.ASSIGNED, driver);
+        // null = buraco deixado no sequence_order por um pedido que saiu da rota
+        Route route = route(delivered, null, picked, assigned, canceled, reassigned);
+        givenRoute(route, incoming);
+
+        Route repaired = routingService.repairRoute(DRIVER_ID, false);
+
+        List<Order> orders = repaired.getOrders();
+        assertThat(orders).doesNotContainNull();
+        assertThat(orders).extracting(Order::getId).containsExactlyInAnyOrder(1L, 2L, 3L, 6L);
+        // coletados e entregues primeiro, na ordem em que estavam
+        assertThat(orders.subList(0, 2)).containsExactly(delivered, picked);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getRoute()).isSameAs(repaired));
+        assertThat(canceled.getRoute()).isNull();
+        assertThat(reassigned.getRoute()).isNull();
+        // quem entrou ou saiu da rota tem outro routeId no cache de leitura
+        verify(readCacheService).evictOrder(4L, DRIVER_ID);
+        verify(readCacheService).evictOrder(5L, DRIVER_ID);
+        verify(readCacheService).evictOrder(6L, DRIVER_ID);
+        verify(readCacheService, never()).evictOrder(3L, DRIVER_ID);
+    }
+
+    @Test
+    void everyRepairRewritesAContiguousSequence() {
+        List<Order> current = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            current.add(order(id, Order.OrderStatus.ASSIGNED, driver));
+        }
+        Route route = route(current.toArray(new Order[0]));
+        long nextId = 7;
+        for (int round = 0; round < 5; round++) {
+            // sai um pedido do meio (cancelado) e chega um novo
+            Order leaving = route.getOrders().get(1 + round % (route.getOrders().size() - 1));
+            leaving.setStatus(Order.OrderStatus.CANCELED);
+            Order arriving = order(nextId++, Order.OrderStatus.ASSIGNED, driver);
+            givenRoute(route, arriving);
+
+            route = routingService.repairRoute(DRIVER_ID, false);
+
+            assertThat(route.getOrders()).doesNotContainNull().hasSize(6).contains(arriving).doesNotContain(leaving);
+            assertThat(route.getOrders()).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void nothingChangedAndNotForcedLeavesTheRouteAlone() {
+        Route route = route(order(1, Order.OrderStatus.ASSIGNED, driver), order(2, Order.OrderStatus.PICKED, driver));
+        givenRoute(route);
+
+        assertThat(routingService.repairRoute(DRIVER_ID, false)).isNull();
+        verify(routeRepository, never()).save(any());
+    }
+
+    @Test
+    void activeRoutesSkipGapsInTheSequence() {
+        driver.setUser(User.builder().name("Entregador").build());
+        Route route = route(order(1, Order.OrderStatus.PICKED, driver), null, order(2, Order.OrderStatus.ASSIGNED, driver));
+        when(routeRepository.findByStatusIn(anyList())).thenReturn(List.of(route));
+
+        List<RouteResponse> routes = routingService.getActiveRoutes();
+
+        assertThat(routes).singleElement().satisfies(response ->
+            assertThat(response.getOrderIds()).containsExactly(1L, 2L));
+    }
+
+    private void givenRoute(Route route, Order... incoming) {
+        when(orderRepository.findAssignedOutsideRoute(DRIVER_ID)).thenReturn(new ArrayList<>(Arrays.asList(incoming)));
+        when(routeRepository.findFirstByDriverIdAndStatusInOrderByIdDesc(eq(DRIVER_ID), anyList()))
+            .thenReturn(Optional.of(route));
+    }
+
+    private Route route(Order... orders) {
+        Route route = Route.builder().id(40L).driver(driver).build();
+        for (Order order : orders) {
+            route.getOrders().add(order);
+            if (order != null) {
+                order.setRoute(route);
+            }
+        }
+        return route;
+    }
+
+    private static Order order(long id, Order.OrderStatus status, Driver assignedDriver) {
+        double offset = id * 0.003;
+        return Order.builder()
+            .id(id)
+            .status(status)
+            .assignedDriver(assignedDriver)
+            .priority(Order.Priority.NORMAL)
+            .originLat(-22.22 + offset)
+            .originLon(-54.80 - offset)
+            .destinationLat(-22.23 + offset)
+            .destinationLon(-54.81 + offset)
+            .weight(1)
+            .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.douradelivery.service;
+
+import com.douradelivery.dto.TelemetryRequest;
+import com.douradelivery.tracking.TelemetryBatchCodec;
+import com.douradelivery.tracking.TelemetryListener;
+import com.douradelivery.tracking.TelemetryPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TelemetryIngestionServiceTest {
+
+    private static final long DRIVER_ID = 12L;
+
+    private final List<TelemetryPoint> seen = new CopyOnWriteArrayList<>();
+    private TelemetryIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        TelemetryListener listener = seen::add;
+        service = new TelemetryIngestionService(List.of(), List.of(listener), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(service, "writerThreads", 1);
+        ReflectionTestUtils.setField(service, "maxBatchPoints", 100);
+        ReflectionTestUtils.setField(service, "maxFutureSkewMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxAgeMs", 3_600_000L);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void singlePointIsAttributedToTheAuthenticatedDriver() {
+        assertThat(service.ingest(DRIVER_ID, request(System.currentTimeMillis()))).isTrue();
+
+        assertThat(seen).singleElement().extracting(TelemetryPoint::driverId).isEqualTo(DRIVER_ID);
+    }
+
+    @Test
+    void pointFromTheFutureIsRejected() {
+        long future = System.currentTimeMillis() + 10 * 60_000;
+
+        assertThatThrownBy(() -> service.ingest(DRIVER_ID, request(future)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void pointOlderThanMaxAgeIsRejected() {
+        long old = System.currentTimeMillis() - 2 * 3_600_000;
+
+        assertThatThrownBy(() -> service.ingest(DRIVER_ID, request(old)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void binaryBatchOfAnotherDriverIsRejected() {
+        long now = System.currentTimeMillis();
+        var body = TelemetryBatchCodec.encode(99L, List.of(point(99L, now)));
+
+        assertThatThrownBy(() -> service.ingestBinary(DRIVER_ID, body))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("outro entregador");
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void binaryBatchWithSkewedPointIsRejectedWhole() {
+        long now = System.currentTimeMillis();
+        var body = TelemetryBatchCodec.encode(DRIVER_ID,
+            List.of(point(DRIVER_ID, now - 1_000), point(DRIVER_ID, now + 10 * 60_000)));
+
+        assertThatThrownBy(() -> service.ingestBinary(DRIVER_ID, body)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void binaryBatchOfTheAuthenticatedDriverIsAccepted() {
+        long now = System.currentTimeMillis();
+        var body = TelemetryBatchCodec.encode(DRIVER_ID,
+            List.of(point(DRIVER_ID, now - 2_000), point(DRIVER_ID, now - 1_000)));
+
+        assertThat(service.ingestBinary(DRIVER_ID, body)).containsExactly(2, 2);
+        assertThat(seen).hasSize(2);
+    }
+
+    private static TelemetryRequest request(long timestamp) {
+        TelemetryRequest request = new TelemetryRequest();
+        request.setLat(-22.22);
+        request.setLon(-54.80);
+        request.setTimestamp(timestamp);
+        return request;
+    }
+
+    private static TelemetryPoint point(long driverId, long timestamp) {
+        return new TelemetryPoint(driverId, -22.22, -54.80, Double.NaN, Double.NaN, Double.NaN, timestamp);
+    }
+}
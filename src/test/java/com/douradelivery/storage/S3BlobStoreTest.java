@@ -0,0 +1,114 @@
+package com.douradelivery.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3BlobStoreTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final byte[] CONTENT = "conteúdo do documento".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private S3StandIn s3;
+    private S3Client client;
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new S3StandIn();
+        client = S3Client.builder()
+            .region(Region.US_EAST_1)
+            .endpointOverride(s3.endpoint())
+            .forcePathStyle(true)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+            .build();
+        store = new S3BlobStore(client, "douradelivery", "blobs/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        s3.close();
+    }
+
+    @Test
+    void putStoresUnderThePrefixedKeyAndConsumesTheFile() throws IOException {
+        Path file = spooled(CONTENT);
+
+        store.put(HASH, file);
+
+        assertThat(file).doesNotExist();
+        assertThat(s3.objects).containsKey("douradelivery/blobs/" + BlobStore.key(HASH));
+        assertThat(store.exists(HASH)).isTrue();
+        assertThat(store.size(HASH)).isEqualTo(CONTENT.length);
+        assertThat(S3StandIn.readAll(store.open(HASH))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void secondPutOfTheSameContentSkipsTheUpload() throws IOException {
+        store.put(HASH, spooled(CONTENT));
+        Path again = spooled(CONTENT);
+
+        store.put(HASH, again);
+
+        assertThat(s3.puts.get()).isEqualTo(1);
+        assertThat(again).doesNotExist();
+    }
+
+    @Test
+    void rangeReadReturnsOnlyTheRequestedBytes() throws IOException {
+        store.put(HASH, spooled(CONTENT));
+
+        byte[] part = S3StandIn.readAll(store.open(HASH, 3, 5));
+
+        assertThat(part).isEqualTo(Arrays.copyOfRange(CONTENT, 3, 8));
+    }
+
+    @Test
+    void missingBlobIsReportedLikeTheLocalStore() throws IOException {
+        assertThat(store.exists(HASH)).isFalse();
+        assertThat(store.size(HASH)).isEqualTo(-1);
+        assertThatThrownBy(() -> store.open(HASH)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void scanListsOnlyValidHashesAndDeleteRemoves() throws IOException {
+        String other = "cd".repeat(32);
+        store.put(HASH, spooled(CONTENT));
+        store.put(other, spooled("outro".getBytes(StandardCharsets.UTF_8)));
+        s3.objects.put("douradelivery/blobs/lixo.txt", new S3StandIn.StoredObject(new byte[1], Instant.now()));
+
+        List<String> scanned = new ArrayList<>();
+        store.scan(info -> scanned.add(info.hash()));
+        assertThat(scanned).containsExactlyInAnyOrder(HASH, other);
+
+        assertThat(store.delete(HASH)).isTrue();
+        assertThat(store.exists(HASH)).isFalse();
+        assertThat(store.exists(other)).isTrue();
+    }
+
+    private Path spooled(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, ".upload-", ".tmp"), content);
+    }
+}
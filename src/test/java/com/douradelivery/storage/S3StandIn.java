@@ -0,0 +1,229 @@
+package com.douradelivery.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor S3 mínimo em processo (path-style, sem autenticação) para testar o S3BlobStore
+ * com o cliente real do SDK: PUT, HEAD, GET com Range, DELETE e ListObjectsV2.
+ */
+final class S3StandIn implements AutoCloseable {
+
+    record StoredObject(byte[] content, Instant lastModified) {
+    }
+
+    // "bucket/chave" -> objeto
+    final Map<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+    final AtomicInteger puts = new AtomicInteger();
+
+    private final HttpServer server;
+
+    S3StandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8).substring(1);
+            int slash = path.indexOf('/');
+            String bucket = slash < 0 ? path : path.substring(0, slash);
+            String key = slash < 0 ? "" : path.substring(slash + 1);
+            String method = exchange.getRequestMethod();
+
+            if (key.isEmpty()) {
+                if ("GET".equals(method)) {
+                    list(exchange, bucket, query(exchange).getOrDefault("prefix", ""));
+                } else {
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                return;
+            }
+            switch (method) {
+                case "PUT" -> put(exchange, bucket + "/" + key);
+                case "HEAD" -> head(exchange, objects.get(bucket + "/" + key));
+                case "GET" -> get(exchange, objects.get(bucket + "/" + key), key);
+                case "DELETE" -> {
+                    objects.remove(bucket + "/" + key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String objectKey) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha != null && sha.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+        objects.put(objectKey, new StoredObject(body, Instant.now()));
+        puts.incrementAndGet();
+        exchange.getResponseHeaders().set("ETag", etag(body));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void head(HttpExchange exchange, StoredObject object) throws IOException {
+        if (object == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Length", Long.toString(object.content().length));
+        exchange.getResponseHeaders().set("ETag", etag(object.content()));
+        exchange.getResponseHeaders().set("Last-Modified", httpDate(object.lastModified()));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, StoredObject object, String key) throws IOException {
+        if (object == null) {
+            byte[] error = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>NoSuchKey</Code>"
+                + "<Message>The specified key does not exist.</Message><Key>" + key + "</Key></Error>")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(404, error.length);
+            exchange.getResponseBody().write(error);
+            return;
+        }
+        byte[] content = object.content();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        exchange.getResponseHeaders().set("Last-Modified", httpDate(object.lastModified()));
+        if (range == null) {
+            exchange.getResponseHeaders().set("ETag", etag(content));
+            send(exchange, 200, content);
+            return;
+        }
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = Math.min(Integer.parseInt(bounds[1]), content.length - 1);
+        exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        send(exchange, 206, Arrays.copyOfRange(content, start, end + 1));
+    }
+
+    private void list(HttpExchange exchange, String bucket, String prefix) throws IOException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+            .append("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+            .append("<Name>").append(bucket).append("</Name><Prefix>").append(prefix).append("</Prefix>")
+            .append("<MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>");
+        int count = 0;
+        for (Map.Entry<String, StoredObject> entry : objects.entrySet()) {
+            String key = entry.getKey().substring(bucket.length() + 1);
+            if (!entry.getKey().startsWith(bucket + "/") || !key.startsWith(prefix)) {
+                continue;
+            }
+            count++;
+            xml.append("<Contents><Key>").append(key).append("</Key>")
+               .append("<LastModified>").append(DateTimeFormatter.ISO_INSTANT.format(entry.getValue().lastModified()))
+               .append("</LastModified><ETag>").append(etag(entry.getValue().content())).append("</ETag>")
+               .append("<Size>").append(entry.getValue().content().length).append("</Size>")
+               .append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        xml.append("<KeyCount>").append(count).append("</KeyCount></ListBucketResult>");
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, 200, xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Corpo "aws-chunked" do SDK (assinatura por bloco): tamanho-hex;chunk-signature=...\r\n dados \r\n
+     */
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOfCrlf(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new TreeMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    // o SDK confere o MD5 do conteúdo com o ETag no PUT e no GET completo
+    private static String etag(byte[] content) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
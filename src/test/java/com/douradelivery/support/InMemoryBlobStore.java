@@ -0,0 +1,86 @@
+package com.douradelivery.support;
+
+import com.douradelivery.storage.BlobStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * BlobStore em memória para os testes de serviço; conta as gravações e pode falhar no put
+ */
+public class InMemoryBlobStore implements BlobStore {
+
+    public final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+    public final AtomicInteger puts = new AtomicInteger();
+    public volatile boolean failPuts;
+
+    @Override
+    public boolean exists(String hash) {
+        return blobs.containsKey(hash);
+    }
+
+    @Override
+    public void put(String hash, Path file) throws IOException {
+        try {
+            if (failPuts) {
+                throw new IOException("armazenamento indisponível");
+            }
+            puts.incrementAndGet();
+            blobs.putIfAbsent(hash, Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return new ByteArrayInputStream(content(hash));
+    }
+
+    @Override
+    public InputStream open(String hash, long offset, long length) throws IOException {
+        byte[] content = content(hash);
+        int from = (int) Math.min(offset, content.length);
+        int to = (int) Math.min(offset + length, content.length);
+        return new ByteArrayInputStream(Arrays.copyOfRange(content, from, to));
+    }
+
+    @Override
+    public long size(String hash) {
+        byte[] content = blobs.get(hash);
+        return content != null ? content.length : -1;
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return null;
+    }
+
+    @Override
+    public boolean delete(String hash) {
+        return blobs.remove(hash) != null;
+    }
+
+    @Override
+    public void scan(Consumer<BlobInfo> visitor) {
+        blobs.forEach((hash, content) -> visitor.accept(new BlobInfo(hash, content.length, Instant.EPOCH)));
+    }
+
+    private byte[] content(String hash) throws IOException {
+        byte[] content = blobs.get(hash);
+        if (content == null) {
+            throw new NoSuchFileException(hash);
+        }
+        return content;
+    }
+}
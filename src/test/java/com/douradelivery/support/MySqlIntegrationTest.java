@@ -0,0 +1,30 @@
+package com.douradelivery.support;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base dos testes que precisam de um MySQL de verdade (SQL nativo, locks, planos de execução).
+ *
+ * O esquema vem das migrações do Flyway, como em produção. Sem Docker os testes são pulados.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    @Container
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+        // mesmo parâmetro da URL de produção: batchUpdate vira INSERT/UPDATE multi-linha
+        .withUrlParam("rewriteBatchedStatements", "true");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+}
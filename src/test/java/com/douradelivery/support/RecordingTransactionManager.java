@@ -0,0 +1,54 @@
+package com.douradelivery.support;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Gerenciador de transações sem banco, com a semântica de propagação do Spring
+ * (participação, rollback-only), que só conta inícios, commits e rollbacks.
+ */
+public class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final ThreadLocal<Object> current = new ThreadLocal<>();
+
+    public int begins;
+    public int commits;
+    public int rollbacks;
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object[] {current.get()};
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Object[]) transaction)[0] != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        begins++;
+        current.set(transaction);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        commits++;
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        rollbacks++;
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        // participante que falha: a exceção chega à transação externa, que faz o rollback
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        current.remove();
+    }
+}
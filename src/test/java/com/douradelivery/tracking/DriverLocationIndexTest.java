@@ -0,0 +1,129 @@
+package com.douradelivery.tracking;
+
+import com.douradelivery.model.Driver;
+import com.douradelivery.routing.GeoMath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DriverLocationIndexTest {
+
+    private static final double LAT = -22.2210;
+    private static final double LON = -54.8056;
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        Random random = new Random(11);
+        DriverLocationIndex index = new DriverLocationIndex();
+        for (long id = 1; id <= 500; id++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.3;
+            double lon = LON + (random.nextDouble() - 0.5) * 0.3;
+            index.upsert(position(id, lat, lon, random.nextInt(4) != 0, 50));
+        }
+        Predicate<DriverPosition> filter = DriverLocationIndex.dispatchable(null, 0, 0);
+
+        for (int query = 0; query < 50; query++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.3;
+            double lon = LON + (random.nextDouble() - 0.5) * 0.3;
+            double radius = 1 + random.nextDouble() * 10;
+
+            List<NearbyDriver> nearest = index.nearest(lat, lon, 5, radius, filter);
+
+            List<Long> expected = index.all().stream()
+                .filter(filter)
+                .filter(p -> GeoMath.haversineKm(lat, lon, p.lat(), p.lon()) <= radius)
+                .sorted(Comparator.comparingDouble(p -> GeoMath.haversineKm(lat, lon, p.lat(), p.lon())))
+                .limit(5)
+                .map(DriverPosition::driverId)
+                .toList();
+            assertThat(nearest).extracting(n -> n.position().driverId()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void withinRadiusReturnsEveryMatchSortedByDistance() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        // 1 km, 3 km e 6 km ao norte, atravessando várias células
+        index.upsert(position(1, LAT + 1 / 111.195, LON, true, 50));
+        index.upsert(position(2, LAT + 3 / 111.195, LON, true, 50));
+        index.upsert(position(3, LAT + 6 / 111.195, LON, true, 50));
+
+        List<NearbyDriver> found = index.withinRadius(LAT, LON, 4, p -> true);
+
+        assertThat(found).extracting(n -> n.position().driverId()).containsExactly(1L, 2L);
+        assertThat(found.get(0).distanceKm()).isLessThan(found.get(1).distanceKm());
+    }
+
+    @Test
+    void dispatchFilterChecksAvailabilityVehicleAndCapacity() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        index.upsert(position(1, LAT, LON, false, 50));
+        index.upsert(position(2, LAT, LON, true, 5));
+        index.upsert(new DriverPosition(3, LAT, LON, Driver.VehicleType.MOTO, true, 50, 1, 0));
+        index.upsert(position(4, LAT, LON, true, 50));
+
+        List<NearbyDriver> found =
+            index.nearest(LAT, LON, 10, 5, DriverLocationIndex.dispatchable(Driver.VehicleType.VAN, 10, 0.5));
+
+        assertThat(found).extracting(n -> n.position().driverId()).containsExactly(4L);
+    }
+
+    @Test
+    void moveRelocatesTheDriverBetweenCells() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        index.upsert(position(1, LAT, LON, true, 50));
+
+        // ~5,5 km ao sul: outra célula
+        assertThat(index.move(1, LAT - 0.05, LON, 1_000)).isTrue();
+
+        assertThat(index.withinRadius(LAT, LON, 1, p -> true)).isEmpty();
+        assertThat(index.nearest(LAT - 0.05, LON, 1, 1, p -> true))
+            .extracting(n -> n.position().driverId()).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void olderMoveIsIgnoredAndUnknownDriversAreNotIndexed() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        index.upsert(position(1, LAT, LON, true, 50));
+        index.move(1, LAT - 0.05, LON, 2_000);
+
+        index.move(1, LAT, LON, 1_000);
+
+        assertThat(index.get(1).lat()).isEqualTo(LAT - 0.05);
+        assertThat(index.move(2, LAT, LON, 3_000)).isFalse();
+        assertThat(index.get(2)).isNull();
+    }
+
+    @Test
+    void removedDriverDisappearsFromQueries() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        index.upsert(position(1, LAT, LON, true, 50));
+        index.upsert(position(2, LAT + 0.001, LON, true, 50));
+
+        index.remove(1);
+
+        assertThat(index.nearest(LAT, LON, 5, 5, p -> true)).extracting(n -> n.position().driverId())
+            .containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updateChangesTheAttributesSeenByTheFilter() {
+        DriverLocationIndex index = new DriverLocationIndex();
+        index.upsert(position(1, LAT, LON, true, 50));
+
+        index.update(1, p -> p.withAvailable(false));
+
+        assertThat(index.nearest(LAT, LON, 1, 5, DriverLocationIndex.dispatchable(null, 0, 0))).isEmpty();
+    }
+
+    private static DriverPosition position(long driverId, double lat, double lon, boolean available, double weight) {
+        return new DriverPosition(driverId, lat, lon, Driver.VehicleType.VAN, available, weight, 10, 0);
+    }
+}
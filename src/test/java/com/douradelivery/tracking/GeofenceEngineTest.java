@@ -0,0 +1,170 @@
+package com.douradelivery.tracking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeofenceEngineTest {
+
+    private static final long DRIVER_ID = 7L;
+    private static final long ORDER_ID = 70L;
+    private static final double RADIUS = 50;
+    private static final double EXIT_FACTOR = 2;
+    private static final long ENTER_DWELL = 30_000;
+    private static final long EXIT_DWELL = 60_000;
+
+    private static final double FENCE_LAT = -22.2215;
+    private static final double FENCE_LON = -54.8055;
+
+    private GeofenceEngine engine;
+    private GeofenceEngine.Fence fence;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GeofenceEngine(0.01, EXIT_FACTOR, ENTER_DWELL, EXIT_DWELL);
+        fence = new GeofenceEngine.Fence(ORDER_ID, DRIVER_ID, 1L, GeofenceEngine.Kind.DROPOFF,
+                                         FENCE_LAT, FENCE_LON, RADIUS);
+        engine.setFences(ORDER_ID, List.of(fence));
+    }
+
+    @Test
+    void arrivesOnlyAfterStayingInsideForTheEnterDwell() {
+        assertThat(at(0, 10)).isEmpty();
+        assertThat(at(20, 10)).isEmpty();
+
+        List<GeofenceEngine.GeofenceEvent> events = at(30, 10);
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.transition()).isEqualTo(GeofenceEngine.Transition.ARRIVED);
+            assertThat(event.fence()).isEqualTo(fence);
+            assertThat(event.dwellMillis()).isEqualTo(30_000);
+        });
+    }
+
+    @Test
+    void leavingTheRadiusBeforeTheDwellRestartsTheClock() {
+        at(0, 10);
+        at(10, 80);
+        at(20, 10);
+
+        assertThat(at(40, 10)).isEmpty();
+        assertThat(at(50, 10)).extracting(GeofenceEngine.GeofenceEvent::transition)
+            .containsExactly(GeofenceEngine.Transition.ARRIVED);
+    }
+
+    @Test
+    void jitterBetweenTheRadiusAndTheExitRadiusNeverDeparts() {
+        arrive();
+
+        List<GeofenceEngine.GeofenceEvent> events = new ArrayList<>();
+        // oscila entre 40 m e 95 m por dez minutos: fora do raio, mas dentro do raio de saída
+        for (int s = 40; s <= 640; s += 10) {
+            events.addAll(at(s, s % 20 == 0 ? 95 : 40));
+        }
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void departsOnlyAfterStayingOutsideForTheExitDwell() {
+        arrive();
+
+        assertThat(at(100, 150)).isEmpty();
+        assertThat(at(150, 150)).isEmpty();
+        List<GeofenceEngine.GeofenceEvent> events = at(160, 150);
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.transition()).isEqualTo(GeofenceEngine.Transition.DEPARTED);
+            // de quando entrou (0 s) até quando começou a sair (100 s)
+            assertThat(event.dwellMillis()).isEqualTo(100_000);
+        });
+    }
+
+    @Test
+    void comingBackBeforeTheExitDwellCancelsTheDeparture() {
+        arrive();
+
+        at(100, 150);
+        at(130, 80);
+        at(140, 150);
+
+        assertThat(at(190, 150)).isEmpty();
+        assertThat(at(200, 150)).singleElement().satisfies(event -> {
+            assertThat(event.transition()).isEqualTo(GeofenceEngine.Transition.DEPARTED);
+            assertThat(event.dwellMillis()).isEqualTo(140_000);
+        });
+    }
+
+    @Test
+    void arrivesAgainAfterADeparture() {
+        arrive();
+        at(100, 150);
+        at(160, 150);
+
+        at(200, 10);
+
+        assertThat(at(230, 10)).extracting(GeofenceEngine.GeofenceEvent::transition)
+            .containsExactly(GeofenceEngine.Transition.ARRIVED);
+    }
+
+    @Test
+    void otherDriversNeverTriggerTheFence() {
+        for (int s = 0; s <= 120; s += 10) {
+            assertThat(engine.onPoint(point(DRIVER_ID + 1, s, 0))).isEmpty();
+        }
+    }
+
+    @Test
+    void outOfOrderPointsAreIgnored() {
+        at(0, 10);
+        at(25, 10);
+
+        // ponto atrasado, fora do raio: não pode reiniciar a permanência
+        assertThat(at(5, 200)).isEmpty();
+        assertThat(at(30, 10)).hasSize(1);
+    }
+
+    @Test
+    void removedFenceStopsReporting() {
+        arrive();
+
+        engine.remove(ORDER_ID);
+
+        assertThat(at(100, 150)).isEmpty();
+        assertThat(at(200, 150)).isEmpty();
+        assertThat(engine.fenceCount()).isZero();
+    }
+
+    @Test
+    void fenceOnACellEdgeIsSeenFromTheNeighbouringCell() {
+        // cerca a 5 m da borda sul da sua célula; o entregador chega pela célula de baixo
+        GeofenceEngine.Fence edge = new GeofenceEngine.Fence(ORDER_ID + 1, DRIVER_ID, 1L, GeofenceEngine.Kind.PICKUP,
+                                                             -22.19995, FENCE_LON, RADIUS);
+        engine.setFences(ORDER_ID + 1, List.of(edge));
+        double lat = -22.19995 - 30 / 111_195.0;
+
+        engine.onPoint(new TelemetryPoint(DRIVER_ID, lat, FENCE_LON, Double.NaN, Double.NaN, Double.NaN, 0));
+        List<GeofenceEngine.GeofenceEvent> events =
+            engine.onPoint(new TelemetryPoint(DRIVER_ID, lat, FENCE_LON, Double.NaN, Double.NaN, Double.NaN, 30_000));
+
+        assertThat(events).extracting(GeofenceEngine.GeofenceEvent::fence).containsExactly(edge);
+    }
+
+    private void arrive() {
+        at(0, 10);
+        assertThat(at(30, 10)).hasSize(1);
+    }
+
+    private List<GeofenceEngine.GeofenceEvent> at(int seconds, double metersNorth) {
+        return engine.onPoint(point(DRIVER_ID, seconds, metersNorth));
+    }
+
+    private static TelemetryPoint point(long driverId, int seconds, double metersNorth) {
+        return new TelemetryPoint(driverId, FENCE_LAT + metersNorth / 111_195.0, FENCE_LON,
+                                  Double.NaN, Double.NaN, Double.NaN, seconds * 1000L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.douradelivery.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TelemetryBatchCodecTest {
+
+    private static final long DRIVER_ID = 42L;
+
+    @Test
+    void roundTripKeepsNegativeDeltasAndEachOptionalField() {
+        double nan = Double.NaN;
+        List<TelemetryPoint> points = List.of(
+            // coordenadas negativas a partir de zero e depois para norte/leste e sul/oeste
+            new TelemetryPoint(DRIVER_ID, -22.221034, -54.805611, 32.5, 181.3, 4.2, 1_700_000_000_000L),
+            new TelemetryPoint(DRIVER_ID, -22.220001, -54.805000, 12.0, nan, nan, 1_700_000_001_000L),
+            new TelemetryPoint(DRIVER_ID, -22.230500, -54.815250, nan, 90.0, nan, 1_700_000_001_000L),
+            new TelemetryPoint(DRIVER_ID, -22.230400, -54.815300, nan, nan, 7.5, 1_700_000_005_500L),
+            new TelemetryPoint(DRIVER_ID, 10.5, 120.25, nan, nan, nan, 1_700_000_009_000L));
+
+        List<TelemetryPoint> decoded = TelemetryBatchCodec.decode(TelemetryBatchCodec.encode(DRIVER_ID, points), 10);
+
+        // igualdade de record compara double com Double.compare: NaN (campo ausente) volta NaN
+        assertThat(decoded).containsExactlyElementsOf(points);
+    }
+
+    @Test
+    void truncatedBatchIsRejected() {
+        ByteBuffer encoded = TelemetryBatchCodec.encode(DRIVER_ID, List.of(point(1_000L), point(2_000L)));
+        ByteBuffer truncated = encoded.limit(encoded.limit() - 2);
+
+        assertThatThrownBy(() -> TelemetryBatchCodec.decode(truncated, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Lote truncado");
+    }
+
+    @Test
+    void varintLongerThanSixtyFourBitsIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.put(TelemetryBatchCodec.VERSION);
+        // driverId com dez bytes de continuação e nenhum terminador
+        for (int i = 0; i < 10; i++) {
+            buffer.put((byte) 0x80);
+        }
+        buffer.put((byte) 0x01);
+        buffer.flip();
+
+        assertThatThrownBy(() -> TelemetryBatchCodec.decode(buffer, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Varint maior que 64 bits");
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        ByteBuffer encoded = TelemetryBatchCodec.encode(DRIVER_ID, List.of(point(1_000L)));
+        encoded.put(0, (byte) 2);
+
+        assertThatThrownBy(() -> TelemetryBatchCodec.decode(encoded, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Versão de lote não suportada");
+    }
+
+    @Test
+    void trailingBytesAreRejected() {
+        ByteBuffer encoded = TelemetryBatchCodec.encode(DRIVER_ID, List.of(point(1_000L)));
+        ByteBuffer padded = ByteBuffer.allocate(encoded.remaining() + 1).put(encoded).put((byte) 0).flip();
+
+        assertThatThrownBy(() -> TelemetryBatchCodec.decode(padded, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Bytes excedentes no lote");
+    }
+
+    @Test
+    void moreDeclaredPointsThanAllowedIsRejected() {
+        ByteBuffer encoded = TelemetryBatchCodec.encode(DRIVER_ID, List.of(point(1_000L), point(2_000L)));
+
+        assertThatThrownBy(() -> TelemetryBatchCodec.decode(encoded, 1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Quantidade de pontos inválida");
+    }
+
+    private static TelemetryPoint point(long timestampMillis) {
+        return new TelemetryPoint(DRIVER_ID, -22.2210, -54.8056, 30.0, 90.0, 5.0, timestampMillis);
+    }
+}
@@ -0,0 +1,33 @@
+package com.douradelivery.websocket;
+
+import com.douradelivery.events.OrderEvent;
+import com.douradelivery.model.Order;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NotificationServiceTest {
+
+    private final CoalescingMessageSender sender = mock(CoalescingMessageSender.class);
+    private final NotificationService service = new NotificationService(sender);
+
+    @Test
+    void orderEventsGoToTopicDestinations() {
+        OrderEvent assigned = new OrderEvent(1L, OrderEvent.Type.ASSIGNED, 42L, 7L, Order.OrderStatus.ASSIGNED,
+            Order.OrderStatus.NEW, 3L, null, null, Order.Priority.NORMAL, -22.2, -54.8, -22.3, -54.9, 1, 1, 0L);
+
+        service.onOrderEvent(assigned);
+
+        // /topic: no relay cada sessão assinante recebe a própria cópia
+        verify(sender).send(eq("/topic/client/7"), eq("order:42"), any(NotificationPayloads.OrderUpdate.class));
+        verify(sender).sendNow(eq("/topic/driver/3"), any(NotificationPayloads.NewOrder.class));
+        verify(sender, never()).send(startsWith("/queue/"), anyString(), any());
+        verify(sender, never()).sendNow(startsWith("/queue/"), any());
+    }
+}
@@ -0,0 +1,141 @@
+package com.douradelivery.websocket;
+
+import com.douradelivery.security.JwtPrincipal;
+import com.douradelivery.security.JwtUtil;
+import com.douradelivery.service.DriverIdentityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompAuthorizationInterceptorTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private JwtUtil jwtUtil;
+    private StompAuthorizationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "segredoDeTesteComTamanhoSuficienteParaHmacSha256!!");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(jwtUtil, "cacheTtlMs", 60_000L);
+        jwtUtil.init();
+
+        DriverIdentityService driverIdentityService = mock(DriverIdentityService.class);
+        when(driverIdentityService.driverIdOf(any())).thenAnswer(invocation -> {
+            JwtPrincipal principal = invocation.getArgument(0);
+            // usuário 20 é o entregador 3
+            return principal.userId() == 20L && "DRIVER".equals(principal.userType())
+                ? Optional.of(3L) : Optional.empty();
+        });
+        interceptor = new StompAuthorizationInterceptor(jwtUtil, driverIdentityService);
+    }
+
+    @Test
+    void connectWithATokenPutsThePrincipalOnTheSession() {
+        String token = jwtUtil.generateToken("c@x.com", 7L, "CLIENT");
+        Message<?> connect = frame(StompCommand.CONNECT, null, "Bearer " + token, null);
+
+        Message<?> result = interceptor.preSend(connect, channel);
+
+        Principal user = StompHeaderAccessor.wrap(result).getUser();
+        assertThat(user).isInstanceOf(Authentication.class);
+        assertThat(((Authentication) user).getPrincipal()).isInstanceOfSatisfying(JwtPrincipal.class,
+            principal -> assertThat(principal.userId()).isEqualTo(7L));
+    }
+
+    @Test
+    void connectWithoutOrWithABadTokenIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, null, null, null), channel))
+            .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, null, "Bearer xyz", null), channel))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void clientSubscribesOnlyToItsOwnChannel() {
+        Principal client = connected(7L, "CLIENT");
+
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/client/7", null, client), channel);
+
+        assertDenied("/topic/client/8", client);
+        assertDenied("/topic/client/7/x", client);
+        assertDenied("/topic/driver/3", client);
+        assertDenied("/topic/admin", client);
+    }
+
+    @Test
+    void driverSubscribesOnlyToItsOwnDriverChannel() {
+        Principal driver = connected(20L, "DRIVER");
+
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/driver/3", null, driver), channel);
+
+        assertDenied("/topic/driver/4", driver);
+        // o id do usuário não vale como id de cliente
+        assertDenied("/topic/client/20", driver);
+    }
+
+    @Test
+    void adminSubscribesAnywhere() {
+        Principal admin = connected(1L, "ADMIN");
+
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/admin", null, admin), channel);
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/client/7", null, admin), channel);
+    }
+
+    @Test
+    void unauthenticatedSessionCannotSubscribe() {
+        assertDenied("/topic/client/7", null);
+    }
+
+    @Test
+    void clientsCannotPublishToBrokerDestinations() {
+        Principal client = connected(7L, "CLIENT");
+
+        Message<?> spoofed = frame(StompCommand.SEND, "/topic/client/7", null, client);
+
+        assertThatThrownBy(() -> interceptor.preSend(spoofed, channel))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private Principal connected(long userId, String userType) {
+        String token = jwtUtil.generateToken("u" + userId + "@x.com", userId, userType);
+        Message<?> connected = interceptor.preSend(frame(StompCommand.CONNECT, null, "Bearer " + token, null), channel);
+        return StompHeaderAccessor.wrap(connected).getUser();
+    }
+
+    private void assertDenied(String destination, Principal user) {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, destination, null, user), channel))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static Message<?> frame(StompCommand command, String destination, String authorization, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}